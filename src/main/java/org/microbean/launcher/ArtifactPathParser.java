@@ -0,0 +1,468 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+
+import org.eclipse.aether.artifact.DefaultArtifact;
+
+import org.eclipse.aether.graph.Dependency;
+
+import org.eclipse.aether.util.artifact.JavaScopes;
+
+/**
+ * A single-pass parser of artifact paths: lists of Maven-style
+ * artifact coordinates separated by commas and/or whitespace.
+ *
+ * <p>Each coordinate has one of the following forms:</p>
+ *
+ * <ul>
+ *
+ * <li>{@code groupId:artifactId:version:packaging:classifier:scope}</li>
+ *
+ * <li>{@code groupId:artifactId:version:packaging:classifier}</li>
+ *
+ * <li>{@code groupId:artifactId:version:packaging}</li>
+ *
+ * <li>{@code groupId:artifactId:version}</li>
+ *
+ * <li>{@code groupId:artifactId} or {@code artifactId:version},
+ * distinguished by whether the second component starts with a
+ * digit</li>
+ *
+ * <li>{@code artifactId}</li>
+ *
+ * </ul>
+ *
+ * <p>Missing group identifiers are taken from a default group
+ * identifier; missing versions are {@code LATEST}; missing packaging
+ * is {@code jar}; a missing scope is {@code compile}.  Trailing empty
+ * components are ignored.</p>
+ *
+ * <p>Characters are examined once each, without regular expressions
+ * or intermediate arrays of tokens, so that a {@link Reader} over
+ * many thousands of coordinates can be {@linkplain #parse(Reader)
+ * parsed} as it is read.  Errors report where in their source the
+ * offending coordinates begin.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ClasspathExporter#produceDependencies(org.apache.commons.cli.CommandLine)
+ */
+final class ArtifactPathParser {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The maximum number of components in a coordinate.
+   */
+  private static final int MAX_COMPONENTS = 6;
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * A description of the source being parsed, used in error
+   * messages.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final String source;
+
+  /**
+   * The group identifier to use for coordinates that do not specify
+   * one.
+   *
+   * <p>This field may be {@code null}.</p>
+   */
+  private final String defaultGroupId;
+
+  /**
+   * The {@link Collection} to which parsed {@link Dependency}
+   * instances are added.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Collection<? super Dependency> dependencies;
+
+  /**
+   * The characters of the coordinate being parsed.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private char[] token;
+
+  /**
+   * The number of valid characters in {@link #token}.
+   */
+  private int tokenLength;
+
+  /**
+   * The indices within {@link #token} of each colon in the coordinate
+   * being parsed.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final int[] colons;
+
+  /**
+   * The number of colons in the coordinate being parsed.
+   */
+  private int colonCount;
+
+  /**
+   * The one-based line number of the character being examined.
+   */
+  private int line;
+
+  /**
+   * The one-based column number of the character being examined.
+   */
+  private int column;
+
+  /**
+   * The line number at which the coordinate being parsed began.
+   */
+  private int tokenLine;
+
+  /**
+   * The column number at which the coordinate being parsed began.
+   */
+  private int tokenColumn;
+
+  /**
+   * The group identifier of the last coordinate parsed, which is
+   * reused when the next coordinate has an identical one.
+   *
+   * <p>This field may be {@code null}.</p>
+   */
+  private String lastGroupId;
+
+  /**
+   * The version of the last coordinate parsed, which is reused when
+   * the next coordinate has an identical one.
+   *
+   * <p>This field may be {@code null}.</p>
+   */
+  private String lastVersion;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ArtifactPathParser}.
+   *
+   * @param source a description of the source to be parsed, used in
+   * error messages; must not be {@code null}
+   *
+   * @param defaultGroupId the group identifier to use for
+   * coordinates that do not specify one; may be {@code null}
+   *
+   * @param dependencies the {@link Collection} to which parsed {@link
+   * Dependency} instances will be added; must not be {@code null}
+   *
+   * @exception NullPointerException if {@code source} or {@code
+   * dependencies} is {@code null}
+   */
+  ArtifactPathParser(final String source, final String defaultGroupId, final Collection<? super Dependency> dependencies) {
+    super();
+    this.source = Objects.requireNonNull(source);
+    this.defaultGroupId = defaultGroupId == null || defaultGroupId.isEmpty() ? null : defaultGroupId;
+    this.dependencies = Objects.requireNonNull(dependencies);
+    this.token = new char[128];
+    this.colons = new int[MAX_COMPONENTS - 1];
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Parses the supplied artifact path.
+   *
+   * <p>Each invocation parses a separate value, such as one
+   * occurrence of a command line option, so the lines and columns in
+   * error messages are relative to the start of the supplied artifact
+   * path.</p>
+   *
+   * @param artifactPath the artifact path; may be {@code null} in
+   * which case no action will be taken
+   *
+   * @exception IllegalArgumentException if any coordinates could not
+   * be parsed
+   */
+  final void parse(final CharSequence artifactPath) {
+    if (artifactPath != null) {
+      this.line = 1;
+      this.column = 0;
+      final int length = artifactPath.length();
+      for (int i = 0; i < length; i++) {
+        this.accept(artifactPath.charAt(i));
+      }
+      this.endToken();
+    }
+  }
+
+  /**
+   * Parses the artifact path supplied by the supplied {@link Reader}
+   * as it is read.
+   *
+   * <p>In addition to commas and whitespace, a {@code #} at the
+   * start of a coordinate begins a comment that extends to the end
+   * of its line.</p>
+   *
+   * @param reader the {@link Reader}; must not be {@code null}
+   *
+   * @exception IOException if there was a problem reading
+   *
+   * @exception IllegalArgumentException if any coordinates could not
+   * be parsed
+   *
+   * @exception NullPointerException if {@code reader} is {@code null}
+   */
+  final void parse(final Reader reader) throws IOException {
+    this.line = 1;
+    this.column = 0;
+    final char[] buffer = new char[8192];
+    boolean comment = false;
+    int charsRead;
+    while ((charsRead = reader.read(buffer)) >= 0) {
+      for (int i = 0; i < charsRead; i++) {
+        final char c = buffer[i];
+        if (comment) {
+          if (c == '\n') {
+            comment = false;
+            this.accept(c);
+          }
+        } else if (c == '#' && this.tokenLength == 0) {
+          comment = true;
+        } else {
+          this.accept(c);
+        }
+      }
+    }
+    this.endToken();
+  }
+
+  /**
+   * Examines the supplied character, ending the current coordinate if
+   * it is a separator and accumulating it otherwise.
+   *
+   * @param c the character
+   *
+   * @exception IllegalArgumentException if the current coordinate
+   * ended and could not be parsed
+   */
+  private final void accept(final char c) {
+    if (c == '\n') {
+      this.endToken();
+      this.line++;
+      this.column = 0;
+      return;
+    }
+    this.column++;
+    if (c == ',' || Character.isWhitespace(c)) {
+      this.endToken();
+    } else {
+      if (this.tokenLength == 0) {
+        this.tokenLine = this.line;
+        this.tokenColumn = this.column;
+        this.colonCount = 0;
+      }
+      if (c == ':') {
+        if (this.colonCount < this.colons.length) {
+          this.colons[this.colonCount] = this.tokenLength;
+        }
+        // A seventh component is only an error if it is not empty.
+        this.colonCount++;
+      }
+      if (this.tokenLength == this.token.length) {
+        this.token = Arrays.copyOf(this.token, this.tokenLength * 2);
+      }
+      this.token[this.tokenLength++] = c;
+      if (c != ':' && this.colonCount > this.colons.length) {
+        throw this.error(this.tokenLength - 1, "more than " + MAX_COMPONENTS + " components");
+      }
+    }
+  }
+
+  /**
+   * Parses the accumulated coordinate, if any, into a {@link
+   * Dependency}, adds it to the {@link Collection} supplied at
+   * construction time, and resets this {@link ArtifactPathParser}
+   * for the next coordinate.
+   *
+   * @exception IllegalArgumentException if the coordinate could not
+   * be parsed
+   */
+  private final void endToken() {
+    if (this.tokenLength == 0) {
+      return;
+    }
+    // Ignore trailing empty components.
+    int length = this.tokenLength;
+    while (length > 0 && this.token[length - 1] == ':') {
+      length--;
+    }
+    if (length == 0) {
+      throw this.error(0, "no components");
+    }
+    int colonCount = Math.min(this.colonCount, this.colons.length);
+    while (colonCount > 0 && this.colons[colonCount - 1] >= length) {
+      colonCount--;
+    }
+
+    String groupId;
+    final String artifactId;
+    String version;
+    String packaging = "jar";
+    String classifier = null;
+    String scope = JavaScopes.COMPILE;
+    switch (colonCount) {
+    case 0:
+      // artifact
+      groupId = null;
+      artifactId = this.component(0, length, null);
+      version = "LATEST";
+      break;
+    case 1:
+      // group:artifact or artifact:version
+      final int start = this.colons[0] + 1;
+      if (start == length) {
+        throw this.error(start, "empty second component");
+      } else if (Character.isDigit(this.token[start])) {
+        groupId = null;
+        artifactId = this.component(0, this.colons[0], null);
+        version = this.lastVersion = this.component(start, length, this.lastVersion);
+      } else {
+        groupId = this.lastGroupId = this.component(0, this.colons[0], this.lastGroupId);
+        artifactId = this.component(start, length, null);
+        version = "LATEST";
+      }
+      break;
+    default:
+      // group:artifact:version[:packaging[:classifier[:scope]]]
+      groupId = this.lastGroupId = this.component(0, this.colons[0], this.lastGroupId);
+      artifactId = this.component(this.colons[0] + 1, this.colons[1], null);
+      version = this.lastVersion = this.component(this.colons[1] + 1, colonCount > 2 ? this.colons[2] : length, this.lastVersion);
+      if (colonCount > 2) {
+        packaging = this.component(this.colons[2] + 1, colonCount > 3 ? this.colons[3] : length, "jar");
+      }
+      if (colonCount > 3) {
+        classifier = this.component(this.colons[3] + 1, colonCount > 4 ? this.colons[4] : length, "");
+      }
+      if (colonCount > 4) {
+        scope = this.component(this.colons[4] + 1, length, JavaScopes.COMPILE);
+      }
+      break;
+    }
+
+    if (groupId == null || groupId.isEmpty()) {
+      if (this.defaultGroupId == null) {
+        throw this.error(0, "no groupId and no default groupId");
+      }
+      groupId = this.defaultGroupId;
+    }
+    if (artifactId.isEmpty()) {
+      throw this.error(colonCount == 0 ? 0 : this.colons[0] + 1, "empty artifactId");
+    }
+    if (version.isEmpty()) {
+      version = "LATEST";
+    }
+    if (packaging.isEmpty()) {
+      packaging = "jar";
+    }
+    if (scope.isEmpty()) {
+      scope = JavaScopes.COMPILE;
+    }
+    this.dependencies.add(new Dependency(new DefaultArtifact(groupId, artifactId, classifier, packaging, version), scope));
+    this.tokenLength = 0;
+    this.colonCount = 0;
+  }
+
+  /**
+   * Returns the component of the current coordinate between the
+   * supplied indices, reusing the supplied candidate {@link String}
+   * instead of allocating a new one if it has the same characters.
+   *
+   * @param start the index of the first character, inclusive
+   *
+   * @param end the index of the last character, exclusive
+   *
+   * @param candidate a {@link String} to return if it has the same
+   * characters; may be {@code null}
+   *
+   * @return a non-{@code null} {@link String}
+   */
+  private final String component(final int start, final int end, final String candidate) {
+    final int length = end - start;
+    if (candidate != null && candidate.length() == length) {
+      boolean equal = true;
+      for (int i = 0; i < length; i++) {
+        if (candidate.charAt(i) != this.token[start + i]) {
+          equal = false;
+          break;
+        }
+      }
+      if (equal) {
+        return candidate;
+      }
+    }
+    return new String(this.token, start, length);
+  }
+
+  /**
+   * Returns an {@link IllegalArgumentException} describing a problem
+   * with the current coordinate, and resets this {@link
+   * ArtifactPathParser}.
+   *
+   * @param offset the offset within the current coordinate of the
+   * problem
+   *
+   * @param reason a description of the problem; must not be {@code
+   * null}
+   *
+   * @return a new {@link IllegalArgumentException}
+   */
+  private final IllegalArgumentException error(final int offset, final String reason) {
+    final String gav = new String(this.token, 0, this.tokenLength);
+    final int column = this.tokenColumn + offset;
+    this.tokenLength = 0;
+    this.colonCount = 0;
+    return new IllegalArgumentException("Unrecognized artifact coordinates: " + gav +
+                                        " (" + this.source + ":" + this.tokenLine + ":" + column + "): " + reason);
+  }
+
+}
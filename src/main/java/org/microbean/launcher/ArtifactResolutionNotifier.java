@@ -0,0 +1,118 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.util.Objects;
+import java.util.Set;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import java.util.function.Consumer;
+
+import org.eclipse.aether.AbstractRepositoryListener;
+import org.eclipse.aether.RepositoryEvent;
+
+import org.eclipse.aether.artifact.Artifact;
+
+/**
+ * An {@link AbstractRepositoryListener} that turns each successful
+ * artifact resolution into an {@link ArtifactResolvedEvent} and
+ * hands it to a {@link Consumer}.
+ *
+ * <p>Project object model files, which are resolved while the
+ * dependency graph is being collected, are not reported, and each
+ * artifact is reported at most once, even if it is resolved more than
+ * once, as happens when {@linkplain HedgedArtifactResolver hedged}
+ * requests race.</p>
+ *
+ * <p>Instances of this class are safe for concurrent use by multiple
+ * threads.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ArtifactResolvedEvent
+ */
+final class ArtifactResolutionNotifier extends AbstractRepositoryListener {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The {@link Consumer} that receives {@link ArtifactResolvedEvent}s.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Consumer<? super ArtifactResolvedEvent> consumer;
+
+  /**
+   * The coordinates of artifacts that have already been reported.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Set<String> reported;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ArtifactResolutionNotifier}.
+   *
+   * @param consumer the {@link Consumer} that will receive {@link
+   * ArtifactResolvedEvent}s, possibly on several threads at once;
+   * must not be {@code null}
+   *
+   * @exception NullPointerException if {@code consumer} is {@code
+   * null}
+   */
+  ArtifactResolutionNotifier(final Consumer<? super ArtifactResolvedEvent> consumer) {
+    super();
+    this.consumer = Objects.requireNonNull(consumer);
+    this.reported = ConcurrentHashMap.newKeySet();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Reports the resolved artifact described by the supplied {@link
+   * RepositoryEvent}, if there is one and it has not already been
+   * reported.
+   *
+   * @param event the {@link RepositoryEvent} in question; may be
+   * {@code null} in which case no action will be taken
+   */
+  @Override
+  public final void artifactResolved(final RepositoryEvent event) {
+    if (event != null && (event.getExceptions() == null || event.getExceptions().isEmpty())) {
+      final Artifact artifact = event.getArtifact();
+      if (artifact != null && artifact.getFile() != null && !"pom".equals(artifact.getExtension()) && this.reported.add(artifact.toString())) {
+        this.consumer.accept(new ArtifactResolvedEvent(artifact, event.getRepository()));
+      }
+    }
+  }
+
+}
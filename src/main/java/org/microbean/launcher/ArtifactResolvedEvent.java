@@ -0,0 +1,176 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.net.URI;
+
+import java.nio.file.Path;
+
+import java.util.Objects;
+
+import org.eclipse.aether.artifact.Artifact;
+
+import org.eclipse.aether.repository.ArtifactRepository;
+
+/**
+ * An event describing a single artifact whose file has just become
+ * available in the local filesystem during dependency resolution.
+ *
+ * <p>{@link ClasspathExporter} fires one such event, as a CDI event,
+ * for each artifact as soon as it is resolved, well before
+ * resolution as a whole finishes, so that work such as indexing,
+ * checksum verification or cache warming can overlap with the rest
+ * of the downloads.  Each event is fired both synchronously and
+ * asynchronously; nothing waits for asynchronous observers, which may
+ * still be running after the bootstrap container has shut down.</p>
+ *
+ * <p>The file an event describes is always the artifact's file in
+ * the local Maven repository.  When the {@code --artifactStore}
+ * option is in effect, the {@linkplain ClasspathExporter#getClasspath()
+ * final classpath} instead names a {@linkplain ArtifactStore view} of
+ * the same content, which cannot be known until resolution as a
+ * whole has finished, so the two {@link URI}s differ.  Observers that
+ * need to match events against the final classpath should compare
+ * file content, not locations.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ClasspathExporter
+ */
+public final class ArtifactResolvedEvent {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The resolved {@link Artifact}.
+   *
+   * <p>This field is never {@code null}.  Its {@linkplain
+   * Artifact#getFile() file} is never {@code null}.</p>
+   */
+  private final Artifact artifact;
+
+  /**
+   * The {@link ArtifactRepository} the artifact was resolved from.
+   *
+   * <p>This field may be {@code null}.</p>
+   */
+  private final ArtifactRepository repository;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ArtifactResolvedEvent}.
+   *
+   * @param artifact the resolved {@link Artifact}; must not be {@code
+   * null} and must have a non-{@code null} {@linkplain
+   * Artifact#getFile() file}
+   *
+   * @param repository the {@link ArtifactRepository} the artifact was
+   * resolved from; may be {@code null}
+   *
+   * @exception NullPointerException if {@code artifact} or its file
+   * is {@code null}
+   */
+  public ArtifactResolvedEvent(final Artifact artifact, final ArtifactRepository repository) {
+    super();
+    this.artifact = Objects.requireNonNull(artifact);
+    Objects.requireNonNull(artifact.getFile());
+    this.repository = repository;
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns the resolved {@link Artifact}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return the non-{@code null} resolved {@link Artifact}
+   */
+  public final Artifact getArtifact() {
+    return this.artifact;
+  }
+
+  /**
+   * Returns the {@link Path} of the resolved artifact's file in the
+   * local Maven repository.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return the non-{@code null} {@link Path} of the resolved
+   * artifact's file
+   */
+  public final Path getPath() {
+    return this.artifact.getFile().toPath();
+  }
+
+  /**
+   * Returns the {@link URI} of the resolved artifact's file in the
+   * local Maven repository.
+   *
+   * <p>This is the artifact's classpath {@link URI} unless the {@code
+   * --artifactStore} option is in effect; see the {@linkplain
+   * ArtifactResolvedEvent class documentation}.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return the non-{@code null} classpath {@link URI} of the
+   * resolved artifact's file
+   */
+  public final URI getUri() {
+    return this.artifact.getFile().toURI();
+  }
+
+  /**
+   * Returns the {@link ArtifactRepository} the artifact was resolved
+   * from, which may be the local repository, or {@code null} if it is
+   * not known.
+   *
+   * @return the {@link ArtifactRepository} the artifact was resolved
+   * from, or {@code null}
+   */
+  public final ArtifactRepository getRepository() {
+    return this.repository;
+  }
+
+  /**
+   * Returns a {@link String} representation of this {@link
+   * ArtifactResolvedEvent}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return a non-{@code null} {@link String}
+   */
+  @Override
+  public final String toString() {
+    return this.artifact + " -> " + this.artifact.getFile();
+  }
+
+}
@@ -0,0 +1,339 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.net.URI;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A content-addressed store of copies of resolved artifact files,
+ * from which per-classpath views are built out of hard links, so
+ * that identical files resolved for different applications share
+ * one inode, and therefore one set of cached pages, however many
+ * classpaths they appear on.
+ *
+ * <p>The store's directory contains:</p>
+ *
+ * <dl>
+ *
+ * <dt>{@code objects/}</dt>
+ *
+ * <dd>One file per distinct content, named by its SHA-256 digest;
+ * each is a private copy, never a link to the local repository file
+ * it came from, since Maven may later rewrite that file in
+ * place</dd>
+ *
+ * <dt>{@code views/}</dt>
+ *
+ * <dd>One directory per distinct classpath, named by a digest of the
+ * objects it contains and their file names, in order, holding a
+ * hard link to each</dd>
+ *
+ * <dt>{@code paths/}</dt>
+ *
+ * <dd>The digests of files already added, keyed by their paths and
+ * validated by their sizes and modification times, so that a file
+ * is read in full only once</dd>
+ *
+ * </dl>
+ *
+ * <p>Where the file system does not support hard links, or the store
+ * is not on the same file system as its views' objects, views hold
+ * copies of objects instead, and a warning is logged the first time
+ * this happens for a given {@link ArtifactStore}.</p>
+ *
+ * <p>Nothing in the store is ever removed by this class, so views
+ * accumulate as classpaths change, and objects as artifacts do.  The
+ * store may be pruned whenever no launch is using it: deleting
+ * {@code views/} and then any object whose link count has dropped to
+ * one reclaims everything unused, and deleting the whole directory
+ * is always safe, since it is rebuilt on demand.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see #view(Collection)
+ *
+ * @see ClasspathExporter#getArtifactStore()
+ */
+public final class ArtifactStore {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The {@link Path} of the directory in which the store is kept.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Path directory;
+
+  /**
+   * Whether a view has already had to hold a copy of an object
+   * because a hard link to it could not be created.
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * @see #link(Path, Path)
+   */
+  private final AtomicBoolean copying;
+
+  /**
+   * A {@link Logger} for this {@link ArtifactStore}.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Logger logger;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ArtifactStore}.
+   *
+   * @param directory the {@link Path} of the directory in which the
+   * store is kept; must not be {@code null}; need not exist
+   *
+   * @exception NullPointerException if {@code directory} is {@code
+   * null}
+   */
+  public ArtifactStore(final Path directory) {
+    super();
+    this.directory = Objects.requireNonNull(directory);
+    this.copying = new AtomicBoolean();
+    this.logger = LoggerFactory.getLogger(this.getClass());
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns a classpath equivalent to the supplied one whose files
+   * are hard links into this {@link ArtifactStore}.
+   *
+   * <p>Each regular file on the supplied classpath is {@linkplain
+   * #add(Path) added} to this {@link ArtifactStore}; any other
+   * element, such as a directory, is returned unchanged.  The view
+   * directory for the resulting objects is built at most once, and
+   * atomically, so that concurrent launches of the same classpath
+   * share it.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param classpath the classpath {@link URI}s, in order; must not
+   * be {@code null}
+   *
+   * @return a non-{@code null} ordered {@link Set} of classpath
+   * {@link URI}s
+   *
+   * @exception IOException if there was a problem reading or writing
+   *
+   * @exception NullPointerException if {@code classpath} is {@code
+   * null}
+   */
+  public final Set<URI> view(final Collection<? extends URI> classpath) throws IOException {
+    final List<URI> uris = new ArrayList<>(classpath);
+    final List<Path> objects = new ArrayList<>(uris.size());
+    final List<String> fileNames = new ArrayList<>(uris.size());
+    final MessageDigest messageDigest = Digests.newMessageDigest();
+    for (final URI uri : uris) {
+      Path object = null;
+      if ("file".equals(uri.getScheme())) {
+        final Path file = Paths.get(uri);
+        if (Files.isRegularFile(file)) {
+          object = this.add(file);
+          fileNames.add(file.getFileName().toString());
+          messageDigest.update(object.getFileName().toString().getBytes(StandardCharsets.US_ASCII));
+          messageDigest.update((byte)0);
+          messageDigest.update(file.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+        }
+      }
+      if (object == null) {
+        fileNames.add(null);
+        messageDigest.update(uri.toString().getBytes(StandardCharsets.UTF_8));
+      }
+      messageDigest.update((byte)0);
+      objects.add(object);
+    }
+    final Path viewsDirectory = this.directory.resolve("views");
+    final Path view = viewsDirectory.resolve(Digests.toHex(messageDigest.digest()));
+    if (!Files.isDirectory(view)) {
+      Files.createDirectories(viewsDirectory);
+      final Path temporaryView = Files.createTempDirectory(viewsDirectory, "view");
+      try {
+        for (int i = 0; i < objects.size(); i++) {
+          final Path object = objects.get(i);
+          if (object != null) {
+            this.link(object, temporaryView.resolve(linkName(i, fileNames.get(i))));
+          }
+        }
+        try {
+          Files.move(temporaryView, view, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final FileAlreadyExistsException fileAlreadyExistsException) {
+          // Another launch built the same view first.
+        } catch (final IOException ioException) {
+          // Some platforms report a non-empty target directory
+          // differently; another launch built the same view first.
+          if (!Files.isDirectory(view)) {
+            throw ioException;
+          }
+        }
+      } finally {
+        if (Files.isDirectory(temporaryView)) {
+          for (int i = 0; i < objects.size(); i++) {
+            if (objects.get(i) != null) {
+              Files.deleteIfExists(temporaryView.resolve(linkName(i, fileNames.get(i))));
+            }
+          }
+          Files.deleteIfExists(temporaryView);
+        }
+      }
+    }
+    final Set<URI> returnValue = new LinkedHashSet<>();
+    for (int i = 0; i < objects.size(); i++) {
+      if (objects.get(i) == null) {
+        returnValue.add(uris.get(i));
+      } else {
+        returnValue.add(view.resolve(linkName(i, fileNames.get(i))).toUri());
+      }
+    }
+    return returnValue;
+  }
+
+  /**
+   * Adds a copy of the supplied file to this {@link ArtifactStore},
+   * if an identical file is not already present, and returns the
+   * {@link Path} of the object holding its content.
+   *
+   * <p>The copy is digested as it is made, so that the object's name
+   * matches its content even if the file changed after its digest
+   * was last recorded.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param file the {@link Path} of a regular file; must not be
+   * {@code null}
+   *
+   * @return the non-{@code null} {@link Path} of the object
+   *
+   * @exception IOException if there was a problem reading or writing
+   *
+   * @exception NullPointerException if {@code file} is {@code null}
+   */
+  public final Path add(final Path file) throws IOException {
+    final Path objectsDirectory = this.directory.resolve("objects");
+    final Path object = objectsDirectory.resolve(Digests.digest(file, this.directory.resolve("paths")));
+    if (Files.isRegularFile(object)) {
+      return object;
+    }
+    Files.createDirectories(objectsDirectory);
+    final Path temporaryFile = Files.createTempFile(objectsDirectory, "object", ".tmp");
+    try {
+      final MessageDigest messageDigest = Digests.newMessageDigest();
+      try (final InputStream in = new DigestInputStream(Files.newInputStream(file), messageDigest)) {
+        Files.copy(in, temporaryFile, StandardCopyOption.REPLACE_EXISTING);
+      }
+      final Path copiedObject = objectsDirectory.resolve(Digests.toHex(messageDigest.digest()));
+      Files.move(temporaryFile, copiedObject, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      return copiedObject;
+    } finally {
+      Files.deleteIfExists(temporaryFile);
+    }
+  }
+
+  /**
+   * Creates a hard link to the supplied object at the supplied
+   * {@link Path}, copying the object instead, and logging a warning
+   * the first time this {@link ArtifactStore} has to, if a hard link
+   * cannot be created.
+   *
+   * @param object the {@link Path} of the object; must not be {@code
+   * null}
+   *
+   * @param link the {@link Path} of the link to create; must not be
+   * {@code null}
+   *
+   * @exception IOException if there was a problem linking or copying
+   */
+  private final void link(final Path object, final Path link) throws IOException {
+    try {
+      Files.createLink(link, object);
+    } catch (final IOException | UnsupportedOperationException exception) {
+      if (this.copying.compareAndSet(false, true)) {
+        this.logger.warn("Could not create a hard link in the artifact store at {}; its views will hold copies, which do not share cached pages", this.directory, exception);
+      }
+      Files.copy(object, link, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns the name of the link to the classpath element at the
+   * supplied index, which preserves the element's own file name for
+   * the benefit of anyone reading the classpath.
+   *
+   * @param index the index of the classpath element
+   *
+   * @param fileName the element's file name; must not be {@code
+   * null}
+   *
+   * @return a non-{@code null} link name
+   */
+  private static final String linkName(final int index, final String fileName) {
+    return String.format("%04d-%s", Integer.valueOf(index), fileName);
+  }
+
+}
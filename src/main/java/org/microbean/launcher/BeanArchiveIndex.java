@@ -0,0 +1,725 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import org.xml.sax.SAXException;
+
+/**
+ * What a CDI container would learn by probing a single jar file for
+ * {@code META-INF/beans.xml} and scanning it: whether it is a bean
+ * archive, its bean discovery mode, the classes it contributes, and
+ * the alternatives, interceptors and decorators it enables.
+ *
+ * <p>Indexes are {@linkplain #get(Path, Path) cached} by the
+ * checksum of the jar file they describe, so each artifact is
+ * scanned at most once.</p>
+ *
+ * <p>A jar whose {@code beans.xml} uses {@code <scan>} or {@code
+ * <trim>} is not {@linkplain #isIndexable() indexable}; callers
+ * should let the container discover such jars itself.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see #get(Path, Path)
+ */
+public final class BeanArchiveIndex {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The bean discovery mode in which every class is a candidate
+   * bean.
+   */
+  public static final String ALL = "all";
+
+  /**
+   * The bean discovery mode in which only classes with bean defining
+   * annotations are candidate beans.
+   */
+  public static final String ANNOTATED = "annotated";
+
+  /**
+   * The bean discovery mode of a jar that is not a bean archive.
+   */
+  public static final String NONE = "none";
+
+  /**
+   * The binary names of the bean defining annotations that every CDI
+   * 2.0 container recognizes.
+   */
+  public static final Set<String> BEAN_DEFINING_ANNOTATIONS =
+    Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList("javax.decorator.Decorator",
+                                                                  "javax.enterprise.context.ApplicationScoped",
+                                                                  "javax.enterprise.context.ConversationScoped",
+                                                                  "javax.enterprise.context.Dependent",
+                                                                  "javax.enterprise.context.RequestScoped",
+                                                                  "javax.enterprise.context.SessionScoped",
+                                                                  "javax.enterprise.inject.Model",
+                                                                  "javax.interceptor.Interceptor")));
+
+  /**
+   * The binary names of the meta-annotations that make an annotation
+   * type a bean defining annotation.
+   */
+  private static final Set<String> BEAN_DEFINING_META_ANNOTATIONS =
+    Collections.unmodifiableSet(new LinkedHashSet<>(Arrays.asList("javax.enterprise.context.NormalScope",
+                                                                  "javax.enterprise.inject.Stereotype")));
+
+  /**
+   * The name of the deployment descriptor that marks a bean archive.
+   */
+  private static final String BEANS_XML = "META-INF/beans.xml";
+
+  /**
+   * The version of the format written by {@link #store(Path)}.
+   */
+  private static final String FORMAT_VERSION = "1";
+
+  /**
+   * The name of the subdirectory of a cache directory in which the
+   * SHA-256 checksums of jar files are {@linkplain #checksum(Path,
+   * Path) recorded}.
+   */
+  private static final String PATHS_DIRECTORY_NAME = "paths";
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * Whether this index fully describes its jar.
+   */
+  private final boolean indexable;
+
+  /**
+   * The bean discovery mode.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final String discoveryMode;
+
+  /**
+   * In {@link #ALL} mode, the binary names of the jar's classes.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final List<String> classes;
+
+  /**
+   * In {@link #ANNOTATED} mode, the binary names of the jar's
+   * annotated classes, each mapped to the binary names of its
+   * class-level annotation types.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Map<String, List<String>> annotatedClasses;
+
+  /**
+   * The binary names of the stereotypes and normal scopes declared in
+   * the jar.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Set<String> beanDefiningAnnotations;
+
+  /**
+   * The binary names of the alternatives selected by the jar's {@code
+   * beans.xml}.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final List<String> alternatives;
+
+  /**
+   * The binary names of the alternative stereotypes selected by the
+   * jar's {@code beans.xml}.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final List<String> alternativeStereotypes;
+
+  /**
+   * The binary names of the interceptors enabled by the jar's {@code
+   * beans.xml}.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final List<String> interceptors;
+
+  /**
+   * The binary names of the decorators enabled by the jar's {@code
+   * beans.xml}.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final List<String> decorators;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link BeanArchiveIndex}.
+   *
+   * @param indexable whether the index fully describes its jar
+   *
+   * @param discoveryMode the bean discovery mode; must not be {@code
+   * null}
+   *
+   * @param classes in {@link #ALL} mode, the jar's classes; must not
+   * be {@code null}
+   *
+   * @param annotatedClasses in {@link #ANNOTATED} mode, the jar's
+   * annotated classes and their class-level annotation types; must
+   * not be {@code null}
+   *
+   * @param beanDefiningAnnotations the stereotypes and normal scopes
+   * declared in the jar; must not be {@code null}
+   *
+   * @param alternatives the selected alternatives; must not be {@code
+   * null}
+   *
+   * @param alternativeStereotypes the selected alternative
+   * stereotypes; must not be {@code null}
+   *
+   * @param interceptors the enabled interceptors; must not be {@code
+   * null}
+   *
+   * @param decorators the enabled decorators; must not be {@code
+   * null}
+   */
+  private BeanArchiveIndex(final boolean indexable,
+                           final String discoveryMode,
+                           final List<String> classes,
+                           final Map<String, List<String>> annotatedClasses,
+                           final Set<String> beanDefiningAnnotations,
+                           final List<String> alternatives,
+                           final List<String> alternativeStereotypes,
+                           final List<String> interceptors,
+                           final List<String> decorators) {
+    super();
+    this.indexable = indexable;
+    this.discoveryMode = Objects.requireNonNull(discoveryMode);
+    this.classes = Collections.unmodifiableList(classes);
+    this.annotatedClasses = Collections.unmodifiableMap(annotatedClasses);
+    this.beanDefiningAnnotations = Collections.unmodifiableSet(beanDefiningAnnotations);
+    this.alternatives = Collections.unmodifiableList(alternatives);
+    this.alternativeStereotypes = Collections.unmodifiableList(alternativeStereotypes);
+    this.interceptors = Collections.unmodifiableList(interceptors);
+    this.decorators = Collections.unmodifiableList(decorators);
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns {@code true} if this index fully describes its jar, and
+   * {@code false} if the jar's {@code beans.xml} uses features that
+   * only the container itself can interpret.
+   *
+   * @return {@code true} if this index fully describes its jar
+   */
+  public final boolean isIndexable() {
+    return this.indexable;
+  }
+
+  /**
+   * Returns {@code true} if the jar is a bean archive.
+   *
+   * @return {@code true} if the jar is a bean archive
+   */
+  public final boolean isBeanArchive() {
+    return !NONE.equals(this.discoveryMode);
+  }
+
+  /**
+   * Returns the bean discovery mode of the jar: {@link #ALL}, {@link
+   * #ANNOTATED} or {@link #NONE}.
+   *
+   * @return the non-{@code null} bean discovery mode
+   */
+  public final String getDiscoveryMode() {
+    return this.discoveryMode;
+  }
+
+  /**
+   * Returns the binary names of the classes in the jar that a
+   * container would consider as candidate beans.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param beanDefiningAnnotations the binary names of all bean
+   * defining annotations known to the container, which, in {@link
+   * #ANNOTATED} mode, may include stereotypes and scopes declared in
+   * other jars; must not be {@code null}
+   *
+   * @return a non-{@code null} {@link List} of binary class names
+   *
+   * @exception NullPointerException if {@code
+   * beanDefiningAnnotations} is {@code null}
+   */
+  public final List<String> getBeanClasses(final Collection<? extends String> beanDefiningAnnotations) {
+    Objects.requireNonNull(beanDefiningAnnotations);
+    if (ALL.equals(this.discoveryMode)) {
+      return this.classes;
+    }
+    final List<String> returnValue = new ArrayList<>();
+    for (final Map.Entry<String, List<String>> entry : this.annotatedClasses.entrySet()) {
+      for (final String annotation : entry.getValue()) {
+        if (beanDefiningAnnotations.contains(annotation)) {
+          returnValue.add(entry.getKey());
+          break;
+        }
+      }
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns the binary names of the stereotypes and normal scopes
+   * declared in the jar, whether or not it is a bean archive.
+   *
+   * @return a non-{@code null}, unmodifiable {@link Set}
+   */
+  public final Set<String> getBeanDefiningAnnotations() {
+    return this.beanDefiningAnnotations;
+  }
+
+  /**
+   * Returns the binary names of the alternatives selected by the
+   * jar's {@code beans.xml}.
+   *
+   * @return a non-{@code null}, unmodifiable {@link List}
+   */
+  public final List<String> getAlternatives() {
+    return this.alternatives;
+  }
+
+  /**
+   * Returns the binary names of the alternative stereotypes selected
+   * by the jar's {@code beans.xml}.
+   *
+   * @return a non-{@code null}, unmodifiable {@link List}
+   */
+  public final List<String> getAlternativeStereotypes() {
+    return this.alternativeStereotypes;
+  }
+
+  /**
+   * Returns the binary names of the interceptors enabled by the
+   * jar's {@code beans.xml}.
+   *
+   * @return a non-{@code null}, unmodifiable {@link List}
+   */
+  public final List<String> getInterceptors() {
+    return this.interceptors;
+  }
+
+  /**
+   * Returns the binary names of the decorators enabled by the jar's
+   * {@code beans.xml}.
+   *
+   * @return a non-{@code null}, unmodifiable {@link List}
+   */
+  public final List<String> getDecorators() {
+    return this.decorators;
+  }
+
+  /**
+   * Atomically writes this index to the supplied file.
+   *
+   * @param file the {@link Path} to write to; must not be {@code
+   * null}
+   *
+   * @exception IOException if there was a problem writing
+   */
+  private final void store(final Path file) throws IOException {
+    final Properties properties = new Properties();
+    properties.setProperty("version", FORMAT_VERSION);
+    properties.setProperty("indexable", String.valueOf(this.indexable));
+    properties.setProperty("discoveryMode", this.discoveryMode);
+    properties.setProperty("classes", String.join(",", this.classes));
+    for (final Map.Entry<String, List<String>> entry : this.annotatedClasses.entrySet()) {
+      properties.setProperty("annotated." + entry.getKey(), String.join(",", entry.getValue()));
+    }
+    properties.setProperty("beanDefiningAnnotations", String.join(",", this.beanDefiningAnnotations));
+    properties.setProperty("alternatives", String.join(",", this.alternatives));
+    properties.setProperty("alternativeStereotypes", String.join(",", this.alternativeStereotypes));
+    properties.setProperty("interceptors", String.join(",", this.interceptors));
+    properties.setProperty("decorators", String.join(",", this.decorators));
+    final Path directory = file.toAbsolutePath().getParent();
+    Files.createDirectories(directory);
+    final Path temporaryFile = Files.createTempFile(directory, "beans", ".tmp");
+    try {
+      try (final OutputStream out = Files.newOutputStream(temporaryFile)) {
+        properties.store(out, null);
+      }
+      Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporaryFile);
+    }
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns the {@link BeanArchiveIndex} for the supplied jar file,
+   * reading it from the supplied cache directory if it has been
+   * computed before, and computing and storing it there otherwise.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param jar the {@link Path} of the jar file; must not be {@code
+   * null}
+   *
+   * @param directory the {@link Path} of the cache directory; must
+   * not be {@code null}; need not exist
+   *
+   * @return a non-{@code null} {@link BeanArchiveIndex}
+   *
+   * @exception IOException if there was a problem reading the jar
+   * file or writing the cache
+   *
+   * @exception NullPointerException if either parameter is {@code
+   * null}
+   */
+  public static final BeanArchiveIndex get(final Path jar, final Path directory) throws IOException {
+    final Path file = directory.resolve(checksum(jar, directory.resolve(PATHS_DIRECTORY_NAME)) + ".beans");
+    if (Files.isRegularFile(file)) {
+      final Properties properties = new Properties();
+      try (final InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+        properties.load(in);
+      }
+      if (FORMAT_VERSION.equals(properties.getProperty("version"))) {
+        return load(properties);
+      }
+    }
+    final BeanArchiveIndex returnValue = index(jar);
+    returnValue.store(file);
+    return returnValue;
+  }
+
+  /**
+   * Returns a checksum of the supplied jar file, preferring the
+   * SHA-1 checksum that a Maven local repository keeps next to it,
+   * unless the jar file is newer, as a rebuilt {@code SNAPSHOT}
+   * artifact may be, and using a SHA-256 checksum otherwise.
+   *
+   * <p>A SHA-256 checksum is computed only if the jar file's path,
+   * size or modification time differ from the last time it was
+   * computed and {@linkplain Digests#digest(Path, Path) recorded} in
+   * the supplied directory, so that jar files without a checksum file
+   * are not read in full on every launch.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param jar the {@link Path} of the jar file; must not be {@code
+   * null}
+   *
+   * @param directory the {@link Path} of the directory in which
+   * SHA-256 checksums are recorded; must not be {@code null}; need
+   * not exist
+   *
+   * @return a non-{@code null} checksum prefixed by the name of its
+   * algorithm
+   *
+   * @exception IOException if there was a problem reading or writing
+   */
+  static final String checksum(final Path jar, final Path directory) throws IOException {
+    final Path sha1File = jar.resolveSibling(jar.getFileName() + ".sha1");
+    if (Files.isRegularFile(sha1File) &&
+        Files.getLastModifiedTime(sha1File).compareTo(Files.getLastModifiedTime(jar)) >= 0) {
+      final String sha1 = new String(Files.readAllBytes(sha1File), StandardCharsets.US_ASCII).trim();
+      if (sha1.length() >= 40 && sha1.substring(0, 40).matches("[0-9a-fA-F]{40}")) {
+        return "sha1-" + sha1.substring(0, 40).toLowerCase();
+      }
+    }
+    return "sha256-" + Digests.digest(jar, directory);
+  }
+
+  /**
+   * Computes the {@link BeanArchiveIndex} of the supplied jar file by
+   * reading its {@code beans.xml}, if any, and the headers of its
+   * class files.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param jar the {@link Path} of the jar file; must not be {@code
+   * null}
+   *
+   * @return a non-{@code null} {@link BeanArchiveIndex}
+   *
+   * @exception IOException if there was a problem reading
+   */
+  static final BeanArchiveIndex index(final Path jar) throws IOException {
+    boolean indexable = true;
+    String discoveryMode = NONE;
+    final List<String> alternatives = new ArrayList<>();
+    final List<String> alternativeStereotypes = new ArrayList<>();
+    final List<String> interceptors = new ArrayList<>();
+    final List<String> decorators = new ArrayList<>();
+    final List<String> classes = new ArrayList<>();
+    final Map<String, List<String>> annotatedClasses = new TreeMap<>();
+    final Set<String> beanDefiningAnnotations = new LinkedHashSet<>();
+    try (final JarFile jarFile = new JarFile(jar.toFile(), false)) {
+      final JarEntry beansXml = jarFile.getJarEntry(BEANS_XML);
+      if (beansXml != null) {
+        try (final InputStream in = jarFile.getInputStream(beansXml)) {
+          final Element beans = parse(in);
+          if (beans == null) {
+            discoveryMode = ALL;
+          } else {
+            final String mode = beans.getAttribute("bean-discovery-mode");
+            discoveryMode = mode == null || mode.trim().isEmpty() ? ALL : mode.trim();
+            if (!ALL.equals(discoveryMode) && !ANNOTATED.equals(discoveryMode) && !NONE.equals(discoveryMode)) {
+              indexable = false;
+            }
+            if (!children(beans, "scan").isEmpty() || !children(beans, "trim").isEmpty()) {
+              indexable = false;
+            }
+            for (final Element element : children(beans, "alternatives")) {
+              addText(children(element, "class"), alternatives);
+              addText(children(element, "stereotype"), alternativeStereotypes);
+            }
+            for (final Element element : children(beans, "interceptors")) {
+              addText(children(element, "class"), interceptors);
+            }
+            for (final Element element : children(beans, "decorators")) {
+              addText(children(element, "class"), decorators);
+            }
+          }
+        }
+      }
+      final Enumeration<JarEntry> entries = jarFile.entries();
+      while (entries.hasMoreElements()) {
+        final JarEntry entry = entries.nextElement();
+        final String name = entry.getName();
+        if (!entry.isDirectory() &&
+            name.endsWith(".class") &&
+            !name.startsWith("META-INF/") &&
+            !name.endsWith("module-info.class") &&
+            !name.endsWith("package-info.class")) {
+          final ClassFileHeader header;
+          try (final InputStream in = new BufferedInputStream(jarFile.getInputStream(entry))) {
+            header = ClassFileHeader.read(in);
+          }
+          final List<String> annotations = header.getAnnotations();
+          if ((header.getAccessFlags() & ClassFileHeader.ACC_ANNOTATION) != 0) {
+            for (final String annotation : annotations) {
+              if (BEAN_DEFINING_META_ANNOTATIONS.contains(annotation)) {
+                beanDefiningAnnotations.add(header.getName());
+                break;
+              }
+            }
+          } else if ((header.getAccessFlags() & ClassFileHeader.ACC_INTERFACE) == 0) {
+            if (ALL.equals(discoveryMode)) {
+              classes.add(header.getName());
+            } else if (ANNOTATED.equals(discoveryMode) && !annotations.isEmpty()) {
+              annotatedClasses.put(header.getName(), annotations);
+            }
+          }
+        }
+      }
+    }
+    return new BeanArchiveIndex(indexable,
+                                discoveryMode,
+                                classes,
+                                annotatedClasses,
+                                beanDefiningAnnotations,
+                                alternatives,
+                                alternativeStereotypes,
+                                interceptors,
+                                decorators);
+  }
+
+  /**
+   * Creates a {@link BeanArchiveIndex} from {@link Properties}
+   * written by {@link #store(Path)}.
+   *
+   * @param properties the {@link Properties}; must not be {@code
+   * null}
+   *
+   * @return a non-{@code null} {@link BeanArchiveIndex}
+   */
+  private static final BeanArchiveIndex load(final Properties properties) {
+    final Map<String, List<String>> annotatedClasses = new TreeMap<>();
+    for (final String name : properties.stringPropertyNames()) {
+      if (name.startsWith("annotated.")) {
+        annotatedClasses.put(name.substring("annotated.".length()), split(properties.getProperty(name)));
+      }
+    }
+    return new BeanArchiveIndex(Boolean.parseBoolean(properties.getProperty("indexable")),
+                                properties.getProperty("discoveryMode", NONE),
+                                split(properties.getProperty("classes")),
+                                annotatedClasses,
+                                new LinkedHashSet<>(split(properties.getProperty("beanDefiningAnnotations"))),
+                                split(properties.getProperty("alternatives")),
+                                split(properties.getProperty("alternativeStereotypes")),
+                                split(properties.getProperty("interceptors")),
+                                split(properties.getProperty("decorators")));
+  }
+
+  /**
+   * Splits a comma-separated {@link String} into a {@link List}.
+   *
+   * @param value the {@link String} to split; may be {@code null}
+   *
+   * @return a non-{@code null} {@link List}
+   */
+  private static final List<String> split(final String value) {
+    final List<String> returnValue = new ArrayList<>();
+    if (value != null && !value.isEmpty()) {
+      for (final String element : value.split(",")) {
+        if (!element.isEmpty()) {
+          returnValue.add(element);
+        }
+      }
+    }
+    return returnValue;
+  }
+
+  /**
+   * Parses a {@code beans.xml} document and returns its root
+   * element, or {@code null} if the document is empty.
+   *
+   * @param in the {@link InputStream} to parse; must not be {@code
+   * null}
+   *
+   * @return the root {@link Element}, or {@code null}
+   *
+   * @exception IOException if there was a problem reading or parsing
+   */
+  private static final Element parse(final InputStream in) throws IOException {
+    final BufferedInputStream bufferedIn = new BufferedInputStream(in);
+    bufferedIn.mark(1024);
+    int b;
+    do {
+      b = bufferedIn.read();
+    } while (b >= 0 && Character.isWhitespace(b));
+    if (b < 0) {
+      return null;
+    }
+    bufferedIn.reset();
+    final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory.newInstance();
+    documentBuilderFactory.setNamespaceAware(true);
+    documentBuilderFactory.setExpandEntityReferences(false);
+    try {
+      final DocumentBuilder documentBuilder = documentBuilderFactory.newDocumentBuilder();
+      final Document document = documentBuilder.parse(bufferedIn);
+      return document.getDocumentElement();
+    } catch (final ParserConfigurationException | SAXException exception) {
+      throw new IOException(exception.getMessage(), exception);
+    }
+  }
+
+  /**
+   * Returns the child elements of the supplied {@link Element} with
+   * the supplied local name.
+   *
+   * @param parent the parent {@link Element}; must not be {@code
+   * null}
+   *
+   * @param localName the local name; must not be {@code null}
+   *
+   * @return a non-{@code null} {@link List} of {@link Element}s
+   */
+  private static final List<Element> children(final Element parent, final String localName) {
+    final List<Element> returnValue = new ArrayList<>();
+    final NodeList nodes = parent.getChildNodes();
+    for (int i = 0; i < nodes.getLength(); i++) {
+      final Node node = nodes.item(i);
+      if (node instanceof Element) {
+        final String name = node.getLocalName() == null ? node.getNodeName() : node.getLocalName();
+        if (localName.equals(name)) {
+          returnValue.add((Element)node);
+        }
+      }
+    }
+    return returnValue;
+  }
+
+  /**
+   * Adds the trimmed text content of each supplied {@link Element} to
+   * the supplied {@link Collection}.
+   *
+   * @param elements the {@link Element}s; must not be {@code null}
+   *
+   * @param values the {@link Collection} to add to; must not be
+   * {@code null}
+   */
+  private static final void addText(final Collection<? extends Element> elements, final Collection<? super String> values) {
+    for (final Element element : elements) {
+      final String text = element.getTextContent();
+      if (text != null && !text.trim().isEmpty()) {
+        values.add(text.trim());
+      }
+    }
+  }
+
+}
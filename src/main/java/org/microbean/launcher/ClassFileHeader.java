@@ -0,0 +1,345 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The name, access flags and runtime-visible class-level annotation
+ * types of a class, read directly from its class file without
+ * loading it.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see #read(InputStream)
+ *
+ * @see BeanArchiveIndex
+ */
+final class ClassFileHeader {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The access flag marking an interface.
+   */
+  static final int ACC_INTERFACE = 0x0200;
+
+  /**
+   * The access flag marking an annotation type.
+   */
+  static final int ACC_ANNOTATION = 0x2000;
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The binary name of the class.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final String name;
+
+  /**
+   * The access flags of the class.
+   */
+  private final int accessFlags;
+
+  /**
+   * The binary names of the runtime-visible annotation types applied
+   * to the class itself.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final List<String> annotations;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ClassFileHeader}.
+   *
+   * @param name the binary name of the class; must not be {@code
+   * null}
+   *
+   * @param accessFlags the access flags of the class
+   *
+   * @param annotations the binary names of the class's
+   * runtime-visible annotation types; must not be {@code null}
+   */
+  private ClassFileHeader(final String name, final int accessFlags, final List<String> annotations) {
+    super();
+    this.name = name;
+    this.accessFlags = accessFlags;
+    this.annotations = Collections.unmodifiableList(annotations);
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns the binary name of the class.
+   *
+   * @return the non-{@code null} binary name of the class
+   */
+  final String getName() {
+    return this.name;
+  }
+
+  /**
+   * Returns the access flags of the class.
+   *
+   * @return the access flags of the class
+   */
+  final int getAccessFlags() {
+    return this.accessFlags;
+  }
+
+  /**
+   * Returns the binary names of the runtime-visible annotation types
+   * applied to the class itself.
+   *
+   * @return a non-{@code null}, unmodifiable {@link List} of binary
+   * annotation type names
+   */
+  final List<String> getAnnotations() {
+    return this.annotations;
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Reads a {@link ClassFileHeader} from the supplied class file
+   * bytes.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param classFile an {@link InputStream} positioned at the start
+   * of a class file; must not be {@code null}; will not be closed
+   *
+   * @return a non-{@code null} {@link ClassFileHeader}
+   *
+   * @exception IOException if there was a problem reading, or if the
+   * bytes are not a class file this method understands
+   */
+  static final ClassFileHeader read(final InputStream classFile) throws IOException {
+    final DataInputStream in = new DataInputStream(classFile);
+    if (in.readInt() != 0xCAFEBABE) {
+      throw new IOException("Not a class file");
+    }
+    in.readUnsignedShort(); // minor version
+    in.readUnsignedShort(); // major version
+    final int constantPoolCount = in.readUnsignedShort();
+    final Object[] constantPool = new Object[constantPoolCount];
+    for (int i = 1; i < constantPoolCount; i++) {
+      final int tag = in.readUnsignedByte();
+      switch (tag) {
+      case 1: // Utf8
+        constantPool[i] = in.readUTF();
+        break;
+      case 7: // Class
+        constantPool[i] = Integer.valueOf(in.readUnsignedShort());
+        break;
+      case 8: // String
+      case 16: // MethodType
+      case 19: // Module
+      case 20: // Package
+        skip(in, 2);
+        break;
+      case 15: // MethodHandle
+        skip(in, 3);
+        break;
+      case 3: // Integer
+      case 4: // Float
+      case 9: // Fieldref
+      case 10: // Methodref
+      case 11: // InterfaceMethodref
+      case 12: // NameAndType
+      case 17: // Dynamic
+      case 18: // InvokeDynamic
+        skip(in, 4);
+        break;
+      case 5: // Long
+      case 6: // Double
+        skip(in, 8);
+        i++;
+        break;
+      default:
+        throw new IOException("Unknown constant pool tag: " + tag);
+      }
+    }
+    final int accessFlags = in.readUnsignedShort();
+    final String name = utf8(constantPool, (Integer)constantPool[in.readUnsignedShort()]).replace('/', '.');
+    in.readUnsignedShort(); // super class
+    skip(in, 2 * in.readUnsignedShort()); // interfaces
+    skipMembers(in); // fields
+    skipMembers(in); // methods
+    final List<String> annotations = new ArrayList<>();
+    final int attributesCount = in.readUnsignedShort();
+    for (int i = 0; i < attributesCount; i++) {
+      final String attributeName = utf8(constantPool, Integer.valueOf(in.readUnsignedShort()));
+      final int length = in.readInt();
+      if ("RuntimeVisibleAnnotations".equals(attributeName)) {
+        final int annotationsCount = in.readUnsignedShort();
+        for (int j = 0; j < annotationsCount; j++) {
+          final String descriptor = utf8(constantPool, Integer.valueOf(in.readUnsignedShort()));
+          if (descriptor.length() > 2 && descriptor.charAt(0) == 'L' && descriptor.endsWith(";")) {
+            annotations.add(descriptor.substring(1, descriptor.length() - 1).replace('/', '.'));
+          }
+          skipElementValuePairs(in);
+        }
+      } else {
+        skip(in, length);
+      }
+    }
+    return new ClassFileHeader(name, accessFlags, annotations);
+  }
+
+  /**
+   * Returns the {@code Utf8} constant pool entry at the supplied
+   * index.
+   *
+   * @param constantPool the constant pool; must not be {@code null}
+   *
+   * @param index the index; must not be {@code null}
+   *
+   * @return the non-{@code null} {@link String} at that index
+   *
+   * @exception IOException if there is no {@code Utf8} entry at that
+   * index
+   */
+  private static final String utf8(final Object[] constantPool, final Integer index) throws IOException {
+    final int i = index.intValue();
+    if (i <= 0 || i >= constantPool.length || !(constantPool[i] instanceof String)) {
+      throw new IOException("Invalid constant pool index: " + i);
+    }
+    return (String)constantPool[i];
+  }
+
+  /**
+   * Skips the fields or methods of a class file.
+   *
+   * @param in the {@link DataInputStream} positioned at a member
+   * count; must not be {@code null}
+   *
+   * @exception IOException if there was a problem reading
+   */
+  private static final void skipMembers(final DataInputStream in) throws IOException {
+    final int count = in.readUnsignedShort();
+    for (int i = 0; i < count; i++) {
+      skip(in, 6); // access flags, name, descriptor
+      final int attributesCount = in.readUnsignedShort();
+      for (int j = 0; j < attributesCount; j++) {
+        in.readUnsignedShort();
+        skip(in, in.readInt());
+      }
+    }
+  }
+
+  /**
+   * Skips the element-value pairs of an annotation.
+   *
+   * @param in the {@link DataInputStream} positioned at a pair
+   * count; must not be {@code null}
+   *
+   * @exception IOException if there was a problem reading
+   */
+  private static final void skipElementValuePairs(final DataInputStream in) throws IOException {
+    final int count = in.readUnsignedShort();
+    for (int i = 0; i < count; i++) {
+      in.readUnsignedShort(); // element name
+      skipElementValue(in);
+    }
+  }
+
+  /**
+   * Skips an annotation element value.
+   *
+   * @param in the {@link DataInputStream} positioned at an element
+   * value; must not be {@code null}
+   *
+   * @exception IOException if there was a problem reading
+   */
+  private static final void skipElementValue(final DataInputStream in) throws IOException {
+    final int tag = in.readUnsignedByte();
+    switch (tag) {
+    case 'e':
+      skip(in, 4);
+      break;
+    case '@':
+      in.readUnsignedShort();
+      skipElementValuePairs(in);
+      break;
+    case '[':
+      final int count = in.readUnsignedShort();
+      for (int i = 0; i < count; i++) {
+        skipElementValue(in);
+      }
+      break;
+    default:
+      skip(in, 2);
+      break;
+    }
+  }
+
+  /**
+   * Skips exactly the supplied number of bytes.
+   *
+   * @param in the {@link DataInputStream} to skip; must not be
+   * {@code null}
+   *
+   * @param count the number of bytes to skip
+   *
+   * @exception IOException if there was a problem reading
+   */
+  private static final void skip(final DataInputStream in, final int count) throws IOException {
+    int remaining = count;
+    while (remaining > 0) {
+      final int skipped = in.skipBytes(remaining);
+      if (skipped <= 0) {
+        in.readByte(); // throws EOFException at end of stream
+        remaining--;
+      } else {
+        remaining -= skipped;
+      }
+    }
+  }
+
+}
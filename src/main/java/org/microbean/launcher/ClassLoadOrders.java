@@ -0,0 +1,236 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.IOException;
+
+import java.net.URI;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A store of the orders in which classes were loaded from particular
+ * classpaths in earlier launches, indexed by a {@linkplain
+ * #key(Collection) digest} of each classpath.
+ *
+ * <p>Each order is a plain text file containing one binary class
+ * name per line.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ClasspathExporter#getClassLoadOrder(Collection)
+ */
+public final class ClassLoadOrders {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The name of the directory, relative to a launcher {@linkplain
+   * LaunchPlan#getCacheDirectory() cache directory}, in which class
+   * load orders are kept.
+   *
+   * @see #inCacheDirectory(Path)
+   */
+  public static final String DIRECTORY_NAME = "classes";
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The {@link Path} of the directory in which class load orders are
+   * kept.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Path directory;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ClassLoadOrders}.
+   *
+   * @param directory the {@link Path} of the directory in which class
+   * load orders are kept; must not be {@code null}; need not exist
+   *
+   * @exception NullPointerException if {@code directory} is {@code
+   * null}
+   */
+  public ClassLoadOrders(final Path directory) {
+    super();
+    this.directory = Objects.requireNonNull(directory);
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns the class load order most recently {@linkplain
+   * #store(Collection, List) stored} for the supplied classpath, or
+   * an empty {@link List} if there is none.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param classpath the classpath {@link URI}s in question; may be
+   * {@code null}
+   *
+   * @return a non-{@code null}, {@linkplain
+   * Collections#unmodifiableList(List) unmodifiable} {@link List} of
+   * binary class names
+   *
+   * @exception IOException if there was a problem reading
+   *
+   * @see #store(Collection, List)
+   */
+  public final List<String> load(final Collection<? extends URI> classpath) throws IOException {
+    final Path file = this.getPath(classpath);
+    if (!Files.isRegularFile(file)) {
+      return Collections.emptyList();
+    }
+    final List<String> returnValue = new ArrayList<>();
+    for (final String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+      if (line != null && !line.isEmpty()) {
+        returnValue.add(line);
+      }
+    }
+    return Collections.unmodifiableList(returnValue);
+  }
+
+  /**
+   * Stores the supplied class load order as the most recent one
+   * recorded for the supplied classpath, atomically replacing any
+   * prior one.
+   *
+   * @param classpath the classpath {@link URI}s the classes were
+   * loaded from; may be {@code null}
+   *
+   * @param classNames the binary names of the classes, in the order
+   * in which they were loaded; may be {@code null}
+   *
+   * @exception IOException if there was a problem writing
+   *
+   * @see #load(Collection)
+   */
+  public final void store(final Collection<? extends URI> classpath, final List<? extends String> classNames) throws IOException {
+    final Path file = this.getPath(classpath);
+    final List<String> lines = new ArrayList<>();
+    if (classNames != null) {
+      for (final String className : classNames) {
+        if (className != null && !className.isEmpty()) {
+          lines.add(className);
+        }
+      }
+    }
+    Files.createDirectories(this.directory);
+    final Path temporaryFile = Files.createTempFile(this.directory, "classes", ".tmp");
+    try {
+      Files.write(temporaryFile, lines, StandardCharsets.UTF_8);
+      Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporaryFile);
+    }
+  }
+
+  /**
+   * Returns the {@link Path} of the class load order file for the
+   * supplied classpath.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param classpath the classpath {@link URI}s in question; may be
+   * {@code null}
+   *
+   * @return a non-{@code null} {@link Path}
+   */
+  private final Path getPath(final Collection<? extends URI> classpath) {
+    return this.directory.resolve(key(classpath) + ".classes");
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns a new {@link ClassLoadOrders} that keeps its class load
+   * orders in the {@linkplain #DIRECTORY_NAME usual directory}
+   * beneath the supplied launcher cache directory.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param cacheDirectory the {@link Path} of a launcher {@linkplain
+   * LaunchPlan#getCacheDirectory() cache directory}; must not be
+   * {@code null}; need not exist
+   *
+   * @return a new, non-{@code null} {@link ClassLoadOrders}
+   *
+   * @exception NullPointerException if {@code cacheDirectory} is
+   * {@code null}
+   */
+  public static final ClassLoadOrders inCacheDirectory(final Path cacheDirectory) {
+    return new ClassLoadOrders(cacheDirectory.resolve(DIRECTORY_NAME));
+  }
+
+  /**
+   * Returns a hexadecimal SHA-256 digest of the supplied classpath
+   * {@link URI}s, in order.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param classpath the classpath {@link URI}s to digest; may be
+   * {@code null}
+   *
+   * @return a non-{@code null} hexadecimal digest
+   */
+  public static final String key(final Collection<? extends URI> classpath) {
+    final StringBuilder sb = new StringBuilder();
+    if (classpath != null) {
+      for (final URI uri : classpath) {
+        if (uri != null) {
+          sb.append(uri).append('\n');
+        }
+      }
+    }
+    return Digests.digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+}
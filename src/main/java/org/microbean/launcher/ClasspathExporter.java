@@ -17,33 +17,66 @@
 package org.microbean.launcher;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+import java.lang.management.ManagementFactory;
 
 import java.net.URI;
 
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+
+import java.nio.file.attribute.BasicFileAttributes;
+
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection; // for javadoc only
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
 import javax.enterprise.context.ApplicationScoped;
 import javax.enterprise.context.Initialized;
 
+import javax.enterprise.event.Event;
 import javax.enterprise.event.Observes;
+import javax.enterprise.event.ObservesAsync; // for javadoc only
 
 import javax.enterprise.inject.Produces;
 
 import javax.inject.Singleton;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.Option;
 import org.apache.commons.cli.Options;
 
 import org.apache.maven.settings.Settings;
 
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositoryException;
 import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.RepositorySystem;
 
@@ -51,24 +84,45 @@ import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.artifact.DefaultArtifact;
 
 import org.eclipse.aether.collection.CollectRequest;
+import org.eclipse.aether.collection.CollectResult;
 
 import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyFilter;
+import org.eclipse.aether.graph.DependencyNode;
 
+import org.eclipse.aether.installation.InstallRequest;
+
+import org.eclipse.aether.repository.LocalRepository;
 import org.eclipse.aether.repository.RemoteRepository;
 
+import org.eclipse.aether.resolution.ArtifactDescriptorException;
+import org.eclipse.aether.resolution.ArtifactDescriptorRequest;
+import org.eclipse.aether.resolution.ArtifactDescriptorResult;
+import org.eclipse.aether.resolution.ArtifactRequest;
 import org.eclipse.aether.resolution.ArtifactResult;
 import org.eclipse.aether.resolution.DependencyRequest;
-import org.eclipse.aether.resolution.DependencyResolutionException;
 import org.eclipse.aether.resolution.DependencyResult;
 
 import org.eclipse.aether.transfer.TransferListener;
 
+import org.eclipse.aether.util.artifact.ArtifactIdUtils;
 import org.eclipse.aether.util.artifact.JavaScopes;
 
 import org.eclipse.aether.util.filter.DependencyFilterUtils;
 
+import org.eclipse.aether.util.graph.transformer.ConflictResolver;
+
+import org.eclipse.aether.util.graph.visitor.FilteringDependencyVisitor;
+import org.eclipse.aether.util.graph.visitor.PreorderNodeListGenerator;
+
+import org.eclipse.aether.util.listener.ChainedRepositoryListener;
+import org.eclipse.aether.util.listener.ChainedTransferListener;
+
 import org.microbean.maven.cdi.annotation.Resolution;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 /**
  * A special-purpose class that converts a list of Maven-style
  * artifact coordinates into a {@link Set} of classpath {@link URI}s
@@ -82,7 +136,50 @@ import org.microbean.maven.cdi.annotation.Resolution;
  * @see #getRemainingCommandLineArguments()
  */
 @Singleton
-public final class ClasspathExporter {
+public final class ClasspathExporter implements LaunchPlan {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The name of the file, relative to the {@linkplain
+   * #getCacheDirectory() cache directory}, in which {@linkplain
+   * RepositoryLatencies repository latencies} are kept from one
+   * launch to the next.
+   */
+  private static final String REPOSITORY_LATENCIES_FILE_NAME = "repository-latencies.properties";
+
+  /**
+   * The number of threads used to resolve artifacts when {@linkplain
+   * #getHedgeDelay() hedging} is enabled.
+   */
+  private static final int HEDGE_THREADS = 5;
+
+  /**
+   * The name of the directory, relative to the {@linkplain
+   * #getCacheDirectory() cache directory}, that serves as the local
+   * repository for hedge requests while a {@linkplain
+   * #getHedgeDelay() hedged} resolution is underway.
+   */
+  private static final String HEDGE_DIRECTORY_NAME = "hedge";
+
+  /**
+   * The name of the directory, relative to the {@linkplain
+   * #getCacheDirectory() cache directory}, in which the {@linkplain
+   * ArtifactStore artifact store} is kept unless the {@code
+   * --artifactStore} command line option names another.
+   */
+  private static final String ARTIFACT_STORE_DIRECTORY_NAME = "store";
+
+  /**
+   * The name of the directory, relative to the {@linkplain
+   * #getCacheDirectory() cache directory}, in which {@linkplain
+   * ClasspathSnapshots last known good classpaths} are kept.
+   */
+  private static final String CLASSPATHS_DIRECTORY_NAME = "classpaths";
 
 
   /*
@@ -90,6 +187,14 @@ public final class ClasspathExporter {
    */
 
 
+  /**
+   * The {@link Logger} used by this {@link ClasspathExporter}.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Logger logger;
+
+
   /**
    * A {@link Set} of {@link URI}s each element of which represents a
    * Java classpath element.
@@ -126,6 +231,177 @@ public final class ClasspathExporter {
    */
   private List<Dependency> dependencies;
 
+  /**
+   * The {@link Path} of the directory in which this {@link
+   * ClasspathExporter} keeps information from one launch to the
+   * next.
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * @see #getCacheDirectory()
+   */
+  private Path cacheDirectory;
+
+  /**
+   * The number of milliseconds to wait for a remote repository to
+   * deliver an artifact before asking another one for it, or {@code
+   * -1} if hedging is disabled.
+   *
+   * @see #getHedgeDelay()
+   */
+  private long hedgeDelay;
+
+  /**
+   * The number of milliseconds to wait for dependency resolution
+   * before falling back to the last known good classpath, or {@code
+   * -1} if resolution may take as long as it takes.
+   *
+   * @see #getResolutionTimeout()
+   */
+  private long resolutionTimeout;
+
+  /**
+   * The {@link ResolutionMetrics} recording the cost of dependency
+   * resolution.
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * @see #getResolutionMetrics()
+   */
+  private final ResolutionMetrics metrics;
+
+  /**
+   * The {@link Path} of the file to which {@linkplain
+   * #getResolutionMetrics() resolution metrics} will be written when
+   * dependency resolution finishes.
+   *
+   * <p>This field may be {@code null}.</p>
+   */
+  private Path metricsFile;
+
+  /**
+   * Whether the resolved classpath should be {@linkplain
+   * #isWarmClasspath() warmed} while the application container
+   * starts.
+   *
+   * @see #isWarmClasspath()
+   */
+  private boolean warmClasspath;
+
+  /**
+   * Whether the application container should be configured from
+   * {@linkplain BeanArchiveIndex bean archive indexes}.
+   *
+   * @see #isIndexBeanArchives()
+   */
+  private boolean indexBeanArchives;
+
+  /**
+   * Whether proxy classes generated by the application container
+   * should be {@linkplain ProxyClassCache cached}.
+   *
+   * @see #isCacheProxyClasses()
+   */
+  private boolean cacheProxyClasses;
+
+  /**
+   * Whether the application container should be restarted whenever
+   * a resolved {@code SNAPSHOT} artifact changes.
+   *
+   * @see #isWatch()
+   */
+  private boolean watch;
+
+  /**
+   * The {@link Path} of the directory of the {@link ArtifactStore}
+   * from which resolved classpaths are viewed, or {@code null} if
+   * resolved artifacts are used where they lie.
+   *
+   * <p>This field may be {@code null}.</p>
+   *
+   * @see #getArtifactStore()
+   */
+  private Path artifactStore;
+
+  /**
+   * The {@link Dependency} instances naming the bills of materials
+   * whose dependency management governs dependency resolution, each
+   * with an explicit version.
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * @see #getManagedDependencies()
+   */
+  private List<Dependency> boms;
+
+  /**
+   * The {@link Dependency} instances, read from {@linkplain #boms
+   * bills of materials}, that govern the versions of version-less
+   * launch coordinates and of transitive dependencies.
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * @see #getManagedDependencies()
+   */
+  private volatile List<Dependency> managedDependencies;
+
+  /**
+   * Whether the order in which application classes are loaded should
+   * be {@linkplain #setClassLoadOrder(Collection, List) recorded}.
+   *
+   * @see #isRecordClassLoadOrder()
+   */
+  private boolean recordClassLoadOrder;
+
+  /**
+   * Whether a previously recorded class load order should be
+   * {@linkplain #getClassLoadOrder(Collection) replayed}.
+   *
+   * @see #isReplayClassLoadOrder()
+   */
+  private boolean replayClassLoadOrder;
+
+  /**
+   * The {@link Dependency} instances of each application listed in a
+   * {@linkplain LaunchManifest launch manifest}, indexed by
+   * application name, in manifest order.
+   *
+   * <p>This field is never {@code null}.  It is empty if no launch
+   * manifest was specified.</p>
+   */
+  private final Map<String, List<Dependency>> applicationDependencies;
+
+  /**
+   * The {@link Event} used to announce each artifact as soon as it is
+   * resolved.
+   *
+   * <p>This field may be {@code null}.</p>
+   *
+   * @see #fireArtifactResolved(Event, ArtifactResolvedEvent)
+   */
+  private volatile Event<ArtifactResolvedEvent> artifactResolvedEvent;
+
+  /**
+   * The command line arguments of each application listed in a
+   * {@linkplain LaunchManifest launch manifest}, indexed by
+   * application name.
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * @see #getRemainingCommandLineArguments(String)
+   */
+  private final Map<String, String[]> applicationArguments;
+
+  /**
+   * The classpath of each application listed in a {@linkplain
+   * LaunchManifest launch manifest}, indexed by application name.
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * @see #getClasspath(String)
+   */
+  private final Map<String, Set<URI>> applicationClasspaths;
+
 
   /*
    * Constructors.
@@ -137,7 +413,17 @@ public final class ClasspathExporter {
    */
   public ClasspathExporter() {
     super();
+    this.logger = LoggerFactory.getLogger(this.getClass());
     this.classpath = new LinkedHashSet<>();
+    this.cacheDirectory = getDefaultCacheDirectory();
+    this.boms = Collections.emptyList();
+    this.managedDependencies = Collections.emptyList();
+    this.hedgeDelay = -1L;
+    this.resolutionTimeout = -1L;
+    this.metrics = new ResolutionMetrics();
+    this.applicationDependencies = new LinkedHashMap<>();
+    this.applicationArguments = new HashMap<>();
+    this.applicationClasspaths = new HashMap<>();
   }
 
 
@@ -178,120 +464,49 @@ public final class ClasspathExporter {
     if (dependencies == null) {
       returnValue = new ArrayList<>();
       if (commandLine != null) {
-        final String[] artifactPath;
-        if (commandLine.hasOption("artifactPath")) {
-          artifactPath = commandLine.getOptionValues("artifactPath");
+        final String defaultGroupId = commandLine.getOptionValue("defaultGroupId");
+        final String manifest = commandLine.getOptionValue("manifest");
+        if (manifest != null && !manifest.isEmpty()) {
+          final LaunchManifest launchManifest;
+          try {
+            launchManifest = LaunchManifest.read(Paths.get(manifest));
+          } catch (final IOException ioException) {
+            throw new UncheckedIOException("Could not read launch manifest " + manifest, ioException);
+          }
+          final Set<Dependency> allDependencies = new LinkedHashSet<>();
+          for (final String applicationName : launchManifest.getApplicationNames()) {
+            String applicationDefaultGroupId = launchManifest.getDefaultGroupId(applicationName);
+            if (applicationDefaultGroupId == null || applicationDefaultGroupId.isEmpty()) {
+              applicationDefaultGroupId = defaultGroupId;
+            }
+            final List<Dependency> applicationDependencies = new ArrayList<>();
+            addDependencies(new String[] { launchManifest.getArtifactPath(applicationName) }, applicationDefaultGroupId, applicationDependencies);
+            this.applicationDependencies.put(applicationName, applicationDependencies);
+            this.applicationArguments.put(applicationName, launchManifest.getArguments(applicationName));
+            allDependencies.addAll(applicationDependencies);
+          }
+          returnValue.addAll(allDependencies);
         } else {
-          final String artifactPathSystemProperty = System.getProperty("maven.artifact.path");
-          if (artifactPathSystemProperty == null) {
-            artifactPath = new String[0];
+          final String[] artifactPath;
+          if (commandLine.hasOption("artifactPath")) {
+            artifactPath = commandLine.getOptionValues("artifactPath");
           } else {
-            artifactPath = new String[] { artifactPathSystemProperty };
+            final String artifactPathSystemProperty = System.getProperty("maven.artifact.path");
+            if (artifactPathSystemProperty == null) {
+              artifactPath = new String[0];
+            } else {
+              artifactPath = new String[] { artifactPathSystemProperty };
+            }
+          }
+          addDependencies(artifactPath, defaultGroupId, returnValue);
+          final String artifactPathFile = commandLine.getOptionValue("artifactPathFile");
+          if (artifactPathFile != null && !artifactPathFile.isEmpty()) {
+            try (final Reader reader = Files.newBufferedReader(Paths.get(artifactPathFile), StandardCharsets.UTF_8)) {
+              new ArtifactPathParser(artifactPathFile, defaultGroupId, returnValue).parse(reader);
+            } catch (final IOException ioException) {
+              throw new UncheckedIOException("Could not read artifact path file " + artifactPathFile, ioException);
+            }
           }
-        }
-        if (artifactPath != null) {
-          Arrays.stream(artifactPath)
-            .flatMap(item -> Arrays.stream(item.split("[, ]+")))
-            .forEach(gav -> {
-                if (gav != null) {
-                  final String[] components = gav.split(":");
-                  assert components != null;
-                  assert components.length > 0;
-                  String groupId = null;
-                  String artifactId = null;
-                  String version = null;
-                  String classifier = null;
-                  String packaging = null;
-                  String scope = null;
-                  switch (components.length) {
-                  case 1:
-                    // artifact
-                    groupId = null; // will be set to default later
-                    artifactId = components[0];
-                    version = "LATEST";
-                    packaging = "jar";
-                    scope = JavaScopes.COMPILE;
-                    break;
-                  case 2:
-                    // group:artifact or artifact:version
-                    final String firstComponent = components[0];
-                    assert firstComponent != null;
-                    final String secondComponent = components[1];
-                    assert secondComponent != null;
-                    if (secondComponent.isEmpty()) {
-                      throw new IllegalArgumentException("Unrecognized artifact coordinates: " + gav);
-                    } else if (Character.isDigit(secondComponent.charAt(0))) {
-                      // artifact:version
-                      groupId = null; // will default below
-                      artifactId = firstComponent;
-                      version = secondComponent;
-                    } else {
-                      // group:artifact
-                      groupId = firstComponent;
-                      artifactId = secondComponent;
-                      version = "LATEST";
-                    }
-                    packaging = "jar";
-                    scope = JavaScopes.COMPILE;
-                    break;
-                  case 3:
-                    // group:artifact:version
-                    groupId = components[0];
-                    artifactId = components[1];
-                    version = components[2];
-                    packaging = "jar";
-                    scope = JavaScopes.COMPILE;
-                    break;
-                  case 4:
-                    // group:artifact:version:packaging
-                    groupId = components[0];
-                    artifactId = components[1];
-                    version = components[2];
-                    packaging = components[3];
-                    scope = JavaScopes.COMPILE;
-                    break;
-                  case 5:
-                    // group:artifact:version:packaging:classifier
-                    groupId = components[0];
-                    artifactId = components[1];
-                    version = components[2];
-                    packaging = components[3];
-                    classifier = components[4];
-                    scope = JavaScopes.COMPILE;
-                    break;
-                  case 6:
-                    // group:artifact:version:packaging:classifier:scope
-                    groupId = components[0];
-                    artifactId = components[1];
-                    version = components[2];
-                    packaging = components[3];
-                    classifier = components[4];
-                    scope = components[5];
-                    break;
-                  default:
-                    throw new IllegalArgumentException("Unrecognized artifact coordinates: " + gav);
-                  }
-                  if (groupId == null || groupId.isEmpty()) {
-                    groupId = commandLine.getOptionValue("defaultGroupId");
-                  }
-                  if (groupId == null || groupId.isEmpty() ||
-                      artifactId == null || artifactId.isEmpty()) {
-                    throw new IllegalArgumentException("Unrecognized artifact coordinates: " + gav);
-                  }
-                  if (version == null || version.isEmpty()) {
-                    version = "LATEST";
-                  }
-                  // note: classifier can be null
-                  if (packaging == null || packaging.isEmpty()) {
-                    packaging = "jar";
-                  }
-                  if (scope == null || scope.isEmpty()) {
-                    scope = JavaScopes.COMPILE;
-                  }
-                  assert scope != null;
-                  returnValue.add(new Dependency(new DefaultArtifact(groupId, artifactId, classifier, packaging, version), scope));
-                }
-              });
         }
         this.remainingCommandLineArguments = commandLine.getArgs();
       }
@@ -368,9 +583,27 @@ public final class ClasspathExporter {
    * <p>The classpath so built will consist of {@link URI}s that
    * represent {@link File}s on the local filesystem.</p>
    *
+   * <p>If a {@linkplain #getHedgeDelay() hedge delay} has been
+   * specified, then remote repositories are first {@linkplain
+   * RepositoryLatencies#sort(List) reordered} according to how
+   * quickly they have answered during prior launches, and any
+   * artifact that has not been delivered within the hedge delay is
+   * requested again from the next remote repository in line.
+   * Whichever request succeeds first supplies the classpath
+   * element.</p>
+   *
+   * <p>If a {@linkplain #getResolutionTimeout() resolution timeout}
+   * has been specified and resolution does not finish in time, or
+   * fails, then the last classpath successfully resolved from the
+   * same dependencies is used instead.</p>
+   *
    * @param event the event signalling container startup; ignored; may
    * be {@code null}
    *
+   * @param commandLine the {@link CommandLine} whose options may
+   * further configure this {@link ClasspathExporter}; may be {@code
+   * null}
+   *
    * @param repositorySystem the {@link RepositorySystem} used for
    * dependency resolution; must not be {@code null}
    *
@@ -392,140 +625,1617 @@ public final class ClasspathExporter {
    * return an {@linkplain Collections#emptySet() empty
    * <code>Set</code>} of {@link URI}s
    *
+   * @param artifactResolvedEvent an {@link Event} used to {@linkplain
+   * #fireArtifactResolved(Event, ArtifactResolvedEvent) announce} each
+   * artifact as soon as it is resolved; may be {@code null}
+   *
    * @exception NullPointerException if {@code repositorySystem} or
    * {@code session} is {@code null}
    *
-   * @exception DependencyResolutionException if there was a problem
+   * @exception RepositoryException if there was a problem
    * with {@linkplain
    * RepositorySystem#resolveDependencies(RepositorySystemSession,
    * DependencyRequest) dependency resolution};
    *
    * @see #getClasspath()
    *
+   * @see #getHedgeDelay()
+   *
+   * @see #getResolutionTimeout()
+   *
    * @see
    * RepositorySystem#resolveDependencies(RepositorySystemSession,
    * DependencyRequest)
    */
   private final void onStartup(@Observes @Initialized(ApplicationScoped.class) final Object event,
+                               final CommandLine commandLine,
                                final RepositorySystem repositorySystem,
                                final RepositorySystemSession session,
                                @Resolution final List<RemoteRepository> remoteRepositories,
-                               final List<Dependency> dependencies)
-  throws DependencyResolutionException {
+                               final List<Dependency> dependencies,
+                               final Event<ArtifactResolvedEvent> artifactResolvedEvent)
+  throws RepositoryException {
     Objects.requireNonNull(repositorySystem);
     Objects.requireNonNull(session);
-    if (dependencies != null && !dependencies.isEmpty()) {
-      final CollectRequest collectRequest = new CollectRequest((Dependency)null /* no root */, dependencies, remoteRepositories);
-      final DependencyRequest dependencyRequest = new DependencyRequest(collectRequest, DependencyFilterUtils.classpathFilter(JavaScopes.COMPILE)); // TODO: not sure about this filter if the user can specify individual scopes
-      final DependencyResult dependencyResult = repositorySystem.resolveDependencies(session, dependencyRequest);
-      assert dependencyResult != null;
-      final List<ArtifactResult> artifactResults = dependencyResult.getArtifactResults();
-      assert artifactResults != null;
-      for (final ArtifactResult artifactResult : artifactResults) {
-        if (artifactResult != null) {
-          final Artifact resolvedArtifact = artifactResult.getArtifact();
-          if (resolvedArtifact != null) {
-            final File f = resolvedArtifact.getFile();
-            assert f != null;
-            assert f.isFile();
-            assert f.canRead();
-            final URI uri = f.toURI();
-            assert uri != null;
-            this.classpath.add(uri);
+    this.artifactResolvedEvent = artifactResolvedEvent;
+    this.configure(commandLine);
+    this.publishMetrics();
+    try {
+      if (dependencies != null && !dependencies.isEmpty()) {
+        List<List<Dependency>> dependencyGroups;
+        if (this.applicationDependencies.isEmpty()) {
+          dependencyGroups = Collections.singletonList(dependencies);
+        } else {
+          dependencyGroups = new ArrayList<>(this.applicationDependencies.values());
+        }
+        List<Set<URI>> classpaths;
+        if (this.resolutionTimeout < 0L) {
+          classpaths = this.resolveManaged(repositorySystem, session, remoteRepositories, dependencyGroups);
+        } else {
+          classpaths = this.resolveWithinTimeout(repositorySystem, session, remoteRepositories, dependencyGroups);
+        }
+        assert classpaths != null;
+        assert classpaths.size() == dependencyGroups.size();
+        if (this.artifactStore != null) {
+          classpaths = this.view(classpaths);
+        }
+        for (final Set<URI> classpath : classpaths) {
+          this.classpath.addAll(classpath);
+        }
+        if (!this.applicationDependencies.isEmpty()) {
+          final Iterator<Set<URI>> iterator = classpaths.iterator();
+          for (final String applicationName : this.applicationDependencies.keySet()) {
+            this.applicationClasspaths.put(applicationName, Collections.unmodifiableSet(iterator.next()));
           }
         }
       }
+    } finally {
+      this.storeMetrics();
     }
   }
 
   /**
-   * Returns an {@linkplain Collections#unmodifiableSet(Set)
-   * unmodifiable <code>Set</code>} of {@link URI}s representing Java
-   * classpath elements that resulted from examining the user-supplied
-   * <em>artifact path</em>&mdash;a list of Maven-style artifact
-   * coordinates.
+   * {@linkplain #readManagedDependencies(RepositorySystem,
+   * RepositorySystemSession, List) Reads} the {@linkplain
+   * #getManagedDependencies() bills of materials} named by the {@code
+   * --bom} command line option, if any, {@linkplain #manage(List,
+   * Collection) manages} the supplied groups of {@link Dependency}
+   * instances with them, and {@linkplain #resolve(RepositorySystem,
+   * RepositorySystemSession, List, List) resolves} the result.
+   *
+   * <p>Bills of materials are read here, rather than before
+   * resolution begins, so that reading them is subject to the
+   * {@linkplain #getResolutionTimeout() resolution timeout} too.</p>
    *
    * <p>This method never returns {@code null}.</p>
    *
-   * @return a non-{@code null}, {@linkplain
-   * Collections#unmodifiableSet(Set) unmodifiable <code>Set</code>}
-   * of {@link URI}s representing Java classpath elements
+   * @param repositorySystem the {@link RepositorySystem} used for
+   * dependency resolution; must not be {@code null}
+   *
+   * @param session the {@link RepositorySystemSession} used to
+   * interact with the supplied {@code repositorySystem}; must not be
+   * {@code null}
+   *
+   * @param remoteRepositories a {@link List} of {@link
+   * RemoteRepository} instances to use; may be {@code null}
+   *
+   * @param dependencyGroups the groups of {@link Dependency}
+   * instances to resolve; must not be {@code null} or empty
+   *
+   * @return a non-{@code null} {@link List} containing one ordered
+   * {@link Set} of classpath {@link URI}s per group, in the same
+   * order as the supplied groups
+   *
+   * @exception RepositoryException if a bill of materials could not
+   * be read, or if there was a problem with dependency collection or
+   * artifact resolution
    */
-  public final Set<URI> getClasspath() {
-    if (this.classpath == null || this.classpath.isEmpty()) {
-      return Collections.emptySet();
-    } else {
-      return Collections.unmodifiableSet(this.classpath);
+  private final List<Set<URI>> resolveManaged(final RepositorySystem repositorySystem,
+                                              final RepositorySystemSession session,
+                                              final List<RemoteRepository> remoteRepositories,
+                                              final List<? extends List<Dependency>> dependencyGroups)
+    throws RepositoryException {
+    if (this.boms.isEmpty()) {
+      return this.resolve(repositorySystem, session, remoteRepositories, dependencyGroups);
     }
+    this.managedDependencies = this.readManagedDependencies(repositorySystem, session, remoteRepositories);
+    return this.resolve(repositorySystem, session, remoteRepositories, manage(dependencyGroups, this.managedDependencies));
   }
 
   /**
-   * Returns a {@link String} array representing any command line
-   * arguments that this class did <em>not</em> "consume" as it tried
-   * to determine the user-supplied artifact path.
+   * Reads the dependency management sections of the {@linkplain
+   * #getManagedDependencies() bills of materials} named by the {@code
+   * --bom} command line option, in order, and returns the managed
+   * {@link Dependency} instances they declare, including those they
+   * import.
    *
-   * <p>This method will never return {@code null}.</p>
+   * <p>Bills of materials are read through a {@linkplain
+   * #newSession(RepositorySystemSession) launcher session}, so that
+   * their transfers count towards the {@linkplain
+   * #getResolutionMetrics() resolution metrics}.</p>
    *
-   * @return a non-{@code null} {@link String} array representing any
-   * command line arguments that this class did <em>not</em> "consume"
-   * as it tried to determine the user-supplied artifact path
+   * <p>Where several bills of materials manage the same artifact,
+   * the first one named wins, just as it would in a Maven {@code
+   * <dependencyManagement>} section.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param repositorySystem the {@link RepositorySystem} used to read
+   * artifact descriptors; must not be {@code null}
+   *
+   * @param session the {@link RepositorySystemSession} in effect;
+   * must not be {@code null}
+   *
+   * @param remoteRepositories a {@link List} of {@link
+   * RemoteRepository} instances to use; may be {@code null}
+   *
+   * @return a non-{@code null}, unmodifiable {@link List} of managed
+   * {@link Dependency} instances
+   *
+   * @exception ArtifactDescriptorException if a bill of materials
+   * could not be read
    */
-  public final String[] getRemainingCommandLineArguments() {
-    if (this.remainingCommandLineArguments == null) {
-      return new String[0];
-    } else {
-      return this.remainingCommandLineArguments.clone();
+  private final List<Dependency> readManagedDependencies(final RepositorySystem repositorySystem,
+                                                         final RepositorySystemSession session,
+                                                         final List<RemoteRepository> remoteRepositories)
+    throws ArtifactDescriptorException {
+    final RepositorySystemSession launcherSession = this.newSession(session);
+    final Map<String, Dependency> managedDependencies = new LinkedHashMap<>();
+    for (final Dependency bom : this.boms) {
+      final ArtifactDescriptorResult result =
+        repositorySystem.readArtifactDescriptor(launcherSession, new ArtifactDescriptorRequest(bom.getArtifact(), remoteRepositories, null));
+      assert result != null;
+      for (final Dependency managedDependency : result.getManagedDependencies()) {
+        managedDependencies.putIfAbsent(ArtifactIdUtils.toVersionlessId(managedDependency.getArtifact()), managedDependency);
+      }
     }
+    return Collections.unmodifiableList(new ArrayList<>(managedDependencies.values()));
   }
-  
 
-  /*
-   * Static methods.
+  /**
+   * Returns the {@link Dependency} instances, read from the bills of
+   * materials named by the {@code --bom} command line option, that
+   * govern the versions of version-less launch coordinates and of
+   * transitive dependencies.
+   *
+   * <p>The list is empty unless the {@code --bom} command line
+   * option is specified, and until dependency resolution has
+   * begun.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return a non-{@code null}, unmodifiable {@link List} of managed
+   * {@link Dependency} instances
    */
-
+  public final List<Dependency> getManagedDependencies() {
+    return this.managedDependencies;
+  }
 
   /**
-   * A <a
-   * href="http://docs.jboss.org/cdi/spec/2.0/cdi-spec.html#producer_method"
-   * target="_parent">producer method</a> that {@linkplain Produces
-   * produces} an {@link Options} instance representing the command
-   * line options that this class looks for in its {@link
-   * #produceDependencies(CommandLine)} method.
+   * Returns, for each of the supplied classpaths, an equivalent
+   * classpath whose files are hard links into the {@linkplain
+   * #getArtifactStore() artifact store}, or the supplied classpaths
+   * themselves if the store could not be used.
    *
    * <p>This method never returns {@code null}.</p>
    *
-   * @return a non-{@code null} {@link Options} representing the
-   * command line options this class will look for in its {@link
-   * #produceDependencies(CommandLine)} method
+   * @param classpaths the classpaths to view; must not be {@code
+   * null}
    *
-   * @see #produceDependencies(CommandLine)
+   * @return a non-{@code null} {@link List} of classpaths, in the
+   * same order as the supplied ones
+   *
+   * @see ArtifactStore#view(Collection)
    */
-  @Produces
-  @ApplicationScoped
-  private static final Options getOptions() {
-    final Options options = new Options();
-
-    final Option defaultGroupId = Option.builder()
-      .longOpt("defaultGroupId")
-      .hasArg(true)
-      .required(false)
-      .type(String.class)
-      .argName("groupId")
-      .desc("The default groupId to use in artifact coordinates.")
-      .build();
-    options.addOption(defaultGroupId);
-
-    final Option artifact = Option.builder("ap")
-      .longOpt("artifactPath")
-      .hasArgs()
-      .required(false)
-      .type(String.class)
-      .argName("GAV coordinates")
-      .desc("The double-colon separated GAV coordinates of the artifacts to resolve.")
-      .build();
-    options.addOption(artifact);
+  private final List<Set<URI>> view(final List<Set<URI>> classpaths) {
+    final ArtifactStore artifactStore = new ArtifactStore(this.artifactStore);
+    final List<Set<URI>> returnValue = new ArrayList<>(classpaths.size());
+    try {
+      for (final Set<URI> classpath : classpaths) {
+        returnValue.add(artifactStore.view(classpath));
+      }
+    } catch (final IOException ioException) {
+      this.logger.warn("Could not view the resolved classpath from the artifact store at {}; using the local repository", this.artifactStore, ioException);
+      return classpaths;
+    }
+    return returnValue;
+  }
 
-    return options;
+  /**
+   * Resolves the supplied groups of {@link Dependency} instances in a
+   * single pass and returns, for each group, the local filesystem
+   * locations of the resulting artifacts as classpath {@link URI}s.
+   *
+   * <p>When there is more than one group, the union of all groups is
+   * collected as one dependency graph, so that artifacts shared by
+   * several groups are resolved, and conflicts between them
+   * mediated, only once.  The conflict resolver is asked to keep
+   * losing nodes in the graph, pointing at their winners, so that
+   * each group's classpath can afterwards be read off the subgraphs
+   * rooted at that group's own dependencies.  An artifact that a
+   * group reaches only transitively is therefore mediated across all
+   * groups, exactly as if they were one application's
+   * dependencies.</p>
+   *
+   * <p>The artifacts a group names directly, on the other hand, must
+   * win for that group.  If two groups name the same artifact
+   * directly, but with different versions, no single mediation can
+   * honor both, so each group is then resolved on its own.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param repositorySystem the {@link RepositorySystem} used for
+   * dependency resolution; must not be {@code null}
+   *
+   * @param session the {@link RepositorySystemSession} used to
+   * interact with the supplied {@code repositorySystem}; must not be
+   * {@code null}
+   *
+   * @param remoteRepositories a {@link List} of {@link
+   * RemoteRepository} instances to use; may be {@code null}
+   *
+   * @param dependencyGroups the groups of {@link Dependency}
+   * instances to resolve; must not be {@code null} or empty
+   *
+   * @return a non-{@code null} {@link List} containing one ordered
+   * {@link Set} of classpath {@link URI}s per group, in the same
+   * order as the supplied groups
+   *
+   * @exception RepositoryException if there was a problem with
+   * dependency collection or artifact resolution
+   */
+  final List<Set<URI>> resolve(final RepositorySystem repositorySystem,
+                               final RepositorySystemSession session,
+                               final List<RemoteRepository> remoteRepositories,
+                               final List<? extends List<Dependency>> dependencyGroups)
+    throws RepositoryException {
+    final boolean shared = dependencyGroups.size() > 1;
+    if (shared) {
+      final String conflict = getConflict(dependencyGroups);
+      if (conflict != null) {
+        this.logger.info("{} is named directly with different versions by different applications; resolving each application on its own", conflict);
+        final List<Set<URI>> returnValue = new ArrayList<>(dependencyGroups.size());
+        for (final List<Dependency> dependencyGroup : dependencyGroups) {
+          returnValue.addAll(this.resolve(repositorySystem, session, remoteRepositories, Collections.singletonList(dependencyGroup)));
+        }
+        return returnValue;
+      }
+    }
+    final List<Dependency> dependencies;
+    final DefaultRepositorySystemSession launcherSession = this.newSession(session);
+    DependencyFilter filter = DependencyFilterUtils.classpathFilter(JavaScopes.COMPILE); // TODO: not sure about this filter if the user can specify individual scopes
+    if (shared) {
+      final Set<Dependency> allDependencies = new LinkedHashSet<>();
+      for (final List<Dependency> dependencyGroup : dependencyGroups) {
+        allDependencies.addAll(dependencyGroup);
+      }
+      dependencies = new ArrayList<>(allDependencies);
+      launcherSession.setConfigProperty(ConflictResolver.CONFIG_PROP_VERBOSE, Boolean.TRUE);
+      filter = DependencyFilterUtils.andFilter(filter, (node, parents) -> node.getData().get(ConflictResolver.NODE_DATA_WINNER) == null);
+    } else {
+      dependencies = dependencyGroups.get(0);
+    }
+    final DependencyResult dependencyResult;
+    if (this.hedgeDelay < 0L) {
+      final CollectRequest collectRequest = new CollectRequest((Dependency)null /* no root */, dependencies, remoteRepositories);
+      collectRequest.setManagedDependencies(this.managedDependencies);
+      final DependencyRequest dependencyRequest = new DependencyRequest(collectRequest, filter);
+      dependencyResult = repositorySystem.resolveDependencies(launcherSession, dependencyRequest);
+    } else {
+      dependencyResult = this.resolveHedged(repositorySystem, launcherSession, remoteRepositories, dependencies, filter);
+    }
+    assert dependencyResult != null;
+    final List<Set<URI>> returnValue = new ArrayList<>(dependencyGroups.size());
+    if (shared) {
+      final DependencyNode root = dependencyResult.getRoot();
+      assert root != null;
+      final Map<String, DependencyNode> topLevelNodes = new HashMap<>();
+      for (final DependencyNode child : root.getChildren()) {
+        if (child != null && child.getArtifact() != null) {
+          topLevelNodes.putIfAbsent(ArtifactIdUtils.toVersionlessId(child.getArtifact()), child);
+        }
+      }
+      for (final List<Dependency> dependencyGroup : dependencyGroups) {
+        final Set<URI> classpath = new LinkedHashSet<>();
+        final Set<DependencyNode> visitedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (final Dependency dependency : dependencyGroup) {
+          final DependencyNode node = topLevelNodes.get(ArtifactIdUtils.toVersionlessId(dependency.getArtifact()));
+          if (node != null) {
+            addClasspath(node, filter, visitedNodes, classpath);
+          }
+        }
+        returnValue.add(classpath);
+      }
+    } else {
+      final List<ArtifactResult> artifactResults = dependencyResult.getArtifactResults();
+      assert artifactResults != null;
+      final Set<URI> classpath = new LinkedHashSet<>();
+      for (final ArtifactResult artifactResult : artifactResults) {
+        if (artifactResult != null) {
+          final Artifact resolvedArtifact = artifactResult.getArtifact();
+          if (resolvedArtifact != null) {
+            final File f = resolvedArtifact.getFile();
+            assert f != null;
+            assert f.isFile();
+            assert f.canRead();
+            final URI uri = f.toURI();
+            assert uri != null;
+            classpath.add(uri);
+          }
+        }
+      }
+      returnValue.add(classpath);
+    }
+    return returnValue;
+  }
+
+  /**
+   * {@linkplain #resolve(RepositorySystem, RepositorySystemSession,
+   * List, List) Resolves} the supplied groups of {@link Dependency}
+   * instances on a separate thread, waiting at most {@linkplain
+   * #getResolutionTimeout() the resolution timeout} before falling
+   * back to the {@linkplain ClasspathSnapshots last known good
+   * classpaths} for the same groups.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param repositorySystem the {@link RepositorySystem} used for
+   * dependency resolution; must not be {@code null}
+   *
+   * @param session the {@link RepositorySystemSession} used to
+   * interact with the supplied {@code repositorySystem}; must not be
+   * {@code null}
+   *
+   * @param remoteRepositories a {@link List} of {@link
+   * RemoteRepository} instances to use; may be {@code null}
+   *
+   * @param dependencyGroups the groups of {@link Dependency}
+   * instances to resolve; must not be {@code null} or empty
+   *
+   * @return a non-{@code null} {@link List} containing one ordered
+   * {@link Set} of classpath {@link URI}s per group, in the same
+   * order as the supplied groups
+   *
+   * @exception RepositoryException if there was a problem with
+   * dependency collection or artifact resolution and there is no
+   * last known good classpath, or if the calling thread was
+   * interrupted
+   *
+   * @see #resolveWithinTimeout(Callable, List)
+   */
+  final List<Set<URI>> resolveWithinTimeout(final RepositorySystem repositorySystem,
+                                            final RepositorySystemSession session,
+                                            final List<RemoteRepository> remoteRepositories,
+                                            final List<? extends List<Dependency>> dependencyGroups)
+    throws RepositoryException {
+    // The last known good classpaths are keyed by the launch
+    // coordinates as given, plus the bills of materials that will
+    // manage them, since those are known before anything is read.
+    final List<List<Dependency>> snapshotKeys = new ArrayList<>(dependencyGroups.size());
+    for (final List<Dependency> dependencyGroup : dependencyGroups) {
+      final List<Dependency> snapshotKey = new ArrayList<>(dependencyGroup);
+      snapshotKey.addAll(this.boms);
+      snapshotKeys.add(snapshotKey);
+    }
+    return this.resolveWithinTimeout(() -> this.resolveManaged(repositorySystem, session, remoteRepositories, dependencyGroups), snapshotKeys);
+  }
+
+  /**
+   * Calls the supplied {@link Callable} on a separate thread to
+   * resolve the supplied groups of {@link Dependency} instances,
+   * waiting at most {@linkplain #getResolutionTimeout() the
+   * resolution timeout} before falling back to the {@linkplain
+   * ClasspathSnapshots last known good classpaths} for the same
+   * groups.
+   *
+   * <p>Every successful resolution is recorded as the new last known
+   * good classpath of each group.  If every group has a last known
+   * good classpath, those classpaths are returned when the timeout
+   * elapses, and also when resolution fails outright, e.g. because
+   * a remote repository is unreachable.  A resolution that has timed
+   * out is then {@linkplain Future#cancel(boolean) cancelled}, not
+   * left running, since the {@link RepositorySystem} and {@link
+   * RepositorySystemSession} it uses do not outlive the container
+   * that supplied them; the last known good classpaths are therefore
+   * refreshed only by a later launch whose resolution finishes in
+   * time.  If any group has no last known good classpath, this
+   * method waits for resolution to finish, or fail, as usual.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param resolution the {@link Callable} that resolves the groups;
+   * must not be {@code null}
+   *
+   * @param dependencyGroups the groups of {@link Dependency}
+   * instances to resolve; must not be {@code null} or empty
+   *
+   * @return a non-{@code null} {@link List} containing one ordered
+   * {@link Set} of classpath {@link URI}s per group, in the same
+   * order as the supplied groups
+   *
+   * @exception RepositoryException if there was a problem with
+   * dependency collection or artifact resolution and there is no
+   * last known good classpath, or if the calling thread was
+   * interrupted
+   */
+  final List<Set<URI>> resolveWithinTimeout(final Callable<? extends List<Set<URI>>> resolution,
+                                            final List<? extends List<Dependency>> dependencyGroups)
+    throws RepositoryException {
+    Objects.requireNonNull(resolution);
+    final ClasspathSnapshots snapshots = new ClasspathSnapshots(this.cacheDirectory.resolve(CLASSPATHS_DIRECTORY_NAME));
+    final FutureTask<List<Set<URI>>> task = new FutureTask<>(() -> {
+        final List<Set<URI>> classpaths = resolution.call();
+        try {
+          for (int i = 0; i < classpaths.size(); i++) {
+            snapshots.store(dependencyGroups.get(i), classpaths.get(i));
+          }
+        } catch (final IOException ioException) {
+          this.logger.warn("Could not record the last known good classpath", ioException);
+        }
+        return classpaths;
+      });
+    final Thread thread = new Thread(task, "microbean-launcher-resolution");
+    thread.setDaemon(true);
+    thread.start();
+    List<Set<URI>> returnValue;
+    try {
+      try {
+        returnValue = task.get(this.resolutionTimeout, TimeUnit.MILLISECONDS);
+      } catch (final TimeoutException timeoutException) {
+        final List<Set<URI>> snapshot = this.loadSnapshot(snapshots, dependencyGroups);
+        if (snapshot == null) {
+          this.logger.warn("Dependency resolution did not finish within {} ms and there is no last known good classpath; waiting for it to finish", Long.valueOf(this.resolutionTimeout));
+          returnValue = task.get();
+        } else {
+          task.cancel(true);
+          this.logger.warn("Dependency resolution did not finish within {} ms; using the last known good classpath", Long.valueOf(this.resolutionTimeout));
+          returnValue = snapshot;
+        }
+      }
+    } catch (final ExecutionException executionException) {
+      final Throwable cause = executionException.getCause();
+      if (cause instanceof Exception) {
+        final List<Set<URI>> snapshot = this.loadSnapshot(snapshots, dependencyGroups);
+        if (snapshot != null) {
+          this.logger.warn("Dependency resolution failed; using the last known good classpath", cause);
+          return snapshot;
+        }
+      }
+      if (cause instanceof RepositoryException) {
+        throw (RepositoryException)cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException)cause;
+      } else if (cause instanceof Error) {
+        throw (Error)cause;
+      } else {
+        throw new RepositoryException(String.valueOf(cause), cause);
+      }
+    } catch (final InterruptedException interruptedException) {
+      task.cancel(true);
+      Thread.currentThread().interrupt();
+      throw new RepositoryException("Interrupted while resolving dependencies", interruptedException);
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns the {@linkplain ClasspathSnapshots last known good
+   * classpaths} of the supplied groups of {@link Dependency}
+   * instances, or {@code null} if any group does not have one.
+   *
+   * @param snapshots the {@link ClasspathSnapshots} to read from;
+   * must not be {@code null}
+   *
+   * @param dependencyGroups the groups of {@link Dependency}
+   * instances; must not be {@code null}
+   *
+   * @return a {@link List} containing one classpath per group, or
+   * {@code null}
+   */
+  private final List<Set<URI>> loadSnapshot(final ClasspathSnapshots snapshots, final List<? extends List<Dependency>> dependencyGroups) {
+    final List<Set<URI>> returnValue = new ArrayList<>(dependencyGroups.size());
+    try {
+      for (final List<Dependency> dependencyGroup : dependencyGroups) {
+        final Set<URI> classpath = snapshots.load(dependencyGroup);
+        if (classpath == null) {
+          return null;
+        }
+        returnValue.add(classpath);
+      }
+    } catch (final IOException ioException) {
+      this.logger.warn("Could not read the last known good classpath", ioException);
+      return null;
+    }
+    return returnValue;
+  }
+
+  /**
+   * Collects the supplied {@link Dependency} instances against
+   * remote repositories {@linkplain RepositoryLatencies#sort(List)
+   * ordered by their recorded latencies} and then resolves the
+   * resulting artifacts using a {@link HedgedArtifactResolver}.
+   *
+   * <p>Hedge requests resolve into a staging local repository
+   * beneath the {@linkplain #getCacheDirectory() cache directory} so
+   * that they never race the primary requests for the same local
+   * file.  Each artifact that a hedge request wins is then
+   * {@linkplain RepositorySystem#install(RepositorySystemSession,
+   * InstallRequest) installed} into the real local repository, which
+   * is where the resulting classpath points, and the staging local
+   * repository is deleted.  A staging local repository left behind by
+   * a hedge request that was still running at the time is deleted
+   * the next time this method runs.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param repositorySystem the {@link RepositorySystem} used for
+   * dependency resolution; must not be {@code null}
+   *
+   * @param session the {@link RepositorySystemSession} used to
+   * interact with the supplied {@code repositorySystem}; must not be
+   * {@code null}
+   *
+   * @param remoteRepositories a {@link List} of {@link
+   * RemoteRepository} instances to use; may be {@code null}
+   *
+   * @param dependencies the {@link Dependency} instances to resolve;
+   * must not be {@code null}
+   *
+   * @param filter the {@link DependencyFilter} selecting which
+   * collected dependencies are resolved; may be {@code null}
+   *
+   * @return a non-{@code null} {@link DependencyResult} whose
+   * {@linkplain DependencyResult#getRoot() root} is the collected
+   * dependency graph, with resolved artifacts set on its nodes
+   *
+   * @exception RepositoryException if there was a problem with
+   * dependency collection or artifact resolution
+   */
+  private final DependencyResult resolveHedged(final RepositorySystem repositorySystem,
+                                               final RepositorySystemSession session,
+                                               final List<RemoteRepository> remoteRepositories,
+                                               final List<Dependency> dependencies,
+                                               final DependencyFilter filter)
+    throws RepositoryException {
+    final RepositoryLatencies latencies = new RepositoryLatencies();
+    final Path latenciesFile = this.cacheDirectory.resolve(REPOSITORY_LATENCIES_FILE_NAME);
+    try {
+      latencies.load(latenciesFile);
+    } catch (final IOException ioException) {
+      this.logger.warn("Could not read repository latencies from {}", latenciesFile, ioException);
+    }
+
+    final DefaultRepositorySystemSession primarySession = new DefaultRepositorySystemSession(session);
+    primarySession.setTransferListener(ChainedTransferListener.newInstance(session.getTransferListener(), latencies));
+    final Path hedgeDirectory = this.cacheDirectory.resolve(HEDGE_DIRECTORY_NAME);
+    this.delete(hedgeDirectory);
+    final DefaultRepositorySystemSession hedgeSession = new DefaultRepositorySystemSession(primarySession);
+    hedgeSession.setLocalRepositoryManager(repositorySystem.newLocalRepositoryManager(primarySession, new LocalRepository(hedgeDirectory.toFile())));
+
+    final CollectRequest collectRequest = new CollectRequest((Dependency)null /* no root */, dependencies, latencies.sort(remoteRepositories));
+    collectRequest.setManagedDependencies(this.managedDependencies);
+    final CollectResult collectResult = repositorySystem.collectDependencies(primarySession, collectRequest);
+    assert collectResult != null;
+    final PreorderNodeListGenerator nodeListGenerator = new PreorderNodeListGenerator();
+    collectResult.getRoot().accept(new FilteringDependencyVisitor(nodeListGenerator, filter));
+    final List<ArtifactRequest> artifactRequests = new ArrayList<>();
+    for (final DependencyNode node : nodeListGenerator.getNodes()) {
+      if (node != null && node.getDependency() != null) {
+        artifactRequests.add(new ArtifactRequest(node));
+      }
+    }
+
+    final List<ArtifactResult> artifactResults;
+    try {
+      try (final HedgedArtifactResolver resolver = new HedgedArtifactResolver(repositorySystem, primarySession, hedgeSession, this.hedgeDelay, HEDGE_THREADS)) {
+        artifactResults = resolver.resolveArtifacts(artifactRequests);
+      } finally {
+        try {
+          latencies.store(latenciesFile);
+        } catch (final IOException ioException) {
+          this.logger.warn("Could not write repository latencies to {}", latenciesFile, ioException);
+        }
+      }
+      // Move every artifact won by a hedge request out of the
+      // staging local repository and into the real one.
+      final InstallRequest installRequest = new InstallRequest();
+      final List<ArtifactResult> hedgedArtifactResults = new ArrayList<>();
+      for (int i = 0; i < artifactResults.size(); i++) {
+        final ArtifactResult artifactResult = artifactResults.get(i);
+        if (artifactResult.getRequest() != artifactRequests.get(i)) {
+          installRequest.addArtifact(artifactResult.getArtifact());
+          hedgedArtifactResults.add(artifactResult);
+        }
+      }
+      if (!hedgedArtifactResults.isEmpty()) {
+        repositorySystem.install(primarySession, installRequest);
+        final File localRepositoryDirectory = primarySession.getLocalRepository().getBasedir();
+        for (final ArtifactResult artifactResult : hedgedArtifactResults) {
+          final Artifact artifact = artifactResult.getArtifact();
+          artifactResult.setArtifact(artifact.setFile(new File(localRepositoryDirectory, primarySession.getLocalRepositoryManager().getPathForLocalArtifact(artifact))));
+        }
+      }
+    } finally {
+      this.delete(hedgeDirectory);
+    }
+    for (final ArtifactResult artifactResult : artifactResults) {
+      final DependencyNode node = artifactResult.getRequest().getDependencyNode();
+      if (node != null) {
+        node.setArtifact(artifactResult.getArtifact());
+      }
+    }
+    final DependencyResult returnValue = new DependencyResult(new DependencyRequest(collectResult.getRoot(), filter));
+    returnValue.setRoot(collectResult.getRoot());
+    returnValue.setArtifactResults(artifactResults);
+    return returnValue;
+  }
+
+  /**
+   * Deletes the directory located at the supplied {@link Path} and
+   * everything beneath it, logging, rather than throwing, any {@link
+   * IOException} that results.
+   *
+   * @param directory the {@link Path} of the directory to delete;
+   * must not be {@code null}; need not exist
+   */
+  private final void delete(final Path directory) {
+    if (Files.exists(directory)) {
+      try {
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public final FileVisitResult visitFile(final Path file, final BasicFileAttributes attributes) throws IOException {
+              Files.delete(file);
+              return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public final FileVisitResult postVisitDirectory(final Path directory, final IOException exception) throws IOException {
+              if (exception != null) {
+                throw exception;
+              }
+              Files.delete(directory);
+              return FileVisitResult.CONTINUE;
+            }
+          });
+      } catch (final IOException ioException) {
+        this.logger.warn("Could not delete {}", directory, ioException);
+      }
+    }
+  }
+
+  /**
+   * Returns the versionless identifier of an artifact that two of the
+   * supplied groups of {@link Dependency} instances name directly
+   * with different versions, or {@code null} if there is no such
+   * artifact.
+   *
+   * @param dependencyGroups the groups of {@link Dependency}
+   * instances to examine; must not be {@code null}
+   *
+   * @return a versionless artifact identifier, or {@code null}
+   *
+   * @exception NullPointerException if {@code dependencyGroups} is
+   * {@code null}
+   */
+  private static final String getConflict(final List<? extends List<Dependency>> dependencyGroups) {
+    final Map<String, String> versions = new HashMap<>();
+    for (final List<Dependency> dependencyGroup : dependencyGroups) {
+      for (final Dependency dependency : dependencyGroup) {
+        final Artifact artifact = dependency.getArtifact();
+        final String versionlessId = ArtifactIdUtils.toVersionlessId(artifact);
+        final String version = versions.putIfAbsent(versionlessId, artifact.getVersion());
+        if (version != null && !version.equals(artifact.getVersion())) {
+          return versionlessId;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Adds the classpath {@link URI}s of the artifacts in the subgraph
+   * rooted at the supplied {@link DependencyNode} to the supplied
+   * {@link Set}, in preorder.
+   *
+   * <p>Nodes that lost a conflict are replaced by their {@linkplain
+   * ConflictResolver#NODE_DATA_WINNER winners}.</p>
+   *
+   * @param node the {@link DependencyNode} to start at; must not be
+   * {@code null}
+   *
+   * @param filter the {@link DependencyFilter} selecting which nodes
+   * contribute to the classpath; may be {@code null}
+   *
+   * @param visitedNodes a {@link Set} of {@link DependencyNode}s
+   * already visited; must not be {@code null}
+   *
+   * @param classpath the {@link Set} to add classpath {@link URI}s to;
+   * must not be {@code null}
+   *
+   * @exception NullPointerException if any parameter other than
+   * {@code filter} is {@code null}
+   */
+  private static final void addClasspath(DependencyNode node,
+                                         final DependencyFilter filter,
+                                         final Set<DependencyNode> visitedNodes,
+                                         final Set<URI> classpath) {
+    final Object winner = node.getData().get(ConflictResolver.NODE_DATA_WINNER);
+    if (winner instanceof DependencyNode) {
+      node = (DependencyNode)winner;
+    }
+    if (visitedNodes.add(node)) {
+      if (node.getDependency() != null && (filter == null || filter.accept(node, Collections.emptyList()))) {
+        final Artifact artifact = node.getArtifact();
+        if (artifact != null && artifact.getFile() != null) {
+          classpath.add(artifact.getFile().toURI());
+        }
+      }
+      for (final DependencyNode child : node.getChildren()) {
+        if (child != null) {
+          addClasspath(child, filter, visitedNodes, classpath);
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns a {@link RepositorySystemSession} suitable for resolving
+   * the launcher's artifacts, based on the supplied {@link
+   * RepositorySystemSession}.
+   *
+   * <p>The returned {@link RepositorySystemSession} is a copy of the
+   * supplied one whose transfer and repository listeners also feed
+   * this {@link ClasspathExporter}'s {@linkplain
+   * #getResolutionMetrics() resolution metrics}.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param session the {@link RepositorySystemSession} to start from;
+   * must not be {@code null}
+   *
+   * @return a non-{@code null} {@link DefaultRepositorySystemSession}
+   *
+   * @exception NullPointerException if {@code session} is {@code
+   * null}
+   */
+  final DefaultRepositorySystemSession newSession(final RepositorySystemSession session) {
+    Objects.requireNonNull(session);
+    final DefaultRepositorySystemSession returnValue = new DefaultRepositorySystemSession(session);
+    returnValue.setTransferListener(ChainedTransferListener.newInstance(session.getTransferListener(), this.metrics));
+    returnValue.setRepositoryListener(new ChainedRepositoryListener(session.getRepositoryListener(),
+                                                                    this.metrics.getRepositoryListener(),
+                                                                    new ArtifactResolutionNotifier(event -> this.fireArtifactResolved(this.artifactResolvedEvent, event))));
+    return returnValue;
+  }
+
+  /**
+   * Fires the supplied {@link ArtifactResolvedEvent} both
+   * synchronously and {@linkplain Event#fireAsync(Object)
+   * asynchronously}, so that it reaches observers declared with
+   * either {@link Observes} or {@link ObservesAsync}.
+   *
+   * <p>Synchronous observers run on the thread that resolved the
+   * artifact while other artifacts continue to download, and so
+   * should hand any lengthy work off to another thread.  The two
+   * deliveries are independent: an exception thrown by a synchronous
+   * observer does not prevent asynchronous delivery.  Exceptions
+   * thrown by synchronous observers, and those with which the
+   * {@link java.util.concurrent.CompletionStage} returned by {@link
+   * Event#fireAsync(Object)} completes, are logged rather than
+   * thrown, so that they never abort dependency resolution.</p>
+   *
+   * <p>Nothing waits for asynchronous observers to finish.  They may
+   * therefore still be running after resolution has finished and the
+   * bootstrap container that fired the event has been shut down, and
+   * must not rely on anything that container manages.</p>
+   *
+   * <p>Events always describe files in the local Maven repository,
+   * even when the {@code --artifactStore} option later replaces them
+   * on the classpath with {@linkplain ArtifactStore views} of the
+   * same content.</p>
+   *
+   * @param artifactResolvedEvent the {@link Event} through which to
+   * fire; may be {@code null} in which case no action will be taken
+   *
+   * @param event the {@link ArtifactResolvedEvent} to fire; may be
+   * {@code null} in which case no action will be taken
+   */
+  final void fireArtifactResolved(final Event<ArtifactResolvedEvent> artifactResolvedEvent, final ArtifactResolvedEvent event) {
+    if (event != null && artifactResolvedEvent != null) {
+      try {
+        artifactResolvedEvent.fire(event);
+      } catch (final RuntimeException runtimeException) {
+        this.logger.warn("An observer of {} failed", event, runtimeException);
+      }
+      try {
+        artifactResolvedEvent.fireAsync(event).whenComplete((e, throwable) -> {
+            if (throwable != null) {
+              this.logger.warn("An asynchronous observer of {} failed", event, throwable);
+            }
+          });
+      } catch (final RuntimeException runtimeException) {
+        this.logger.warn("Could not deliver {} to asynchronous observers", event, runtimeException);
+      }
+    }
+  }
+
+  /**
+   * {@linkplain ResolutionMetrics#register(MBeanServer) Registers}
+   * this {@link ClasspathExporter}'s {@linkplain
+   * #getResolutionMetrics() resolution metrics} with the {@linkplain
+   * ManagementFactory#getPlatformMBeanServer() platform
+   * <code>MBeanServer</code>}.
+   *
+   * <p>Failures are logged rather than thrown, since metrics must
+   * never prevent an application from starting.</p>
+   *
+   * @see #storeMetrics()
+   */
+  private final void publishMetrics() {
+    try {
+      this.metrics.register(ManagementFactory.getPlatformMBeanServer());
+    } catch (final JMException | SecurityException exception) {
+      this.logger.warn("Could not register resolution metrics", exception);
+    }
+  }
+
+  /**
+   * {@linkplain ResolutionMetrics#store(Path) Writes} this {@link
+   * ClasspathExporter}'s {@linkplain #getResolutionMetrics()
+   * resolution metrics} to the file named by the {@code
+   * --metricsFile} command line option, if there is one.
+   *
+   * <p>This is done once dependency resolution has finished, rather
+   * than from a shutdown hook, so that launching repeatedly in one
+   * JVM does not accumulate shutdown hooks, and so that the metrics
+   * are written even when the JVM is later halted.</p>
+   *
+   * <p>Failures are logged rather than thrown, since metrics must
+   * never prevent an application from starting.</p>
+   */
+  private final void storeMetrics() {
+    final Path metricsFile = this.metricsFile;
+    if (metricsFile != null) {
+      try {
+        this.metrics.store(metricsFile);
+      } catch (final IOException ioException) {
+        this.logger.warn("Could not write resolution metrics to {}", metricsFile, ioException);
+      }
+    }
+  }
+
+  /**
+   * Configures this {@link ClasspathExporter} from the options
+   * present in the supplied {@link CommandLine}.
+   *
+   * @param commandLine the {@link CommandLine} to examine; may be
+   * {@code null} in which case no action will be taken
+   *
+   * @exception IllegalArgumentException if an option has an invalid
+   * value, or if options that cannot be combined, such as {@code
+   * --manifest} and {@code --artifactPath}, or {@code --watch} and
+   * {@code --artifactStore}, are present together
+   *
+   * @see #getOptions()
+   */
+  final void configure(final CommandLine commandLine) {
+    if (commandLine != null) {
+      final String cacheDirectory = commandLine.getOptionValue("cacheDirectory");
+      if (cacheDirectory != null && !cacheDirectory.isEmpty()) {
+        this.cacheDirectory = Paths.get(cacheDirectory);
+      }
+      final String hedgeDelay = commandLine.getOptionValue("hedgeDelay");
+      if (hedgeDelay != null && !hedgeDelay.isEmpty()) {
+        try {
+          this.hedgeDelay = Long.parseLong(hedgeDelay.trim());
+        } catch (final NumberFormatException numberFormatException) {
+          throw new IllegalArgumentException("Invalid hedge delay: " + hedgeDelay, numberFormatException);
+        }
+        if (this.hedgeDelay < 0L) {
+          throw new IllegalArgumentException("Invalid hedge delay: " + hedgeDelay);
+        }
+      }
+      final String resolutionTimeout = commandLine.getOptionValue("resolutionTimeout");
+      if (resolutionTimeout != null && !resolutionTimeout.isEmpty()) {
+        try {
+          this.resolutionTimeout = Long.parseLong(resolutionTimeout.trim());
+        } catch (final NumberFormatException numberFormatException) {
+          throw new IllegalArgumentException("Invalid resolution timeout: " + resolutionTimeout, numberFormatException);
+        }
+        if (this.resolutionTimeout < 0L) {
+          throw new IllegalArgumentException("Invalid resolution timeout: " + resolutionTimeout);
+        }
+      }
+      final String metricsFile = commandLine.getOptionValue("metricsFile");
+      if (metricsFile != null && !metricsFile.isEmpty()) {
+        this.metricsFile = Paths.get(metricsFile);
+      }
+      this.warmClasspath = commandLine.hasOption("warmClasspath");
+      this.indexBeanArchives = commandLine.hasOption("beanArchiveIndex");
+      this.cacheProxyClasses = commandLine.hasOption("proxyClassCache");
+      this.watch = commandLine.hasOption("watch");
+      if (commandLine.hasOption("manifest")) {
+        if (this.watch) {
+          throw new IllegalArgumentException("The watch option cannot be combined with the manifest option");
+        }
+        if (commandLine.hasOption("artifactPath") || commandLine.hasOption("artifactPathFile")) {
+          throw new IllegalArgumentException("The artifactPath and artifactPathFile options cannot be combined with the manifest option");
+        }
+      }
+      final String[] boms = commandLine.getOptionValues("bom");
+      if (boms != null && boms.length > 0) {
+        this.boms = parseBoms(boms);
+      }
+      if (commandLine.hasOption("artifactStore")) {
+        final String artifactStore = commandLine.getOptionValue("artifactStore");
+        if (artifactStore == null || artifactStore.isEmpty()) {
+          this.artifactStore = this.cacheDirectory.resolve(ARTIFACT_STORE_DIRECTORY_NAME);
+        } else {
+          this.artifactStore = Paths.get(artifactStore);
+        }
+      }
+      final String classLoadOrder = commandLine.getOptionValue("classLoadOrder");
+      if (classLoadOrder != null && !classLoadOrder.isEmpty()) {
+        switch (classLoadOrder.trim()) {
+        case "record":
+          this.recordClassLoadOrder = true;
+          break;
+        case "replay":
+          this.replayClassLoadOrder = true;
+          break;
+        default:
+          throw new IllegalArgumentException("Invalid class load order mode: " + classLoadOrder);
+        }
+      }
+      if (this.watch && this.artifactStore != null) {
+        // Views are private copies that would not see rebuilt
+        // artifacts.
+        throw new IllegalArgumentException("The watch option cannot be combined with the artifactStore option");
+      }
+      if (this.watch && (this.cacheProxyClasses || this.recordClassLoadOrder || this.replayClassLoadOrder)) {
+        // Both are keyed by artifacts that watching expects to change.
+        throw new IllegalArgumentException("The watch option cannot be combined with the proxyClassCache or classLoadOrder options");
+      }
+    }
+  }
+
+  /**
+   * Returns the {@link Path} of the directory in which this {@link
+   * ClasspathExporter} keeps information from one launch to the
+   * next.
+   *
+   * <p>Unless overridden by the {@code --cacheDirectory} command line
+   * option, this is the value of the {@code
+   * microbean.launcher.cacheDirectory} system property, or, if that
+   * is not set, the {@code .microbean/launcher} directory beneath the
+   * user's home directory.  The directory may not exist.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return the non-{@code null} {@link Path} of the cache directory
+   */
+  @Override
+  public final Path getCacheDirectory() {
+    return this.cacheDirectory;
+  }
+
+  /**
+   * Returns the {@link Path} of the directory of the {@link
+   * ArtifactStore} from which resolved classpaths are viewed, or
+   * {@code null} if resolved artifacts are used where they lie in the
+   * local repository.
+   *
+   * <p>There is no artifact store unless the {@code --artifactStore}
+   * command line option is specified.  If it is specified without a
+   * value, the store is kept in the {@code store} directory beneath
+   * the {@linkplain #getCacheDirectory() cache directory}.  Several
+   * users or hosts' worth of launches may share a store by naming the
+   * same directory, which should be on the same file system as their
+   * local repositories.</p>
+   *
+   * @return the {@link Path} of the artifact store, or {@code null}
+   */
+  public final Path getArtifactStore() {
+    return this.artifactStore;
+  }
+
+  /**
+   * Returns the number of milliseconds to wait for a remote
+   * repository to deliver an artifact before asking the next remote
+   * repository for it as well, or {@code -1} if hedging is disabled.
+   *
+   * <p>Hedging is disabled unless the {@code --hedgeDelay} command
+   * line option is specified.</p>
+   *
+   * @return the hedge delay in milliseconds, or {@code -1}
+   */
+  public final long getHedgeDelay() {
+    return this.hedgeDelay;
+  }
+
+  /**
+   * Returns the number of milliseconds to wait for dependency
+   * resolution before falling back to the last classpath
+   * successfully resolved from the same dependencies, or {@code -1}
+   * if resolution may take as long as it takes.
+   *
+   * <p>There is no timeout unless the {@code --resolutionTimeout}
+   * command line option is specified.</p>
+   *
+   * @return the resolution timeout in milliseconds, or {@code -1}
+   *
+   * @see ClasspathSnapshots
+   */
+  public final long getResolutionTimeout() {
+    return this.resolutionTimeout;
+  }
+
+  /**
+   * Returns {@code true} if the jar files on the resolved classpath
+   * should be read ahead, in parallel and in the background, while
+   * the application container starts, so that its class loading
+   * hits warm pages.
+   *
+   * <p>Warming is disabled unless the {@code --warmClasspath}
+   * command line option is specified.</p>
+   *
+   * @return {@code true} if the classpath should be warmed
+   */
+  @Override
+  public final boolean isWarmClasspath() {
+    return this.warmClasspath;
+  }
+
+  /**
+   * Returns {@code true} if the application container should be
+   * configured directly from a {@linkplain BeanArchiveIndex bean
+   * archive index} of each resolved jar file, cached by checksum
+   * beneath the {@linkplain #getCacheDirectory() cache directory},
+   * so that jar files that are not bean archives are never scanned.
+   *
+   * <p>Indexing is disabled unless the {@code --beanArchiveIndex}
+   * command line option is specified.</p>
+   *
+   * @return {@code true} if bean archives should be indexed
+   */
+  @Override
+  public final boolean isIndexBeanArchives() {
+    return this.indexBeanArchives;
+  }
+
+  /**
+   * Returns {@code true} if the client proxy classes that the
+   * application container generates should be {@linkplain ProxyClassCache cached} beneath the
+   * {@linkplain #getCacheDirectory() cache directory}, keyed by the
+   * bytes of the classes they proxy and the container's version, so
+   * that later launches define them instead of generating them.
+   *
+   * <p>Caching is disabled unless the {@code --proxyClassCache}
+   * command line option is specified.</p>
+   *
+   * @return {@code true} if proxy classes should be cached
+   */
+  @Override
+  public final boolean isCacheProxyClasses() {
+    return this.cacheProxyClasses;
+  }
+
+  /**
+   * Returns {@code true} if the local files of resolved {@code
+   * SNAPSHOT} artifacts should be watched, and the application
+   * container restarted, in a new {@link ClassLoader} for those
+   * artifacts only, whenever they change.
+   *
+   * <p>Watching is disabled unless the {@code --watch} command line
+   * option is specified.  It cannot be combined with a {@linkplain
+   * LaunchManifest launch manifest}, or with the {@code
+   * --artifactStore} command line option, since the {@linkplain
+   * #getArtifactStore() artifact store}'s views would not see rebuilt
+   * artifacts.</p>
+   *
+   * <p>Watching cannot be combined with the {@code --proxyClassCache}
+   * or {@code --classLoadOrder} command line options, since proxy
+   * classes and class load orders are keyed by artifacts that are
+   * expected to change; {@code --warmClasspath} also warms each
+   * changed artifact before the container is restarted.</p>
+   *
+   * @return {@code true} if {@code SNAPSHOT} artifacts should be
+   * watched
+   */
+  @Override
+  public final boolean isWatch() {
+    return this.watch;
+  }
+
+  /**
+   * Returns {@code true} if the order in which application classes
+   * are loaded during container startup should be recorded, so that
+   * a later launch can {@linkplain #isReplayClassLoadOrder() replay}
+   * it.
+   *
+   * <p>Recording is disabled unless the {@code --classLoadOrder}
+   * command line option is specified with a value of {@code
+   * record}.</p>
+   *
+   * @return {@code true} if the class load order should be recorded
+   *
+   * @see #setClassLoadOrder(Collection, List)
+   */
+  @Override
+  public final boolean isRecordClassLoadOrder() {
+    return this.recordClassLoadOrder;
+  }
+
+  /**
+   * Returns {@code true} if a previously {@linkplain
+   * #isRecordClassLoadOrder() recorded} class load order should be
+   * replayed by loading those classes on several background threads
+   * while the application container is configured and started.
+   *
+   * <p>Replay is disabled unless the {@code --classLoadOrder} command
+   * line option is specified with a value of {@code replay}.</p>
+   *
+   * @return {@code true} if the class load order should be replayed
+   *
+   * @see #getClassLoadOrder(Collection)
+   */
+  @Override
+  public final boolean isReplayClassLoadOrder() {
+    return this.replayClassLoadOrder;
+  }
+
+
+  /**
+   * Returns the {@link ResolutionMetrics} recording the cost of
+   * dependency resolution performed by this {@link
+   * ClasspathExporter}.
+   *
+   * <p>The same metrics are available over JMX under the name
+   * {@value ResolutionMetrics#OBJECT_NAME}.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return a non-{@code null} {@link ResolutionMetricsMXBean}
+   */
+  public final ResolutionMetricsMXBean getResolutionMetrics() {
+    return this.metrics;
+  }
+
+  /**
+   * Returns an {@linkplain Collections#unmodifiableSet(Set)
+   * unmodifiable <code>Set</code>} of {@link URI}s representing Java
+   * classpath elements that resulted from examining the user-supplied
+   * <em>artifact path</em>&mdash;a list of Maven-style artifact
+   * coordinates.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return a non-{@code null}, {@linkplain
+   * Collections#unmodifiableSet(Set) unmodifiable <code>Set</code>}
+   * of {@link URI}s representing Java classpath elements
+   */
+  @Override
+  public final Set<URI> getClasspath() {
+    if (this.classpath == null || this.classpath.isEmpty()) {
+      return Collections.emptySet();
+    } else {
+      return Collections.unmodifiableSet(this.classpath);
+    }
+  }
+
+  /**
+   * Returns a {@link String} array representing any command line
+   * arguments that this class did <em>not</em> "consume" as it tried
+   * to determine the user-supplied artifact path.
+   *
+   * <p>This method will never return {@code null}.</p>
+   *
+   * @return a non-{@code null} {@link String} array representing any
+   * command line arguments that this class did <em>not</em> "consume"
+   * as it tried to determine the user-supplied artifact path
+   */
+  @Override
+  public final String[] getRemainingCommandLineArguments() {
+    if (this.remainingCommandLineArguments == null) {
+      return new String[0];
+    } else {
+      return this.remainingCommandLineArguments.clone();
+    }
+  }
+
+  /**
+   * Returns the names of the applications listed in the {@linkplain
+   * LaunchManifest launch manifest} supplied with the {@code
+   * --manifest} option, in manifest order.
+   *
+   * <p>This method never returns {@code null}.  It returns an empty
+   * {@link Set} if no launch manifest was supplied, in which case
+   * there is exactly one, unnamed, application whose classpath is
+   * returned by {@link #getClasspath()}.</p>
+   *
+   * @return a non-{@code null}, {@linkplain
+   * Collections#unmodifiableSet(Set) unmodifiable} {@link Set} of
+   * application names
+   *
+   * @see #getClasspath(String)
+   *
+   * @see #getRemainingCommandLineArguments(String)
+   */
+  @Override
+  public final Set<String> getApplicationNames() {
+    return Collections.unmodifiableSet(this.applicationDependencies.keySet());
+  }
+
+  /**
+   * Returns the classpath of the application with the supplied name,
+   * as listed in the {@linkplain LaunchManifest launch manifest}.
+   *
+   * <p>Artifacts needed by more than one application are resolved
+   * only once and appear, at the same version, in the classpath of
+   * each application that needs them.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param applicationName the name of the application; may be
+   * {@code null}
+   *
+   * @return a non-{@code null}, {@linkplain
+   * Collections#unmodifiableSet(Set) unmodifiable} {@link Set} of
+   * classpath {@link URI}s; empty if there is no such application
+   *
+   * @see #getApplicationNames()
+   */
+  @Override
+  public final Set<URI> getClasspath(final String applicationName) {
+    final Set<URI> returnValue = this.applicationClasspaths.get(applicationName);
+    if (returnValue == null) {
+      return Collections.emptySet();
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns the command line arguments of the application with the
+   * supplied name, as listed in the {@linkplain LaunchManifest launch
+   * manifest}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param applicationName the name of the application; may be
+   * {@code null}
+   *
+   * @return a non-{@code null} {@link String} array; empty if there
+   * is no such application
+   *
+   * @see #getApplicationNames()
+   */
+  @Override
+  public final String[] getRemainingCommandLineArguments(final String applicationName) {
+    final String[] returnValue = this.applicationArguments.get(applicationName);
+    if (returnValue == null) {
+      return new String[0];
+    }
+    return returnValue.clone();
+  }
+  
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * A <a
+   * href="http://docs.jboss.org/cdi/spec/2.0/cdi-spec.html#producer_method"
+   * target="_parent">producer method</a> that {@linkplain Produces
+   * produces} an {@link Options} instance representing the command
+   * line options that this class looks for in its {@link
+   * #produceDependencies(CommandLine)} method.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return a non-{@code null} {@link Options} representing the
+   * command line options this class will look for in its {@link
+   * #produceDependencies(CommandLine)} method
+   *
+   * @see #produceDependencies(CommandLine)
+   */
+  @Produces
+  @ApplicationScoped
+  static final Options getOptions() {
+    final Options options = new Options();
+
+    final Option defaultGroupId = Option.builder()
+      .longOpt("defaultGroupId")
+      .hasArg(true)
+      .required(false)
+      .type(String.class)
+      .argName("groupId")
+      .desc("The default groupId to use in artifact coordinates.")
+      .build();
+    options.addOption(defaultGroupId);
+
+    final Option artifact = Option.builder("ap")
+      .longOpt("artifactPath")
+      .hasArgs()
+      .required(false)
+      .type(String.class)
+      .argName("GAV coordinates")
+      .desc("The double-colon separated GAV coordinates of the artifacts to resolve.")
+      .build();
+    options.addOption(artifact);
+
+    final Option artifactPathFile = Option.builder()
+      .longOpt("artifactPathFile")
+      .hasArg(true)
+      .required(false)
+      .type(String.class)
+      .argName("file")
+      .desc("A UTF-8 file of artifact coordinates, separated by commas or whitespace, to resolve in addition to the artifact path; # begins a comment.")
+      .build();
+    options.addOption(artifactPathFile);
+
+    final Option bom = Option.builder()
+      .longOpt("bom")
+      .hasArgs()
+      .required(false)
+      .type(String.class)
+      .argName("GAV coordinates")
+      .desc("The coordinates, including a fixed version, of a bill of materials whose dependency management supplies the versions of version-less artifact coordinates and of transitive dependencies; may be repeated.")
+      .build();
+    options.addOption(bom);
+
+    final Option cacheDirectory = Option.builder()
+      .longOpt("cacheDirectory")
+      .hasArg(true)
+      .required(false)
+      .type(String.class)
+      .argName("directory")
+      .desc("The directory in which information is kept from one launch to the next.")
+      .build();
+    options.addOption(cacheDirectory);
+
+    final Option hedgeDelay = Option.builder()
+      .longOpt("hedgeDelay")
+      .hasArg(true)
+      .required(false)
+      .type(String.class)
+      .argName("milliseconds")
+      .desc("The number of milliseconds to wait for a remote repository before also asking the next one.")
+      .build();
+    options.addOption(hedgeDelay);
+
+    final Option resolutionTimeout = Option.builder()
+      .longOpt("resolutionTimeout")
+      .hasArg(true)
+      .required(false)
+      .type(String.class)
+      .argName("milliseconds")
+      .desc("The number of milliseconds to wait for dependency resolution before using the last known good classpath, which is also used if resolution fails.")
+      .build();
+    options.addOption(resolutionTimeout);
+
+    final Option metricsFile = Option.builder()
+      .longOpt("metricsFile")
+      .hasArg(true)
+      .required(false)
+      .type(String.class)
+      .argName("file")
+      .desc("The file to which dependency resolution metrics will be written when dependency resolution finishes.")
+      .build();
+    options.addOption(metricsFile);
+
+    final Option manifest = Option.builder()
+      .longOpt("manifest")
+      .hasArg(true)
+      .required(false)
+      .type(String.class)
+      .argName("file")
+      .desc("A launch manifest listing several applications to resolve together and launch side by side; cannot be combined with --artifactPath or --artifactPathFile.")
+      .build();
+    options.addOption(manifest);
+
+    final Option warmClasspath = Option.builder()
+      .longOpt("warmClasspath")
+      .hasArg(false)
+      .required(false)
+      .desc("Read resolved jar files ahead in the background while the application container starts.")
+      .build();
+    options.addOption(warmClasspath);
+
+    final Option beanArchiveIndex = Option.builder()
+      .longOpt("beanArchiveIndex")
+      .hasArg(false)
+      .required(false)
+      .desc("Configure the application container from a cached index of each resolved jar file's bean archive metadata instead of letting it scan the classpath.")
+      .build();
+    options.addOption(beanArchiveIndex);
+
+    final Option proxyClassCache = Option.builder()
+      .longOpt("proxyClassCache")
+      .hasArg(false)
+      .required(false)
+      .desc("Cache the client proxy classes the application container generates and define them from the cache in later launches.")
+      .build();
+    options.addOption(proxyClassCache);
+
+    final Option artifactStore = Option.builder()
+      .longOpt("artifactStore")
+      .hasArg(true)
+      .optionalArg(true)
+      .required(false)
+      .type(String.class)
+      .argName("directory")
+      .desc("Build each resolved classpath from hard links into a content-addressed store, so that identical jar files share one inode across applications.")
+      .build();
+    options.addOption(artifactStore);
+
+    final Option watch = Option.builder()
+      .longOpt("watch")
+      .hasArg(false)
+      .required(false)
+      .desc("Restart the application container, reloading only SNAPSHOT artifacts, whenever a resolved SNAPSHOT artifact changes in the local repository.")
+      .build();
+    options.addOption(watch);
+
+    final Option classLoadOrder = Option.builder()
+      .longOpt("classLoadOrder")
+      .hasArg(true)
+      .required(false)
+      .type(String.class)
+      .argName("record|replay")
+      .desc("Record the order in which application classes load during startup, or replay a recorded order by preloading those classes on several threads.")
+      .build();
+    options.addOption(classLoadOrder);
+
+    final Option forkResolution = Option.builder()
+      .longOpt("forkResolution")
+      .hasArg(false)
+      .required(false)
+      .desc("Resolve dependencies in a short-lived child JVM so that this one never loads Maven or Aether classes.")
+      .build();
+    options.addOption(forkResolution);
+
+    return options;
+  }
+
+  /**
+   * Parses the supplied bill of materials coordinates into {@link
+   * Dependency} instances naming {@code pom} artifacts in the {@code
+   * import} scope.
+   *
+   * <p>Every bill of materials must name an explicit, fixed version:
+   * one that is missing, {@code LATEST} or {@code RELEASE} would
+   * make the versions of everything it manages change without
+   * notice.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param boms the coordinates to parse; must not be {@code null}
+   *
+   * @return a non-{@code null}, unmodifiable {@link List} of {@link
+   * Dependency} instances
+   *
+   * @exception IllegalArgumentException if the coordinates could not
+   * be parsed, or did not name a fixed version
+   *
+   * @exception NullPointerException if {@code boms} is {@code null}
+   */
+  static final List<Dependency> parseBoms(final String[] boms) {
+    final List<Dependency> dependencies = new ArrayList<>();
+    final ArtifactPathParser parser = new ArtifactPathParser("bom", null, dependencies);
+    for (final String bom : boms) {
+      parser.parse(bom);
+    }
+    final List<Dependency> returnValue = new ArrayList<>(dependencies.size());
+    for (final Dependency dependency : dependencies) {
+      final Artifact artifact = dependency.getArtifact();
+      final String version = artifact.getVersion();
+      if ("LATEST".equals(version) || "RELEASE".equals(version)) {
+        throw new IllegalArgumentException("The bill of materials " + ArtifactIdUtils.toVersionlessId(artifact) + " must specify a fixed version");
+      }
+      returnValue.add(new Dependency(new DefaultArtifact(artifact.getGroupId(), artifact.getArtifactId(), artifact.getClassifier(), "pom", version), "import"));
+    }
+    return Collections.unmodifiableList(returnValue);
+  }
+
+  /**
+   * Returns copies of the supplied groups of {@link Dependency}
+   * instances in which each dependency whose version is {@code
+   * LATEST}&mdash;the version given to coordinates that do not
+   * specify one&mdash;takes its version instead from the matching
+   * supplied managed {@link Dependency}, if there is one.
+   *
+   * <p>Aether applies dependency management only to transitive
+   * dependencies, so launch coordinates, which are direct
+   * dependencies, must be managed here.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param dependencyGroups the groups of {@link Dependency}
+   * instances to manage; must not be {@code null}
+   *
+   * @param managedDependencies the managed {@link Dependency}
+   * instances; must not be {@code null}
+   *
+   * @return a non-{@code null} {@link List} of groups of {@link
+   * Dependency} instances, in the same order as the supplied groups
+   *
+   * @exception NullPointerException if either parameter is {@code
+   * null}
+   */
+  static final List<List<Dependency>> manage(final List<? extends List<Dependency>> dependencyGroups, final Collection<? extends Dependency> managedDependencies) {
+    final Map<String, String> managedVersions = new HashMap<>();
+    for (final Dependency managedDependency : managedDependencies) {
+      final Artifact artifact = managedDependency.getArtifact();
+      managedVersions.putIfAbsent(ArtifactIdUtils.toVersionlessId(artifact), artifact.getVersion());
+    }
+    final List<List<Dependency>> returnValue = new ArrayList<>(dependencyGroups.size());
+    for (final List<Dependency> dependencyGroup : dependencyGroups) {
+      final List<Dependency> managedGroup = new ArrayList<>(dependencyGroup.size());
+      for (final Dependency dependency : dependencyGroup) {
+        final Artifact artifact = dependency.getArtifact();
+        if ("LATEST".equals(artifact.getVersion())) {
+          final String managedVersion = managedVersions.get(ArtifactIdUtils.toVersionlessId(artifact));
+          if (managedVersion != null && !managedVersion.isEmpty()) {
+            managedGroup.add(dependency.setArtifact(artifact.setVersion(managedVersion)));
+            continue;
+          }
+        }
+        managedGroup.add(dependency);
+      }
+      returnValue.add(managedGroup);
+    }
+    return returnValue;
+  }
+
+  /**
+   * Parses the supplied artifact path&mdash;an array of {@link
+   * String}s each of which is a comma- and/or space-separated list of
+   * Maven-style artifact coordinates&mdash;into {@link Dependency}
+   * instances and adds them to the supplied {@link Collection}.
+   *
+   * @param artifactPath the artifact path to parse; may be {@code
+   * null} in which case no action will be taken
+   *
+   * @param defaultGroupId the group identifier to use for coordinates
+   * that do not specify one; may be {@code null}
+   *
+   * @param dependencies the {@link Collection} to add {@link
+   * Dependency} instances to; must not be {@code null}
+   *
+   * @exception NullPointerException if {@code dependencies} is {@code
+   * null}
+   *
+   * @exception IllegalArgumentException if any coordinates could not
+   * be parsed
+   */
+  private static final void addDependencies(final String[] artifactPath, final String defaultGroupId, final Collection<? super Dependency> dependencies) {
+    Objects.requireNonNull(dependencies);
+    if (artifactPath != null) {
+      final ArtifactPathParser parser = new ArtifactPathParser("artifactPath", defaultGroupId, dependencies);
+      for (final String item : artifactPath) {
+        parser.parse(item);
+      }
+    }
+  }
+
+  /**
+   * Returns the {@link Path} of the directory that {@link
+   * #getCacheDirectory()} returns when the {@code --cacheDirectory}
+   * command line option is not specified.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return a non-{@code null} {@link Path}
+   */
+  static final Path getDefaultCacheDirectory() {
+    final String cacheDirectory = System.getProperty("microbean.launcher.cacheDirectory");
+    if (cacheDirectory == null || cacheDirectory.isEmpty()) {
+      return Paths.get(System.getProperty("user.home"), ".microbean", "launcher");
+    } else {
+      return Paths.get(cacheDirectory);
+    }
   }
 
   
@@ -0,0 +1,213 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.IOException;
+
+import java.net.URI;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import org.eclipse.aether.graph.Dependency;
+
+/**
+ * A store of classpaths that were successfully resolved in earlier
+ * launches, indexed by the {@link Dependency} instances they were
+ * resolved from.
+ *
+ * <p>Each snapshot is a plain text file containing one classpath
+ * {@link URI} per line, named after a {@linkplain #key(List) digest}
+ * of the dependencies that produced it.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ClasspathExporter
+ */
+public final class ClasspathSnapshots {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The {@link Path} of the directory in which snapshots are kept.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Path directory;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ClasspathSnapshots}.
+   *
+   * @param directory the {@link Path} of the directory in which
+   * snapshots are kept; must not be {@code null}; need not exist
+   *
+   * @exception NullPointerException if {@code directory} is {@code
+   * null}
+   */
+  public ClasspathSnapshots(final Path directory) {
+    super();
+    this.directory = Objects.requireNonNull(directory);
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns the classpath most recently {@linkplain #store(List,
+   * Collection) stored} for the supplied {@link Dependency}
+   * instances, or {@code null} if there is none or if any of its
+   * elements no longer exists.
+   *
+   * @param dependencies the {@link Dependency} instances whose
+   * classpath should be returned; may be {@code null}
+   *
+   * @return an {@linkplain Collections#unmodifiableSet(Set)
+   * unmodifiable <code>Set</code>} of classpath {@link URI}s, or
+   * {@code null}
+   *
+   * @exception IOException if there was a problem reading
+   *
+   * @see #store(List, Collection)
+   */
+  public final Set<URI> load(final List<? extends Dependency> dependencies) throws IOException {
+    final Path file = this.getPath(dependencies);
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+    final Set<URI> returnValue = new LinkedHashSet<>();
+    for (final String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+      if (line != null && !line.isEmpty()) {
+        final URI uri;
+        try {
+          uri = URI.create(line);
+        } catch (final IllegalArgumentException corruptSnapshot) {
+          return null;
+        }
+        if ("file".equals(uri.getScheme()) && !Files.exists(Paths.get(uri))) {
+          return null;
+        }
+        returnValue.add(uri);
+      }
+    }
+    return Collections.unmodifiableSet(returnValue);
+  }
+
+  /**
+   * Stores the supplied classpath as the most recent one resolved
+   * from the supplied {@link Dependency} instances, atomically
+   * replacing any prior snapshot.
+   *
+   * @param dependencies the {@link Dependency} instances the
+   * classpath was resolved from; may be {@code null}
+   *
+   * @param classpath the classpath {@link URI}s; may be {@code null}
+   *
+   * @exception IOException if there was a problem writing
+   *
+   * @see #load(List)
+   */
+  public final void store(final List<? extends Dependency> dependencies, final Collection<? extends URI> classpath) throws IOException {
+    final Path file = this.getPath(dependencies);
+    final List<String> lines = new ArrayList<>();
+    if (classpath != null) {
+      for (final URI uri : classpath) {
+        if (uri != null) {
+          lines.add(uri.toString());
+        }
+      }
+    }
+    Files.createDirectories(this.directory);
+    final Path temporaryFile = Files.createTempFile(this.directory, "classpath", ".tmp");
+    try {
+      Files.write(temporaryFile, lines, StandardCharsets.UTF_8);
+      Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporaryFile);
+    }
+  }
+
+  /**
+   * Returns the {@link Path} of the snapshot file for the supplied
+   * {@link Dependency} instances.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param dependencies the {@link Dependency} instances in question;
+   * may be {@code null}
+   *
+   * @return a non-{@code null} {@link Path}
+   */
+  private final Path getPath(final List<? extends Dependency> dependencies) {
+    return this.directory.resolve(key(dependencies) + ".classpath");
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns a hexadecimal SHA-256 digest of the coordinates and
+   * scopes of the supplied {@link Dependency} instances, in order.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param dependencies the {@link Dependency} instances to digest;
+   * may be {@code null}
+   *
+   * @return a non-{@code null} hexadecimal digest
+   */
+  public static final String key(final List<? extends Dependency> dependencies) {
+    final StringBuilder sb = new StringBuilder();
+    if (dependencies != null) {
+      for (final Dependency dependency : dependencies) {
+        if (dependency != null) {
+          sb.append(dependency.getArtifact()).append(' ').append(dependency.getScope()).append('\n');
+        }
+      }
+    }
+    return Digests.digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+}
@@ -0,0 +1,191 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Utility methods for computing the hexadecimal SHA-256 digests by
+ * which the launcher's caches key what they store.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ */
+final class Digests {
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link Digests}.
+   */
+  private Digests() {
+    super();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns a hexadecimal SHA-256 digest of the supplied bytes.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param bytes the bytes to digest; must not be {@code null}
+   *
+   * @return a non-{@code null} hexadecimal digest
+   *
+   * @exception NullPointerException if {@code bytes} is {@code null}
+   */
+  static final String digest(final byte[] bytes) {
+    return toHex(newMessageDigest().digest(bytes));
+  }
+
+  /**
+   * Returns a hexadecimal SHA-256 digest of the supplied file's
+   * content.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param file the {@link Path} of a regular file; must not be
+   * {@code null}
+   *
+   * @return a non-{@code null} hexadecimal digest
+   *
+   * @exception IOException if there was a problem reading
+   *
+   * @exception NullPointerException if {@code file} is {@code null}
+   *
+   * @see #digest(Path, Path)
+   */
+  static final String digest(final Path file) throws IOException {
+    final MessageDigest messageDigest = newMessageDigest();
+    try (final InputStream in = new DigestInputStream(Files.newInputStream(file), messageDigest)) {
+      final byte[] buffer = new byte[8192];
+      while (in.read(buffer) >= 0) {
+        // Reading updates the digest.
+      }
+    }
+    return toHex(messageDigest.digest());
+  }
+
+  /**
+   * Returns a hexadecimal SHA-256 digest of the supplied file's
+   * content, computing it only if the file's path, size or
+   * modification time differ from the last time it was computed and
+   * recorded in the supplied directory.
+   *
+   * <p>The supplied directory holds one small file per digested path,
+   * named by a digest of that path and containing its size,
+   * modification time and digest.  Each is replaced atomically, so
+   * concurrent launches sharing the directory at worst compute the
+   * same digest twice.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param file the {@link Path} of a regular file; must not be
+   * {@code null}
+   *
+   * @param directory the {@link Path} of the directory in which
+   * digests are recorded; must not be {@code null}; need not exist
+   *
+   * @return a non-{@code null} hexadecimal digest
+   *
+   * @exception IOException if there was a problem reading or writing
+   *
+   * @exception NullPointerException if either parameter is {@code
+   * null}
+   */
+  static final String digest(final Path file, final Path directory) throws IOException {
+    final Path absoluteFile = file.toAbsolutePath().normalize();
+    final String stamp = Files.size(absoluteFile) + " " + Files.getLastModifiedTime(absoluteFile).toMillis() + " ";
+    final Path pathFile = directory.resolve(digest(absoluteFile.toString().getBytes(StandardCharsets.UTF_8)));
+    if (Files.isRegularFile(pathFile)) {
+      final String contents = new String(Files.readAllBytes(pathFile), StandardCharsets.US_ASCII);
+      if (contents.startsWith(stamp) && contents.length() == stamp.length() + 64) {
+        return contents.substring(stamp.length());
+      }
+    }
+    final String returnValue = digest(absoluteFile);
+    Files.createDirectories(directory);
+    final Path temporaryFile = Files.createTempFile(directory, "path", ".tmp");
+    try {
+      Files.write(temporaryFile, (stamp + returnValue).getBytes(StandardCharsets.US_ASCII));
+      Files.move(temporaryFile, pathFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporaryFile);
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns a new SHA-256 {@link MessageDigest}, for digests that
+   * are computed incrementally.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return a new, non-{@code null} {@link MessageDigest}
+   *
+   * @see #toHex(byte[])
+   */
+  static final MessageDigest newMessageDigest() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (final NoSuchAlgorithmException noSuchAlgorithmException) {
+      // Every Java platform is required to support SHA-256.
+      throw new IllegalStateException(noSuchAlgorithmException.getMessage(), noSuchAlgorithmException);
+    }
+  }
+
+  /**
+   * Returns the lowercase hexadecimal representation of the supplied
+   * bytes.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param bytes the bytes; must not be {@code null}
+   *
+   * @return a non-{@code null} hexadecimal {@link String}
+   *
+   * @exception NullPointerException if {@code bytes} is {@code null}
+   */
+  static final String toHex(final byte[] bytes) {
+    final StringBuilder sb = new StringBuilder(bytes.length * 2);
+    for (final byte b : bytes) {
+      sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    }
+    return sb.toString();
+  }
+
+}
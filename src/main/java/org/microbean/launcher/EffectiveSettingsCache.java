@@ -0,0 +1,851 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import java.nio.file.attribute.PosixFilePermission;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.enterprise.context.spi.CreationalContext;
+
+import javax.enterprise.event.Observes;
+
+import javax.enterprise.inject.spi.Extension;
+import javax.enterprise.inject.spi.InjectionPoint;
+import javax.enterprise.inject.spi.ProcessProducer;
+import javax.enterprise.inject.spi.Producer;
+
+import org.apache.maven.settings.Server;
+import org.apache.maven.settings.Settings;
+
+import org.eclipse.aether.repository.Proxy;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+
+import org.microbean.maven.cdi.annotation.Resolution;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An {@link Extension} that caches the effective Maven {@link
+ * Settings} and the {@link Resolution}-qualified {@link List} of
+ * {@link RemoteRepository} instances from one launch to the next, so
+ * that launches whose settings have not changed skip parsing {@code
+ * settings.xml} and computing profiles and mirrors.
+ *
+ * <p>This extension wraps the {@linkplain Producer producers} of
+ * those two types, wherever they are declared.  A wrapped producer
+ * first looks for a snapshot whose {@linkplain #getKey() key} matches
+ * the current settings files, byte for byte, along with their sizes
+ * and modification times, and returns it if there is one.
+ * Otherwise it calls the original producer and stores what it
+ * produced.</p>
+ *
+ * <p>The key also covers every environment variable and system
+ * property that the settings files mention, whether in a {@code
+ * ${...}} expression or as the name of a profile's activation
+ * property, so that a change to any of them yields a different
+ * snapshot.  Settings whose profiles are activated by the presence
+ * or absence of files are never cached, since no key could capture
+ * that.</p>
+ *
+ * <p>Settings in which any server or proxy carries a password,
+ * passphrase or configuration, and repository lists in which any
+ * repository or proxy carries authentication, are never cached,
+ * since they cannot be stored without writing credentials to disk.
+ * Snapshots are written readable by their owner only where the
+ * filesystem supports it, and {@link Settings} snapshots are read
+ * back through an {@link ObjectInputStream} that refuses any class
+ * that is not part of the Maven settings model.</p>
+ *
+ * <p>Caching may be disabled by setting the {@code
+ * microbean.launcher.settingsCache} system property to {@code
+ * false}.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ClasspathExporter
+ */
+public final class EffectiveSettingsCache implements Extension {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The version of the format of the repository snapshot.
+   */
+  private static final int FORMAT_VERSION = 1;
+
+  /**
+   * The names of the system properties that, in addition to those
+   * whose names start with {@code maven.} or {@code org.apache.maven.},
+   * contribute to the {@linkplain #getKey() key}, since they may
+   * affect settings file locations or profile activation.
+   */
+  private static final String[] KEY_PROPERTIES = {
+    "java.home",
+    "java.version",
+    "os.arch",
+    "os.name",
+    "os.version",
+    "settings.security",
+    "user.home"
+  };
+
+  /**
+   * A {@link Pattern} matching a {@code ${...}} expression in a
+   * settings file, whose sole group is the name of the property or,
+   * with an {@code env.} prefix, the environment variable it refers
+   * to.
+   */
+  private static final Pattern EXPRESSION = Pattern.compile("\\$\\{([^}]+)\\}");
+
+  /**
+   * A {@link Pattern} matching a profile's activation property in a
+   * settings file, whose sole group is the name of the property or,
+   * with an {@code env.} prefix, the environment variable it tests.
+   */
+  private static final Pattern ACTIVATION_PROPERTY = Pattern.compile("<property>\\s*<name>\\s*!?([^<\\s]+)\\s*</name>");
+
+  /**
+   * A {@link Pattern} matching a profile's activation file in a
+   * settings file.
+   */
+  private static final Pattern ACTIVATION_FILE = Pattern.compile("<file>");
+
+  /**
+   * The names of the classes, other than those of the Maven settings
+   * model, that may appear in a {@link Settings} snapshot.
+   */
+  private static final Set<String> SETTINGS_CLASS_NAMES =
+    Collections.unmodifiableSet(new HashSet<>(Arrays.asList(ArrayList.class.getName(),
+                                                            Hashtable.class.getName(),
+                                                            Properties.class.getName())));
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * A {@link Logger} for this {@link EffectiveSettingsCache}.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Logger logger;
+
+  /**
+   * The {@link Path} of the directory in which snapshots are kept.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Path directory;
+
+  /**
+   * The {@linkplain #getKey() key} of the current settings, computed
+   * lazily.
+   *
+   * <p>This field may be {@code null}, including when the current
+   * settings cannot be cached.</p>
+   */
+  private volatile String key;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link EffectiveSettingsCache} that keeps its
+   * snapshots under the launcher's default cache directory.
+   */
+  public EffectiveSettingsCache() {
+    this(ClasspathExporter.getDefaultCacheDirectory().resolve("settings"));
+  }
+
+  /**
+   * Creates a new {@link EffectiveSettingsCache}.
+   *
+   * @param directory the {@link Path} of the directory in which
+   * snapshots are kept; must not be {@code null}; need not exist
+   *
+   * @exception NullPointerException if {@code directory} is {@code
+   * null}
+   */
+  public EffectiveSettingsCache(final Path directory) {
+    super();
+    this.logger = LoggerFactory.getLogger(this.getClass());
+    this.directory = Objects.requireNonNull(directory);
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Wraps the producer of {@link Settings} so that it is only called
+   * when no snapshot matches the current settings files.
+   *
+   * @param <T> the type of the bean declaring the producer
+   *
+   * @param event the {@link ProcessProducer} event; may be {@code
+   * null} in which case no action will be taken
+   */
+  private final <T> void processSettingsProducer(@Observes final ProcessProducer<T, Settings> event) {
+    if (event != null && isEnabled()) {
+      event.setProducer(new CachingProducer<>(event.getProducer(), ".settings", EffectiveSettingsCache::readSettings, EffectiveSettingsCache::writeSettings));
+    }
+  }
+
+  /**
+   * Wraps the producer of the {@link Resolution}-qualified {@link
+   * List} of {@link RemoteRepository} instances so that it is only
+   * called when no snapshot matches the current settings files.
+   *
+   * @param <T> the type of the bean declaring the producer
+   *
+   * @param event the {@link ProcessProducer} event; may be {@code
+   * null} in which case no action will be taken
+   */
+  private final <T> void processRepositoriesProducer(@Observes final ProcessProducer<T, List<RemoteRepository>> event) {
+    if (event != null && isEnabled() && event.getAnnotatedMember().isAnnotationPresent(Resolution.class)) {
+      event.setProducer(new CachingProducer<>(event.getProducer(), ".repositories", EffectiveSettingsCache::readRepositories, EffectiveSettingsCache::writeRepositories));
+    }
+  }
+
+  /**
+   * Returns a hexadecimal digest of everything known to influence
+   * the effective settings, or {@code null} if the current settings
+   * cannot be cached.
+   *
+   * @return a hexadecimal digest, or {@code null}
+   *
+   * @exception IOException if a settings file could not be read
+   *
+   * @see #getKey(List, Properties, Map)
+   */
+  final String getKey() throws IOException {
+    String key = this.key;
+    if (key == null) {
+      key = getKey(getSettingsFiles(), System.getProperties(), System.getenv());
+      if (key == null) {
+        this.logger.debug("The effective settings depend on files named in profile activations and will not be cached");
+      }
+      this.key = key;
+    }
+    return key;
+  }
+
+  /**
+   * Returns the {@link Path} of the snapshot file with the supplied
+   * suffix for the current settings, or {@code null} if they cannot
+   * be cached.
+   *
+   * @param suffix the file name suffix; must not be {@code null}
+   *
+   * @return a {@link Path}, or {@code null}
+   *
+   * @exception IOException if the key could not be computed
+   */
+  private final Path getPath(final String suffix) throws IOException {
+    final String key = this.getKey();
+    return key == null ? null : this.directory.resolve(key + suffix);
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns a hexadecimal digest of everything known to influence
+   * the effective settings described by the supplied settings files,
+   * system properties and environment, or {@code null} if they cannot
+   * be cached.
+   *
+   * <p>The digest covers the location, size, modification time and
+   * contents of each settings file; the system properties whose names
+   * start with {@code maven.} or {@code org.apache.maven.}, and a
+   * handful of others that affect settings file locations or profile
+   * activation; and every system property and environment variable
+   * that a settings file mentions in a {@code ${...}} expression or
+   * as the name of a profile's activation property.</p>
+   *
+   * <p>If any settings file mentions a profile activation file, this
+   * method returns {@code null}.</p>
+   *
+   * @param settingsFiles the {@link Path}s of the settings files,
+   * some of which may not exist; must not be {@code null}
+   *
+   * @param systemProperties the system properties; must not be
+   * {@code null}
+   *
+   * @param environment the environment variables; must not be {@code
+   * null}
+   *
+   * @return a hexadecimal digest, or {@code null}
+   *
+   * @exception NullPointerException if any parameter is {@code null}
+   *
+   * @exception IOException if a settings file could not be read
+   */
+  static final String getKey(final List<? extends Path> settingsFiles,
+                             final Properties systemProperties,
+                             final Map<? extends String, ? extends String> environment)
+    throws IOException {
+    Objects.requireNonNull(systemProperties);
+    Objects.requireNonNull(environment);
+    final StringBuilder files = new StringBuilder();
+    final Set<String> names = new TreeSet<>();
+    for (final Path settingsFile : settingsFiles) {
+      files.append(settingsFile.toAbsolutePath());
+      if (Files.isRegularFile(settingsFile)) {
+        final byte[] bytes = Files.readAllBytes(settingsFile);
+        final String contents = new String(bytes, StandardCharsets.UTF_8);
+        if (ACTIVATION_FILE.matcher(contents).find()) {
+          return null;
+        }
+        for (final Pattern pattern : new Pattern[] { EXPRESSION, ACTIVATION_PROPERTY }) {
+          final Matcher matcher = pattern.matcher(contents);
+          while (matcher.find()) {
+            names.add(matcher.group(1).trim());
+          }
+        }
+        files.append(' ').append(bytes.length)
+          .append(' ').append(Files.getLastModifiedTime(settingsFile).toMillis())
+          .append(' ').append(Digests.digest(bytes));
+      }
+      files.append('\n');
+    }
+    final TreeMap<String, String> properties = new TreeMap<>();
+    for (final String name : systemProperties.stringPropertyNames()) {
+      if (name.startsWith("maven.") || name.startsWith("org.apache.maven.")) {
+        properties.put(name, systemProperties.getProperty(name));
+      }
+    }
+    for (final String name : KEY_PROPERTIES) {
+      properties.put(name, systemProperties.getProperty(name));
+    }
+    for (final String name : names) {
+      if (name.startsWith("env.")) {
+        properties.put(name, environment.get(name.substring("env.".length())));
+      } else {
+        properties.put(name, systemProperties.getProperty(name));
+      }
+    }
+    final String key = properties + "\n" + files;
+    return Digests.digest(key.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Reads a {@link Settings} snapshot, refusing any class that is not
+   * part of the Maven settings model.
+   *
+   * @param in the {@link InputStream} to read from; must not be
+   * {@code null}
+   *
+   * @return the {@link Settings} read; never {@code null}
+   *
+   * @exception IOException if there was a problem reading, or if the
+   * snapshot contains a class that is not permitted
+   */
+  static final Settings readSettings(final InputStream in) throws IOException {
+    final ObjectInputStream ois = new ObjectInputStream(in) {
+        @Override
+        protected final Class<?> resolveClass(final ObjectStreamClass objectStreamClass) throws IOException, ClassNotFoundException {
+          final String name = objectStreamClass.getName();
+          if (!name.startsWith(Settings.class.getPackage().getName() + ".") && !SETTINGS_CLASS_NAMES.contains(name)) {
+            throw new InvalidClassException(name, "Not permitted in a settings snapshot");
+          }
+          return super.resolveClass(objectStreamClass);
+        }
+      };
+    try {
+      return (Settings)ois.readObject();
+    } catch (final ClassNotFoundException | ClassCastException exception) {
+      throw new IOException(exception.getMessage(), exception);
+    }
+  }
+
+  /**
+   * Writes a {@link Settings} snapshot, unless any server or proxy in
+   * it carries a password, passphrase or configuration.
+   *
+   * @param settings the {@link Settings} to write; must not be
+   * {@code null}
+   *
+   * @param out the {@link OutputStream} to write to; must not be
+   * {@code null}
+   *
+   * @return {@code true} if the snapshot was written; {@code false}
+   * if it cannot be cached
+   *
+   * @exception IOException if there was a problem writing
+   */
+  static final boolean writeSettings(final Settings settings, final OutputStream out) throws IOException {
+    for (final Server server : settings.getServers()) {
+      if (server.getPassword() != null || server.getPassphrase() != null || server.getConfiguration() != null) {
+        return false;
+      }
+    }
+    for (final org.apache.maven.settings.Proxy proxy : settings.getProxies()) {
+      if (proxy.getPassword() != null) {
+        return false;
+      }
+    }
+    final ObjectOutputStream oos = new ObjectOutputStream(out);
+    oos.writeObject(settings);
+    oos.flush();
+    return true;
+  }
+
+  /**
+   * Returns {@code true} unless the {@code
+   * microbean.launcher.settingsCache} system property is {@code
+   * false}.
+   *
+   * @return {@code true} if caching is enabled
+   */
+  private static final boolean isEnabled() {
+    return !"false".equalsIgnoreCase(System.getProperty("microbean.launcher.settingsCache"));
+  }
+
+  /**
+   * Returns the {@link Path}s of the user, global and security
+   * settings files, honoring the system properties Maven itself uses
+   * to relocate them.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return a non-{@code null} {@link List} of {@link Path}s, some of
+   * which may not exist
+   */
+  private static final List<Path> getSettingsFiles() {
+    final List<Path> returnValue = new ArrayList<>(3);
+    final String userHome = System.getProperty("user.home");
+    final String userSettings = System.getProperty("org.apache.maven.user-settings");
+    returnValue.add(userSettings == null ? Paths.get(userHome, ".m2", "settings.xml") : Paths.get(userSettings));
+    final String globalSettings = System.getProperty("org.apache.maven.global-settings");
+    if (globalSettings != null) {
+      returnValue.add(Paths.get(globalSettings));
+    } else {
+      final String mavenHome = System.getProperty("maven.home");
+      if (mavenHome != null) {
+        returnValue.add(Paths.get(mavenHome, "conf", "settings.xml"));
+      }
+    }
+    final String securitySettings = System.getProperty("settings.security");
+    returnValue.add(securitySettings == null ? Paths.get(userHome, ".m2", "settings-security.xml") : Paths.get(securitySettings));
+    return returnValue;
+  }
+
+  /**
+   * Reads a {@link RemoteRepository} list snapshot.
+   *
+   * @param in the {@link InputStream} to read from; must not be
+   * {@code null}
+   *
+   * @return the {@link List} of {@link RemoteRepository} instances
+   * read; never {@code null}
+   *
+   * @exception IOException if there was a problem reading
+   */
+  static final List<RemoteRepository> readRepositories(final InputStream in) throws IOException {
+    final DataInputStream dis = new DataInputStream(in);
+    final int formatVersion = dis.readInt();
+    if (formatVersion != FORMAT_VERSION) {
+      throw new IOException("Unexpected format version: " + formatVersion);
+    }
+    return readRepositories(dis);
+  }
+
+  /**
+   * Reads a {@link List} of {@link RemoteRepository} instances.
+   *
+   * @param in the {@link DataInputStream} to read from; must not be
+   * {@code null}
+   *
+   * @return a non-{@code null} {@link List}
+   *
+   * @exception IOException if there was a problem reading
+   */
+  private static final List<RemoteRepository> readRepositories(final DataInputStream in) throws IOException {
+    final int size = in.readInt();
+    final List<RemoteRepository> returnValue = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      final RemoteRepository.Builder builder = new RemoteRepository.Builder(in.readUTF(), in.readUTF(), in.readUTF());
+      builder.setReleasePolicy(readPolicy(in));
+      builder.setSnapshotPolicy(readPolicy(in));
+      builder.setRepositoryManager(in.readBoolean());
+      if (in.readBoolean()) {
+        builder.setProxy(new Proxy(in.readUTF(), in.readUTF(), in.readInt()));
+      }
+      builder.setMirroredRepositories(readRepositories(in));
+      returnValue.add(builder.build());
+    }
+    return Collections.unmodifiableList(returnValue);
+  }
+
+  /**
+   * Reads a {@link RepositoryPolicy}.
+   *
+   * @param in the {@link DataInputStream} to read from; must not be
+   * {@code null}
+   *
+   * @return a non-{@code null} {@link RepositoryPolicy}
+   *
+   * @exception IOException if there was a problem reading
+   */
+  private static final RepositoryPolicy readPolicy(final DataInputStream in) throws IOException {
+    return new RepositoryPolicy(in.readBoolean(), in.readUTF(), in.readUTF());
+  }
+
+  /**
+   * Writes a {@link RemoteRepository} list snapshot, unless any
+   * repository or proxy in it carries authentication.
+   *
+   * @param repositories the {@link List} of {@link RemoteRepository}
+   * instances to write; must not be {@code null}
+   *
+   * @param out the {@link OutputStream} to write to; must not be
+   * {@code null}
+   *
+   * @return {@code true} if the snapshot was written; {@code false}
+   * if it cannot be cached
+   *
+   * @exception IOException if there was a problem writing
+   */
+  static final boolean writeRepositories(final List<? extends RemoteRepository> repositories, final OutputStream out) throws IOException {
+    if (!isCacheable(repositories)) {
+      return false;
+    }
+    final DataOutputStream dos = new DataOutputStream(out);
+    dos.writeInt(FORMAT_VERSION);
+    writeRepositories(repositories, dos);
+    dos.flush();
+    return true;
+  }
+
+  /**
+   * Writes a {@link List} of {@link RemoteRepository} instances.
+   *
+   * @param repositories the {@link List} to write; must not be {@code
+   * null}
+   *
+   * @param out the {@link DataOutputStream} to write to; must not be
+   * {@code null}
+   *
+   * @exception IOException if there was a problem writing
+   */
+  private static final void writeRepositories(final List<? extends RemoteRepository> repositories, final DataOutputStream out) throws IOException {
+    out.writeInt(repositories.size());
+    for (final RemoteRepository repository : repositories) {
+      out.writeUTF(repository.getId());
+      out.writeUTF(repository.getContentType());
+      out.writeUTF(repository.getUrl());
+      writePolicy(repository.getPolicy(false), out);
+      writePolicy(repository.getPolicy(true), out);
+      out.writeBoolean(repository.isRepositoryManager());
+      final Proxy proxy = repository.getProxy();
+      out.writeBoolean(proxy != null);
+      if (proxy != null) {
+        out.writeUTF(proxy.getType());
+        out.writeUTF(proxy.getHost());
+        out.writeInt(proxy.getPort());
+      }
+      writeRepositories(repository.getMirroredRepositories(), out);
+    }
+  }
+
+  /**
+   * Writes a {@link RepositoryPolicy}.
+   *
+   * @param policy the {@link RepositoryPolicy} to write; must not be
+   * {@code null}
+   *
+   * @param out the {@link DataOutputStream} to write to; must not be
+   * {@code null}
+   *
+   * @exception IOException if there was a problem writing
+   */
+  private static final void writePolicy(final RepositoryPolicy policy, final DataOutputStream out) throws IOException {
+    out.writeBoolean(policy.isEnabled());
+    out.writeUTF(policy.getUpdatePolicy());
+    out.writeUTF(policy.getChecksumPolicy());
+  }
+
+  /**
+   * Returns {@code true} if no repository in the supplied {@link
+   * List}, or among their mirrored repositories, carries
+   * authentication, either directly or through its proxy.
+   *
+   * @param repositories the {@link List} in question; must not be
+   * {@code null}
+   *
+   * @return {@code true} if the supplied repositories can be cached
+   */
+  private static final boolean isCacheable(final List<? extends RemoteRepository> repositories) {
+    for (final RemoteRepository repository : repositories) {
+      if (repository.getAuthentication() != null ||
+          (repository.getProxy() != null && repository.getProxy().getAuthentication() != null) ||
+          !isCacheable(repository.getMirroredRepositories())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  /**
+   * Reads a snapshot from an {@link InputStream}.
+   *
+   * @param <X> the type of object read
+   *
+   * @author <a href="https://about.me/lairdnelson"
+   * target="_parent">Laird Nelson</a>
+   */
+  @FunctionalInterface
+  private static interface Reader<X> {
+
+    /**
+     * Reads a snapshot.
+     *
+     * @param in the {@link InputStream} to read from; must not be
+     * {@code null}
+     *
+     * @return the object read; never {@code null}
+     *
+     * @exception IOException if there was a problem reading
+     */
+    public X read(final InputStream in) throws IOException;
+
+  }
+
+  /**
+   * Writes a snapshot to an {@link OutputStream}.
+   *
+   * @param <X> the type of object written
+   *
+   * @author <a href="https://about.me/lairdnelson"
+   * target="_parent">Laird Nelson</a>
+   */
+  @FunctionalInterface
+  private static interface Writer<X> {
+
+    /**
+     * Writes a snapshot, if possible.
+     *
+     * @param object the object to write; must not be {@code null}
+     *
+     * @param out the {@link OutputStream} to write to; must not be
+     * {@code null}
+     *
+     * @return {@code true} if a snapshot was written; {@code false}
+     * if the object cannot be cached
+     *
+     * @exception IOException if there was a problem writing
+     */
+    public boolean write(final X object, final OutputStream out) throws IOException;
+
+  }
+
+  /**
+   * A {@link Producer} that returns a snapshot when one matches the
+   * current settings, and otherwise delegates to another {@link
+   * Producer} and stores what it produces.
+   *
+   * @param <X> the type of object produced
+   *
+   * @author <a href="https://about.me/lairdnelson"
+   * target="_parent">Laird Nelson</a>
+   */
+  private final class CachingProducer<X> implements Producer<X> {
+
+    /**
+     * The {@link Producer} to delegate to.
+     *
+     * <p>This field is never {@code null}.</p>
+     */
+    private final Producer<X> delegate;
+
+    /**
+     * The suffix of snapshot file names.
+     *
+     * <p>This field is never {@code null}.</p>
+     */
+    private final String suffix;
+
+    /**
+     * The {@link Reader} that reads snapshots.
+     *
+     * <p>This field is never {@code null}.</p>
+     */
+    private final Reader<? extends X> reader;
+
+    /**
+     * The {@link Writer} that writes snapshots.
+     *
+     * <p>This field is never {@code null}.</p>
+     */
+    private final Writer<? super X> writer;
+
+    /**
+     * Creates a new {@link CachingProducer}.
+     *
+     * @param delegate the {@link Producer} to delegate to; must not
+     * be {@code null}
+     *
+     * @param suffix the suffix of snapshot file names; must not be
+     * {@code null}
+     *
+     * @param reader the {@link Reader} that reads snapshots; must not
+     * be {@code null}
+     *
+     * @param writer the {@link Writer} that writes snapshots; must
+     * not be {@code null}
+     *
+     * @exception NullPointerException if any parameter is {@code
+     * null}
+     */
+    private CachingProducer(final Producer<X> delegate,
+                            final String suffix,
+                            final Reader<? extends X> reader,
+                            final Writer<? super X> writer) {
+      super();
+      this.delegate = Objects.requireNonNull(delegate);
+      this.suffix = Objects.requireNonNull(suffix);
+      this.reader = Objects.requireNonNull(reader);
+      this.writer = Objects.requireNonNull(writer);
+    }
+
+    @Override
+    public final X produce(final CreationalContext<X> creationalContext) {
+      Path file = null;
+      try {
+        file = getPath(this.suffix);
+        if (file != null && Files.isRegularFile(file)) {
+          try (final InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            return this.reader.read(in);
+          }
+        }
+      } catch (final IOException | RuntimeException exception) {
+        logger.warn("Could not read the effective settings snapshot {}", file, exception);
+      }
+      final X returnValue = this.delegate.produce(creationalContext);
+      if (file != null && returnValue != null) {
+        try {
+          this.store(file, returnValue);
+        } catch (final IOException | RuntimeException exception) {
+          logger.warn("Could not write the effective settings snapshot {}", file, exception);
+        }
+      }
+      return returnValue;
+    }
+
+    /**
+     * Atomically stores a snapshot of the supplied object in the
+     * supplied file, readable by its owner only where possible.
+     *
+     * @param file the {@link Path} of the snapshot; must not be
+     * {@code null}
+     *
+     * @param object the object to store; must not be {@code null}
+     *
+     * @exception IOException if there was a problem writing
+     */
+    private final void store(final Path file, final X object) throws IOException {
+      Files.createDirectories(directory);
+      final Path temporaryFile = Files.createTempFile(directory, "settings", ".tmp");
+      try {
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+          Files.setPosixFilePermissions(temporaryFile, EnumSet.of(PosixFilePermission.OWNER_READ, PosixFilePermission.OWNER_WRITE));
+        }
+        final boolean written;
+        try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(temporaryFile))) {
+          written = this.writer.write(object, out);
+        }
+        if (written) {
+          Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+      } finally {
+        Files.deleteIfExists(temporaryFile);
+      }
+    }
+
+    @Override
+    public final void dispose(final X instance) {
+      this.delegate.dispose(instance);
+    }
+
+    @Override
+    public final Set<InjectionPoint> getInjectionPoints() {
+      return this.delegate.getInjectionPoints();
+    }
+
+  }
+
+}
@@ -0,0 +1,489 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+
+import org.eclipse.aether.repository.RemoteRepository;
+
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
+
+/**
+ * Resolves artifacts by racing each {@link ArtifactRequest} against
+ * a second, <em>hedge</em> request that asks the next remote
+ * repository first if the primary request has not completed within
+ * a fixed delay of its having started to run.
+ *
+ * <p>Whichever request succeeds first wins.  The losing request is
+ * not interrupted; if it is the primary request it will go on to
+ * populate the local repository for the benefit of later
+ * launches.</p>
+ *
+ * <p>At most a fixed number of primary requests run at once; the
+ * rest wait in a queue, and a primary request that is waiting is
+ * never hedged.  A primary request that has been hedged stops
+ * counting against that number, so that a slow remote repository
+ * cannot hold up the primary requests queued behind it.  Hedge
+ * requests run on their own pool of threads, so they never wait
+ * behind primary requests either.</p>
+ *
+ * <p>Hedge requests use a separate {@link RepositorySystemSession},
+ * normally one whose {@linkplain
+ * RepositorySystemSession#getLocalRepositoryManager() local
+ * repository} is a staging area, so that the two requests never
+ * write the same local file at the same time.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ClasspathExporter
+ */
+final class HedgedArtifactResolver implements AutoCloseable {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The {@link RepositorySystem} that actually resolves artifacts.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final RepositorySystem repositorySystem;
+
+  /**
+   * The {@link RepositorySystemSession} used by primary requests.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final RepositorySystemSession session;
+
+  /**
+   * The {@link RepositorySystemSession} used by hedge requests.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final RepositorySystemSession hedgeSession;
+
+  /**
+   * The number of milliseconds to wait for a primary request before
+   * issuing its hedge request.
+   */
+  private final long hedgeDelayInMilliseconds;
+
+  /**
+   * The {@link ExecutorService} that runs primary requests once
+   * they have been {@linkplain #dispatch() dispatched}.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final ExecutorService executor;
+
+  /**
+   * The primary requests that are waiting for a free slot.
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * <p>This field is guarded by {@code this}.</p>
+   */
+  private final Queue<Runnable> queuedPrimaryRequests;
+
+  /**
+   * The number of additional primary requests that may run at once.
+   *
+   * <p>This field is guarded by {@code this}.</p>
+   */
+  private int freeSlots;
+
+  /**
+   * The {@link ScheduledExecutorService} that runs hedge requests
+   * once their delays have elapsed.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final ScheduledExecutorService hedgeExecutor;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link HedgedArtifactResolver}.
+   *
+   * @param repositorySystem the {@link RepositorySystem} that will
+   * actually resolve artifacts; must not be {@code null}
+   *
+   * @param session the {@link RepositorySystemSession} used by
+   * primary requests; must not be {@code null}
+   *
+   * @param hedgeSession the {@link RepositorySystemSession} used by
+   * hedge requests; must not be {@code null}
+   *
+   * @param hedgeDelayInMilliseconds the number of milliseconds to
+   * wait for a primary request before issuing its hedge request;
+   * must not be negative
+   *
+   * @param threads the number of primary requests that are not yet
+   * hedged that may run at once, and, separately, the number of
+   * threads that will run hedge requests; must be greater than zero
+   *
+   * @exception NullPointerException if {@code repositorySystem},
+   * {@code session} or {@code hedgeSession} is {@code null}
+   *
+   * @exception IllegalArgumentException if {@code
+   * hedgeDelayInMilliseconds} is negative or {@code threads} is less
+   * than {@code 1}
+   */
+  HedgedArtifactResolver(final RepositorySystem repositorySystem,
+                         final RepositorySystemSession session,
+                         final RepositorySystemSession hedgeSession,
+                         final long hedgeDelayInMilliseconds,
+                         final int threads) {
+    super();
+    this.repositorySystem = Objects.requireNonNull(repositorySystem);
+    this.session = Objects.requireNonNull(session);
+    this.hedgeSession = Objects.requireNonNull(hedgeSession);
+    if (hedgeDelayInMilliseconds < 0L) {
+      throw new IllegalArgumentException("hedgeDelayInMilliseconds < 0: " + hedgeDelayInMilliseconds);
+    }
+    this.hedgeDelayInMilliseconds = hedgeDelayInMilliseconds;
+    if (threads < 1) {
+      throw new IllegalArgumentException("threads < 1: " + threads);
+    }
+    this.freeSlots = threads;
+    this.queuedPrimaryRequests = new ArrayDeque<>();
+    this.executor = Executors.newCachedThreadPool(newThreadFactory("microbean-launcher-resolver"));
+    this.hedgeExecutor = new ScheduledThreadPoolExecutor(threads, newThreadFactory("microbean-launcher-hedge"));
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Resolves all of the supplied {@link ArtifactRequest}s
+   * concurrently, hedging each one, and returns their {@link
+   * ArtifactResult}s in the same order.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param requests the {@link ArtifactRequest}s to resolve; may be
+   * {@code null}
+   *
+   * @return a non-{@code null} {@link List} of {@link
+   * ArtifactResult}s, one per request
+   *
+   * @exception ArtifactResolutionException if any request could not
+   * be resolved
+   */
+  final List<ArtifactResult> resolveArtifacts(final Collection<? extends ArtifactRequest> requests) throws ArtifactResolutionException {
+    final List<ArtifactResult> returnValue = new ArrayList<>();
+    if (requests != null && !requests.isEmpty()) {
+      final List<CompletableFuture<ArtifactResult>> futures = new ArrayList<>(requests.size());
+      for (final ArtifactRequest request : requests) {
+        futures.add(this.resolve(request));
+      }
+      boolean failed = false;
+      for (final CompletableFuture<ArtifactResult> future : futures) {
+        ArtifactResult result;
+        try {
+          result = future.join();
+        } catch (final CompletionException completionException) {
+          final Throwable cause = completionException.getCause();
+          if (cause instanceof ArtifactResolutionException) {
+            result = ((ArtifactResolutionException)cause).getResult();
+          } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException)cause;
+          } else {
+            throw completionException;
+          }
+        }
+        if (result == null || !result.isResolved()) {
+          failed = true;
+        }
+        returnValue.add(result);
+      }
+      if (failed) {
+        throw new ArtifactResolutionException(returnValue);
+      }
+    }
+    return returnValue;
+  }
+
+  /**
+   * Queues the supplied {@link ArtifactRequest} as a primary request
+   * and, once that primary request has actually begun to run,
+   * schedules its hedge request.
+   *
+   * <p>The hedge delay is measured from the moment the primary
+   * request leaves the queue, not from the moment it enters it, so
+   * that a primary request that is merely waiting for a free slot is
+   * never hedged.  When the hedge request is issued, the primary
+   * request gives up its slot to the next queued primary request,
+   * and the hedge request itself runs on a thread reserved for hedge
+   * requests.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param request the {@link ArtifactRequest} to resolve; must not
+   * be {@code null}
+   *
+   * @return a non-{@code null} {@link CompletableFuture} that will
+   * complete with the first successful {@link ArtifactResult}, or
+   * exceptionally if every request issued fails
+   *
+   * @exception NullPointerException if {@code request} is {@code
+   * null}
+   */
+  private final CompletableFuture<ArtifactResult> resolve(final ArtifactRequest request) {
+    Objects.requireNonNull(request);
+    final Race race = new Race();
+    race.start();
+    final List<RemoteRepository> repositories = request.getRepositories();
+    final AtomicBoolean slotHeld = new AtomicBoolean(true);
+    final Runnable releaseSlot = () -> {
+      if (slotHeld.compareAndSet(true, false)) {
+        this.release();
+      }
+    };
+    this.enqueue(() -> {
+        if (repositories != null && repositories.size() > 1) {
+          this.hedgeExecutor.schedule(() -> {
+              if (race.start()) {
+                releaseSlot.run();
+                final List<RemoteRepository> rotatedRepositories = new ArrayList<>(repositories.subList(1, repositories.size()));
+                rotatedRepositories.add(repositories.get(0));
+                final ArtifactRequest hedgeRequest = new ArtifactRequest(request.getArtifact(), rotatedRepositories, request.getRequestContext());
+                hedgeRequest.setDependencyNode(request.getDependencyNode());
+                hedgeRequest.setTrace(request.getTrace());
+                this.run(this.hedgeSession, hedgeRequest, race);
+              }
+            }, this.hedgeDelayInMilliseconds, TimeUnit.MILLISECONDS);
+        }
+        try {
+          this.run(this.session, request, race);
+        } finally {
+          releaseSlot.run();
+        }
+      });
+    return race.winner;
+  }
+
+  /**
+   * Resolves the supplied {@link ArtifactRequest} using the supplied
+   * {@link RepositorySystemSession} on the current thread and
+   * reports the outcome to the supplied {@link Race}.
+   *
+   * @param session the {@link RepositorySystemSession} to use; must
+   * not be {@code null}
+   *
+   * @param request the {@link ArtifactRequest} to resolve; must not
+   * be {@code null}
+   *
+   * @param race the {@link Race} to which the outcome will be
+   * reported; must not be {@code null}
+   */
+  private final void run(final RepositorySystemSession session, final ArtifactRequest request, final Race race) {
+    ArtifactResult result = null;
+    Throwable throwable = null;
+    try {
+      result = this.repositorySystem.resolveArtifact(session, request);
+    } catch (final ArtifactResolutionException | RuntimeException exception) {
+      throwable = exception;
+    }
+    race.finish(result, throwable);
+  }
+
+  /**
+   * Adds the supplied primary request to the queue and {@linkplain
+   * #dispatch() dispatches} whatever can run.
+   *
+   * @param primaryRequest the primary request; must not be {@code
+   * null}
+   */
+  private final synchronized void enqueue(final Runnable primaryRequest) {
+    this.queuedPrimaryRequests.add(Objects.requireNonNull(primaryRequest));
+    this.dispatch();
+  }
+
+  /**
+   * Returns a slot given up by a primary request that has finished
+   * or been hedged and {@linkplain #dispatch() dispatches} whatever
+   * can now run.
+   */
+  private final synchronized void release() {
+    this.freeSlots++;
+    this.dispatch();
+  }
+
+  /**
+   * Runs queued primary requests for as long as there are free
+   * slots.
+   */
+  private final synchronized void dispatch() {
+    while (this.freeSlots > 0 && !this.queuedPrimaryRequests.isEmpty()) {
+      this.freeSlots--;
+      this.executor.execute(this.queuedPrimaryRequests.remove());
+    }
+  }
+
+  /**
+   * {@linkplain ExecutorService#shutdown() Shuts down} the threads
+   * used by this {@link HedgedArtifactResolver}, allowing any
+   * requests already running to finish.
+   */
+  @Override
+  public final void close() {
+    this.executor.shutdown();
+    this.hedgeExecutor.shutdown();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns a {@link ThreadFactory} that creates daemon {@link
+   * Thread}s with the supplied name.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param name the name of each {@link Thread}; must not be {@code
+   * null}
+   *
+   * @return a non-{@code null} {@link ThreadFactory}
+   */
+  private static final ThreadFactory newThreadFactory(final String name) {
+    return r -> {
+      final Thread t = new Thread(r, name);
+      t.setDaemon(true);
+      return t;
+    };
+  }
+
+
+  /*
+   * Inner and nested classes.
+   */
+
+
+  /**
+   * The state shared by a primary request and its hedge request.
+   *
+   * @author <a href="https://about.me/lairdnelson"
+   * target="_parent">Laird Nelson</a>
+   */
+  private static final class Race {
+
+    /**
+     * The {@link CompletableFuture} that completes with the first
+     * successful {@link ArtifactResult}.
+     *
+     * <p>This field is never {@code null}.</p>
+     */
+    private final CompletableFuture<ArtifactResult> winner;
+
+    /**
+     * The number of requests that have started but not yet finished.
+     */
+    private int runners;
+
+    /**
+     * The first failure reported by a finished request.
+     *
+     * <p>This field may be {@code null}.</p>
+     */
+    private Throwable failure;
+
+    /**
+     * Creates a new {@link Race}.
+     */
+    private Race() {
+      super();
+      this.winner = new CompletableFuture<>();
+    }
+
+    /**
+     * Registers a new runner if this {@link Race} has not yet been
+     * decided.
+     *
+     * @return {@code true} if a runner was registered and should
+     * therefore be started; {@code false} otherwise
+     */
+    private final synchronized boolean start() {
+      if (this.winner.isDone()) {
+        return false;
+      }
+      this.runners++;
+      return true;
+    }
+
+    /**
+     * Records the outcome of a runner.
+     *
+     * @param result the {@link ArtifactResult} produced by the
+     * runner; may be {@code null}
+     *
+     * @param throwable the {@link Throwable} raised by the runner;
+     * may be {@code null}
+     */
+    private final synchronized void finish(final ArtifactResult result, final Throwable throwable) {
+      this.runners--;
+      if (throwable == null) {
+        this.winner.complete(result);
+      } else {
+        if (this.failure == null) {
+          this.failure = throwable;
+        }
+        if (this.runners <= 0) {
+          this.winner.completeExceptionally(this.failure);
+        }
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,267 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.IOException;
+import java.io.Reader;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * A description of several applications to be resolved together and
+ * launched side by side in one JVM.
+ *
+ * <p>A launch manifest is a {@link Properties} file.  Its {@code
+ * applications} property is a comma-separated list of application
+ * names.  For each application name, the following properties are
+ * recognized:</p>
+ *
+ * <dl>
+ *
+ * <dt>{@code <name>.artifactPath}</dt>
+ *
+ * <dd>The application's artifact path, in the same format as the
+ * {@code --artifactPath} option; required</dd>
+ *
+ * <dt>{@code <name>.defaultGroupId}</dt>
+ *
+ * <dd>The group identifier to use for artifacts in the application's
+ * artifact path that do not specify one; optional</dd>
+ *
+ * <dt>{@code <name>.arguments}</dt>
+ *
+ * <dd>The command line arguments to pass to the application,
+ * separated by whitespace; optional.  There is no quoting, so an
+ * argument cannot itself contain whitespace.</dd>
+ *
+ * </dl>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see #read(Path)
+ *
+ * @see ClasspathExporter
+ */
+public final class LaunchManifest {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The names of the applications described by this {@link
+   * LaunchManifest}, in manifest order.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Set<String> applicationNames;
+
+  /**
+   * The {@link Properties} backing this {@link LaunchManifest}.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Properties properties;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link LaunchManifest}.
+   *
+   * @param properties the {@link Properties} describing the
+   * applications; must not be {@code null}
+   *
+   * @exception NullPointerException if {@code properties} is {@code
+   * null}
+   *
+   * @exception IllegalArgumentException if an application does not
+   * have an artifact path
+   */
+  public LaunchManifest(final Properties properties) {
+    super();
+    this.properties = (Properties)Objects.requireNonNull(properties).clone();
+    final Set<String> applicationNames = new LinkedHashSet<>();
+    final String applications = properties.getProperty("applications");
+    if (applications != null) {
+      for (final String applicationName : applications.split(",")) {
+        final String trimmedApplicationName = applicationName.trim();
+        if (!trimmedApplicationName.isEmpty()) {
+          final String artifactPath = this.getArtifactPath(trimmedApplicationName);
+          if (artifactPath == null || artifactPath.isEmpty()) {
+            throw new IllegalArgumentException("Invalid launch manifest: no artifact path for application " + trimmedApplicationName);
+          }
+          applicationNames.add(trimmedApplicationName);
+        }
+      }
+    }
+    this.applicationNames = Collections.unmodifiableSet(applicationNames);
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns the names of the applications described by this {@link
+   * LaunchManifest}, in manifest order.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return a non-{@code null}, {@linkplain
+   * Collections#unmodifiableSet(Set) unmodifiable} {@link Set} of
+   * application names
+   */
+  public final Set<String> getApplicationNames() {
+    return this.applicationNames;
+  }
+
+  /**
+   * Returns the artifact path of the application with the supplied
+   * name, or {@code null} if there is none.
+   *
+   * @param applicationName the name of the application; must not be
+   * {@code null}
+   *
+   * @return the artifact path, or {@code null}
+   *
+   * @exception NullPointerException if {@code applicationName} is
+   * {@code null}
+   */
+  public final String getArtifactPath(final String applicationName) {
+    return this.getProperty(applicationName, "artifactPath");
+  }
+
+  /**
+   * Returns the default group identifier of the application with the
+   * supplied name, or {@code null} if there is none.
+   *
+   * @param applicationName the name of the application; must not be
+   * {@code null}
+   *
+   * @return the default group identifier, or {@code null}
+   *
+   * @exception NullPointerException if {@code applicationName} is
+   * {@code null}
+   */
+  public final String getDefaultGroupId(final String applicationName) {
+    return this.getProperty(applicationName, "defaultGroupId");
+  }
+
+  /**
+   * Returns the command line arguments of the application with the
+   * supplied name.
+   *
+   * <p>The {@code <applicationName>.arguments} property is split on
+   * runs of whitespace.  Quotes are not interpreted, so an argument
+   * cannot itself contain whitespace.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param applicationName the name of the application; must not be
+   * {@code null}
+   *
+   * @return a non-{@code null} {@link String} array of command line
+   * arguments
+   *
+   * @exception NullPointerException if {@code applicationName} is
+   * {@code null}
+   */
+  public final String[] getArguments(final String applicationName) {
+    final String arguments = this.getProperty(applicationName, "arguments");
+    if (arguments == null || arguments.isEmpty()) {
+      return new String[0];
+    }
+    return arguments.split("\\s+");
+  }
+
+  /**
+   * Returns the trimmed value of the property named {@code
+   * <applicationName>.<name>}, or {@code null} if there is no such
+   * property.
+   *
+   * @param applicationName the name of the application; must not be
+   * {@code null}
+   *
+   * @param name the unqualified property name; must not be {@code
+   * null}
+   *
+   * @return the trimmed property value, or {@code null}
+   *
+   * @exception NullPointerException if either parameter is {@code
+   * null}
+   */
+  private final String getProperty(final String applicationName, final String name) {
+    Objects.requireNonNull(applicationName);
+    Objects.requireNonNull(name);
+    final String value = this.properties.getProperty(applicationName + "." + name);
+    if (value == null) {
+      return null;
+    }
+    return value.trim();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Reads a {@link LaunchManifest} from the {@link Properties} file
+   * located at the supplied {@link Path}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param file the {@link Path} of the launch manifest; must not be
+   * {@code null}
+   *
+   * @return a non-{@code null} {@link LaunchManifest}
+   *
+   * @exception NullPointerException if {@code file} is {@code null}
+   *
+   * @exception IOException if there was a problem reading
+   *
+   * @exception IllegalArgumentException if an application does not
+   * have an artifact path
+   */
+  public static final LaunchManifest read(final Path file) throws IOException {
+    final Properties properties = new Properties();
+    try (final Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      properties.load(reader);
+    }
+    return new LaunchManifest(properties);
+  }
+
+}
@@ -0,0 +1,224 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.IOException;
+
+import java.net.URI;
+
+import java.nio.file.Path;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.LoggerFactory;
+
+/**
+ * Everything needed to launch one or more applications once their
+ * dependencies have been resolved.
+ *
+ * <p>This interface deliberately mentions no Maven or Aether types,
+ * so that an implementation may be used in a JVM that never loads
+ * them.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ClasspathExporter
+ */
+public interface LaunchPlan {
+
+  /**
+   * Returns the classpath of the application, or, if there are
+   * {@linkplain #getApplicationNames() several applications}, the
+   * union of their classpaths.
+   *
+   * <p>Implementations must not return {@code null}.</p>
+   *
+   * @return a non-{@code null} {@link Set} of classpath {@link URI}s
+   */
+  public Set<URI> getClasspath();
+
+  /**
+   * Returns the command line arguments intended for the application.
+   *
+   * <p>Implementations must not return {@code null}.</p>
+   *
+   * @return a non-{@code null} {@link String} array
+   */
+  public String[] getRemainingCommandLineArguments();
+
+  /**
+   * Returns the names of the applications to launch side by side, or
+   * an empty {@link Set} if there is only one, unnamed, application.
+   *
+   * <p>Implementations must not return {@code null}.</p>
+   *
+   * @return a non-{@code null} {@link Set} of application names
+   */
+  public Set<String> getApplicationNames();
+
+  /**
+   * Returns the classpath of the application with the supplied name.
+   *
+   * <p>Implementations must not return {@code null}.</p>
+   *
+   * @param applicationName the name of the application; may be
+   * {@code null}
+   *
+   * @return a non-{@code null} {@link Set} of classpath {@link URI}s
+   */
+  public Set<URI> getClasspath(final String applicationName);
+
+  /**
+   * Returns the command line arguments of the application with the
+   * supplied name.
+   *
+   * <p>Implementations must not return {@code null}.</p>
+   *
+   * @param applicationName the name of the application; may be
+   * {@code null}
+   *
+   * @return a non-{@code null} {@link String} array
+   */
+  public String[] getRemainingCommandLineArguments(final String applicationName);
+
+  /**
+   * Returns {@code true} if the classpath should be read ahead while
+   * the application container starts.
+   *
+   * @return {@code true} if the classpath should be warmed
+   */
+  public boolean isWarmClasspath();
+
+  /**
+   * Returns {@code true} if the order in which application classes
+   * are loaded should be recorded.
+   *
+   * @return {@code true} if the class load order should be recorded
+   */
+  public boolean isRecordClassLoadOrder();
+
+  /**
+   * Returns {@code true} if a recorded class load order should be
+   * replayed.
+   *
+   * @return {@code true} if the class load order should be replayed
+   */
+  public boolean isReplayClassLoadOrder();
+
+  /**
+   * Returns {@code true} if the application container should be
+   * configured from {@linkplain BeanArchiveIndex bean archive
+   * indexes} rather than discover bean archives itself.
+   *
+   * @return {@code true} if bean archives should be indexed
+   */
+  public boolean isIndexBeanArchives();
+
+  /**
+   * Returns {@code true} if proxy classes generated by the
+   * application container should be {@linkplain ProxyClassCache
+   * cached} and reused by later launches.
+   *
+   * @return {@code true} if proxy classes should be cached
+   */
+  public boolean isCacheProxyClasses();
+
+  /**
+   * Returns {@code true} if the application container should be
+   * restarted whenever a resolved {@code SNAPSHOT} artifact changes.
+   *
+   * @return {@code true} if {@code SNAPSHOT} artifacts should be
+   * watched
+   */
+  public boolean isWatch();
+
+  /**
+   * Returns the {@link Path} of the directory in which the launcher
+   * keeps information from one launch to the next.
+   *
+   * <p>Implementations must not return {@code null}.</p>
+   *
+   * @return the non-{@code null} {@link Path} of the cache directory
+   */
+  public Path getCacheDirectory();
+
+  /**
+   * Returns the binary names of the classes most recently
+   * {@linkplain #setClassLoadOrder(Collection, List) recorded} as
+   * having been loaded from the supplied classpath, in the order in
+   * which they were loaded, if {@linkplain #isReplayClassLoadOrder()
+   * replay} is enabled.
+   *
+   * <p>Implementations must not return {@code null}.</p>
+   *
+   * <p>The default implementation reads the {@linkplain
+   * ClassLoadOrders#inCacheDirectory(Path) class load orders} kept in
+   * the {@linkplain #getCacheDirectory() cache directory}.  Failures
+   * are logged rather than thrown.</p>
+   *
+   * @param classpath the classpath {@link URI}s in question; may be
+   * {@code null}
+   *
+   * @return a non-{@code null} {@link List} of binary class names;
+   * empty if replay is disabled or nothing has been recorded
+   *
+   * @see ClassLoadOrders
+   */
+  public default List<String> getClassLoadOrder(final Collection<? extends URI> classpath) {
+    if (this.isReplayClassLoadOrder()) {
+      try {
+        return ClassLoadOrders.inCacheDirectory(this.getCacheDirectory()).load(classpath);
+      } catch (final IOException ioException) {
+        LoggerFactory.getLogger(this.getClass()).warn("Could not read the class load order", ioException);
+      }
+    }
+    return Collections.emptyList();
+  }
+
+  /**
+   * Records the binary names of the classes loaded from the supplied
+   * classpath, in the order in which they were loaded, if
+   * {@linkplain #isRecordClassLoadOrder() recording} is enabled.
+   *
+   * <p>The default implementation writes to the {@linkplain
+   * ClassLoadOrders#inCacheDirectory(Path) class load orders} kept in
+   * the {@linkplain #getCacheDirectory() cache directory}.  Failures
+   * are logged rather than thrown.</p>
+   *
+   * @param classpath the classpath {@link URI}s the classes were
+   * loaded from; may be {@code null}
+   *
+   * @param classNames the binary names of the classes, in the order
+   * in which they were loaded; may be {@code null}
+   *
+   * @see ClassLoadOrders
+   */
+  public default void setClassLoadOrder(final Collection<? extends URI> classpath, final List<? extends String> classNames) {
+    if (this.isRecordClassLoadOrder()) {
+      try {
+        ClassLoadOrders.inCacheDirectory(this.getCacheDirectory()).store(classpath, classNames);
+      } catch (final IOException ioException) {
+        LoggerFactory.getLogger(this.getClass()).warn("Could not record the class load order", ioException);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,393 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.net.URL;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.ProtectionDomain;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A store of the bytecode of client proxy classes that Weld
+ * generated in earlier launches, so that later launches can define
+ * them instead of generating them again.
+ *
+ * <p>Only client proxies are cached.  Their bytecode depends only on
+ * the proxied bean class and its supertypes, whereas that of
+ * interceptor and decorator subclasses also depends on which
+ * interceptors and decorators are enabled, on interceptor binding
+ * and stereotype declarations, and on what portable extensions did,
+ * none of which a key can reliably capture.</p>
+ *
+ * <p>Each class is kept in its own file, named by a digest of the
+ * container's {@linkplain #getContainerVersion(Class) version}, the
+ * proxy class's name, and the bytes of the proxied bean class and of
+ * all of its superclasses and interfaces, so that a change to any of
+ * them is a cache miss rather than a stale proxy.</p>
+ *
+ * <p>Classes are {@linkplain #collect(Path, ClassLoader) collected}
+ * from the directory into which Weld {@linkplain #DUMP_PROPERTY
+ * dumps} the proxy classes it generates, and {@linkplain
+ * #load(String, ClassLoader) loaded} by a {@link ClassLoader} that
+ * Weld asks for a proxy class before generating it.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ClasspathExporter#isCacheProxyClasses()
+ */
+public final class ProxyClassCache {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The name of the Weld configuration property whose value is the
+   * directory into which Weld writes the bytecode of each proxy class
+   * it generates.
+   */
+  public static final String DUMP_PROPERTY = "org.jboss.weld.proxy.dump";
+
+  /**
+   * The suffix that Weld appends to the name of a proxied bean class
+   * to form the name of its client proxy class.
+   */
+  private static final String CLIENT_PROXY_SUFFIX = "$Proxy$_$$_WeldClientProxy";
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The {@link Path} of the directory in which proxy classes are
+   * kept.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Path directory;
+
+  /**
+   * The version of the container generating proxy classes.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final String containerVersion;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ProxyClassCache}.
+   *
+   * @param directory the {@link Path} of the directory in which proxy
+   * classes are kept; must not be {@code null}; need not exist
+   *
+   * @param containerVersion the version of the container generating
+   * proxy classes; must not be {@code null}
+   *
+   * @exception NullPointerException if either parameter is {@code
+   * null}
+   *
+   * @see #getContainerVersion(Class)
+   */
+  public ProxyClassCache(final Path directory, final String containerVersion) {
+    super();
+    this.directory = Objects.requireNonNull(directory);
+    this.containerVersion = Objects.requireNonNull(containerVersion);
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Creates and returns a new, empty directory into which the
+   * container may {@linkplain #DUMP_PROPERTY dump} the proxy classes
+   * it generates.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return the non-{@code null} {@link Path} of a new directory
+   *
+   * @exception IOException if the directory could not be created
+   *
+   * @see #collect(Path, ClassLoader)
+   */
+  public final Path newDumpDirectory() throws IOException {
+    Files.createDirectories(this.directory);
+    return Files.createTempDirectory(this.directory, "dump");
+  }
+
+  /**
+   * Returns the cached bytecode of the proxy class with the supplied
+   * name, or {@code null} if there is none.
+   *
+   * <p>{@code null} is also returned if the proxied bean class was
+   * not defined by the supplied {@link ClassLoader}, since a proxy
+   * class defined by it would then not share the bean class's
+   * runtime package.</p>
+   *
+   * @param proxyClassName the binary name of the proxy class; must
+   * not be {@code null}
+   *
+   * @param classLoader the {@link ClassLoader} that will define the
+   * proxy class; must not be {@code null}
+   *
+   * @return the bytecode of the proxy class, or {@code null}
+   *
+   * @exception IOException if there was a problem reading
+   *
+   * @exception NullPointerException if either parameter is {@code
+   * null}
+   */
+  public final byte[] load(final String proxyClassName, final ClassLoader classLoader) throws IOException {
+    final String key = this.key(proxyClassName, classLoader);
+    if (key == null) {
+      return null;
+    }
+    final Path file = this.directory.resolve(key + ".class");
+    if (!Files.isRegularFile(file)) {
+      return null;
+    }
+    return Files.readAllBytes(file);
+  }
+
+  /**
+   * Stores the bytecode of each proxy class found in the supplied
+   * dump directory, and then deletes the directory.
+   *
+   * @param dumpDirectory the {@link Path} of a directory {@linkplain
+   * #newDumpDirectory() created by this} {@link ProxyClassCache};
+   * must not be {@code null}
+   *
+   * @param classLoader the {@link ClassLoader} that defined the proxy
+   * classes; must not be {@code null}
+   *
+   * @return the number of proxy classes stored
+   *
+   * @exception IOException if there was a problem reading or writing
+   *
+   * @exception NullPointerException if either parameter is {@code
+   * null}
+   */
+  public final int collect(final Path dumpDirectory, final ClassLoader classLoader) throws IOException {
+    Objects.requireNonNull(classLoader);
+    int returnValue = 0;
+    try (final DirectoryStream<Path> files = Files.newDirectoryStream(dumpDirectory, "*.class")) {
+      for (final Path file : files) {
+        final byte[] bytes = Files.readAllBytes(file);
+        final String proxyClassName = ClassFileHeader.read(new ByteArrayInputStream(bytes)).getName();
+        final String key = this.key(proxyClassName, classLoader);
+        if (key != null) {
+          final Path temporaryFile = Files.createTempFile(this.directory, "proxy", ".tmp");
+          try {
+            Files.write(temporaryFile, bytes);
+            Files.move(temporaryFile, this.directory.resolve(key + ".class"), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+          } finally {
+            Files.deleteIfExists(temporaryFile);
+          }
+          returnValue++;
+        }
+        Files.delete(file);
+      }
+    } finally {
+      try (final DirectoryStream<Path> files = Files.newDirectoryStream(dumpDirectory)) {
+        for (final Path file : files) {
+          Files.deleteIfExists(file);
+        }
+      }
+      Files.deleteIfExists(dumpDirectory);
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns the key under which the proxy class with the supplied
+   * name is cached, or {@code null} if it cannot be cached.
+   *
+   * @param proxyClassName the binary name of the proxy class; must
+   * not be {@code null}
+   *
+   * @param classLoader the {@link ClassLoader} defining the proxy
+   * class; must not be {@code null}
+   *
+   * @return the key, or {@code null}
+   *
+   * @exception IOException if there was a problem reading class
+   * bytes
+   */
+  final String key(final String proxyClassName, final ClassLoader classLoader) throws IOException {
+    Objects.requireNonNull(classLoader);
+    if (!isProxyClassName(proxyClassName)) {
+      return null;
+    }
+    final int index = proxyClassName.length() - CLIENT_PROXY_SUFFIX.length();
+    final Class<?> beanClass;
+    try {
+      beanClass = Class.forName(proxyClassName.substring(0, index), false, classLoader);
+    } catch (final ClassNotFoundException | LinkageError exception) {
+      return null;
+    }
+    if (beanClass.getClassLoader() != classLoader) {
+      return null;
+    }
+    final MessageDigest messageDigest = Digests.newMessageDigest();
+    update(messageDigest, this.containerVersion);
+    update(messageDigest, System.getProperty("java.version"));
+    update(messageDigest, proxyClassName);
+    final Set<Class<?>> types = new LinkedHashSet<>();
+    final Deque<Class<?>> queue = new ArrayDeque<>();
+    queue.add(beanClass);
+    while (!queue.isEmpty()) {
+      final Class<?> type = queue.remove();
+      if (types.add(type)) {
+        final Class<?> superclass = type.getSuperclass();
+        if (superclass != null) {
+          queue.add(superclass);
+        }
+        for (final Class<?> iface : type.getInterfaces()) {
+          queue.add(iface);
+        }
+      }
+    }
+    for (final Class<?> type : types) {
+      update(messageDigest, type.getName());
+      final ClassLoader typeClassLoader = type.getClassLoader();
+      if (typeClassLoader != null) {
+        final String resourceName = type.getName().replace('.', '/') + ".class";
+        try (final InputStream in = typeClassLoader.getResourceAsStream(resourceName)) {
+          if (in == null) {
+            return null;
+          }
+          final byte[] buffer = new byte[8192];
+          int bytesRead;
+          while ((bytesRead = in.read(buffer)) >= 0) {
+            messageDigest.update(buffer, 0, bytesRead);
+          }
+        }
+      }
+    }
+    return Digests.toHex(messageDigest.digest());
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns {@code true} if the supplied binary class name is that
+   * of a Weld-generated client proxy class, the only kind of proxy
+   * class that a {@link ProxyClassCache} caches.
+   *
+   * @param className the binary class name; may be {@code null}
+   *
+   * @return {@code true} if the supplied name is that of a client
+   * proxy class
+   */
+  public static final boolean isProxyClassName(final String className) {
+    return className != null && className.length() > CLIENT_PROXY_SUFFIX.length() && className.endsWith(CLIENT_PROXY_SUFFIX);
+  }
+
+  /**
+   * Returns a {@link String} identifying the version of the container
+   * implementation to which the supplied {@link Class} belongs.
+   *
+   * <p>This is the {@linkplain Package#getImplementationVersion()
+   * implementation version} of the class's package if there is one,
+   * or else the location of the class's code source, which for a jar
+   * file in a Maven repository names its version too.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param containerClass a {@link Class} belonging to the container
+   * implementation, such as that of its {@link
+   * javax.enterprise.inject.se.SeContainerInitializer}; must not be
+   * {@code null}
+   *
+   * @return a non-{@code null} version {@link String}
+   *
+   * @exception NullPointerException if {@code containerClass} is
+   * {@code null}
+   */
+  public static final String getContainerVersion(final Class<?> containerClass) {
+    final Package p = containerClass.getPackage();
+    if (p != null) {
+      final String implementationVersion = p.getImplementationVersion();
+      if (implementationVersion != null && !implementationVersion.isEmpty()) {
+        return containerClass.getName() + ":" + implementationVersion;
+      }
+    }
+    final ProtectionDomain protectionDomain = containerClass.getProtectionDomain();
+    if (protectionDomain != null) {
+      final CodeSource codeSource = protectionDomain.getCodeSource();
+      if (codeSource != null) {
+        final URL location = codeSource.getLocation();
+        if (location != null) {
+          return containerClass.getName() + ":" + location;
+        }
+      }
+    }
+    return containerClass.getName();
+  }
+
+  /**
+   * Updates the supplied {@link MessageDigest} with the supplied
+   * {@link String} and a terminating zero byte.
+   *
+   * @param messageDigest the {@link MessageDigest}; must not be
+   * {@code null}
+   *
+   * @param s the {@link String}; may be {@code null}
+   */
+  private static final void update(final MessageDigest messageDigest, final String s) {
+    if (s != null) {
+      messageDigest.update(s.getBytes(StandardCharsets.UTF_8));
+    }
+    messageDigest.update((byte)0);
+  }
+
+}
@@ -0,0 +1,299 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.aether.repository.RemoteRepository;
+
+import org.eclipse.aether.transfer.AbstractTransferListener;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.transfer.TransferResource;
+
+/**
+ * An {@link AbstractTransferListener} that keeps an <a
+ * href="https://en.wikipedia.org/wiki/Moving_average#Exponential_moving_average"
+ * target="_parent">exponentially weighted moving average</a> of the
+ * time each remote repository takes to start answering a transfer,
+ * and that can {@linkplain #sort(List) reorder} a {@link List} of
+ * {@link RemoteRepository} instances so that the fastest ones are
+ * tried first.
+ *
+ * <p>Latencies are keyed by {@linkplain RemoteRepository#getUrl()
+ * repository URL} and may be {@linkplain #load(Path) loaded} from and
+ * {@linkplain #store(Path) stored} to a file so that they survive
+ * from one launch to the next.</p>
+ *
+ * <p>Instances of this class are safe for concurrent use by multiple
+ * threads.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see #sort(List)
+ *
+ * @see ClasspathExporter
+ */
+public final class RepositoryLatencies extends AbstractTransferListener {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The weight given to a new latency sample when it is folded into
+   * an existing average.
+   */
+  private static final double ALPHA = 0.3D;
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * A {@link ConcurrentMap} of average latencies, in milliseconds,
+   * indexed by repository URL.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final ConcurrentMap<String, Double> latencies;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link RepositoryLatencies} with no recorded
+   * latencies.
+   */
+  public RepositoryLatencies() {
+    super();
+    this.latencies = new ConcurrentHashMap<>();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Records the time between the {@linkplain
+   * TransferResource#getTransferStartTime() initiation} of the
+   * transfer described by the supplied {@link TransferEvent} and the
+   * first response from its repository.
+   *
+   * @param event the {@link TransferEvent} in question; may be {@code
+   * null} in which case no action will be taken
+   */
+  @Override
+  public final void transferStarted(final TransferEvent event) {
+    this.record(event);
+  }
+
+  /**
+   * Records the time between the {@linkplain
+   * TransferResource#getTransferStartTime() initiation} of the
+   * transfer described by the supplied {@link TransferEvent} and its
+   * failure.
+   *
+   * <p>A repository that is slow to say that it does not have
+   * something is penalized exactly as much as one that is slow to
+   * deliver it.</p>
+   *
+   * @param event the {@link TransferEvent} in question; may be {@code
+   * null} in which case no action will be taken
+   */
+  @Override
+  public final void transferFailed(final TransferEvent event) {
+    this.record(event);
+  }
+
+  /**
+   * Folds the elapsed time of the transfer described by the supplied
+   * {@link TransferEvent} into the average latency of its repository.
+   *
+   * @param event the {@link TransferEvent} in question; may be {@code
+   * null} in which case no action will be taken
+   */
+  private final void record(final TransferEvent event) {
+    if (event != null) {
+      final TransferResource resource = event.getResource();
+      if (resource != null) {
+        final String url = resource.getRepositoryUrl();
+        final long startTime = resource.getTransferStartTime();
+        if (url != null && startTime > 0L) {
+          this.record(url, Math.max(0L, System.currentTimeMillis() - startTime));
+        }
+      }
+    }
+  }
+
+  /**
+   * Folds the supplied latency sample into the average latency of the
+   * repository identified by the supplied URL.
+   *
+   * @param repositoryUrl the URL of the repository in question; must
+   * not be {@code null}
+   *
+   * @param latencyInMilliseconds the latency sample, in milliseconds
+   *
+   * @exception NullPointerException if {@code repositoryUrl} is
+   * {@code null}
+   *
+   * @see #getLatency(String)
+   */
+  public final void record(final String repositoryUrl, final long latencyInMilliseconds) {
+    this.latencies.merge(repositoryUrl,
+                         Double.valueOf(latencyInMilliseconds),
+                         (oldValue, sample) -> Double.valueOf(ALPHA * sample.doubleValue() + (1D - ALPHA) * oldValue.doubleValue()));
+  }
+
+  /**
+   * Returns the average latency, in milliseconds, of the repository
+   * identified by the supplied URL, or {@code -1} if no latency has
+   * been recorded for it.
+   *
+   * @param repositoryUrl the URL of the repository in question; may
+   * be {@code null} in which case {@code -1} will be returned
+   *
+   * @return the average latency, in milliseconds, of the repository
+   * in question, or {@code -1}
+   */
+  public final double getLatency(final String repositoryUrl) {
+    if (repositoryUrl == null) {
+      return -1D;
+    }
+    final Double latency = this.latencies.get(repositoryUrl);
+    return latency == null ? -1D : latency.doubleValue();
+  }
+
+  /**
+   * Returns a new {@link List} containing the supplied {@link
+   * RemoteRepository} instances ordered by ascending average
+   * latency.
+   *
+   * <p>Repositories for which no latency has been recorded yet are
+   * sorted as though they were as fast as possible so that they will
+   * get measured.  The sort is stable, so repositories with equal
+   * latencies retain their relative order.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param remoteRepositories the {@link List} of {@link
+   * RemoteRepository} instances to sort; may be {@code null}
+   *
+   * @return a new, non-{@code null} {@link List} of {@link
+   * RemoteRepository} instances
+   */
+  public final List<RemoteRepository> sort(final List<? extends RemoteRepository> remoteRepositories) {
+    final List<RemoteRepository> returnValue;
+    if (remoteRepositories == null || remoteRepositories.isEmpty()) {
+      returnValue = new ArrayList<>();
+    } else {
+      returnValue = new ArrayList<>(remoteRepositories);
+      Collections.sort(returnValue, Comparator.comparingDouble(r -> Math.max(0D, this.getLatency(r == null ? null : r.getUrl()))));
+    }
+    return returnValue;
+  }
+
+  /**
+   * Loads previously {@linkplain #store(Path) stored} latencies from
+   * the supplied {@link Path}, replacing any latencies recorded for
+   * the same repositories.
+   *
+   * <p>If the supplied {@link Path} does not exist, no action is
+   * taken.</p>
+   *
+   * @param path the {@link Path} to read; must not be {@code null}
+   *
+   * @exception NullPointerException if {@code path} is {@code null}
+   *
+   * @exception IOException if there was a problem reading
+   *
+   * @see #store(Path)
+   */
+  public final void load(final Path path) throws IOException {
+    if (Files.isRegularFile(path)) {
+      final Properties properties = new Properties();
+      try (final InputStream inputStream = Files.newInputStream(path)) {
+        properties.load(inputStream);
+      }
+      for (final String url : properties.stringPropertyNames()) {
+        try {
+          this.latencies.put(url, Double.valueOf(properties.getProperty(url)));
+        } catch (final NumberFormatException ignoreCorruptEntry) {
+
+        }
+      }
+    }
+  }
+
+  /**
+   * Stores the latencies recorded by this {@link RepositoryLatencies}
+   * to the supplied {@link Path}, replacing it atomically if it
+   * already exists.
+   *
+   * @param path the {@link Path} to write; must not be {@code null}
+   *
+   * @exception NullPointerException if {@code path} is {@code null}
+   *
+   * @exception IOException if there was a problem writing
+   *
+   * @see #load(Path)
+   */
+  public final void store(final Path path) throws IOException {
+    final Properties properties = new Properties();
+    for (final Map.Entry<String, Double> entry : this.latencies.entrySet()) {
+      properties.setProperty(entry.getKey(), entry.getValue().toString());
+    }
+    final Path parent = path.toAbsolutePath().getParent();
+    Files.createDirectories(parent);
+    final Path temporaryFile = Files.createTempFile(parent, "latencies", ".tmp");
+    try {
+      try (final OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+        properties.store(outputStream, "Remote repository latencies, in milliseconds");
+      }
+      Files.move(temporaryFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporaryFile);
+    }
+  }
+
+}
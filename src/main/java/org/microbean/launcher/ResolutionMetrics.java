@@ -0,0 +1,585 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.eclipse.aether.AbstractRepositoryListener;
+import org.eclipse.aether.RepositoryEvent;
+import org.eclipse.aether.RepositoryListener;
+
+import org.eclipse.aether.artifact.Artifact;
+
+import org.eclipse.aether.metadata.Metadata;
+
+import org.eclipse.aether.repository.ArtifactRepository;
+
+import org.eclipse.aether.transfer.AbstractTransferListener;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.transfer.TransferResource;
+
+/**
+ * An {@link AbstractTransferListener} and, via its {@link
+ * #getRepositoryListener()} method, a {@link RepositoryListener}
+ * that together record how much dependency resolution costs: bytes
+ * transferred, throughput, per-repository latency histograms, local
+ * cache hits and misses, and failed, corrupted and retried
+ * transfers.
+ *
+ * <p>Metrics may be observed through JMX once an instance has been
+ * {@linkplain #register(MBeanServer) registered}, or {@linkplain
+ * #store(Path) written} to a file.  Metric names follow the dotted,
+ * lowercase convention of Micrometer-style counters.</p>
+ *
+ * <p>Instances of this class are safe for concurrent use by multiple
+ * threads.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ResolutionMetricsMXBean
+ *
+ * @see ClasspathExporter
+ */
+public final class ResolutionMetrics extends AbstractTransferListener implements ResolutionMetricsMXBean {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The inclusive upper bounds, in milliseconds, of the latency
+   * histogram buckets.
+   */
+  private static final long[] LATENCY_BUCKET_BOUNDS = new long[] { 10L, 25L, 50L, 100L, 250L, 500L, 1000L, 2500L, 5000L, 10000L };
+
+  /**
+   * The {@link String} representation of the {@link ObjectName} under
+   * which instances of this class are {@linkplain
+   * #register(MBeanServer) registered}.
+   */
+  public static final String OBJECT_NAME = "org.microbean.launcher:type=ResolutionMetrics";
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The total number of bytes transferred.
+   */
+  private final LongAdder bytesTransferred;
+
+  /**
+   * The number of successful transfers.
+   */
+  private final LongAdder transfersSucceeded;
+
+  /**
+   * The number of failed transfers.
+   */
+  private final LongAdder transfersFailed;
+
+  /**
+   * The number of corrupted transfers.
+   */
+  private final LongAdder transfersCorrupted;
+
+  /**
+   * The number of retried transfers.
+   */
+  private final LongAdder transfersRetried;
+
+  /**
+   * The number of local cache hits.
+   */
+  private final LongAdder cacheHits;
+
+  /**
+   * The number of local cache misses.
+   */
+  private final LongAdder cacheMisses;
+
+  /**
+   * The time, in milliseconds since the epoch, at which the first
+   * transfer was initiated, or {@code 0}.
+   */
+  private final AtomicLong firstTransferTime;
+
+  /**
+   * The time, in milliseconds since the epoch, at which the most
+   * recent transfer finished, or {@code 0}.
+   */
+  private final AtomicLong lastTransferTime;
+
+  /**
+   * The repository URLs and names of the resources whose transfer
+   * has been initiated.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Set<String> initiatedResources;
+
+  /**
+   * The keys of the artifacts and metadata that have been downloaded
+   * but whose resolution has not yet been recorded.
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * @see #key(RepositoryEvent)
+   */
+  private final Set<String> downloads;
+
+  /**
+   * Latency histograms indexed by remote repository identifier.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final ConcurrentMap<String, AtomicLongArray> latencyHistograms;
+
+  /**
+   * The {@link RepositoryListener} that counts cache hits and misses.
+   *
+   * <p>This field is never {@code null}.</p>
+   *
+   * @see #getRepositoryListener()
+   */
+  private final RepositoryListener repositoryListener;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ResolutionMetrics}.
+   */
+  public ResolutionMetrics() {
+    super();
+    this.bytesTransferred = new LongAdder();
+    this.transfersSucceeded = new LongAdder();
+    this.transfersFailed = new LongAdder();
+    this.transfersCorrupted = new LongAdder();
+    this.transfersRetried = new LongAdder();
+    this.cacheHits = new LongAdder();
+    this.cacheMisses = new LongAdder();
+    this.firstTransferTime = new AtomicLong();
+    this.lastTransferTime = new AtomicLong();
+    this.initiatedResources = ConcurrentHashMap.newKeySet();
+    this.downloads = ConcurrentHashMap.newKeySet();
+    this.latencyHistograms = new ConcurrentHashMap<>();
+    this.repositoryListener = new AbstractRepositoryListener() {
+        @Override
+        public final void artifactDownloaded(final RepositoryEvent event) {
+          recordDownload(event);
+        }
+
+        @Override
+        public final void artifactResolved(final RepositoryEvent event) {
+          recordResolution(event);
+        }
+
+        @Override
+        public final void metadataDownloaded(final RepositoryEvent event) {
+          recordDownload(event);
+        }
+
+        @Override
+        public final void metadataResolved(final RepositoryEvent event) {
+          recordResolution(event);
+        }
+      };
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Returns a {@link RepositoryListener} that records {@linkplain
+   * #getCacheHits() cache hits} and {@linkplain #getCacheMisses()
+   * cache misses} into this {@link ResolutionMetrics}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return a non-{@code null} {@link RepositoryListener}
+   */
+  public final RepositoryListener getRepositoryListener() {
+    return this.repositoryListener;
+  }
+
+  /**
+   * Records that the artifact or metadata described by the supplied
+   * {@link RepositoryEvent} has been downloaded, so that its
+   * resolution will be {@linkplain #recordResolution(RepositoryEvent)
+   * counted} as a cache miss.
+   *
+   * @param event the {@link RepositoryEvent} in question; may be
+   * {@code null} in which case no action will be taken
+   */
+  private final void recordDownload(final RepositoryEvent event) {
+    if (event != null && event.getException() == null) {
+      final String key = key(event);
+      if (key != null) {
+        this.downloads.add(key);
+      }
+    }
+  }
+
+  /**
+   * Records a cache hit or miss for the resolution described by the
+   * supplied {@link RepositoryEvent}.
+   *
+   * <p>Artifacts and metadata are classified alike: a resolution
+   * that had to {@linkplain #recordDownload(RepositoryEvent)
+   * download} its file is a miss; one satisfied by the local
+   * repository or a workspace is a hit.  The {@linkplain
+   * RepositoryEvent#getRepository() repository} of the event is not
+   * consulted, since metadata resolutions always name a remote
+   * repository, and artifact resolutions often name the remote
+   * repository a locally cached file originally came from.
+   * Unsuccessful resolutions are not counted.</p>
+   *
+   * @param event the {@link RepositoryEvent} in question; may be
+   * {@code null} in which case no action will be taken
+   */
+  private final void recordResolution(final RepositoryEvent event) {
+    if (event != null && event.getFile() != null && event.getException() == null) {
+      final String key = key(event);
+      if (key != null && this.downloads.remove(key)) {
+        this.cacheMisses.increment();
+      } else {
+        this.cacheHits.increment();
+      }
+    }
+  }
+
+  /**
+   * Records the initiation of a transfer, counting it as a retry if
+   * the same resource has been transferred or attempted before from
+   * the same repository.
+   *
+   * <p>Asking the next repository for a resource that the previous
+   * one did not have, or {@linkplain HedgedArtifactResolver hedging}
+   * a request against another repository, is therefore not a
+   * retry.</p>
+   *
+   * @param event the {@link TransferEvent} in question; may be {@code
+   * null} in which case no action will be taken
+   */
+  @Override
+  public final void transferInitiated(final TransferEvent event) {
+    if (event != null) {
+      final TransferResource resource = event.getResource();
+      if (resource != null) {
+        this.firstTransferTime.compareAndSet(0L, resource.getTransferStartTime());
+        final String resourceName = resource.getResourceName();
+        if (resourceName != null && !this.initiatedResources.add(resource.getRepositoryUrl() + " " + resourceName)) {
+          this.transfersRetried.increment();
+        }
+      }
+    }
+  }
+
+  /**
+   * Records the latency of the repository that has just started
+   * answering the transfer described by the supplied {@link
+   * TransferEvent}.
+   *
+   * @param event the {@link TransferEvent} in question; may be {@code
+   * null} in which case no action will be taken
+   */
+  @Override
+  public final void transferStarted(final TransferEvent event) {
+    this.recordLatency(event);
+  }
+
+  /**
+   * Records the successful completion of the transfer described by
+   * the supplied {@link TransferEvent}.
+   *
+   * @param event the {@link TransferEvent} in question; may be {@code
+   * null} in which case no action will be taken
+   */
+  @Override
+  public final void transferSucceeded(final TransferEvent event) {
+    if (event != null) {
+      this.transfersSucceeded.increment();
+      this.bytesTransferred.add(event.getTransferredBytes());
+      this.lastTransferTime.accumulateAndGet(System.currentTimeMillis(), Math::max);
+    }
+  }
+
+  /**
+   * Records the checksum failure of the transfer described by the
+   * supplied {@link TransferEvent}.
+   *
+   * @param event the {@link TransferEvent} in question; may be {@code
+   * null} in which case no action will be taken
+   */
+  @Override
+  public final void transferCorrupted(final TransferEvent event) {
+    if (event != null) {
+      this.transfersCorrupted.increment();
+    }
+  }
+
+  /**
+   * Records the failure of the transfer described by the supplied
+   * {@link TransferEvent}, along with the latency of its repository.
+   *
+   * @param event the {@link TransferEvent} in question; may be {@code
+   * null} in which case no action will be taken
+   */
+  @Override
+  public final void transferFailed(final TransferEvent event) {
+    if (event != null) {
+      this.transfersFailed.increment();
+      this.lastTransferTime.accumulateAndGet(System.currentTimeMillis(), Math::max);
+      this.recordLatency(event);
+    }
+  }
+
+  /**
+   * Adds the elapsed time of the transfer described by the supplied
+   * {@link TransferEvent} to the latency histogram of its repository.
+   *
+   * @param event the {@link TransferEvent} in question; may be {@code
+   * null} in which case no action will be taken
+   */
+  private final void recordLatency(final TransferEvent event) {
+    if (event != null) {
+      final TransferResource resource = event.getResource();
+      if (resource != null && resource.getTransferStartTime() > 0L) {
+        String repository = resource.getRepositoryId();
+        if (repository == null || repository.isEmpty()) {
+          repository = resource.getRepositoryUrl();
+        }
+        if (repository != null) {
+          final long latency = Math.max(0L, System.currentTimeMillis() - resource.getTransferStartTime());
+          int bucket = 0;
+          while (bucket < LATENCY_BUCKET_BOUNDS.length && latency > LATENCY_BUCKET_BOUNDS[bucket]) {
+            bucket++;
+          }
+          this.latencyHistograms.computeIfAbsent(repository, r -> new AtomicLongArray(LATENCY_BUCKET_BOUNDS.length + 1)).incrementAndGet(bucket);
+        }
+      }
+    }
+  }
+
+  @Override
+  public final long getBytesTransferred() {
+    return this.bytesTransferred.sum();
+  }
+
+  @Override
+  public final double getThroughput() {
+    final long first = this.firstTransferTime.get();
+    final long last = this.lastTransferTime.get();
+    if (first <= 0L || last <= first) {
+      return 0D;
+    }
+    return this.getBytesTransferred() * 1000D / (last - first);
+  }
+
+  @Override
+  public final long getTransfersSucceeded() {
+    return this.transfersSucceeded.sum();
+  }
+
+  @Override
+  public final long getTransfersFailed() {
+    return this.transfersFailed.sum();
+  }
+
+  @Override
+  public final long getTransfersCorrupted() {
+    return this.transfersCorrupted.sum();
+  }
+
+  @Override
+  public final long getTransfersRetried() {
+    return this.transfersRetried.sum();
+  }
+
+  @Override
+  public final long getCacheHits() {
+    return this.cacheHits.sum();
+  }
+
+  @Override
+  public final long getCacheMisses() {
+    return this.cacheMisses.sum();
+  }
+
+  @Override
+  public final long[] getLatencyBucketBounds() {
+    return LATENCY_BUCKET_BOUNDS.clone();
+  }
+
+  @Override
+  public final Map<String, long[]> getLatencyHistograms() {
+    final Map<String, long[]> returnValue = new TreeMap<>();
+    for (final Map.Entry<String, AtomicLongArray> entry : this.latencyHistograms.entrySet()) {
+      final AtomicLongArray histogram = entry.getValue();
+      final long[] counts = new long[histogram.length()];
+      for (int i = 0; i < counts.length; i++) {
+        counts[i] = histogram.get(i);
+      }
+      returnValue.put(entry.getKey(), counts);
+    }
+    return returnValue;
+  }
+
+  /**
+   * Registers this {@link ResolutionMetrics} with the supplied {@link
+   * MBeanServer} under the name {@value #OBJECT_NAME}, replacing any
+   * MBean already registered under that name.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param mBeanServer the {@link MBeanServer} to register with; must
+   * not be {@code null}
+   *
+   * @return the non-{@code null} {@link ObjectName} under which this
+   * {@link ResolutionMetrics} was registered
+   *
+   * @exception NullPointerException if {@code mBeanServer} is {@code
+   * null}
+   *
+   * @exception JMException if registration failed
+   */
+  public final ObjectName register(final MBeanServer mBeanServer) throws JMException {
+    final ObjectName objectName = new ObjectName(OBJECT_NAME);
+    try {
+      mBeanServer.registerMBean(this, objectName);
+    } catch (final InstanceAlreadyExistsException instanceAlreadyExistsException) {
+      try {
+        mBeanServer.unregisterMBean(objectName);
+      } catch (final InstanceNotFoundException ignoreRace) {
+
+      }
+      mBeanServer.registerMBean(this, objectName);
+    }
+    return objectName;
+  }
+
+  /**
+   * Writes the current values of this {@link ResolutionMetrics} to the
+   * supplied {@link Path} as a {@link Properties} file, atomically
+   * replacing it if it already exists.
+   *
+   * <p>Keys are Micrometer-style metric names, such as {@code
+   * launcher.transfer.bytes} or, for latency histograms, {@code
+   * launcher.transfer.latency.}<em>repositoryId</em>{@code
+   * .le.}<em>bound</em>.</p>
+   *
+   * @param path the {@link Path} to write; must not be {@code null}
+   *
+   * @exception NullPointerException if {@code path} is {@code null}
+   *
+   * @exception IOException if there was a problem writing
+   */
+  public final void store(final Path path) throws IOException {
+    final Properties properties = new Properties();
+    properties.setProperty("launcher.transfer.bytes", String.valueOf(this.getBytesTransferred()));
+    properties.setProperty("launcher.transfer.throughput", String.valueOf(this.getThroughput()));
+    properties.setProperty("launcher.transfer.succeeded", String.valueOf(this.getTransfersSucceeded()));
+    properties.setProperty("launcher.transfer.failed", String.valueOf(this.getTransfersFailed()));
+    properties.setProperty("launcher.transfer.corrupted", String.valueOf(this.getTransfersCorrupted()));
+    properties.setProperty("launcher.transfer.retried", String.valueOf(this.getTransfersRetried()));
+    properties.setProperty("launcher.cache.hits", String.valueOf(this.getCacheHits()));
+    properties.setProperty("launcher.cache.misses", String.valueOf(this.getCacheMisses()));
+    for (final Map.Entry<String, long[]> entry : this.getLatencyHistograms().entrySet()) {
+      final String prefix = "launcher.transfer.latency." + entry.getKey() + ".le.";
+      final long[] counts = entry.getValue();
+      for (int i = 0; i < counts.length; i++) {
+        properties.setProperty(prefix + (i < LATENCY_BUCKET_BOUNDS.length ? String.valueOf(LATENCY_BUCKET_BOUNDS[i]) : "inf"), String.valueOf(counts[i]));
+      }
+    }
+    final Path parent = path.toAbsolutePath().getParent();
+    Files.createDirectories(parent);
+    final Path temporaryFile = Files.createTempFile(parent, "metrics", ".tmp");
+    try {
+      try (final OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+        properties.store(outputStream, "Dependency resolution metrics");
+      }
+      Files.move(temporaryFile, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporaryFile);
+    }
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns a key identifying the artifact or metadata, and for
+   * metadata also the repository, described by the supplied {@link
+   * RepositoryEvent}, or {@code null} if it describes neither.
+   *
+   * @param event the {@link RepositoryEvent} in question; must not
+   * be {@code null}
+   *
+   * @return a key, or {@code null}
+   */
+  private static final String key(final RepositoryEvent event) {
+    final Artifact artifact = event.getArtifact();
+    if (artifact != null) {
+      return "artifact " + artifact;
+    }
+    final Metadata metadata = event.getMetadata();
+    if (metadata != null) {
+      final ArtifactRepository repository = event.getRepository();
+      return "metadata " + metadata + " " + (repository == null ? "" : repository.getId());
+    }
+    return null;
+  }
+
+}
@@ -0,0 +1,121 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link ResolutionMetrics}.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ResolutionMetrics
+ */
+public interface ResolutionMetricsMXBean {
+
+  /**
+   * Returns the total number of bytes transferred by successful
+   * transfers.
+   *
+   * @return the total number of bytes transferred
+   */
+  public long getBytesTransferred();
+
+  /**
+   * Returns the number of bytes transferred per second of elapsed
+   * time between the first transfer's initiation and the last
+   * transfer's completion, or {@code 0} if nothing has been
+   * transferred.
+   *
+   * @return the transfer throughput in bytes per second
+   */
+  public double getThroughput();
+
+  /**
+   * Returns the number of transfers that succeeded.
+   *
+   * @return the number of transfers that succeeded
+   */
+  public long getTransfersSucceeded();
+
+  /**
+   * Returns the number of transfers that failed, including those
+   * that failed because a repository did not have the requested
+   * resource.
+   *
+   * @return the number of transfers that failed
+   */
+  public long getTransfersFailed();
+
+  /**
+   * Returns the number of transfers whose checksums did not match.
+   *
+   * @return the number of corrupted transfers
+   */
+  public long getTransfersCorrupted();
+
+  /**
+   * Returns the number of transfers of a resource that had already
+   * been transferred, or attempted, earlier in the same launch.
+   *
+   * @return the number of retried transfers
+   */
+  public long getTransfersRetried();
+
+  /**
+   * Returns the number of artifacts and metadata resolved without
+   * contacting a remote repository.
+   *
+   * @return the number of cache hits
+   */
+  public long getCacheHits();
+
+  /**
+   * Returns the number of artifacts and metadata that had to be
+   * resolved from a remote repository.
+   *
+   * @return the number of cache misses
+   */
+  public long getCacheMisses();
+
+  /**
+   * Returns the inclusive upper bounds, in milliseconds, of the
+   * buckets of the {@linkplain #getLatencyHistograms() latency
+   * histograms}, in ascending order.
+   *
+   * <p>Each histogram has one more bucket than there are bounds; the
+   * last bucket counts latencies greater than the last bound.</p>
+   *
+   * @return a non-{@code null} array of bucket bounds
+   */
+  public long[] getLatencyBucketBounds();
+
+  /**
+   * Returns a {@link Map} of latency histograms indexed by remote
+   * repository identifier.
+   *
+   * <p>Each latency is the time between the initiation of a transfer
+   * and the first response from its repository.</p>
+   *
+   * @return a non-{@code null} {@link Map} of latency histograms
+   *
+   * @see #getLatencyBucketBounds()
+   */
+  public Map<String, long[]> getLatencyHistograms();
+
+}
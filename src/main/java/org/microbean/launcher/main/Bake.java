@@ -0,0 +1,269 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher.main;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.microbean.launcher.BeanArchiveIndex;
+import org.microbean.launcher.ClassLoadOrders;
+import org.microbean.launcher.ClasspathExporter;
+import org.microbean.launcher.LaunchPlan;
+
+/**
+ * A class whose {@link #main(String[])} method resolves a launch
+ * ahead of time, e.g. while a container image is being built, and
+ * prepares a relocatable directory from which {@link Main} can later
+ * start the application without any dependency resolution.
+ *
+ * <p>The first command line argument names the directory to bake
+ * into, which must not exist or must be empty.  The remaining
+ * command line arguments are the same as those accepted by {@link
+ * Main#main(String[])}.  The application itself is not run.</p>
+ *
+ * <p>The baked directory holds copies of the jar files on every
+ * resolved classpath, together with their {@code .sha1} checksum
+ * files where the local Maven repository has them, the launch plan
+ * with classpath {@link URI}s relative to the baked directory, the
+ * {@linkplain BeanArchiveIndex bean archive index} of every jar
+ * file, and a {@linkplain ClassLoadOrders class load order} for
+ * every classpath.  The class load order is one previously recorded
+ * with {@code --classLoadOrder record}, if there is one, or else the
+ * bean, interceptor and decorator classes named by the bean archive
+ * indexes.</p>
+ *
+ * <p>To launch from a baked directory, supply it as the value of
+ * {@link Main}'s {@code --baked} command line option or of the
+ * {@code microbean.launcher.baked} system property.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see #main(String[])
+ *
+ * @see BakedLaunchPlan
+ *
+ * @see Main
+ */
+public final class Bake {
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link Bake}.
+   */
+  private Bake() {
+    super();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Resolves the launch described by all but the first of the
+   * supplied command line arguments and bakes it into the directory
+   * named by the first.
+   *
+   * @param commandLineArguments the command line arguments; must
+   * not be {@code null} or empty
+   *
+   * @exception IllegalArgumentException if {@code
+   * commandLineArguments} is {@code null} or empty
+   *
+   * @exception IOException if the directory is not empty, or if
+   * there was a problem writing to it
+   *
+   * @see #bake(Path, LaunchPlan)
+   */
+  public static final void main(final String[] commandLineArguments) throws IOException {
+    if (commandLineArguments == null || commandLineArguments.length == 0) {
+      throw new IllegalArgumentException("Usage: " + Bake.class.getName() + " <directory> [launcher options]");
+    }
+    final Path directory = Paths.get(commandLineArguments[0]);
+    final ClasspathExporter exporter = Main.resolve(null, Arrays.copyOfRange(commandLineArguments, 1, commandLineArguments.length));
+    bake(directory, exporter);
+  }
+
+  /**
+   * Bakes the supplied {@link LaunchPlan} into the supplied
+   * directory.
+   *
+   * @param directory the directory to bake into; must not be {@code
+   * null} and must not exist or must be empty
+   *
+   * @param launchPlan the {@link LaunchPlan} to bake; must not be
+   * {@code null}
+   *
+   * @exception NullPointerException if either parameter is {@code
+   * null}
+   *
+   * @exception IOException if {@code directory} is not empty, or if
+   * there was a problem writing to it
+   *
+   * @see BakedLaunchPlan#read(Path, String[])
+   */
+  static final void bake(final Path directory, final LaunchPlan launchPlan) throws IOException {
+    Objects.requireNonNull(launchPlan);
+    if (Files.exists(directory)) {
+      try (final DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+        if (entries.iterator().hasNext()) {
+          throw new IOException("Not an empty directory: " + directory);
+        }
+      }
+    }
+    final Path lib = directory.resolve(BakedLaunchPlan.LIB_DIRECTORY_NAME);
+    final Path cache = directory.resolve(BakedLaunchPlan.CACHE_DIRECTORY_NAME);
+    Files.createDirectories(lib);
+    Files.createDirectories(cache);
+
+    final List<Set<URI>> classpaths = new ArrayList<>();
+    classpaths.add(launchPlan.getClasspath());
+    for (final String applicationName : launchPlan.getApplicationNames()) {
+      classpaths.add(launchPlan.getClasspath(applicationName));
+    }
+
+    // Copy each jar file once, however many classpaths it is on, and
+    // index it.
+    final Map<URI, URI> relocations = new LinkedHashMap<>();
+    final Map<URI, BeanArchiveIndex> indexes = new LinkedHashMap<>();
+    for (final Set<URI> classpath : classpaths) {
+      for (final URI uri : classpath) {
+        if (!relocations.containsKey(uri) && "file".equals(uri.getScheme())) {
+          final Path source = Paths.get(uri);
+          if (Files.isRegularFile(source)) {
+            final String name = String.format("%04d-%s", Integer.valueOf(relocations.size()), source.getFileName());
+            final Path target = lib.resolve(name);
+            copy(source, target);
+            final URI relativeUri;
+            try {
+              relativeUri = new URI(null, null, BakedLaunchPlan.LIB_DIRECTORY_NAME + "/" + name, null);
+            } catch (final URISyntaxException uriSyntaxException) {
+              throw new IOException(uriSyntaxException.getMessage(), uriSyntaxException);
+            }
+            relocations.put(uri, relativeUri);
+            indexes.put(uri, BeanArchiveIndex.get(target, cache.resolve("beans")));
+          }
+        }
+      }
+    }
+
+    // Write a class load order for each classpath, keyed by its
+    // relative URIs.
+    final ClassLoadOrders recordedClassLoadOrders = ClassLoadOrders.inCacheDirectory(launchPlan.getCacheDirectory());
+    final ClassLoadOrders bakedClassLoadOrders = ClassLoadOrders.inCacheDirectory(cache);
+    for (final Set<URI> classpath : classpaths) {
+      if (!classpath.isEmpty()) {
+        List<String> classNames = recordedClassLoadOrders.load(classpath);
+        if (classNames.isEmpty()) {
+          classNames = getClassNames(classpath, indexes);
+        }
+        bakedClassLoadOrders.store(ForkedLaunchPlan.relocate(classpath, relocations), classNames);
+      }
+    }
+
+    final Path launchPlanFile = directory.resolve(BakedLaunchPlan.LAUNCH_PLAN_FILE_NAME);
+    try (final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(launchPlanFile)))) {
+      final Path relativeCacheDirectory = Paths.get(BakedLaunchPlan.CACHE_DIRECTORY_NAME);
+      ForkedLaunchPlan.write(ForkedLaunchPlan.relocate(launchPlan, relativeCacheDirectory, relocations), relativeCacheDirectory, out);
+    }
+  }
+
+  /**
+   * Copies the supplied jar file, and its {@code .sha1} checksum
+   * file if it has one, to the supplied target, preserving their
+   * last modified times so that the checksum file remains
+   * {@linkplain BeanArchiveIndex trusted}.
+   *
+   * @param source the jar file to copy; must not be {@code null}
+   *
+   * @param target the {@link Path} to copy it to; must not be {@code
+   * null}
+   *
+   * @exception IOException if there was a problem copying
+   */
+  private static final void copy(final Path source, final Path target) throws IOException {
+    Files.copy(source, target, StandardCopyOption.COPY_ATTRIBUTES);
+    final Path sha1File = source.resolveSibling(source.getFileName() + ".sha1");
+    if (Files.isRegularFile(sha1File)) {
+      Files.copy(sha1File, target.resolveSibling(target.getFileName() + ".sha1"), StandardCopyOption.COPY_ATTRIBUTES);
+    }
+  }
+
+  /**
+   * Returns the binary names of the bean, interceptor and decorator
+   * classes named by the {@linkplain BeanArchiveIndex bean archive
+   * indexes} of the supplied classpath's jar files.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param classpath the classpath {@link URI}s; must not be {@code
+   * null}
+   *
+   * @param indexes {@link BeanArchiveIndex} instances indexed by the
+   * classpath {@link URI}s they index; must not be {@code null}
+   *
+   * @return a non-{@code null} {@link List} of binary class names
+   */
+  private static final List<String> getClassNames(final Collection<? extends URI> classpath, final Map<? extends URI, ? extends BeanArchiveIndex> indexes) {
+    final List<BeanArchiveIndex> beanArchiveIndexes = new ArrayList<>();
+    final Set<String> beanDefiningAnnotations = new LinkedHashSet<>(BeanArchiveIndex.BEAN_DEFINING_ANNOTATIONS);
+    for (final URI uri : classpath) {
+      final BeanArchiveIndex index = indexes.get(uri);
+      if (index != null && index.isIndexable()) {
+        beanDefiningAnnotations.addAll(index.getBeanDefiningAnnotations());
+        if (index.isBeanArchive()) {
+          beanArchiveIndexes.add(index);
+        }
+      }
+    }
+    final Set<String> classNames = new LinkedHashSet<>();
+    for (final BeanArchiveIndex index : beanArchiveIndexes) {
+      classNames.addAll(index.getBeanClasses(beanDefiningAnnotations));
+      classNames.addAll(index.getInterceptors());
+      classNames.addAll(index.getDecorators());
+    }
+    return new ArrayList<>(classNames);
+  }
+
+}
@@ -0,0 +1,377 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher.main;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+
+import java.net.URI;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import org.microbean.launcher.ClassLoadOrders;
+import org.microbean.launcher.LaunchPlan;
+
+/**
+ * A {@link LaunchPlan} read from a directory that {@link Bake}
+ * prepared ahead of time, which is trusted completely, so that a
+ * launch from it performs no dependency resolution of any kind.
+ *
+ * <p>A baked directory contains:</p>
+ *
+ * <dl>
+ *
+ * <dt>{@code launch.plan}</dt>
+ *
+ * <dd>The {@linkplain ForkedLaunchPlan#write(LaunchPlan, Path,
+ * java.io.DataOutputStream) launch plan}, whose classpath {@link
+ * URI}s and cache directory are relative to the baked
+ * directory</dd>
+ *
+ * <dt>{@code lib}</dt>
+ *
+ * <dd>The jar files on the classpath</dd>
+ *
+ * <dt>{@code cache}</dt>
+ *
+ * <dd>The launcher's cache directory, holding {@linkplain
+ * org.microbean.launcher.BeanArchiveIndex bean archive indexes} and
+ * {@linkplain ClassLoadOrders class load orders}</dd>
+ *
+ * </dl>
+ *
+ * <p>Because everything in it is relative, a baked directory may be
+ * copied or moved, e.g. into a container image, after it has been
+ * baked.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see Bake
+ *
+ * @see #read(Path, String[])
+ */
+final class BakedLaunchPlan implements LaunchPlan {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The name of the file within a baked directory that holds its
+   * launch plan.
+   */
+  static final String LAUNCH_PLAN_FILE_NAME = "launch.plan";
+
+  /**
+   * The name of the directory within a baked directory that holds
+   * the jar files on its classpath.
+   */
+  static final String LIB_DIRECTORY_NAME = "lib";
+
+  /**
+   * The name of the directory within a baked directory that serves
+   * as the launcher's cache directory.
+   */
+  static final String CACHE_DIRECTORY_NAME = "cache";
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The {@link URI} of the baked directory, against which classpath
+   * {@link URI}s are relativized to look up their class load orders.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final URI baseUri;
+
+  /**
+   * The {@link LaunchPlan} read from the baked directory.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final LaunchPlan delegate;
+
+  /**
+   * The command line arguments to use instead of the ones that were
+   * baked, or {@code null} if the baked ones should be used.
+   */
+  private final String[] remainingCommandLineArguments;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link BakedLaunchPlan}.
+   *
+   * @param directory the baked directory; must not be {@code null}
+   *
+   * @param delegate the {@link LaunchPlan} read from the baked
+   * directory; must not be {@code null}
+   *
+   * @param remainingCommandLineArguments the command line arguments
+   * to use instead of the ones that were baked; may be {@code null}
+   * in which case the baked ones will be used
+   *
+   * @exception NullPointerException if {@code directory} or {@code
+   * delegate} is {@code null}
+   */
+  private BakedLaunchPlan(final Path directory, final LaunchPlan delegate, final String[] remainingCommandLineArguments) {
+    super();
+    this.baseUri = toDirectoryUri(directory);
+    this.delegate = Objects.requireNonNull(delegate);
+    this.remainingCommandLineArguments = remainingCommandLineArguments == null ? null : remainingCommandLineArguments.clone();
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  @Override
+  public final Set<URI> getClasspath() {
+    return this.delegate.getClasspath();
+  }
+
+  /**
+   * Returns the command line arguments that were supplied when this
+   * {@link BakedLaunchPlan} was {@linkplain #read(Path, String[])
+   * read}, or, if there were none, those that were baked.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return a non-{@code null} {@link String} array
+   */
+  @Override
+  public final String[] getRemainingCommandLineArguments() {
+    if (this.remainingCommandLineArguments == null) {
+      return this.delegate.getRemainingCommandLineArguments();
+    }
+    return this.remainingCommandLineArguments.clone();
+  }
+
+  @Override
+  public final Set<String> getApplicationNames() {
+    return this.delegate.getApplicationNames();
+  }
+
+  @Override
+  public final Set<URI> getClasspath(final String applicationName) {
+    return this.delegate.getClasspath(applicationName);
+  }
+
+  @Override
+  public final String[] getRemainingCommandLineArguments(final String applicationName) {
+    return this.delegate.getRemainingCommandLineArguments(applicationName);
+  }
+
+  @Override
+  public final boolean isWarmClasspath() {
+    return this.delegate.isWarmClasspath();
+  }
+
+  /**
+   * Returns {@code true}, since {@link Bake} indexes every bean
+   * archive on the classpath.
+   *
+   * @return {@code true}
+   */
+  @Override
+  public final boolean isIndexBeanArchives() {
+    return true;
+  }
+
+  @Override
+  public final boolean isCacheProxyClasses() {
+    return this.delegate.isCacheProxyClasses();
+  }
+
+  /**
+   * Returns {@code false}, since the jar files in a baked directory
+   * are copies that do not change.
+   *
+   * @return {@code false}
+   */
+  @Override
+  public final boolean isWatch() {
+    return false;
+  }
+
+  @Override
+  public final Path getCacheDirectory() {
+    return this.delegate.getCacheDirectory();
+  }
+
+  /**
+   * Returns {@code false}, since a baked directory is not written to
+   * when it is launched.
+   *
+   * @return {@code false}
+   */
+  @Override
+  public final boolean isRecordClassLoadOrder() {
+    return false;
+  }
+
+  /**
+   * Returns {@code true}, since {@link Bake} writes a class load
+   * order for every classpath.
+   *
+   * @return {@code true}
+   */
+  @Override
+  public final boolean isReplayClassLoadOrder() {
+    return true;
+  }
+
+  /**
+   * Returns the class load order that {@link Bake} wrote for the
+   * supplied classpath, which it keyed by classpath {@link URI}s
+   * relative to the baked directory, so that it is found wherever
+   * the baked directory has been moved to.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param classpath the classpath {@link URI}s in question; may be
+   * {@code null}
+   *
+   * @return a non-{@code null} {@link List} of binary class names
+   */
+  @Override
+  public final List<String> getClassLoadOrder(final Collection<? extends URI> classpath) {
+    try {
+      return ClassLoadOrders.inCacheDirectory(this.getCacheDirectory()).load(relativize(this.baseUri, classpath));
+    } catch (final IOException ioException) {
+      // Replay is an optimization only.
+      return Collections.emptyList();
+    }
+  }
+
+  /**
+   * Does nothing, since a baked directory is not written to when it
+   * is launched.
+   *
+   * @param classpath ignored
+   *
+   * @param classNames ignored
+   */
+  @Override
+  public final void setClassLoadOrder(final Collection<? extends URI> classpath, final List<? extends String> classNames) {
+
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Reads a {@link BakedLaunchPlan} from the supplied baked
+   * directory.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param directory the baked directory; must not be {@code null}
+   *
+   * @param remainingCommandLineArguments the command line arguments
+   * to use instead of the ones that were baked; may be {@code null}
+   * in which case the baked ones will be used
+   *
+   * @return a non-{@code null} {@link BakedLaunchPlan}
+   *
+   * @exception NullPointerException if {@code directory} is {@code
+   * null}
+   *
+   * @exception IOException if {@code directory} is not a baked
+   * directory, or if there was a problem reading
+   */
+  static final BakedLaunchPlan read(final Path directory, final String[] remainingCommandLineArguments) throws IOException {
+    final Path absoluteDirectory = directory.toAbsolutePath();
+    final Path launchPlanFile = absoluteDirectory.resolve(LAUNCH_PLAN_FILE_NAME);
+    if (!Files.isRegularFile(launchPlanFile)) {
+      throw new IOException("Not a baked directory: " + directory);
+    }
+    final LaunchPlan delegate;
+    try (final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(launchPlanFile)))) {
+      delegate = ForkedLaunchPlan.read(in, absoluteDirectory);
+    }
+    return new BakedLaunchPlan(absoluteDirectory, delegate, remainingCommandLineArguments);
+  }
+
+  /**
+   * Returns a new ordered {@link Set} of the supplied {@link URI}s,
+   * each made relative to the supplied base {@link URI} where
+   * possible.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param baseUri the base {@link URI}; must not be {@code null}
+   *
+   * @param uris the {@link URI}s to relativize; may be {@code null}
+   *
+   * @return a non-{@code null}, ordered {@link Set} of {@link URI}s
+   */
+  static final Set<URI> relativize(final URI baseUri, final Collection<? extends URI> uris) {
+    final Set<URI> returnValue = new LinkedHashSet<>();
+    if (uris != null) {
+      for (final URI uri : uris) {
+        returnValue.add(baseUri.relativize(uri));
+      }
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns the {@link URI} of the supplied directory, which always
+   * ends with a {@code /} so that {@link URI}s may be resolved
+   * against and relativized to it.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param directory the directory; must not be {@code null}
+   *
+   * @return a non-{@code null} {@link URI}
+   *
+   * @exception NullPointerException if {@code directory} is {@code
+   * null}
+   */
+  static final URI toDirectoryUri(final Path directory) {
+    final String uri = directory.toAbsolutePath().toUri().toString();
+    return URI.create(uri.endsWith("/") ? uri : uri + "/");
+  }
+
+}
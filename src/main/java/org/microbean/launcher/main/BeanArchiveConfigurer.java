@@ -0,0 +1,368 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher.main;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.lang.annotation.Annotation;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.enterprise.inject.se.SeContainerInitializer;
+
+import org.microbean.launcher.BeanArchiveIndex;
+
+/**
+ * A utility class that configures an {@link SeContainerInitializer}
+ * from the {@linkplain BeanArchiveIndex bean archive indexes} of the
+ * jar files on a classpath, and {@linkplain
+ * SeContainerInitializer#disableDiscovery() disables discovery}, so
+ * that the container never probes or scans jar files itself.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see #configure(SeContainerInitializer, ClassLoader, Collection,
+ * Path)
+ */
+final class BeanArchiveConfigurer {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The name of the deployment descriptor that marks a bean archive.
+   */
+  private static final String BEANS_XML = "META-INF/beans.xml";
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link BeanArchiveConfigurer}.
+   */
+  private BeanArchiveConfigurer() {
+    super();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Configures the supplied {@link SeContainerInitializer} with the
+   * bean classes, interceptors, decorators and alternatives that
+   * discovery would have found, and disables discovery.
+   *
+   * <p>Discovery finds the bean archives whose {@code
+   * META-INF/beans.xml} resources the supplied {@link ClassLoader}
+   * can see, including those of its parents, so exactly those bean
+   * archives are indexed.  The other jar files that the supplied
+   * {@link ClassLoader} and its parents load from, including the
+   * existing {@code java.class.path} if it delegates to the
+   * {@linkplain ClassLoader#getSystemClassLoader() system
+   * <code>ClassLoader</code>}, and those on the supplied classpath,
+   * are indexed only for the stereotypes they declare.</p>
+   *
+   * <p>If any bean archive cannot be fully described by a {@link
+   * BeanArchiveIndex}&mdash;because it is a directory bean archive,
+   * because its {@code beans.xml} uses {@code <scan>} or {@code
+   * <trim>}, or because it could not be read&mdash;or if there is
+   * more than one bean archive and any of them enables interceptors,
+   * decorators or alternatives, which a {@code beans.xml} does for
+   * its own bean archive only, then the supplied {@link
+   * SeContainerInitializer} is left untouched, so that the container
+   * discovers bean archives as usual, and {@code false} is
+   * returned.</p>
+   *
+   * @param initializer the {@link SeContainerInitializer} to
+   * configure; must not be {@code null}
+   *
+   * @param classLoader the {@link ClassLoader} that will load the
+   * bean classes; must not be {@code null}
+   *
+   * @param classpath the {@link URI}s of any further jar files that
+   * the supplied {@link ClassLoader} loads from; may be {@code null}
+   *
+   * @param directory the {@link Path} of the directory in which
+   * {@link BeanArchiveIndex} instances are cached; must not be {@code
+   * null}
+   *
+   * @return {@code true} if the supplied {@link
+   * SeContainerInitializer} was configured
+   *
+   * @exception NullPointerException if {@code initializer}, {@code
+   * classLoader} or {@code directory} is {@code null}
+   */
+  static final boolean configure(final SeContainerInitializer initializer,
+                                 final ClassLoader classLoader,
+                                 final Collection<? extends URI> classpath,
+                                 final Path directory) {
+    // Discovery finds exactly those bean archives whose beans.xml the
+    // container's ClassLoader can see, so those are the ones that are
+    // indexed; the rest of what that ClassLoader can see is indexed
+    // only for stereotypes that make other classes bean classes.
+    final Set<Path> beanArchivePaths = new LinkedHashSet<>();
+    try {
+      final Enumeration<URL> beansXmls = classLoader.getResources(BEANS_XML);
+      while (beansXmls.hasMoreElements()) {
+        final Path beanArchivePath = getArchivePath(beansXmls.nextElement());
+        if (beanArchivePath == null) {
+          return false;
+        }
+        beanArchivePaths.add(beanArchivePath);
+      }
+    } catch (final IOException | RuntimeException exception) {
+      return false;
+    }
+
+    final Set<Path> paths = new LinkedHashSet<>();
+    addClasspath(classLoader, paths);
+    if (classpath != null) {
+      for (final URI uri : classpath) {
+        if (!"file".equals(uri.getScheme())) {
+          return false;
+        }
+        paths.add(Paths.get(uri).toAbsolutePath());
+      }
+    }
+    paths.addAll(beanArchivePaths);
+
+    final List<BeanArchiveIndex> indexes = new ArrayList<>(beanArchivePaths.size());
+    final Set<String> beanDefiningAnnotations = new LinkedHashSet<>(BeanArchiveIndex.BEAN_DEFINING_ANNOTATIONS);
+    for (final Path path : paths) {
+      if (Files.isRegularFile(path)) {
+        final BeanArchiveIndex index;
+        try {
+          index = BeanArchiveIndex.get(path, directory);
+        } catch (final IOException | RuntimeException exception) {
+          return false;
+        }
+        if (!index.isIndexable()) {
+          return false;
+        }
+        beanDefiningAnnotations.addAll(index.getBeanDefiningAnnotations());
+        if (beanArchivePaths.contains(path) && index.isBeanArchive()) {
+          indexes.add(index);
+        }
+      }
+    }
+
+    // A beans.xml enables interceptors, decorators and alternatives
+    // for its own bean archive only, but everything added to the
+    // initializer belongs to one synthetic bean archive, so any such
+    // enablement is faithful only if there is just one bean archive.
+    if (indexes.size() > 1) {
+      for (final BeanArchiveIndex index : indexes) {
+        if (isEnabling(index)) {
+          return false;
+        }
+      }
+    }
+
+    final List<Class<?>> beanClasses = new ArrayList<>();
+    final List<Class<?>> interceptors = new ArrayList<>();
+    final List<Class<?>> decorators = new ArrayList<>();
+    final List<Class<?>> alternatives = new ArrayList<>();
+    final List<Class<? extends Annotation>> alternativeStereotypes = new ArrayList<>();
+    for (final BeanArchiveIndex index : indexes) {
+      for (final String name : index.getBeanClasses(beanDefiningAnnotations)) {
+        final Class<?> c = load(name, classLoader);
+        if (c != null) {
+          beanClasses.add(c);
+        }
+      }
+      addClasses(index.getInterceptors(), classLoader, interceptors);
+      addClasses(index.getDecorators(), classLoader, decorators);
+      addClasses(index.getAlternatives(), classLoader, alternatives);
+      for (final String name : index.getAlternativeStereotypes()) {
+        final Class<?> c = load(name, classLoader);
+        if (c != null && c.isAnnotation()) {
+          alternativeStereotypes.add(c.asSubclass(Annotation.class));
+        }
+      }
+    }
+
+    initializer.disableDiscovery();
+    initializer.addBeanClasses(beanClasses.toArray(new Class<?>[beanClasses.size()]));
+    initializer.enableInterceptors(interceptors.toArray(new Class<?>[interceptors.size()]));
+    initializer.enableDecorators(decorators.toArray(new Class<?>[decorators.size()]));
+    initializer.selectAlternatives(alternatives.toArray(new Class<?>[alternatives.size()]));
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    final Class<? extends Annotation>[] stereotypes = alternativeStereotypes.toArray(new Class[alternativeStereotypes.size()]);
+    initializer.selectAlternativeStereotypes(stereotypes);
+    return true;
+  }
+
+  /**
+   * Returns the {@link Path} of the jar file from which the supplied
+   * {@code beans.xml} {@link URL} was loaded, or {@code null} if it
+   * was not loaded from a jar file.
+   *
+   * @param beansXml the {@link URL} of a {@code beans.xml} resource;
+   * must not be {@code null}
+   *
+   * @return the {@link Path} of the jar file, or {@code null}
+   *
+   * @exception NullPointerException if {@code beansXml} is {@code
+   * null}
+   */
+  private static final Path getArchivePath(final URL beansXml) {
+    if (!"jar".equals(beansXml.getProtocol())) {
+      return null;
+    }
+    final String file = beansXml.getFile();
+    final int bang = file.lastIndexOf("!/");
+    if (bang < 0) {
+      return null;
+    }
+    final URI jar = URI.create(file.substring(0, bang));
+    if (!"file".equals(jar.getScheme())) {
+      return null;
+    }
+    return Paths.get(jar).toAbsolutePath();
+  }
+
+  /**
+   * Adds the {@link Path}s of the local classpath elements that the
+   * supplied {@link ClassLoader} and its parents load from to the
+   * supplied {@link Set}: the {@linkplain URLClassLoader#getURLs()
+   * URLs} of each {@link URLClassLoader}, and the {@code
+   * java.class.path} of the {@linkplain
+   * ClassLoader#getSystemClassLoader() system
+   * <code>ClassLoader</code>}.
+   *
+   * @param classLoader the {@link ClassLoader} to start with; may be
+   * {@code null}
+   *
+   * @param paths the {@link Set} to add to; must not be {@code null}
+   *
+   * @exception NullPointerException if {@code paths} is {@code null}
+   */
+  private static final void addClasspath(final ClassLoader classLoader, final Set<? super Path> paths) {
+    final ClassLoader systemClassLoader = ClassLoader.getSystemClassLoader();
+    for (ClassLoader cl = classLoader; cl != null; cl = cl.getParent()) {
+      if (cl == systemClassLoader) {
+        final String javaClassPath = System.getProperty("java.class.path");
+        if (javaClassPath != null && !javaClassPath.isEmpty()) {
+          for (final String element : javaClassPath.split(File.pathSeparator)) {
+            if (!element.isEmpty()) {
+              paths.add(Paths.get(element).toAbsolutePath());
+            }
+          }
+        }
+      } else if (cl instanceof URLClassLoader) {
+        for (final URL url : ((URLClassLoader)cl).getURLs()) {
+          if ("file".equals(url.getProtocol())) {
+            try {
+              paths.add(Paths.get(url.toURI()).toAbsolutePath());
+            } catch (final URISyntaxException | RuntimeException exception) {
+              // Not a local classpath element after all.
+            }
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns {@code true} if the {@code beans.xml} of the bean
+   * archive described by the supplied {@link BeanArchiveIndex}
+   * enables any interceptors, decorators or alternatives.
+   *
+   * @param index the {@link BeanArchiveIndex}; must not be {@code
+   * null}
+   *
+   * @return {@code true} if the bean archive enables anything
+   *
+   * @exception NullPointerException if {@code index} is {@code null}
+   */
+  private static final boolean isEnabling(final BeanArchiveIndex index) {
+    return
+      !index.getInterceptors().isEmpty() ||
+      !index.getDecorators().isEmpty() ||
+      !index.getAlternatives().isEmpty() ||
+      !index.getAlternativeStereotypes().isEmpty();
+  }
+
+  /**
+   * Loads each named class with the supplied {@link ClassLoader} and
+   * adds it to the supplied {@link Collection}, skipping any that
+   * cannot be loaded.
+   *
+   * @param names the binary class names; must not be {@code null}
+   *
+   * @param classLoader the {@link ClassLoader} to use; must not be
+   * {@code null}
+   *
+   * @param classes the {@link Collection} to add to; must not be
+   * {@code null}
+   */
+  private static final void addClasses(final Collection<? extends String> names, final ClassLoader classLoader, final Collection<? super Class<?>> classes) {
+    for (final String name : names) {
+      final Class<?> c = load(name, classLoader);
+      if (c != null) {
+        classes.add(c);
+      }
+    }
+  }
+
+  /**
+   * Loads, but does not initialize, the named class with the
+   * supplied {@link ClassLoader}, returning {@code null} if it, or a
+   * class it depends on, cannot be loaded, just as discovery would
+   * skip it.
+   *
+   * @param name the binary class name; must not be {@code null}
+   *
+   * @param classLoader the {@link ClassLoader} to use; must not be
+   * {@code null}
+   *
+   * @return the {@link Class}, or {@code null}
+   */
+  private static final Class<?> load(final String name, final ClassLoader classLoader) {
+    try {
+      return Class.forName(name, false, classLoader);
+    } catch (final ClassNotFoundException | LinkageError exception) {
+      return null;
+    }
+  }
+
+}
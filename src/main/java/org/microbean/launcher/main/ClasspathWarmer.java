@@ -0,0 +1,340 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher.main;
+
+import java.io.IOException;
+
+import java.net.URI;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.nio.channels.FileChannel;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import java.util.Collection;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Reads ahead the parts of classpath jar files that a starting CDI
+ * container is about to read, in parallel and in the background, so
+ * that the container's class loading finds them in the operating
+ * system's page cache instead of stalling on random reads from a
+ * cold disk.
+ *
+ * <p>Every jar's central directory is read, since it is consulted
+ * whenever a jar is opened.  Bean archives&mdash;jars containing a
+ * {@code META-INF/beans.xml} entry&mdash;are read in their
+ * entirety, since the container will scan every class in them.</p>
+ *
+ * <p>Warming is purely advisory: failures are ignored, and nothing
+ * waits for it to finish.  A jar whose central directory cannot be
+ * located or parsed, e.g. because it is malformed, or because it is
+ * a zip64 archive whose central directory lies beyond the first four
+ * gigabytes, is read in its entirety rather than guessed at.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see Main
+ */
+final class ClasspathWarmer {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The size of the buffer used by each warming thread.
+   *
+   * <p>It is large enough to hold an end of central directory record
+   * with the longest possible comment.</p>
+   */
+  private static final int BUFFER_SIZE = 128 * 1024;
+
+  /**
+   * The signature of a zip file's end of central directory record.
+   */
+  private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+
+  /**
+   * The size of a zip file's end of central directory record, not
+   * counting its trailing comment.
+   */
+  private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+
+  /**
+   * The maximum length of the comment that trails a zip file's end
+   * of central directory record.
+   */
+  private static final int MAXIMUM_COMMENT_LENGTH = 0xFFFF;
+
+  /**
+   * The signature of a zip file's central directory file header.
+   */
+  private static final int CENTRAL_DIRECTORY_SIGNATURE = 0x02014b50;
+
+  /**
+   * The size of a zip file's central directory file header, not
+   * counting its variable-length fields.
+   */
+  private static final int CENTRAL_DIRECTORY_HEADER_SIZE = 46;
+
+  /**
+   * The name of the entry that marks a jar as a bean archive.
+   */
+  private static final byte[] BEANS_XML = "META-INF/beans.xml".getBytes(StandardCharsets.UTF_8);
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ClasspathWarmer}.
+   */
+  private ClasspathWarmer() {
+    super();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Starts warming the jar files among the supplied classpath {@link
+   * URI}s on a number of daemon threads and returns immediately.
+   *
+   * @param classpath the classpath {@link URI}s to warm; may be
+   * {@code null} in which case no action will be taken
+   */
+  static final void warm(final Collection<? extends URI> classpath) {
+    if (classpath != null && !classpath.isEmpty()) {
+      final int threads = Math.max(1, Math.min(classpath.size(), Runtime.getRuntime().availableProcessors()));
+      final ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+          final Thread t = new Thread(r, "microbean-launcher-warmer");
+          t.setDaemon(true);
+          t.setPriority(Thread.MIN_PRIORITY);
+          return t;
+        });
+      final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN));
+      for (final URI uri : classpath) {
+        if (uri != null && "file".equals(uri.getScheme())) {
+          executor.execute(() -> {
+              try {
+                warm(Paths.get(uri), buffers.get());
+              } catch (final IOException | RuntimeException ignored) {
+                // Warming is advisory only.
+              }
+            });
+        }
+      }
+      executor.shutdown();
+    }
+  }
+
+  /**
+   * Warms the jar file located at the supplied {@link Path} and
+   * returns the number of bytes that were read.
+   *
+   * @param jar the {@link Path} of the jar file to warm; must not be
+   * {@code null}
+   *
+   * @param buffer a little-endian {@link ByteBuffer} of at least
+   * {@value #BUFFER_SIZE} bytes to read into; must not be {@code null}
+   *
+   * @return the number of bytes read, which is at least the size of
+   * the jar file if it was read in its entirety
+   *
+   * @exception IOException if there was a problem reading
+   */
+  static final long warm(final Path jar, final ByteBuffer buffer) throws IOException {
+    try (final FileChannel channel = FileChannel.open(jar, StandardOpenOption.READ)) {
+      final long size = channel.size();
+      if (size < END_OF_CENTRAL_DIRECTORY_SIZE) {
+        return readFully(channel, buffer, 0L, size);
+      }
+
+      // The end of central directory record is followed by a comment
+      // of at most 65535 bytes, so it lies within the last 65557
+      // bytes of the file.  A comment may itself contain the
+      // signature, so a candidate record is only accepted if its
+      // comment length accounts exactly for the rest of the file.
+      final long tailPosition = Math.max(0L, size - (END_OF_CENTRAL_DIRECTORY_SIZE + MAXIMUM_COMMENT_LENGTH));
+      final int tailLength = (int)(size - tailPosition);
+      read(channel, buffer, tailPosition, tailLength);
+      long bytesRead = tailLength;
+      int end = -1;
+      for (int i = tailLength - END_OF_CENTRAL_DIRECTORY_SIZE; i >= 0; i--) {
+        if (buffer.getInt(i) == END_OF_CENTRAL_DIRECTORY_SIGNATURE &&
+            (buffer.getShort(i + 20) & 0xFFFF) == tailLength - i - END_OF_CENTRAL_DIRECTORY_SIZE) {
+          end = i;
+          break;
+        }
+      }
+      if (end < 0) {
+        // Not a zip file, or a corrupt one; read the whole thing
+        // rather than guess.
+        return bytesRead + readFully(channel, buffer, 0L, tailPosition);
+      }
+      final long centralDirectorySize = buffer.getInt(end + 12) & 0xFFFFFFFFL;
+      final long centralDirectoryPosition = buffer.getInt(end + 16) & 0xFFFFFFFFL;
+      if (centralDirectoryPosition + centralDirectorySize > tailPosition + end) {
+        // Zip64 or corrupt; read the whole thing rather than guess.
+        return bytesRead + readFully(channel, buffer, 0L, tailPosition);
+      }
+
+      boolean beanArchive = false;
+      long position = centralDirectoryPosition;
+      final long centralDirectoryEnd = centralDirectoryPosition + centralDirectorySize;
+      while (position < centralDirectoryEnd) {
+        final int length = (int)Math.min(buffer.capacity(), centralDirectoryEnd - position);
+        read(channel, buffer, position, length);
+        bytesRead += length;
+        int offset = 0;
+        while (!beanArchive && offset + CENTRAL_DIRECTORY_HEADER_SIZE <= length && buffer.getInt(offset) == CENTRAL_DIRECTORY_SIGNATURE) {
+          final int nameLength = buffer.getShort(offset + 28) & 0xFFFF;
+          final int extraLength = buffer.getShort(offset + 30) & 0xFFFF;
+          final int commentLength = buffer.getShort(offset + 32) & 0xFFFF;
+          final int headerLength = CENTRAL_DIRECTORY_HEADER_SIZE + nameLength + extraLength + commentLength;
+          if (offset + headerLength > length) {
+            break;
+          }
+          beanArchive = isBeansXml(buffer, offset + CENTRAL_DIRECTORY_HEADER_SIZE, nameLength);
+          offset += headerLength;
+        }
+        if (beanArchive || offset == 0) {
+          // Either we know enough, or the central directory is not
+          // laid out as expected; just read the rest of it.
+          bytesRead += readFully(channel, buffer, position + length, centralDirectoryEnd - position - length);
+          break;
+        }
+        position += offset;
+      }
+
+      if (beanArchive) {
+        bytesRead += readFully(channel, buffer, 0L, centralDirectoryPosition);
+      }
+      return bytesRead;
+    }
+  }
+
+  /**
+   * Returns {@code true} if the supplied region of the supplied
+   * {@link ByteBuffer} holds the name {@code META-INF/beans.xml}.
+   *
+   * @param buffer the {@link ByteBuffer} to examine; must not be
+   * {@code null}
+   *
+   * @param offset the offset of the name
+   *
+   * @param length the length of the name
+   *
+   * @return {@code true} if the name is {@code META-INF/beans.xml}
+   */
+  private static final boolean isBeansXml(final ByteBuffer buffer, final int offset, final int length) {
+    if (length != BEANS_XML.length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (buffer.get(offset + i) != BEANS_XML[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Reads exactly {@code length} bytes from the supplied {@link
+   * FileChannel}, starting at the supplied position, into the start
+   * of the supplied {@link ByteBuffer}.
+   *
+   * @param channel the {@link FileChannel} to read from; must not be
+   * {@code null}
+   *
+   * @param buffer the {@link ByteBuffer} to read into; must not be
+   * {@code null} and must have a capacity of at least {@code length}
+   *
+   * @param position the position to start reading from
+   *
+   * @param length the number of bytes to read
+   *
+   * @exception IOException if there was a problem reading, or if the
+   * file ended prematurely
+   */
+  private static final void read(final FileChannel channel, final ByteBuffer buffer, long position, final int length) throws IOException {
+    buffer.clear().limit(length);
+    while (buffer.hasRemaining()) {
+      final int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new IOException("Unexpected end of file");
+      }
+      position += read;
+    }
+  }
+
+  /**
+   * Reads, and discards, {@code length} bytes from the supplied
+   * {@link FileChannel}, starting at the supplied position, and
+   * returns the number of bytes actually read, which is smaller if
+   * the file ends first.
+   *
+   * @param channel the {@link FileChannel} to read from; must not be
+   * {@code null}
+   *
+   * @param buffer the {@link ByteBuffer} to read through; must not be
+   * {@code null}
+   *
+   * @param position the position to start reading from
+   *
+   * @param length the number of bytes to read
+   *
+   * @return the number of bytes read
+   *
+   * @exception IOException if there was a problem reading
+   */
+  private static final long readFully(final FileChannel channel, final ByteBuffer buffer, long position, long length) throws IOException {
+    long returnValue = 0L;
+    while (length > 0L) {
+      buffer.clear();
+      if (length < buffer.capacity()) {
+        buffer.limit((int)length);
+      }
+      final int read = channel.read(buffer, position);
+      if (read < 0) {
+        break;
+      }
+      position += read;
+      length -= read;
+      returnValue += read;
+    }
+    return returnValue;
+  }
+
+}
@@ -0,0 +1,106 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher.main;
+
+import javax.enterprise.event.Observes;
+
+import javax.enterprise.inject.Any;
+
+import javax.enterprise.inject.literal.NamedLiteral;
+
+import javax.enterprise.inject.spi.AfterBeanDiscovery;
+import javax.enterprise.inject.spi.Extension;
+
+import javax.inject.Singleton;
+
+/**
+ * An {@link Extension} that makes a particular set of command line
+ * arguments available as a {@link Singleton}-scoped {@code String[]}
+ * bean {@linkplain javax.inject.Named named} {@code
+ * commandLineArguments}, just as {@link org.microbean.main.Main}
+ * does.
+ *
+ * <p>Unlike {@link org.microbean.main.Main}, which keeps its command
+ * line arguments in a static field, each instance of this class
+ * serves exactly one container, so several containers may run side
+ * by side in the same JVM, each with its own arguments.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see Main
+ */
+final class CommandLineArgumentsExtension implements Extension {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The command line arguments to expose.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final String[] commandLineArguments;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link CommandLineArgumentsExtension}.
+   *
+   * @param commandLineArguments the command line arguments to
+   * expose; may be {@code null} in which case an empty array will be
+   * exposed instead
+   */
+  CommandLineArgumentsExtension(final String[] commandLineArguments) {
+    super();
+    if (commandLineArguments == null) {
+      this.commandLineArguments = new String[0];
+    } else {
+      this.commandLineArguments = commandLineArguments.clone();
+    }
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Adds the {@code commandLineArguments} bean.
+   *
+   * @param event the {@link AfterBeanDiscovery} event; may be {@code
+   * null} in which case no action will be taken
+   */
+  private final void afterBeanDiscovery(@Observes final AfterBeanDiscovery event) {
+    if (event != null) {
+      event.addBean()
+        .types(String[].class, Object.class)
+        .qualifiers(NamedLiteral.of("commandLineArguments"), Any.Literal.INSTANCE)
+        .scope(Singleton.class)
+        .createWith(cc -> this.commandLineArguments.clone());
+    }
+  }
+
+}
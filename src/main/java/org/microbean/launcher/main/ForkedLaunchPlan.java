@@ -0,0 +1,782 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher.main;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+
+import java.net.URI;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+
+import java.util.concurrent.TimeUnit;
+
+import org.microbean.launcher.LaunchPlan;
+
+/**
+ * A {@link LaunchPlan} computed by a short-lived child JVM running
+ * {@link ResolverProcess} and read back over a pipe, so that the
+ * launching JVM never loads Maven or Aether classes.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see #resolve(String[])
+ *
+ * @see ResolverProcess
+ */
+final class ForkedLaunchPlan implements LaunchPlan {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The version of the format written by {@link #write(LaunchPlan,
+   * Path, DataOutputStream)} and read by {@link
+   * #read(DataInputStream, Path)}.
+   */
+  private static final int FORMAT_VERSION = 4;
+
+  /**
+   * The prefixes of the names of the system properties that the
+   * child JVM inherits from this one, whether they were set on the
+   * command line or programmatically: the launcher's own, and those
+   * that govern networking, proxies and TLS, without which the child
+   * JVM could not reach the same remote repositories.
+   */
+  private static final String[] FORWARDED_PROPERTY_PREFIXES = {
+    "maven.",
+    "microbean.",
+    "http.",
+    "https.",
+    "ftp.",
+    "socksProxy",
+    "socksNonProxyHosts",
+    "java.net.",
+    "javax.net.",
+    "jdk.tls.",
+    "jdk.http.",
+    "sun.net."
+  };
+
+  /**
+   * The prefixes of this JVM's input arguments that the child JVM
+   * does not inherit: agents and debuggers, which would attach to
+   * the child JVM too or fight it for the same port, and remote JMX,
+   * for the same reason.
+   */
+  private static final String[] UNFORWARDED_ARGUMENT_PREFIXES = {
+    "-javaagent:",
+    "-agentlib:",
+    "-agentpath:",
+    "-Xdebug",
+    "-Xnoagent",
+    "-Xrun",
+    "-Dcom.sun.management.jmxremote"
+  };
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The {@link Path} of the launcher's cache directory.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Path cacheDirectory;
+
+  /**
+   * Whether the classpath should be warmed.
+   */
+  private final boolean warmClasspath;
+
+  /**
+   * Whether bean archives should be indexed.
+   */
+  private final boolean indexBeanArchives;
+
+  /**
+   * Whether proxy classes should be cached.
+   */
+  private final boolean cacheProxyClasses;
+
+  /**
+   * Whether {@code SNAPSHOT} artifacts should be watched.
+   */
+  private final boolean watch;
+
+  /**
+   * Whether the class load order should be recorded.
+   */
+  private final boolean recordClassLoadOrder;
+
+  /**
+   * Whether the class load order should be replayed.
+   */
+  private final boolean replayClassLoadOrder;
+
+  /**
+   * The classpath.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Set<URI> classpath;
+
+  /**
+   * The remaining command line arguments.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final String[] remainingCommandLineArguments;
+
+  /**
+   * The classpaths of each named application, indexed by name.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Map<String, Set<URI>> applicationClasspaths;
+
+  /**
+   * The command line arguments of each named application, indexed by
+   * name.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Map<String, String[]> applicationArguments;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ForkedLaunchPlan}.
+   *
+   * @param cacheDirectory the {@link Path} of the launcher's cache
+   * directory; must not be {@code null}
+   *
+   * @param warmClasspath whether the classpath should be warmed
+   *
+   * @param indexBeanArchives whether bean archives should be indexed
+   *
+   * @param cacheProxyClasses whether proxy classes should be cached
+   *
+   * @param watch whether {@code SNAPSHOT} artifacts should be watched
+   *
+   * @param recordClassLoadOrder whether the class load order should
+   * be recorded
+   *
+   * @param replayClassLoadOrder whether the class load order should
+   * be replayed
+   *
+   * @param classpath the classpath; must not be {@code null}
+   *
+   * @param remainingCommandLineArguments the remaining command line
+   * arguments; must not be {@code null}
+   *
+   * @param applicationClasspaths the classpaths of each named
+   * application, indexed by name; must not be {@code null}
+   *
+   * @param applicationArguments the command line arguments of each
+   * named application, indexed by name; must not be {@code null}
+   *
+   * @exception NullPointerException if any parameter is {@code null}
+   */
+  private ForkedLaunchPlan(final Path cacheDirectory,
+                           final boolean warmClasspath,
+                           final boolean indexBeanArchives,
+                           final boolean cacheProxyClasses,
+                           final boolean watch,
+                           final boolean recordClassLoadOrder,
+                           final boolean replayClassLoadOrder,
+                           final Set<URI> classpath,
+                           final String[] remainingCommandLineArguments,
+                           final Map<String, Set<URI>> applicationClasspaths,
+                           final Map<String, String[]> applicationArguments) {
+    super();
+    this.cacheDirectory = Objects.requireNonNull(cacheDirectory);
+    this.warmClasspath = warmClasspath;
+    this.indexBeanArchives = indexBeanArchives;
+    this.cacheProxyClasses = cacheProxyClasses;
+    this.watch = watch;
+    this.recordClassLoadOrder = recordClassLoadOrder;
+    this.replayClassLoadOrder = replayClassLoadOrder;
+    this.classpath = Collections.unmodifiableSet(Objects.requireNonNull(classpath));
+    this.remainingCommandLineArguments = Objects.requireNonNull(remainingCommandLineArguments);
+    this.applicationClasspaths = Objects.requireNonNull(applicationClasspaths);
+    this.applicationArguments = Objects.requireNonNull(applicationArguments);
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  @Override
+  public final Set<URI> getClasspath() {
+    return this.classpath;
+  }
+
+  @Override
+  public final String[] getRemainingCommandLineArguments() {
+    return this.remainingCommandLineArguments.clone();
+  }
+
+  @Override
+  public final Set<String> getApplicationNames() {
+    return Collections.unmodifiableSet(this.applicationClasspaths.keySet());
+  }
+
+  @Override
+  public final Set<URI> getClasspath(final String applicationName) {
+    final Set<URI> returnValue = this.applicationClasspaths.get(applicationName);
+    if (returnValue == null) {
+      return Collections.emptySet();
+    }
+    return Collections.unmodifiableSet(returnValue);
+  }
+
+  @Override
+  public final String[] getRemainingCommandLineArguments(final String applicationName) {
+    final String[] returnValue = this.applicationArguments.get(applicationName);
+    if (returnValue == null) {
+      return new String[0];
+    }
+    return returnValue.clone();
+  }
+
+  @Override
+  public final boolean isWarmClasspath() {
+    return this.warmClasspath;
+  }
+
+  @Override
+  public final boolean isIndexBeanArchives() {
+    return this.indexBeanArchives;
+  }
+
+  @Override
+  public final boolean isCacheProxyClasses() {
+    return this.cacheProxyClasses;
+  }
+
+  @Override
+  public final boolean isWatch() {
+    return this.watch;
+  }
+
+  @Override
+  public final Path getCacheDirectory() {
+    return this.cacheDirectory;
+  }
+
+  @Override
+  public final boolean isRecordClassLoadOrder() {
+    return this.recordClassLoadOrder;
+  }
+
+  @Override
+  public final boolean isReplayClassLoadOrder() {
+    return this.replayClassLoadOrder;
+  }
+
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Starts a child JVM running {@link ResolverProcess} with the
+   * supplied command line arguments, waits for it to finish and
+   * returns the {@link LaunchPlan} it computed.
+   *
+   * <p>The child JVM uses the same {@code java} executable and
+   * classpath as this one.  It inherits {@linkplain
+   * #getJvmArguments(List, Properties) most of this JVM's arguments
+   * and the system properties that matter to dependency
+   * resolution}.  Its standard error is inherited; its standard
+   * output is the pipe over which the {@link LaunchPlan} is
+   * returned.  Its standard input is closed, so that it can neither
+   * block on nor consume this JVM's standard input.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param commandLineArguments the command line arguments; may be
+   * {@code null}
+   *
+   * @return a non-{@code null} {@link LaunchPlan}
+   *
+   * @exception UncheckedIOException if there was a problem starting
+   * or communicating with the child JVM
+   *
+   * @exception IllegalStateException if the child JVM failed, or if
+   * the calling thread was interrupted while waiting for it
+   */
+  static final LaunchPlan resolve(final String[] commandLineArguments) {
+    return resolve(ResolverProcess.class.getName(), commandLineArguments);
+  }
+
+  /**
+   * Starts a child JVM running the class with the supplied name with
+   * the supplied command line arguments, waits for it to finish and
+   * returns the {@link LaunchPlan} it {@linkplain #write(LaunchPlan,
+   * Path, DataOutputStream) wrote} to its standard output.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param mainClassName the name of the class whose {@code main}
+   * method the child JVM runs; must not be {@code null}
+   *
+   * @param commandLineArguments the command line arguments; may be
+   * {@code null}
+   *
+   * @return a non-{@code null} {@link LaunchPlan}
+   *
+   * @exception NullPointerException if {@code mainClassName} is
+   * {@code null}
+   *
+   * @exception UncheckedIOException if there was a problem starting
+   * or communicating with the child JVM
+   *
+   * @exception IllegalStateException if the child JVM failed, or if
+   * the calling thread was interrupted while waiting for it
+   *
+   * @see #resolve(String[])
+   */
+  static final LaunchPlan resolve(final String mainClassName, final String[] commandLineArguments) {
+    Objects.requireNonNull(mainClassName);
+    final List<String> command = new ArrayList<>();
+    command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+    command.addAll(getJvmArguments(ManagementFactory.getRuntimeMXBean().getInputArguments(), System.getProperties()));
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(mainClassName);
+    if (commandLineArguments != null) {
+      Collections.addAll(command, commandLineArguments);
+    }
+    final ProcessBuilder processBuilder = new ProcessBuilder(command);
+    processBuilder.redirectInput(ProcessBuilder.Redirect.PIPE);
+    processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+    final LaunchPlan returnValue;
+    final int exitValue;
+    try {
+      final Process process = processBuilder.start();
+      process.getOutputStream().close();
+      try (final DataInputStream in = new DataInputStream(new BufferedInputStream(process.getInputStream()))) {
+        returnValue = read(in);
+      } catch (final IOException ioException) {
+        // A child JVM that failed before writing its launch plan
+        // simply closes the pipe; report its exit value instead.
+        if (!process.waitFor(1L, TimeUnit.SECONDS)) {
+          process.destroy();
+        } else if (process.exitValue() != 0) {
+          throw new IllegalStateException("Out-of-process resolution failed with exit value " + process.exitValue(), ioException);
+        }
+        throw ioException;
+      }
+      exitValue = process.waitFor();
+    } catch (final IOException ioException) {
+      throw new UncheckedIOException("Out-of-process resolution failed", ioException);
+    } catch (final InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for out-of-process resolution", interruptedException);
+    }
+    if (exitValue != 0) {
+      throw new IllegalStateException("Out-of-process resolution failed with exit value " + exitValue);
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns the arguments with which a child JVM should be started
+   * so that it behaves like the JVM with the supplied input
+   * arguments and system properties.
+   *
+   * <p>The input arguments are forwarded in order, except for those
+   * that attach agents or debuggers or enable remote JMX.  They are
+   * followed by a {@code -D} argument for each system property whose
+   * name starts with {@code maven.}, {@code microbean.}, or one of
+   * the prefixes of the standard networking, proxy and TLS
+   * properties, such as {@code http.}, {@code https.}, {@code
+   * socksProxy}, {@code java.net.} or {@code javax.net.}, so that
+   * properties set programmatically are forwarded too.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param inputArguments the {@linkplain
+   * RuntimeMXBean#getInputArguments() input arguments} of the JVM to
+   * imitate; may be {@code null}
+   *
+   * @param systemProperties the system properties of the JVM to
+   * imitate; may be {@code null}
+   *
+   * @return a non-{@code null} {@link List} of JVM arguments
+   */
+  static final List<String> getJvmArguments(final List<? extends String> inputArguments, final Properties systemProperties) {
+    final List<String> returnValue = new ArrayList<>();
+    if (inputArguments != null) {
+      for (final String inputArgument : inputArguments) {
+        if (inputArgument != null && !startsWithAny(inputArgument, UNFORWARDED_ARGUMENT_PREFIXES)) {
+          returnValue.add(inputArgument);
+        }
+      }
+    }
+    if (systemProperties != null) {
+      for (final String name : systemProperties.stringPropertyNames()) {
+        if (startsWithAny(name, FORWARDED_PROPERTY_PREFIXES)) {
+          returnValue.add("-D" + name + "=" + systemProperties.getProperty(name));
+        }
+      }
+    }
+    return returnValue;
+  }
+
+  /**
+   * Returns {@code true} if the supplied {@link String} starts with
+   * any of the supplied prefixes.
+   *
+   * @param s the {@link String} to test; must not be {@code null}
+   *
+   * @param prefixes the prefixes; must not be {@code null}
+   *
+   * @return {@code true} if {@code s} starts with any of the
+   * supplied prefixes
+   *
+   * @exception NullPointerException if either parameter is {@code
+   * null}
+   */
+  private static final boolean startsWithAny(final String s, final String[] prefixes) {
+    for (final String prefix : prefixes) {
+      if (s.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns a new {@link ForkedLaunchPlan} that is a copy of the
+   * supplied {@link LaunchPlan} with each of its classpath {@link
+   * URI}s replaced by its mapping in the supplied {@link Map}, if it
+   * has one.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param launchPlan the {@link LaunchPlan} to copy; must not be
+   * {@code null}
+   *
+   * @param cacheDirectory the {@link Path} of the launcher's cache
+   * directory to use instead of the supplied {@link LaunchPlan}'s;
+   * must not be {@code null}
+   *
+   * @param relocations a {@link Map} of classpath {@link URI}
+   * replacements indexed by the {@link URI}s they replace; must not
+   * be {@code null}
+   *
+   * @return a non-{@code null} {@link ForkedLaunchPlan}
+   *
+   * @exception NullPointerException if any parameter is {@code null}
+   *
+   * @see Bake
+   */
+  static final ForkedLaunchPlan relocate(final LaunchPlan launchPlan, final Path cacheDirectory, final Map<? extends URI, ? extends URI> relocations) {
+    Objects.requireNonNull(relocations);
+    final Map<String, Set<URI>> applicationClasspaths = new LinkedHashMap<>();
+    final Map<String, String[]> applicationArguments = new LinkedHashMap<>();
+    for (final String applicationName : launchPlan.getApplicationNames()) {
+      applicationClasspaths.put(applicationName, relocate(launchPlan.getClasspath(applicationName), relocations));
+      applicationArguments.put(applicationName, launchPlan.getRemainingCommandLineArguments(applicationName));
+    }
+    return new ForkedLaunchPlan(cacheDirectory,
+                                launchPlan.isWarmClasspath(),
+                                launchPlan.isIndexBeanArchives(),
+                                launchPlan.isCacheProxyClasses(),
+                                launchPlan.isWatch(),
+                                launchPlan.isRecordClassLoadOrder(),
+                                launchPlan.isReplayClassLoadOrder(),
+                                relocate(launchPlan.getClasspath(), relocations),
+                                launchPlan.getRemainingCommandLineArguments(),
+                                applicationClasspaths,
+                                applicationArguments);
+  }
+
+  /**
+   * Returns a new ordered {@link Set} of the supplied {@link URI}s,
+   * each replaced by its mapping in the supplied {@link Map}, if it
+   * has one.
+   *
+   * @param uris the {@link URI}s to relocate; must not be {@code
+   * null}
+   *
+   * @param relocations a {@link Map} of {@link URI} replacements
+   * indexed by the {@link URI}s they replace; must not be {@code
+   * null}
+   *
+   * @return a non-{@code null}, ordered {@link Set} of {@link URI}s
+   */
+  static final Set<URI> relocate(final Collection<? extends URI> uris, final Map<? extends URI, ? extends URI> relocations) {
+    final Set<URI> returnValue = new LinkedHashSet<>();
+    for (final URI uri : uris) {
+      final URI relocatedUri = relocations.get(uri);
+      returnValue.add(relocatedUri == null ? uri : relocatedUri);
+    }
+    return returnValue;
+  }
+
+  /**
+   * Writes the supplied {@link LaunchPlan} to the supplied {@link
+   * DataOutputStream} in a form that {@link #read(DataInputStream)}
+   * can read.
+   *
+   * @param launchPlan the {@link LaunchPlan} to write; must not be
+   * {@code null}
+   *
+   * @param cacheDirectory the {@link Path} of the launcher's cache
+   * directory; must not be {@code null}
+   *
+   * @param out the {@link DataOutputStream} to write to; must not be
+   * {@code null}
+   *
+   * @exception IOException if there was a problem writing
+   *
+   * @exception NullPointerException if any parameter is {@code null}
+   */
+  static final void write(final LaunchPlan launchPlan, final Path cacheDirectory, final DataOutputStream out) throws IOException {
+    out.writeInt(FORMAT_VERSION);
+    out.writeUTF(cacheDirectory.toString());
+    out.writeBoolean(launchPlan.isWarmClasspath());
+    out.writeBoolean(launchPlan.isIndexBeanArchives());
+    out.writeBoolean(launchPlan.isCacheProxyClasses());
+    out.writeBoolean(launchPlan.isWatch());
+    out.writeBoolean(launchPlan.isRecordClassLoadOrder());
+    out.writeBoolean(launchPlan.isReplayClassLoadOrder());
+    writeUris(launchPlan.getClasspath(), out);
+    writeStrings(launchPlan.getRemainingCommandLineArguments(), out);
+    final Set<String> applicationNames = launchPlan.getApplicationNames();
+    out.writeInt(applicationNames.size());
+    for (final String applicationName : applicationNames) {
+      out.writeUTF(applicationName);
+      writeUris(launchPlan.getClasspath(applicationName), out);
+      writeStrings(launchPlan.getRemainingCommandLineArguments(applicationName), out);
+    }
+    out.flush();
+  }
+
+  /**
+   * Reads a {@link ForkedLaunchPlan} {@linkplain #write(LaunchPlan,
+   * Path, DataOutputStream) written} to the supplied {@link
+   * DataInputStream}.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param in the {@link DataInputStream} to read from; must not be
+   * {@code null}
+   *
+   * @return a non-{@code null} {@link ForkedLaunchPlan}
+   *
+   * @exception IOException if there was a problem reading, or if the
+   * data is not in the expected format
+   *
+   * @exception NullPointerException if {@code in} is {@code null}
+   */
+  static final ForkedLaunchPlan read(final DataInputStream in) throws IOException {
+    return read(in, null);
+  }
+
+  /**
+   * Reads a {@link ForkedLaunchPlan} {@linkplain #write(LaunchPlan,
+   * Path, DataOutputStream) written} to the supplied {@link
+   * DataInputStream}, resolving a relative cache directory and
+   * relative classpath {@link URI}s against the supplied base
+   * directory.
+   *
+   * <p>This is what makes a {@linkplain Bake baked} launch plan
+   * relocatable: it refers to its jar files and caches relative to
+   * the directory that contains it, wherever that directory happens
+   * to be.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param in the {@link DataInputStream} to read from; must not be
+   * {@code null}
+   *
+   * @param baseDirectory the {@link Path} against which relative
+   * paths and {@link URI}s are resolved; may be {@code null} in which
+   * case they are left as they are
+   *
+   * @return a non-{@code null} {@link ForkedLaunchPlan}
+   *
+   * @exception IOException if there was a problem reading, or if the
+   * data is not in the expected format
+   *
+   * @exception NullPointerException if {@code in} is {@code null}
+   */
+  static final ForkedLaunchPlan read(final DataInputStream in, final Path baseDirectory) throws IOException {
+    final URI baseUri = baseDirectory == null ? null : BakedLaunchPlan.toDirectoryUri(baseDirectory);
+    final int formatVersion = in.readInt();
+    if (formatVersion != FORMAT_VERSION) {
+      throw new IOException("Unexpected format version: " + formatVersion);
+    }
+    final Path cacheDirectory;
+    if (baseDirectory == null) {
+      cacheDirectory = Paths.get(in.readUTF());
+    } else {
+      cacheDirectory = baseDirectory.resolve(in.readUTF());
+    }
+    final boolean warmClasspath = in.readBoolean();
+    final boolean indexBeanArchives = in.readBoolean();
+    final boolean cacheProxyClasses = in.readBoolean();
+    final boolean watch = in.readBoolean();
+    final boolean recordClassLoadOrder = in.readBoolean();
+    final boolean replayClassLoadOrder = in.readBoolean();
+    final Set<URI> classpath = readUris(in, baseUri);
+    final String[] remainingCommandLineArguments = readStrings(in);
+    final int applicationCount = in.readInt();
+    final Map<String, Set<URI>> applicationClasspaths = new LinkedHashMap<>();
+    final Map<String, String[]> applicationArguments = new LinkedHashMap<>();
+    for (int i = 0; i < applicationCount; i++) {
+      final String applicationName = in.readUTF();
+      applicationClasspaths.put(applicationName, readUris(in, baseUri));
+      applicationArguments.put(applicationName, readStrings(in));
+    }
+    return new ForkedLaunchPlan(cacheDirectory,
+                                warmClasspath,
+                                indexBeanArchives,
+                                cacheProxyClasses,
+                                watch,
+                                recordClassLoadOrder,
+                                replayClassLoadOrder,
+                                classpath,
+                                remainingCommandLineArguments,
+                                applicationClasspaths,
+                                applicationArguments);
+  }
+
+  /**
+   * Writes the supplied {@link URI}s to the supplied {@link
+   * DataOutputStream}.
+   *
+   * @param uris the {@link URI}s to write; must not be {@code null}
+   *
+   * @param out the {@link DataOutputStream} to write to; must not be
+   * {@code null}
+   *
+   * @exception IOException if there was a problem writing
+   */
+  private static final void writeUris(final Collection<? extends URI> uris, final DataOutputStream out) throws IOException {
+    out.writeInt(uris.size());
+    for (final URI uri : uris) {
+      out.writeUTF(uri.toString());
+    }
+  }
+
+  /**
+   * Reads {@link URI}s written by {@link #writeUris(Collection,
+   * DataOutputStream)}.
+   *
+   * @param in the {@link DataInputStream} to read from; must not be
+   * {@code null}
+   *
+   * @param baseUri the {@link URI} against which relative {@link
+   * URI}s are resolved; may be {@code null} in which case they are
+   * left as they are
+   *
+   * @return a non-{@code null}, ordered {@link Set} of {@link URI}s
+   *
+   * @exception IOException if there was a problem reading
+   */
+  private static final Set<URI> readUris(final DataInputStream in, final URI baseUri) throws IOException {
+    final int size = in.readInt();
+    final Set<URI> returnValue = new LinkedHashSet<>();
+    for (int i = 0; i < size; i++) {
+      try {
+        final URI uri = URI.create(in.readUTF());
+        returnValue.add(baseUri == null || uri.isAbsolute() ? uri : baseUri.resolve(uri));
+      } catch (final IllegalArgumentException illegalArgumentException) {
+        throw new IOException(illegalArgumentException.getMessage(), illegalArgumentException);
+      }
+    }
+    return returnValue;
+  }
+
+  /**
+   * Writes the supplied {@link String}s to the supplied {@link
+   * DataOutputStream}.
+   *
+   * @param strings the {@link String}s to write; must not be {@code
+   * null}
+   *
+   * @param out the {@link DataOutputStream} to write to; must not be
+   * {@code null}
+   *
+   * @exception IOException if there was a problem writing
+   */
+  private static final void writeStrings(final String[] strings, final DataOutputStream out) throws IOException {
+    out.writeInt(strings.length);
+    for (final String string : strings) {
+      out.writeUTF(string);
+    }
+  }
+
+  /**
+   * Reads {@link String}s written by {@link #writeStrings(String[],
+   * DataOutputStream)}.
+   *
+   * @param in the {@link DataInputStream} to read from; must not be
+   * {@code null}
+   *
+   * @return a non-{@code null} {@link String} array
+   *
+   * @exception IOException if there was a problem reading
+   */
+  private static final String[] readStrings(final DataInputStream in) throws IOException {
+    final String[] returnValue = new String[in.readInt()];
+    for (int i = 0; i < returnValue.length; i++) {
+      returnValue[i] = in.readUTF();
+    }
+    return returnValue;
+  }
+
+}
@@ -0,0 +1,250 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher.main;
+
+import java.io.IOException;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.microbean.launcher.ProxyClassCache;
+
+/**
+ * A parallel-capable {@link URLClassLoader} that can record the order
+ * in which it defines classes, can preload a previously recorded
+ * order of classes on several background threads, and can define
+ * container-generated proxy classes from a {@link ProxyClassCache}.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see Main
+ */
+final class LauncherClassLoader extends URLClassLoader {
+
+
+  /*
+   * Static initializer.
+   */
+
+
+  static {
+    // Without this, concurrent loads would serialize on this
+    // ClassLoader's monitor and preloading would gain nothing.
+    registerAsParallelCapable();
+  }
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The binary names of the classes this {@link LauncherClassLoader}
+   * has defined, in order, or {@code null} if it is not recording.
+   */
+  private volatile Queue<String> definedClassNames;
+
+  /**
+   * The {@link ProxyClassCache} from which proxy classes are defined.
+   *
+   * <p>This field may be {@code null}.</p>
+   */
+  private final ProxyClassCache proxyClassCache;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link LauncherClassLoader}.
+   *
+   * @param urls the classpath {@link URL}s; must not be {@code null}
+   *
+   * @param parent the parent {@link ClassLoader}; may be {@code null}
+   *
+   * @param record whether to record the order in which classes are
+   * defined
+   *
+   * @param proxyClassCache the {@link ProxyClassCache} from which to
+   * define proxy classes that cannot otherwise be found; may be
+   * {@code null}
+   *
+   * @exception NullPointerException if {@code urls} is {@code null}
+   *
+   * @see #stopRecording()
+   */
+  LauncherClassLoader(final URL[] urls, final ClassLoader parent, final boolean record, final ProxyClassCache proxyClassCache) {
+    super(urls, parent);
+    this.proxyClassCache = proxyClassCache;
+    if (record) {
+      this.definedClassNames = new ConcurrentLinkedQueue<>();
+    }
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Finds and defines the class with the supplied binary name,
+   * recording its name if this {@link LauncherClassLoader} is
+   * recording.
+   *
+   * <p>A proxy class that is not on the classpath is defined from
+   * the {@link ProxyClassCache}, if there is one and it has the
+   * class, since the container asks for a proxy class before it
+   * generates one.</p>
+   *
+   * @param name the binary name of the class; must not be {@code
+   * null}
+   *
+   * @return the resulting {@link Class}; never {@code null}
+   *
+   * @exception ClassNotFoundException if the class could not be
+   * found
+   */
+  @Override
+  protected final Class<?> findClass(final String name) throws ClassNotFoundException {
+    Class<?> returnValue;
+    try {
+      returnValue = super.findClass(name);
+    } catch (final ClassNotFoundException classNotFoundException) {
+      returnValue = this.findCachedProxyClass(name);
+      if (returnValue == null) {
+        throw classNotFoundException;
+      }
+    }
+    final Queue<String> definedClassNames = this.definedClassNames;
+    if (definedClassNames != null) {
+      definedClassNames.add(name);
+    }
+    return returnValue;
+  }
+
+  /**
+   * Defines the proxy class with the supplied binary name from the
+   * {@link ProxyClassCache}, returning {@code null} if there is no
+   * such cached class.
+   *
+   * @param name the binary name of the class; must not be {@code
+   * null}
+   *
+   * @return the resulting {@link Class}, or {@code null}
+   */
+  private final Class<?> findCachedProxyClass(final String name) {
+    final ProxyClassCache proxyClassCache = this.proxyClassCache;
+    if (proxyClassCache != null && ProxyClassCache.isProxyClassName(name)) {
+      final byte[] bytes;
+      try {
+        bytes = proxyClassCache.load(name, this);
+      } catch (final IOException ioException) {
+        // The container will generate the class instead.
+        return null;
+      }
+      if (bytes != null) {
+        try {
+          return this.defineClass(name, bytes, 0, bytes.length);
+        } catch (final ClassFormatError classFormatError) {
+          // The cached class is damaged; the container will generate
+          // it again.
+          return null;
+        }
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Stops recording and returns the binary names of the classes
+   * defined so far, in order.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @return a non-{@code null} {@link List} of binary class names;
+   * empty if this {@link LauncherClassLoader} was not recording
+   */
+  final List<String> stopRecording() {
+    final Queue<String> definedClassNames = this.definedClassNames;
+    this.definedClassNames = null;
+    if (definedClassNames == null) {
+      return Collections.emptyList();
+    }
+    return new ArrayList<>(definedClassNames);
+  }
+
+  /**
+   * Starts loading, without initializing, the classes with the
+   * supplied binary names, in order, on several daemon threads, and
+   * returns immediately.
+   *
+   * <p>Classes that cannot be loaded are skipped.</p>
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param classNames the binary names of the classes to load; may
+   * be {@code null} in which case no action will be taken
+   *
+   * @return a non-{@code null} {@link CountDownLatch} that reaches
+   * zero once every class has been loaded or skipped; callers are
+   * free to ignore it
+   */
+  final CountDownLatch preload(final List<? extends String> classNames) {
+    if (classNames == null || classNames.isEmpty()) {
+      return new CountDownLatch(0);
+    }
+    final AtomicInteger next = new AtomicInteger();
+    final int threads = Math.max(1, Math.min(classNames.size(), Runtime.getRuntime().availableProcessors() - 1));
+    final CountDownLatch returnValue = new CountDownLatch(threads);
+    final Runnable loader = () -> {
+      try {
+        for (int i = next.getAndIncrement(); i < classNames.size(); i = next.getAndIncrement()) {
+          try {
+            Class.forName(classNames.get(i), false, this);
+          } catch (final ClassNotFoundException | LinkageError ignored) {
+            // The class will fail again, and be reported, when the
+            // application really needs it.
+          }
+        }
+      } finally {
+        returnValue.countDown();
+      }
+    };
+    for (int i = 0; i < threads; i++) {
+      final Thread t = new Thread(loader, "microbean-launcher-preloader");
+      t.setDaemon(true);
+      t.start();
+    }
+    return returnValue;
+  }
+
+}
@@ -16,27 +16,46 @@
  */
 package org.microbean.launcher.main;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
-import java.net.URLClassLoader;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import java.security.PrivilegedAction;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
+import java.util.concurrent.TimeUnit;
+
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import org.microbean.maven.cdi.MavenExtension;
 
 import org.microbean.launcher.ClasspathExporter;
+import org.microbean.launcher.EffectiveSettingsCache;
+import org.microbean.launcher.LaunchPlan;
+import org.microbean.launcher.ProxyClassCache;
 
 import javax.enterprise.inject.se.SeContainer;
 import javax.enterprise.inject.se.SeContainerInitializer;
 
 import javax.inject.Provider;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import static java.security.AccessController.doPrivileged;
 
 /**
@@ -55,6 +74,22 @@ import static java.security.AccessController.doPrivileged;
 public class Main {
 
 
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The number of milliseconds without further changes to wait for
+   * after a {@code SNAPSHOT} artifact changes before restarting the
+   * application container.
+   *
+   * @see #watch(SeContainerInitializer, Consumer, LaunchPlan,
+   * ClassLoader)
+   */
+  private static final long WATCH_QUIET_PERIOD = 500L;
+
+
   /*
    * Constructors.
    */
@@ -190,6 +225,20 @@ public class Main {
    * group identifier may be specified as simply {@code
    * artifactId:version}.</p>
    *
+   * <p>If a {@code --artifactPathFile} command line option is
+   * present, then its value names a UTF-8 file of further artifact
+   * coordinates in the same forms, separated by commas and/or
+   * whitespace, which is parsed as it is read, so that it may list
+   * many thousands of them.  A {@code #} at the start of a coordinate
+   * begins a comment that extends to the end of its line.</p>
+   *
+   * <p>Each {@code --bom} command line option names the coordinates
+   * of a Maven bill of materials.  Artifact coordinates that do not
+   * specify a version take it from the first bill of materials that
+   * manages them, rather than from a {@code LATEST} metadata lookup,
+   * and the bills of materials govern the versions of transitive
+   * dependencies too.</p>
+   *
    * <p>Examples of valid command line options described here include:</p>
    *
    * <ul>
@@ -218,7 +267,85 @@ public class Main {
    * so started is supplied to it.</p>
    *
    * <p>Finally the {@link SeContainer} is {@linkplain
-   * SeContainer#close() closed} and this method returns.
+   * SeContainer#close() closed} and this method returns.</p>
+   *
+   * <p>If the {@code --artifactStore} command line option is
+   * present, then the classpath is built from hard links into a
+   * {@linkplain org.microbean.launcher.ArtifactStore content-addressed
+   * store} instead of from the local Maven repository, so that
+   * identical jar files on the classpaths of different applications
+   * share one inode and one set of cached pages.</p>
+   *
+   * <p>If the {@code --warmClasspath} command line option is
+   * present, then the jar files on the classpath are read ahead in
+   * the background while the "real" container starts, so that its
+   * class loading finds them already in the operating system's page
+   * cache.</p>
+   *
+   * <p>If the {@code --classLoadOrder} command line option is
+   * present with a value of {@code record}, then the order in which
+   * classes are loaded from the classpath while the "real" container
+   * starts is recorded.  If it is present with a value of {@code
+   * replay}, then the classes so recorded for the same classpath are
+   * loaded, but not initialized, on several background threads while
+   * the "real" container is configured and started.</p>
+   *
+   * <p>If the {@code --beanArchiveIndex} command line option is
+   * present, then the "real" container is not left to probe and scan
+   * every jar file on the classpath for bean archives.  Instead, each
+   * jar file's {@linkplain org.microbean.launcher.BeanArchiveIndex
+   * bean archive index}&mdash;whether it is a bean archive, its
+   * discovery mode, and the alternatives, interceptors and
+   * decorators it enables&mdash;is computed once, cached by
+   * checksum, and used to configure the supplied {@code initializer}
+   * directly, with discovery {@linkplain
+   * SeContainerInitializer#disableDiscovery() disabled}.  If any
+   * classpath element cannot be so indexed, discovery proceeds as
+   * usual.</p>
+   *
+   * <p>If the {@code --proxyClassCache} command line option is
+   * present, then the client proxy and interceptor subclass classes
+   * that the "real" container generates are {@linkplain
+   * ProxyClassCache cached}, keyed by the bytes of the classes they
+   * proxy and the container's version, and later launches define
+   * them from the cache instead of generating them again.</p>
+   *
+   * <p>If the {@code --watch} command line option is present, then
+   * the "real" container is not closed when it has started.
+   * Instead, the local files of the resolved {@code SNAPSHOT}
+   * artifacts are watched, and whenever they change the container is
+   * closed and started again.  Classes from other artifacts are
+   * loaded once, by a {@link ClassLoader} that is retained across
+   * restarts; only {@code SNAPSHOT} artifacts are loaded again, by a
+   * new child {@link ClassLoader}, so a restart costs little more
+   * than the container's own startup.  This method then returns only
+   * if the calling thread is interrupted.</p>
+   *
+   * <p>If the {@code --forkResolution} command line option is
+   * present, or the {@code microbean.launcher.forkResolution} system
+   * property is {@code true}, then dependency resolution as described
+   * above happens in a short-lived {@linkplain ResolverProcess child
+   * JVM} instead, and only its result is read back, so that this JVM
+   * never loads Maven or Aether classes.  The supplied {@code
+   * bootstrapInitializer} is not used in that case.</p>
+   *
+   * <p>If the {@code --baked} command line option, or the {@code
+   * microbean.launcher.baked} system property, names a directory
+   * that {@link Bake} has prepared, then no dependency resolution
+   * happens at all, in this JVM or any other.  The directory's
+   * classpath, bean archive indexes and class load orders are
+   * trusted completely, and all other command line arguments, less
+   * a leading {@code --}, are passed to the application in place of
+   * the ones that were baked, if there are any.</p>
+   *
+   * <p>If the {@code --manifest} command line option names a
+   * {@linkplain org.microbean.launcher.LaunchManifest launch
+   * manifest}, then the artifact paths of all of the applications it
+   * lists are resolved together, so that artifacts they share are
+   * resolved only once, and one {@linkplain SeContainer CDI
+   * container} per application is then started on its own thread,
+   * with its own classpath and command line arguments.  This method
+   * returns when all of them have been closed.</p>
    *
    * @param bootstrapInitializer the {@link SeContainerInitializer} to
    * use while performing dependency resolution; may be {@code null}
@@ -259,41 +386,646 @@ public class Main {
    * Commons CLI</a>
    */
   public static final void main(SeContainerInitializer bootstrapInitializer, SeContainerInitializer initializer, final Consumer<? super SeContainer> consumer, final String[] commandLineArguments) throws MalformedURLException {
+    final LaunchPlan launchPlan;
+    final Path bakedDirectory = getBakedDirectory(commandLineArguments);
+    if (bakedDirectory != null) {
+      try {
+        launchPlan = BakedLaunchPlan.read(bakedDirectory, getBakedCommandLineArguments(commandLineArguments));
+      } catch (final IOException ioException) {
+        throw new UncheckedIOException("Could not read the baked directory " + bakedDirectory, ioException);
+      }
+    } else if (isForkResolution(commandLineArguments)) {
+      launchPlan = ForkedLaunchPlan.resolve(commandLineArguments);
+    } else {
+      launchPlan = resolve(bootstrapInitializer, commandLineArguments);
+    }
+    assert launchPlan != null;
+    if (launchPlan.isWarmClasspath()) {
+      ClasspathWarmer.warm(launchPlan.getClasspath());
+    }
+    final Set<String> applicationNames = launchPlan.getApplicationNames();
+    if (applicationNames != null && !applicationNames.isEmpty()) {
+      launch(initializer, consumer, launchPlan, applicationNames);
+      return;
+    }
+    final Set<URI> classpathAdditions = launchPlan.getClasspath();
+    final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    if (launchPlan.isWatch() && watch(initializer, SeContainerInitializer::newInstance, consumer, launchPlan, contextClassLoader)) {
+      return;
+    }
+
+    if (initializer == null) {
+      initializer = SeContainerInitializer.newInstance();
+    }
+    final ProxyClassCache proxyClassCache = newProxyClassCache(initializer, launchPlan);
+    final LauncherClassLoader urlClassLoader = newClassLoader(classpathAdditions, contextClassLoader, launchPlan, proxyClassCache);
+    if (urlClassLoader != null) {
+      initializer.setClassLoader(urlClassLoader);
+    }
+    final Path proxyDumpDirectory = urlClassLoader == null ? null : dumpProxyClasses(initializer, proxyClassCache);
+    if (launchPlan.isIndexBeanArchives()) {
+      BeanArchiveConfigurer.configure(initializer,
+                                      urlClassLoader == null ? contextClassLoader : urlClassLoader,
+                                      classpathAdditions,
+                                      launchPlan.getCacheDirectory().resolve("beans"));
+    }
+    
+    try {
+      if (urlClassLoader != null) {      
+        Thread.currentThread().setContextClassLoader(urlClassLoader);
+      }
+      final Consumer<SeContainer> recorder;
+      if (urlClassLoader != null && (launchPlan.isRecordClassLoadOrder() || proxyDumpDirectory != null)) {
+        recorder = c -> {
+          if (launchPlan.isRecordClassLoadOrder()) {
+            launchPlan.setClassLoadOrder(classpathAdditions, urlClassLoader.stopRecording());
+          }
+          collectProxyClasses(proxyClassCache, proxyDumpDirectory, urlClassLoader);
+        };
+      } else {
+        recorder = null;
+      }
+      org.microbean.main.Main.main(initializer, recorder, launchPlan.getRemainingCommandLineArguments());
+    } finally {
+      Thread.currentThread().setContextClassLoader(contextClassLoader);
+    }
+  }
+
+  /**
+   * Starts one {@linkplain SeContainer CDI container} per
+   * application described by the supplied {@link LaunchPlan}, each
+   * on its own thread and with its own {@link ClassLoader}, and waits
+   * for all of them to finish.
+   *
+   * <p>The supplied {@code initializer} is used for the first
+   * application; the return value of {@link
+   * SeContainerInitializer#newInstance()} is used for the rest.  Each
+   * container's command line arguments are exposed by a {@link
+   * CommandLineArgumentsExtension} rather than by {@link
+   * org.microbean.main.Main}, whose arguments are shared by every
+   * container in the JVM.</p>
+   *
+   * @param initializer the {@link SeContainerInitializer} to use for
+   * the first application; may be {@code null}
+   *
+   * @param consumer a {@link Consumer} of each {@link SeContainer};
+   * may be {@code null}
+   *
+   * @param launchPlan the {@link LaunchPlan} describing each
+   * application; must not be {@code null}
+   *
+   * @param applicationNames the names of the applications to start;
+   * must not be {@code null}
+   *
+   * @exception MalformedURLException if there was a problem
+   * formulating a classpath {@link URL}
+   *
+   * @exception NullPointerException if {@code launchPlan} or {@code
+   * applicationNames} is {@code null}
+   *
+   * @see LaunchPlan#getApplicationNames()
+   */
+  private static final void launch(final SeContainerInitializer initializer,
+                                   final Consumer<? super SeContainer> consumer,
+                                   final LaunchPlan launchPlan,
+                                   final Set<String> applicationNames)
+    throws MalformedURLException {
+    final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    final List<Thread> threads = new ArrayList<>(applicationNames.size());
+    final List<Throwable> failures = Collections.synchronizedList(new ArrayList<>());
+    boolean first = true;
+    for (final String applicationName : applicationNames) {
+      final SeContainerInitializer applicationInitializer;
+      if (first && initializer != null) {
+        applicationInitializer = initializer;
+      } else {
+        applicationInitializer = SeContainerInitializer.newInstance();
+      }
+      first = false;
+      final Set<URI> classpath = launchPlan.getClasspath(applicationName);
+      final ProxyClassCache proxyClassCache = newProxyClassCache(applicationInitializer, launchPlan);
+      final LauncherClassLoader urlClassLoader = newClassLoader(classpath, contextClassLoader, launchPlan, proxyClassCache);
+      if (urlClassLoader != null) {
+        applicationInitializer.setClassLoader(urlClassLoader);
+      }
+      final Path proxyDumpDirectory = urlClassLoader == null ? null : dumpProxyClasses(applicationInitializer, proxyClassCache);
+      if (launchPlan.isIndexBeanArchives()) {
+        BeanArchiveConfigurer.configure(applicationInitializer,
+                                        urlClassLoader == null ? contextClassLoader : urlClassLoader,
+                                        classpath,
+                                        launchPlan.getCacheDirectory().resolve("beans"));
+      }
+      applicationInitializer.addExtensions(new CommandLineArgumentsExtension(launchPlan.getRemainingCommandLineArguments(applicationName)));
+      final Thread thread = new Thread(() -> {
+          try (final SeContainer container = applicationInitializer.initialize()) {
+            if (urlClassLoader != null && launchPlan.isRecordClassLoadOrder()) {
+              launchPlan.setClassLoadOrder(classpath, urlClassLoader.stopRecording());
+            }
+            collectProxyClasses(proxyClassCache, proxyDumpDirectory, urlClassLoader);
+            if (consumer != null) {
+              consumer.accept(container);
+            }
+          } catch (final RuntimeException | Error throwable) {
+            failures.add(throwable);
+          }
+        }, "microbean-launcher-" + applicationName);
+      thread.setContextClassLoader(urlClassLoader == null ? contextClassLoader : urlClassLoader);
+      threads.add(thread);
+    }
+    for (final Thread thread : threads) {
+      thread.start();
+    }
+    boolean interrupted = false;
+    for (final Thread thread : threads) {
+      while (thread.isAlive()) {
+        try {
+          thread.join();
+        } catch (final InterruptedException interruptedException) {
+          interrupted = true;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (failures) {
+      if (!failures.isEmpty()) {
+        final Throwable failure = failures.get(0);
+        for (int i = 1; i < failures.size(); i++) {
+          failure.addSuppressed(failures.get(i));
+        }
+        if (failure instanceof Error) {
+          throw (Error)failure;
+        }
+        throw (RuntimeException)failure;
+      }
+    }
+  }
+
+  /**
+   * Resolves dependencies in process, using the supplied {@code
+   * bootstrapInitializer}, and returns the {@link ClasspathExporter}
+   * that did so.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param bootstrapInitializer the {@link SeContainerInitializer} to
+   * use while performing dependency resolution; may be {@code null}
+   * in which case the return value of {@link
+   * SeContainerInitializer#newInstance()} will be used instead
+   *
+   * @param commandLineArguments the command line arguments; may be
+   * {@code null}
+   *
+   * @return a non-{@code null} {@link ClasspathExporter}
+   *
+   * @see #main(SeContainerInitializer, SeContainerInitializer, Consumer, String[])
+   */
+  static final ClasspathExporter resolve(SeContainerInitializer bootstrapInitializer, final String[] commandLineArguments) {
     if (bootstrapInitializer == null) {
       bootstrapInitializer = SeContainerInitializer.newInstance();
     }
     assert bootstrapInitializer != null;
-    bootstrapInitializer.addExtensions(new MavenExtension());
+    bootstrapInitializer.addExtensions(new MavenExtension(), new EffectiveSettingsCache());
     bootstrapInitializer.addBeanClasses(ClasspathExporter.class, org.microbean.main.Main.class);
 
     final ClasspathExporter[] exporterHolder = new ClasspathExporter[1];
     org.microbean.main.Main.main(bootstrapInitializer, c -> exporterHolder[0] = c.select(ClasspathExporter.class).get(), commandLineArguments);
     final ClasspathExporter exporter = exporterHolder[0];
     assert exporter != null;
-    final Set<URI> classpathAdditions = exporter.getClasspath();
-    
-    if (initializer == null) {
-      initializer = SeContainerInitializer.newInstance();
+    return exporter;
+  }
+
+  /**
+   * Returns the {@link Path} of the {@linkplain Bake baked} directory
+   * named by the {@code microbean.launcher.baked} system property or
+   * the {@code --baked} command line option, in that order of
+   * precedence, or {@code null} if there is none.
+   *
+   * <p>Command line arguments following a {@code --} are not
+   * considered.</p>
+   *
+   * @param commandLineArguments the command line arguments; may be
+   * {@code null}
+   *
+   * @return the {@link Path} of the baked directory, or {@code null}
+   */
+  private static final Path getBakedDirectory(final String[] commandLineArguments) {
+    final String bakedDirectory = System.getProperty("microbean.launcher.baked");
+    if (bakedDirectory != null && !bakedDirectory.isEmpty()) {
+      return Paths.get(bakedDirectory);
     }
-    final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
-    URLClassLoader urlClassLoader = null;
-    if (classpathAdditions != null && !classpathAdditions.isEmpty()) {
-      final URL[] urls = new URL[classpathAdditions.size()];
-      int i = 0;
-      for (final URI uri : classpathAdditions) {
-        urls[i++] = uri.toURL();
+    if (commandLineArguments != null) {
+      for (int i = 0; i < commandLineArguments.length; i++) {
+        if ("--".equals(commandLineArguments[i])) {
+          break;
+        } else if ("--baked".equals(commandLineArguments[i])) {
+          if (i + 1 >= commandLineArguments.length) {
+            throw new IllegalArgumentException("--baked requires a directory");
+          }
+          return Paths.get(commandLineArguments[i + 1]);
+        }
       }
-      urlClassLoader = doPrivileged((PrivilegedAction<URLClassLoader>)() -> new URLClassLoader(urls, contextClassLoader));
-      initializer.setClassLoader(urlClassLoader);
     }
-    
-    try {
-      if (urlClassLoader != null) {      
-        Thread.currentThread().setContextClassLoader(urlClassLoader);
+    return null;
+  }
+
+  /**
+   * Returns the supplied command line arguments less any {@code
+   * --baked} command line option and its value and less a leading
+   * {@code --}, or {@code null} if there are none left.
+   *
+   * @param commandLineArguments the command line arguments; may be
+   * {@code null}
+   *
+   * @return the command line arguments to pass to a {@linkplain
+   * Bake baked} application, or {@code null}
+   *
+   * @see BakedLaunchPlan#read(Path, String[])
+   */
+  private static final String[] getBakedCommandLineArguments(final String[] commandLineArguments) {
+    if (commandLineArguments == null) {
+      return null;
+    }
+    final List<String> returnValue = new ArrayList<>(commandLineArguments.length);
+    boolean options = true;
+    for (int i = 0; i < commandLineArguments.length; i++) {
+      final String commandLineArgument = commandLineArguments[i];
+      if (options && "--baked".equals(commandLineArgument)) {
+        i++;
+      } else if (options && "--".equals(commandLineArgument)) {
+        options = false;
+      } else {
+        returnValue.add(commandLineArgument);
+      }
+    }
+    if (returnValue.isEmpty()) {
+      return null;
+    }
+    return returnValue.toArray(new String[returnValue.size()]);
+  }
+
+  /**
+   * Returns {@code true} if dependencies should be resolved in a
+   * {@linkplain ResolverProcess child JVM}, either because the
+   * supplied command line arguments include {@code --forkResolution}
+   * or because the {@code microbean.launcher.forkResolution} system
+   * property is {@code true}.
+   *
+   * <p>The command line arguments are examined directly, rather than
+   * parsed, since parsing them would require the very container this
+   * option avoids starting.</p>
+   *
+   * @param commandLineArguments the command line arguments; may be
+   * {@code null}
+   *
+   * @return {@code true} if dependencies should be resolved out of
+   * process
+   */
+  private static final boolean isForkResolution(final String[] commandLineArguments) {
+    if (Boolean.getBoolean("microbean.launcher.forkResolution")) {
+      return true;
+    }
+    if (commandLineArguments != null) {
+      for (final String commandLineArgument : commandLineArguments) {
+        if ("--".equals(commandLineArgument)) {
+          break;
+        } else if ("--forkResolution".equals(commandLineArgument)) {
+          return true;
+        }
       }
-      org.microbean.main.Main.main(initializer, null, exporter.getRemainingCommandLineArguments());
+    }
+    return false;
+  }
+
+  /**
+   * Returns a new {@link LauncherClassLoader} over the supplied
+   * classpath {@link URI}s with the supplied parent, or {@code null}
+   * if there are no such {@link URI}s.
+   *
+   * <p>If the supplied {@link LaunchPlan} says so, the new {@link
+   * LauncherClassLoader} {@linkplain
+   * LaunchPlan#isRecordClassLoadOrder() records} the order in
+   * which it defines classes, or immediately starts {@linkplain
+   * LauncherClassLoader#preload(List) preloading} a {@linkplain
+   * LaunchPlan#getClassLoadOrder(java.util.Collection)
+   * previously recorded order} in the background.</p>
+   *
+   * @param classpath the classpath {@link URI}s; may be {@code null}
+   *
+   * @param parent the parent {@link ClassLoader}; may be {@code null}
+   *
+   * @param launchPlan the {@link LaunchPlan} governing class
+   * load order recording and replay; must not be {@code null}
+   *
+   * @param proxyClassCache the {@link ProxyClassCache} from which
+   * the new {@link LauncherClassLoader} should define proxy classes;
+   * may be {@code null}
+   *
+   * @return a new {@link LauncherClassLoader}, or {@code null}
+   *
+   * @exception MalformedURLException if there was a problem
+   * formulating a classpath {@link URL}
+   *
+   * @exception NullPointerException if {@code launchPlan} is {@code
+   * null}
+   */
+  private static final LauncherClassLoader newClassLoader(final Set<URI> classpath,
+                                                         final ClassLoader parent,
+                                                         final LaunchPlan launchPlan,
+                                                         final ProxyClassCache proxyClassCache)
+    throws MalformedURLException {
+    if (classpath == null || classpath.isEmpty()) {
+      return null;
+    }
+    final URL[] urls = new URL[classpath.size()];
+    int i = 0;
+    for (final URI uri : classpath) {
+      urls[i++] = uri.toURL();
+    }
+    final LauncherClassLoader returnValue =
+      doPrivileged((PrivilegedAction<LauncherClassLoader>)() -> new LauncherClassLoader(urls, parent, launchPlan.isRecordClassLoadOrder(), proxyClassCache));
+    if (launchPlan.isReplayClassLoadOrder()) {
+      returnValue.preload(launchPlan.getClassLoadOrder(classpath));
+    }
+    return returnValue;
+  }
+
+  /**
+   * Starts the "real" {@linkplain SeContainer CDI container}, and
+   * restarts it whenever a resolved {@code SNAPSHOT} artifact
+   * changes, until the calling thread is interrupted.
+   *
+   * <p>The classpath described by the supplied {@link LaunchPlan} is
+   * split in two.  Artifacts that are not {@code SNAPSHOT}s are
+   * loaded by a {@link LauncherClassLoader} that is retained for the
+   * life of this method, and closed when it returns.  {@code
+   * SNAPSHOT} artifacts are loaded by a child {@link
+   * LauncherClassLoader} that is discarded, together with the
+   * container, whenever any of them changes.  Classes in retained
+   * artifacts therefore cannot refer to classes in {@code SNAPSHOT}
+   * artifacts.</p>
+   *
+   * <p>If the supplied {@link LaunchPlan} {@linkplain
+   * LaunchPlan#isWarmClasspath() warms the classpath}, then the
+   * changed {@code SNAPSHOT} artifacts are warmed again before each
+   * restart.  Class load orders and proxy class caches, which are
+   * keyed by artifacts that are about to change, are never used, and
+   * the {@link ClasspathExporter} refuses to combine the options
+   * that call for them with {@code --watch}.</p>
+   *
+   * <p>A container that fails to start is reported, and started
+   * again after the next change.</p>
+   *
+   * @param initializer the {@link SeContainerInitializer} to use for
+   * the first start; may be {@code null}
+   *
+   * @param initializers a {@link Supplier} of the {@link
+   * SeContainerInitializer}s to use for later starts, and for the
+   * first if {@code initializer} is {@code null}; must not be {@code
+   * null}
+   *
+   * @param consumer a {@link Consumer} of each {@link SeContainer}
+   * started; may be {@code null}
+   *
+   * @param launchPlan the {@link LaunchPlan} in question; must not be
+   * {@code null}
+   *
+   * @param contextClassLoader the {@link ClassLoader} to use as the
+   * parent of the retained {@link LauncherClassLoader}; may be {@code
+   * null}
+   *
+   * @return {@code true} if the container was run; {@code false} if
+   * there are no {@code SNAPSHOT} artifacts to watch
+   *
+   * @exception MalformedURLException if there was a problem
+   * formulating a classpath {@link URL}
+   *
+   * @exception UncheckedIOException if the {@code SNAPSHOT}
+   * artifacts could not be watched
+   */
+  static final boolean watch(final SeContainerInitializer initializer,
+                             final Supplier<? extends SeContainerInitializer> initializers,
+                             final Consumer<? super SeContainer> consumer,
+                             final LaunchPlan launchPlan,
+                             final ClassLoader contextClassLoader)
+    throws MalformedURLException {
+    final Set<URI> retainedClasspath = new LinkedHashSet<>();
+    final Set<URI> snapshotClasspath = new LinkedHashSet<>();
+    final List<Path> snapshotFiles = new ArrayList<>();
+    for (final URI uri : launchPlan.getClasspath()) {
+      if ("file".equals(uri.getScheme()) && SnapshotWatcher.isSnapshot(Paths.get(uri))) {
+        snapshotClasspath.add(uri);
+        snapshotFiles.add(Paths.get(uri));
+      } else {
+        retainedClasspath.add(uri);
+      }
+    }
+    if (snapshotFiles.isEmpty()) {
+      return false;
+    }
+    final Logger logger = LoggerFactory.getLogger(Main.class);
+    final LauncherClassLoader retainedClassLoader = newClassLoader(retainedClasspath, contextClassLoader);
+    final ClassLoader parent = retainedClassLoader == null ? contextClassLoader : retainedClassLoader;
+    try (final SnapshotWatcher watcher = new SnapshotWatcher(snapshotFiles)) {
+      SeContainerInitializer nextInitializer = initializer;
+      while (!Thread.currentThread().isInterrupted()) {
+        final SeContainerInitializer currentInitializer = nextInitializer == null ? initializers.get() : nextInitializer;
+        nextInitializer = null;
+        final LauncherClassLoader snapshotClassLoader = newClassLoader(snapshotClasspath, parent);
+        assert snapshotClassLoader != null;
+        currentInitializer.setClassLoader(snapshotClassLoader);
+        currentInitializer.addExtensions(new CommandLineArgumentsExtension(launchPlan.getRemainingCommandLineArguments()));
+        if (launchPlan.isIndexBeanArchives()) {
+          // The retained artifacts are found through the snapshot
+          // ClassLoader's parent.
+          BeanArchiveConfigurer.configure(currentInitializer,
+                                          snapshotClassLoader,
+                                          snapshotClasspath,
+                                          launchPlan.getCacheDirectory().resolve("beans"));
+        }
+        Thread.currentThread().setContextClassLoader(snapshotClassLoader);
+        try {
+          final long start = System.nanoTime();
+          try (final SeContainer container = currentInitializer.initialize()) {
+            logger.info("Application container started in {} ms; watching {} SNAPSHOT artifact(s)",
+                        Long.valueOf(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)),
+                        Integer.valueOf(snapshotFiles.size()));
+            if (consumer != null) {
+              consumer.accept(container);
+            }
+            restart(watcher, launchPlan, logger);
+          } catch (final RuntimeException runtimeException) {
+            logger.error("The application container failed; it will be restarted when a SNAPSHOT artifact changes", runtimeException);
+            restart(watcher, launchPlan, logger);
+          }
+        } catch (final InterruptedException interruptedException) {
+          Thread.currentThread().interrupt();
+        } finally {
+          Thread.currentThread().setContextClassLoader(contextClassLoader);
+          try {
+            snapshotClassLoader.close();
+          } catch (final IOException ioException) {
+            // The next ClassLoader opens the jar files afresh.
+          }
+        }
+      }
+    } catch (final IOException ioException) {
+      throw new UncheckedIOException("Could not watch SNAPSHOT artifacts", ioException);
     } finally {
-      Thread.currentThread().setContextClassLoader(contextClassLoader);
+      if (retainedClassLoader != null) {
+        try {
+          retainedClassLoader.close();
+        } catch (final IOException ioException) {
+          logger.warn("Could not close the ClassLoader of the retained artifacts", ioException);
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Waits for the supplied {@link SnapshotWatcher} to report changed
+   * {@code SNAPSHOT} artifacts, logs them, and {@linkplain
+   * ClasspathWarmer#warm(Collection) warms} them if the supplied
+   * {@link LaunchPlan} {@linkplain LaunchPlan#isWarmClasspath() calls
+   * for it}.
+   *
+   * @param watcher the {@link SnapshotWatcher} to wait for; must not
+   * be {@code null}
+   *
+   * @param launchPlan the {@link LaunchPlan} in question; must not be
+   * {@code null}
+   *
+   * @param logger the {@link Logger} to log with; must not be {@code
+   * null}
+   *
+   * @exception InterruptedException if the calling thread was
+   * interrupted while waiting
+   */
+  private static final void restart(final SnapshotWatcher watcher, final LaunchPlan launchPlan, final Logger logger) throws InterruptedException {
+    final Set<Path> changedFiles = watcher.await(WATCH_QUIET_PERIOD);
+    logger.info("Restarting the application container; changed: {}", changedFiles);
+    if (launchPlan.isWarmClasspath()) {
+      final List<URI> changedClasspath = new ArrayList<>(changedFiles.size());
+      for (final Path changedFile : changedFiles) {
+        changedClasspath.add(changedFile.toUri());
+      }
+      ClasspathWarmer.warm(changedClasspath);
+    }
+  }
+
+  /**
+   * Returns a new, non-recording {@link LauncherClassLoader} over the
+   * supplied classpath {@link URI}s with the supplied parent, or
+   * {@code null} if there are no such {@link URI}s.
+   *
+   * @param classpath the classpath {@link URI}s; may be {@code null}
+   *
+   * @param parent the parent {@link ClassLoader}; may be {@code null}
+   *
+   * @return a new {@link LauncherClassLoader}, or {@code null}
+   *
+   * @exception MalformedURLException if there was a problem
+   * formulating a classpath {@link URL}
+   */
+  private static final LauncherClassLoader newClassLoader(final Set<URI> classpath, final ClassLoader parent) throws MalformedURLException {
+    if (classpath == null || classpath.isEmpty()) {
+      return null;
+    }
+    final URL[] urls = new URL[classpath.size()];
+    int i = 0;
+    for (final URI uri : classpath) {
+      urls[i++] = uri.toURL();
+    }
+    return doPrivileged((PrivilegedAction<LauncherClassLoader>)() -> new LauncherClassLoader(urls, parent, false, null));
+  }
+
+  /**
+   * Returns a new {@link ProxyClassCache} for proxy classes generated
+   * by the container that the supplied {@link
+   * SeContainerInitializer} will start, or {@code null} if the
+   * supplied {@link LaunchPlan} does not {@linkplain
+   * LaunchPlan#isCacheProxyClasses() call for one}.
+   *
+   * @param initializer the {@link SeContainerInitializer} in
+   * question; must not be {@code null}
+   *
+   * @param launchPlan the {@link LaunchPlan} in question; must not be
+   * {@code null}
+   *
+   * @return a new {@link ProxyClassCache}, or {@code null}
+   *
+   * @exception NullPointerException if either parameter is {@code
+   * null}
+   */
+  private static final ProxyClassCache newProxyClassCache(final SeContainerInitializer initializer, final LaunchPlan launchPlan) {
+    if (!launchPlan.isCacheProxyClasses()) {
+      return null;
+    }
+    return new ProxyClassCache(launchPlan.getCacheDirectory().resolve("proxies"),
+                               ProxyClassCache.getContainerVersion(initializer.getClass()));
+  }
+
+  /**
+   * Tells the container that the supplied {@link
+   * SeContainerInitializer} will start to {@linkplain
+   * ProxyClassCache#DUMP_PROPERTY dump} the proxy classes it
+   * generates into a new directory, and returns that directory, or
+   * {@code null} if there is no {@link ProxyClassCache} or the
+   * directory could not be created.
+   *
+   * @param initializer the {@link SeContainerInitializer} to
+   * configure; must not be {@code null}
+   *
+   * @param proxyClassCache the {@link ProxyClassCache} that will
+   * {@linkplain ProxyClassCache#collect(Path, ClassLoader) collect}
+   * the dumped classes; may be {@code null}
+   *
+   * @return the {@link Path} of the dump directory, or {@code null}
+   *
+   * @see #collectProxyClasses(ProxyClassCache, Path, ClassLoader)
+   */
+  private static final Path dumpProxyClasses(final SeContainerInitializer initializer, final ProxyClassCache proxyClassCache) {
+    if (proxyClassCache == null) {
+      return null;
+    }
+    final Path returnValue;
+    try {
+      returnValue = proxyClassCache.newDumpDirectory();
+    } catch (final IOException ioException) {
+      // Caching is an optimization only.
+      LoggerFactory.getLogger(Main.class).warn("Could not create a proxy class dump directory; proxy classes will not be cached", ioException);
+      return null;
+    }
+    initializer.addProperty(ProxyClassCache.DUMP_PROPERTY, returnValue.toString());
+    return returnValue;
+  }
+
+  /**
+   * Stores the proxy classes dumped into the supplied directory in
+   * the supplied {@link ProxyClassCache}, if both are non-{@code
+   * null}.
+   *
+   * @param proxyClassCache the {@link ProxyClassCache}; may be {@code
+   * null}
+   *
+   * @param dumpDirectory the {@link Path} of the dump directory; may
+   * be {@code null}
+   *
+   * @param classLoader the {@link ClassLoader} that defined the proxy
+   * classes; must not be {@code null}
+   *
+   * @see #dumpProxyClasses(SeContainerInitializer, ProxyClassCache)
+   */
+  private static final void collectProxyClasses(final ProxyClassCache proxyClassCache, final Path dumpDirectory, final ClassLoader classLoader) {
+    if (proxyClassCache != null && dumpDirectory != null) {
+      try {
+        proxyClassCache.collect(dumpDirectory, classLoader);
+      } catch (final IOException ioException) {
+        // Caching is an optimization only.
+        LoggerFactory.getLogger(Main.class).warn("Could not cache the proxy classes dumped into " + dumpDirectory, ioException);
+      }
     }
   }
   
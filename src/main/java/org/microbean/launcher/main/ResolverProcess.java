@@ -0,0 +1,84 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher.main;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import org.microbean.launcher.ClasspathExporter;
+
+/**
+ * The entry point of the short-lived child JVM that {@link Main}
+ * starts to resolve dependencies out of process when the {@code
+ * --forkResolution} command line option is present.
+ *
+ * <p>The child JVM resolves dependencies exactly as {@link Main}
+ * does in process, then writes the resulting {@linkplain
+ * org.microbean.launcher.LaunchPlan launch plan} to its standard
+ * output and exits.  Anything else that would have been written to
+ * standard output is written to standard error instead.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see Main
+ */
+public final class ResolverProcess {
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ResolverProcess}.
+   */
+  private ResolverProcess() {
+    super();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Resolves dependencies according to the supplied command line
+   * arguments and writes the resulting launch plan to standard
+   * output.
+   *
+   * @param commandLineArguments the command line arguments; may be
+   * {@code null}
+   *
+   * @exception IOException if there was a problem writing to
+   * standard output
+   */
+  public static final void main(final String[] commandLineArguments) throws IOException {
+    final PrintStream pipe = System.out;
+    System.setOut(System.err);
+    final ClasspathExporter exporter = Main.resolve(null, commandLineArguments);
+    assert exporter != null;
+    final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(pipe));
+    ForkedLaunchPlan.write(exporter, exporter.getCacheDirectory(), out);
+    out.flush();
+  }
+
+}
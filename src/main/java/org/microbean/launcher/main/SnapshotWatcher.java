@@ -0,0 +1,204 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher.main;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link Closeable} that watches a set of resolved {@code SNAPSHOT}
+ * artifact files for changes, such as those made when they are
+ * rebuilt and installed into the local repository.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see #await(long)
+ *
+ * @see Main
+ */
+final class SnapshotWatcher implements Closeable {
+
+
+  /*
+   * Instance fields.
+   */
+
+
+  /**
+   * The {@link WatchService} watching the directories containing the
+   * {@linkplain #files watched files}.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final WatchService watchService;
+
+  /**
+   * The absolute, normalized {@link Path}s of the watched files.
+   *
+   * <p>This field is never {@code null}.</p>
+   */
+  private final Set<Path> files;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link SnapshotWatcher}.
+   *
+   * @param files the {@link Path}s of the files to watch; must not
+   * be {@code null}
+   *
+   * @exception IOException if the files' directories could not be
+   * watched
+   *
+   * @exception NullPointerException if {@code files} is {@code null}
+   */
+  SnapshotWatcher(final Collection<? extends Path> files) throws IOException {
+    super();
+    final Set<Path> absoluteFiles = new LinkedHashSet<>();
+    for (final Path file : files) {
+      absoluteFiles.add(file.toAbsolutePath().normalize());
+    }
+    this.files = Collections.unmodifiableSet(absoluteFiles);
+    this.watchService = FileSystems.getDefault().newWatchService();
+    try {
+      final Set<Path> directories = new LinkedHashSet<>();
+      for (final Path file : this.files) {
+        final Path directory = file.getParent();
+        if (directory != null && directories.add(directory)) {
+          directory.register(this.watchService,
+                             StandardWatchEventKinds.ENTRY_CREATE,
+                             StandardWatchEventKinds.ENTRY_MODIFY,
+                             StandardWatchEventKinds.ENTRY_DELETE);
+        }
+      }
+    } catch (final IOException | RuntimeException exception) {
+      this.watchService.close();
+      throw exception;
+    }
+  }
+
+
+  /*
+   * Instance methods.
+   */
+
+
+  /**
+   * Blocks until at least one watched file has changed and no
+   * further changes have been seen for the supplied quiet period, so
+   * that a file being rewritten is not read half-written, and
+   * returns the {@link Path}s of the files that changed.
+   *
+   * <p>This method never returns {@code null}.</p>
+   *
+   * @param quietPeriod the number of milliseconds without changes to
+   * wait for after the first change
+   *
+   * @return a non-{@code null}, non-empty {@link Set} of the {@link
+   * Path}s of the files that changed
+   *
+   * @exception InterruptedException if the calling thread was
+   * interrupted while waiting
+   *
+   * @exception java.nio.file.ClosedWatchServiceException if this
+   * {@link SnapshotWatcher} was {@linkplain #close() closed}
+   */
+  final Set<Path> await(final long quietPeriod) throws InterruptedException {
+    final Set<Path> changedFiles = new LinkedHashSet<>();
+    WatchKey key = this.watchService.take();
+    while (true) {
+      if (key == null) {
+        if (!changedFiles.isEmpty()) {
+          return changedFiles;
+        }
+        key = this.watchService.take();
+      }
+      final Path directory = (Path)key.watchable();
+      for (final WatchEvent<?> event : key.pollEvents()) {
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+          changedFiles.addAll(this.files);
+        } else {
+          final Path file = directory.resolve((Path)event.context());
+          if (this.files.contains(file)) {
+            changedFiles.add(file);
+          }
+        }
+      }
+      key.reset();
+      key = this.watchService.poll(quietPeriod, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Stops watching.
+   *
+   * @exception IOException if there was a problem closing the
+   * underlying {@link WatchService}
+   */
+  @Override
+  public final void close() throws IOException {
+    this.watchService.close();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Returns {@code true} if the supplied {@link Path} is that of a
+   * {@code SNAPSHOT} artifact in a Maven repository, i.e. if it lies
+   * in a directory whose name, the artifact's base version, ends
+   * with {@code -SNAPSHOT}.
+   *
+   * @param file the {@link Path} in question; may be {@code null}
+   *
+   * @return {@code true} if the supplied {@link Path} is that of a
+   * {@code SNAPSHOT} artifact
+   */
+  static final boolean isSnapshot(final Path file) {
+    if (file != null) {
+      final Path directory = file.toAbsolutePath().getParent();
+      if (directory != null) {
+        final Path directoryName = directory.getFileName();
+        return directoryName != null && directoryName.toString().endsWith("-SNAPSHOT");
+      }
+    }
+    return false;
+  }
+
+}
@@ -0,0 +1,265 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.eclipse.aether.artifact.DefaultArtifact;
+
+import org.eclipse.aether.graph.Dependency;
+
+import org.eclipse.aether.util.artifact.JavaScopes;
+
+/**
+ * A benchmark, run by hand rather than as part of the build, that
+ * compares the time taken and memory allocated by {@link
+ * ArtifactPathParser} with those of the regular expression based
+ * parsing it replaced, and checks that both produce equal {@link
+ * Dependency} instances.
+ *
+ * <p>Run it with the test classpath, preferably with a fixed heap,
+ * for example {@code -Xms2g -Xmx2g -XX:+UseParallelGC}.  The first
+ * argument, if any, is the number of coordinates to parse; the
+ * default is 50,000.  Timings and allocations are printed for each
+ * of the last ten of forty rounds, after the first thirty have
+ * warmed up both implementations.  Allocations are reported only on
+ * platforms whose {@link ThreadMXBean} can measure them.</p>
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ArtifactPathParser
+ */
+public final class ArtifactPathParserBenchmark {
+
+
+  /*
+   * Static fields.
+   */
+
+
+  /**
+   * The number of rounds to run.
+   */
+  private static final int ROUNDS = 40;
+
+  /**
+   * The number of initial rounds whose results are not printed.
+   */
+  private static final int WARMUP_ROUNDS = 30;
+
+
+  /*
+   * Constructors.
+   */
+
+
+  /**
+   * Creates a new {@link ArtifactPathParserBenchmark}.
+   */
+  private ArtifactPathParserBenchmark() {
+    super();
+  }
+
+
+  /*
+   * Static methods.
+   */
+
+
+  /**
+   * Runs the benchmark.
+   *
+   * @param args the command line arguments; the first, if any, is
+   * the number of coordinates to parse; may be {@code null}
+   *
+   * @exception IOException if there was a problem reading
+   *
+   * @exception NumberFormatException if the first argument is not an
+   * integer
+   *
+   * @exception IllegalStateException if the two implementations
+   * produced different results
+   */
+  public static final void main(final String[] args) throws IOException {
+    final int size = args == null || args.length <= 0 ? 50000 : Integer.parseInt(args[0]);
+    final String artifactPath = newArtifactPath(size);
+    for (int round = 0; round < ROUNDS; round++) {
+      final List<Dependency> expected = new ArrayList<>(size);
+      final List<Dependency> actual = new ArrayList<>(size);
+
+      final long startAllocation = allocatedBytes();
+      final long start = System.nanoTime();
+      split(artifactPath, null, expected);
+      final long splitTime = System.nanoTime();
+      final long splitAllocation = allocatedBytes();
+      new ArtifactPathParser("benchmark", null, actual).parse(new StringReader(artifactPath));
+      final long parseTime = System.nanoTime();
+      final long parseAllocation = allocatedBytes();
+
+      if (!expected.equals(actual)) {
+        throw new IllegalStateException("Round " + round + " produced different dependencies");
+      }
+      if (round >= WARMUP_ROUNDS) {
+        System.out.printf("split: %.1f ms %s   parser: %.1f ms %s%n",
+                          Double.valueOf((splitTime - start) / 1e6), megabytes(startAllocation, splitAllocation),
+                          Double.valueOf((parseTime - splitTime) / 1e6), megabytes(splitAllocation, parseAllocation));
+      }
+    }
+  }
+
+  /**
+   * Returns an artifact path of the supplied number of coordinates,
+   * mixing three- and six-component forms and comma and space
+   * separators, with group identifiers and versions that repeat as
+   * they do in an exported bill of materials.
+   *
+   * @param size the number of coordinates
+   *
+   * @return a non-{@code null} artifact path
+   */
+  private static final String newArtifactPath(final int size) {
+    final StringBuilder sb = new StringBuilder(size * 48);
+    for (int i = 0; i < size; i++) {
+      sb.append("org.example.group").append(i % 40).append(":artifact-").append(i).append(":1.").append(i % 7).append(".0");
+      if (i % 3 == 0) {
+        sb.append(":jar::compile");
+      }
+      sb.append(i % 2 == 0 ? ',' : ' ');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Parses the supplied artifact path into {@link Dependency}
+   * instances the way {@link ClasspathExporter} did before {@link
+   * ArtifactPathParser} existed, by splitting it with regular
+   * expressions.
+   *
+   * @param artifactPath the artifact path; must not be {@code null}
+   *
+   * @param defaultGroupId the group identifier to use for
+   * coordinates that do not specify one; may be {@code null}
+   *
+   * @param dependencies the {@link Collection} to which parsed {@link
+   * Dependency} instances will be added; must not be {@code null}
+   *
+   * @exception IllegalArgumentException if any coordinates could not
+   * be parsed
+   */
+  private static final void split(final String artifactPath, final String defaultGroupId, final Collection<? super Dependency> dependencies) {
+    for (final String gav : artifactPath.split("[, ]+")) {
+      final String[] components = gav.split(":");
+      String groupId = null;
+      String artifactId = null;
+      String version = null;
+      String classifier = null;
+      String packaging = "jar";
+      String scope = JavaScopes.COMPILE;
+      switch (components.length) {
+      case 1:
+        artifactId = components[0];
+        break;
+      case 2:
+        if (components[1].isEmpty()) {
+          throw new IllegalArgumentException("Unrecognized artifact coordinates: " + gav);
+        } else if (Character.isDigit(components[1].charAt(0))) {
+          artifactId = components[0];
+          version = components[1];
+        } else {
+          groupId = components[0];
+          artifactId = components[1];
+        }
+        break;
+      case 6:
+        scope = components[5];
+        // fall through
+      case 5:
+        classifier = components[4];
+        // fall through
+      case 4:
+        packaging = components[3];
+        // fall through
+      case 3:
+        groupId = components[0];
+        artifactId = components[1];
+        version = components[2];
+        break;
+      default:
+        throw new IllegalArgumentException("Unrecognized artifact coordinates: " + gav);
+      }
+      if (groupId == null || groupId.isEmpty()) {
+        groupId = defaultGroupId;
+      }
+      if (groupId == null || groupId.isEmpty() || artifactId.isEmpty()) {
+        throw new IllegalArgumentException("Unrecognized artifact coordinates: " + gav);
+      }
+      if (version == null || version.isEmpty()) {
+        version = "LATEST";
+      }
+      if (packaging.isEmpty()) {
+        packaging = "jar";
+      }
+      if (scope.isEmpty()) {
+        scope = JavaScopes.COMPILE;
+      }
+      dependencies.add(new Dependency(new DefaultArtifact(groupId, artifactId, classifier, packaging, version), scope));
+    }
+  }
+
+  /**
+   * Returns the number of bytes the current {@link Thread} has
+   * allocated, or {@code -1} if that cannot be measured.
+   *
+   * @return the number of bytes allocated, or {@code -1}
+   */
+  private static final long allocatedBytes() {
+    final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+      return ((com.sun.management.ThreadMXBean)threadMXBean).getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return -1L;
+  }
+
+  /**
+   * Returns a description of the number of megabytes allocated
+   * between the two supplied measurements.
+   *
+   * @param start the {@linkplain #allocatedBytes() allocated bytes}
+   * at the start
+   *
+   * @param end the {@linkplain #allocatedBytes() allocated bytes} at
+   * the end
+   *
+   * @return a non-{@code null} description
+   */
+  private static final String megabytes(final long start, final long end) {
+    if (start < 0L || end < 0L) {
+      return "(allocation not measured)";
+    }
+    return String.format("%.1f MB", Double.valueOf((end - start) / 1e6));
+  }
+
+}
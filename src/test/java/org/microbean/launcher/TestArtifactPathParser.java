@@ -0,0 +1,114 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.aether.artifact.Artifact;
+
+import org.eclipse.aether.graph.Dependency;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * A <a href="http://junit.org/junit4/">JUnit</a> test class that
+ * exercises the {@link ArtifactPathParser} class.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ArtifactPathParser
+ */
+public class TestArtifactPathParser {
+
+  /**
+   * Creates a new {@link TestArtifactPathParser}.
+   */
+  public TestArtifactPathParser() {
+    super();
+  }
+
+  @Test
+  public void testForms() {
+    final List<Dependency> dependencies = new ArrayList<>();
+    new ArtifactPathParser("test", "com.foobar", dependencies)
+      .parse("frobnicator, caturgiator:2.0 org.example:widget,org.example:gadget:1.0 , org.example:gizmo:1.0:war org.example:doohickey:1.0:jar:tests org.example:thing:1.0:jar::runtime org.example:trailing:1.0:zip::");
+    assertEquals(8, dependencies.size());
+    assertDependency(dependencies.get(0), "com.foobar:frobnicator:jar:LATEST", "compile");
+    assertDependency(dependencies.get(1), "com.foobar:caturgiator:jar:2.0", "compile");
+    assertDependency(dependencies.get(2), "org.example:widget:jar:LATEST", "compile");
+    assertDependency(dependencies.get(3), "org.example:gadget:jar:1.0", "compile");
+    assertDependency(dependencies.get(4), "org.example:gizmo:war:1.0", "compile");
+    assertDependency(dependencies.get(5), "org.example:doohickey:jar:tests:1.0", "compile");
+    assertDependency(dependencies.get(6), "org.example:thing:jar:1.0", "runtime");
+    assertDependency(dependencies.get(7), "org.example:trailing:zip:1.0", "compile");
+  }
+
+  @Test
+  public void testReader() throws IOException {
+    final List<Dependency> dependencies = new ArrayList<>();
+    new ArtifactPathParser("test", null, dependencies)
+      .parse(new StringReader("# exported coordinates\norg.example:a:1.0\r\n\torg.example:b:2.0 # b\n\n"));
+    assertEquals(2, dependencies.size());
+    assertDependency(dependencies.get(1), "org.example:b:jar:2.0", "compile");
+  }
+
+  @Test
+  public void testErrors() throws IOException {
+    assertError("org.example:a:1.0\n  org.example:b:1.0:jar:c:compile:x", "(test:2:35): more than 6 components");
+    assertError("org.example:", "(test:1:1): no groupId and no default groupId");
+    assertError("a:", "(test:1:1): no groupId and no default groupId");
+    assertError("org.example::1.0", "(test:1:13): empty artifactId");
+    assertError(":::", "(test:1:1): no components");
+  }
+
+  @Test
+  public void testErrorInSecondValue() {
+    final ArtifactPathParser parser = new ArtifactPathParser("test", null, new ArrayList<>());
+    parser.parse("org.example:a:1.0 org.example:b:1.0");
+    try {
+      parser.parse("org.example::1.0");
+      fail();
+    } catch (final IllegalArgumentException expected) {
+      assertTrue(expected.getMessage(), expected.getMessage().endsWith("(test:1:13): empty artifactId"));
+    }
+  }
+
+  private static final void assertError(final String artifactPath, final String expectedSuffix) throws IOException {
+    try {
+      new ArtifactPathParser("test", null, new ArrayList<>()).parse(new StringReader(artifactPath));
+      fail();
+    } catch (final IllegalArgumentException expected) {
+      assertTrue(expected.getMessage(), expected.getMessage().endsWith(expectedSuffix));
+    }
+  }
+
+  private static final void assertDependency(final Dependency dependency, final String expectedArtifact, final String expectedScope) {
+    final Artifact artifact = dependency.getArtifact();
+    assertEquals(expectedArtifact, artifact.toString());
+    assertEquals(expectedScope, dependency.getScope());
+  }
+
+}
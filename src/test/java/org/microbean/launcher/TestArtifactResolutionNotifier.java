@@ -0,0 +1,67 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.File;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositoryEvent;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A <a href="http://junit.org/junit4/">JUnit</a> test class that
+ * exercises the {@link ArtifactResolutionNotifier} class.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ArtifactResolutionNotifier
+ */
+public class TestArtifactResolutionNotifier {
+
+  /**
+   * Creates a new {@link TestArtifactResolutionNotifier}.
+   */
+  public TestArtifactResolutionNotifier() {
+    super();
+  }
+
+  @Test
+  public void testArtifactResolved() {
+    final List<ArtifactResolvedEvent> events = new ArrayList<>();
+    final ArtifactResolutionNotifier notifier = new ArtifactResolutionNotifier(events::add);
+    final DefaultRepositorySystemSession session = new DefaultRepositorySystemSession();
+    final Artifact jar = new DefaultArtifact("com.foobar:frobnicator:1.0").setFile(new File("frobnicator-1.0.jar"));
+    final Artifact pom = new DefaultArtifact("com.foobar:frobnicator:pom:1.0").setFile(new File("frobnicator-1.0.pom"));
+    final Artifact unresolved = new DefaultArtifact("com.foobar:caturgiator:1.0");
+    for (final Artifact artifact : new Artifact[] { jar, pom, unresolved, jar }) {
+      notifier.artifactResolved(new RepositoryEvent.Builder(session, RepositoryEvent.EventType.ARTIFACT_RESOLVED).setArtifact(artifact).build());
+    }
+    assertEquals(1, events.size());
+    assertEquals(jar, events.get(0).getArtifact());
+  }
+
+}
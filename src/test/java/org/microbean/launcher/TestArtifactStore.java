@@ -0,0 +1,104 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.IOException;
+
+import java.net.URI;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Set;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A <a href="http://junit.org/junit4/">JUnit</a> test class that
+ * exercises the {@link ArtifactStore} class.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ArtifactStore
+ */
+public class TestArtifactStore {
+
+  /**
+   * Creates a new {@link TestArtifactStore}.
+   */
+  public TestArtifactStore() {
+    super();
+  }
+
+  @Test
+  public void testIdenticalFilesShareOneObject() throws IOException {
+    final Path directory = Files.createTempDirectory("store");
+    final byte[] content = "shared".getBytes(StandardCharsets.UTF_8);
+    final Path a = Files.write(Files.createDirectories(directory.resolve("repository/a/1.0")).resolve("a-1.0.jar"), content);
+    final Path b = Files.write(Files.createDirectories(directory.resolve("repository/b/2.0")).resolve("b-2.0.jar"), content);
+    final Path c = Files.write(Files.createDirectories(directory.resolve("repository/c/3.0")).resolve("c-3.0.jar"), "other".getBytes(StandardCharsets.UTF_8));
+    final ArtifactStore store = new ArtifactStore(directory.resolve("store"));
+
+    final Set<URI> first = store.view(Arrays.asList(a.toUri(), c.toUri()));
+    final Set<URI> second = store.view(Arrays.asList(b.toUri(), c.toUri()));
+    assertEquals(2, first.size());
+    assertEquals(2, second.size());
+
+    final Iterator<URI> firstIterator = first.iterator();
+    final Iterator<URI> secondIterator = second.iterator();
+    final Path firstA = Paths.get(firstIterator.next());
+    final Path secondB = Paths.get(secondIterator.next());
+    assertFalse(firstA.getParent().equals(secondB.getParent()));
+    assertTrue(firstA.getFileName().toString().endsWith("a-1.0.jar"));
+    assertArrayEquals(content, Files.readAllBytes(firstA));
+    assertTrue(Files.isSameFile(firstA, secondB));
+    assertTrue(Files.isSameFile(Paths.get(firstIterator.next()), Paths.get(secondIterator.next())));
+
+    // Viewing the same classpath again reuses the same view.
+    assertEquals(first, store.view(Arrays.asList(a.toUri(), c.toUri())));
+  }
+
+  @Test
+  public void testRewrittenFilesDoNotChangeViews() throws IOException {
+    final Path directory = Files.createTempDirectory("store");
+    final byte[] content = "original".getBytes(StandardCharsets.UTF_8);
+    final Path a = Files.write(Files.createDirectories(directory.resolve("repository/a/1.0-SNAPSHOT")).resolve("a-1.0-SNAPSHOT.jar"), content);
+    final ArtifactStore store = new ArtifactStore(directory.resolve("store"));
+
+    final Path view = Paths.get(store.view(Arrays.asList(a.toUri())).iterator().next());
+    assertFalse(Files.isSameFile(a, view));
+
+    // Maven rewrites a SNAPSHOT in place.
+    Files.write(a, "rewritten".getBytes(StandardCharsets.UTF_8));
+    assertArrayEquals(content, Files.readAllBytes(view));
+    final Path newView = Paths.get(store.view(Arrays.asList(a.toUri())).iterator().next());
+    assertFalse(view.equals(newView));
+    assertArrayEquals("rewritten".getBytes(StandardCharsets.UTF_8), Files.readAllBytes(newView));
+  }
+
+}
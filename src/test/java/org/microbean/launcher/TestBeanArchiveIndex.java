@@ -0,0 +1,123 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A <a href="http://junit.org/junit4/">JUnit</a> test class that
+ * exercises the {@link BeanArchiveIndex} class.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see BeanArchiveIndex
+ */
+public class TestBeanArchiveIndex {
+
+  /**
+   * Creates a new {@link TestBeanArchiveIndex}.
+   */
+  public TestBeanArchiveIndex() {
+    super();
+  }
+
+  @Test
+  public void testAnnotatedBeanArchive() throws IOException {
+    final Path directory = Files.createTempDirectory("beans");
+    final Path jar = directory.resolve("test.jar");
+    final String beansXml =
+      "<beans xmlns=\"http://xmlns.jcp.org/xml/ns/javaee\" bean-discovery-mode=\"annotated\">" +
+      "<interceptors><class>com.foobar.Interceptor</class></interceptors>" +
+      "<alternatives><stereotype>com.foobar.Mock</stereotype></alternatives>" +
+      "</beans>";
+    try (final JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+      out.putNextEntry(new JarEntry("META-INF/beans.xml"));
+      out.write(beansXml.getBytes(StandardCharsets.UTF_8));
+      copyClass(Scoped.class, out);
+      copyClass(Unscoped.class, out);
+    }
+    final Path cache = directory.resolve("cache");
+    final BeanArchiveIndex index = BeanArchiveIndex.get(jar, cache);
+    assertTrue(index.isIndexable());
+    assertTrue(index.isBeanArchive());
+    assertEquals(BeanArchiveIndex.ANNOTATED, index.getDiscoveryMode());
+    assertEquals(Collections.singletonList(Scoped.class.getName()), index.getBeanClasses(BeanArchiveIndex.BEAN_DEFINING_ANNOTATIONS));
+    assertEquals(Collections.singletonList("com.foobar.Interceptor"), index.getInterceptors());
+    assertEquals(Collections.singletonList("com.foobar.Mock"), index.getAlternativeStereotypes());
+
+    // A second lookup must come from the cache.
+    final BeanArchiveIndex cached = BeanArchiveIndex.get(jar, cache);
+    assertEquals(index.getBeanClasses(BeanArchiveIndex.BEAN_DEFINING_ANNOTATIONS), cached.getBeanClasses(BeanArchiveIndex.BEAN_DEFINING_ANNOTATIONS));
+    assertEquals(index.getInterceptors(), cached.getInterceptors());
+    assertEquals(1L, Files.list(cache).filter(p -> p.toString().endsWith(".beans")).count());
+  }
+
+  @Test
+  public void testNotABeanArchive() throws IOException {
+    final Path jar = Files.createTempFile("plain", ".jar");
+    try (final JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+      copyClass(Scoped.class, out);
+    }
+    final BeanArchiveIndex index = BeanArchiveIndex.index(jar);
+    assertTrue(index.isIndexable());
+    assertFalse(index.isBeanArchive());
+    assertEquals(Collections.emptyList(), index.getBeanClasses(Arrays.asList(ApplicationScoped.class.getName())));
+  }
+
+  private static final void copyClass(final Class<?> c, final JarOutputStream out) throws IOException {
+    final String name = c.getName().replace('.', '/') + ".class";
+    out.putNextEntry(new JarEntry(name));
+    try (final InputStream in = c.getClassLoader().getResourceAsStream(name)) {
+      final byte[] buffer = new byte[4096];
+      int bytesRead;
+      while ((bytesRead = in.read(buffer)) >= 0) {
+        out.write(buffer, 0, bytesRead);
+      }
+    }
+  }
+
+  @ApplicationScoped
+  private static final class Scoped {
+
+  }
+
+  private static final class Unscoped {
+
+  }
+
+}
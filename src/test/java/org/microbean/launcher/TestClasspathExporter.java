@@ -0,0 +1,532 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.lang.reflect.Proxy;
+
+import java.net.URI;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.enterprise.event.Event;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.ParseException;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositoryException;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+
+import org.eclipse.aether.collection.CollectRequest;
+import org.eclipse.aether.collection.CollectResult;
+import org.eclipse.aether.collection.DependencyGraphTransformationContext;
+
+import org.eclipse.aether.graph.DefaultDependencyNode;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyFilter;
+import org.eclipse.aether.graph.DependencyNode;
+
+import org.eclipse.aether.installation.InstallRequest;
+import org.eclipse.aether.installation.InstallResult;
+
+import org.eclipse.aether.internal.impl.SimpleLocalRepositoryManagerFactory;
+
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.repository.RemoteRepository;
+
+import org.eclipse.aether.resolution.ArtifactDescriptorException;
+import org.eclipse.aether.resolution.ArtifactDescriptorRequest;
+import org.eclipse.aether.resolution.ArtifactDescriptorResult;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.resolution.DependencyRequest;
+import org.eclipse.aether.resolution.DependencyResult;
+
+import org.eclipse.aether.util.graph.transformer.ConflictResolver;
+import org.eclipse.aether.util.graph.transformer.JavaScopeDeriver;
+import org.eclipse.aether.util.graph.transformer.JavaScopeSelector;
+import org.eclipse.aether.util.graph.transformer.NearestVersionSelector;
+import org.eclipse.aether.util.graph.transformer.SimpleOptionalitySelector;
+
+import org.eclipse.aether.util.version.GenericVersionScheme;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A <a href="http://junit.org/junit4/">JUnit</a> test class that
+ * exercises the command line handling and resolution fallbacks of
+ * the {@link ClasspathExporter} class.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ClasspathExporter
+ */
+public class TestClasspathExporter {
+
+  /**
+   * Creates a new {@link TestClasspathExporter}.
+   */
+  public TestClasspathExporter() {
+    super();
+  }
+
+  @Test(timeout = 60000L)
+  public void testTimeoutFallsBackToLastKnownGoodClasspath() throws Exception {
+    final Path cacheDirectory = Files.createTempDirectory("cache");
+    final List<List<Dependency>> dependencyGroups = newDependencyGroups();
+    final List<Set<URI>> lastKnownGood = store(cacheDirectory, dependencyGroups);
+    final ClasspathExporter exporter = new ClasspathExporter();
+    exporter.configure(parse("--cacheDirectory", cacheDirectory.toString(), "--resolutionTimeout", "100"));
+    final CountDownLatch cancelled = new CountDownLatch(1);
+    final List<Set<URI>> classpaths = exporter.resolveWithinTimeout(() -> {
+        try {
+          Thread.sleep(60000L);
+        } catch (final InterruptedException interruptedException) {
+          cancelled.countDown();
+        }
+        return Collections.singletonList(Collections.emptySet());
+      }, dependencyGroups);
+    assertEquals(lastKnownGood, classpaths);
+    // The abandoned resolution does not keep running.
+    assertTrue(cancelled.await(30L, TimeUnit.SECONDS));
+  }
+
+  @Test(timeout = 60000L)
+  public void testFailureFallsBackToLastKnownGoodClasspath() throws Exception {
+    final Path cacheDirectory = Files.createTempDirectory("cache");
+    final List<List<Dependency>> dependencyGroups = newDependencyGroups();
+    final List<Set<URI>> lastKnownGood = store(cacheDirectory, dependencyGroups);
+    final ClasspathExporter exporter = new ClasspathExporter();
+    exporter.configure(parse("--cacheDirectory", cacheDirectory.toString(), "--resolutionTimeout", "30000"));
+    final List<Set<URI>> classpaths = exporter.resolveWithinTimeout(() -> {
+        throw new RepositoryException("unreachable");
+      }, dependencyGroups);
+    assertEquals(lastKnownGood, classpaths);
+  }
+
+  @Test(timeout = 60000L, expected = RepositoryException.class)
+  public void testFailureWithoutLastKnownGoodClasspath() throws Exception {
+    final ClasspathExporter exporter = new ClasspathExporter();
+    exporter.configure(parse("--cacheDirectory", Files.createTempDirectory("cache").toString(), "--resolutionTimeout", "30000"));
+    exporter.resolveWithinTimeout(() -> {
+        throw new RepositoryException("unreachable");
+      }, newDependencyGroups());
+  }
+
+  @Test(timeout = 60000L)
+  public void testSuccessRecordsLastKnownGoodClasspath() throws Exception {
+    final Path cacheDirectory = Files.createTempDirectory("cache");
+    final List<List<Dependency>> dependencyGroups = newDependencyGroups();
+    final List<Set<URI>> resolved = Collections.singletonList(Collections.singleton(Files.createFile(cacheDirectory.resolve("frobnicator-1.0.jar")).toUri()));
+    final ClasspathExporter exporter = new ClasspathExporter();
+    exporter.configure(parse("--cacheDirectory", cacheDirectory.toString(), "--resolutionTimeout", "30000"));
+    assertEquals(resolved, exporter.resolveWithinTimeout(() -> resolved, dependencyGroups));
+    assertEquals(resolved.get(0), new ClasspathSnapshots(cacheDirectory.resolve("classpaths")).load(dependencyGroups.get(0)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testManifestWithArtifactPath() throws ParseException {
+    new ClasspathExporter().configure(parse("--manifest", "launch.properties", "--artifactPath", "com.foobar:frobnicator:1.0"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testManifestWithArtifactPathFile() throws ParseException {
+    new ClasspathExporter().configure(parse("--manifest", "launch.properties", "--artifactPathFile", "artifacts.txt"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWatchWithProxyClassCache() throws ParseException {
+    new ClasspathExporter().configure(parse("--watch", "--proxyClassCache"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWatchWithArtifactStore() throws ParseException {
+    new ClasspathExporter().configure(parse("--watch", "--artifactStore"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testWatchWithClassLoadOrder() throws ParseException {
+    new ClasspathExporter().configure(parse("--watch", "--classLoadOrder", "replay"));
+  }
+
+  @Test
+  public void testBoms() throws ParseException {
+    final List<Dependency> boms = ClasspathExporter.parseBoms(new String[] { "com.foobar:bom:1.0", "com.foobar:other-bom:2.0" });
+    assertEquals(2, boms.size());
+    assertEquals("com.foobar:bom:pom:1.0", boms.get(0).getArtifact().toString());
+    assertEquals("import", boms.get(0).getScope());
+    assertEquals("com.foobar:other-bom:pom:2.0", boms.get(1).getArtifact().toString());
+    new ClasspathExporter().configure(parse("--bom", "com.foobar:bom:1.0"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBomWithoutVersion() throws ParseException {
+    new ClasspathExporter().configure(parse("--bom", "com.foobar:bom"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBomWithLatestVersion() throws ParseException {
+    new ClasspathExporter().configure(parse("--bom", "com.foobar:bom:LATEST"));
+  }
+
+  @Test(timeout = 60000L)
+  public void testBomsAreReadWithinTimeout() throws Exception {
+    final Path cacheDirectory = Files.createTempDirectory("cache");
+    final List<List<Dependency>> dependencyGroups = newDependencyGroups();
+    // The last known good classpath is keyed by the launch
+    // coordinates and the bills of materials that manage them.
+    final List<Dependency> snapshotKey = new ArrayList<>(dependencyGroups.get(0));
+    snapshotKey.addAll(ClasspathExporter.parseBoms(new String[] { "com.foobar:bom:1.0" }));
+    final List<Set<URI>> lastKnownGood = store(cacheDirectory, Collections.singletonList(snapshotKey));
+    final ClasspathExporter exporter = new ClasspathExporter();
+    exporter.configure(parse("--cacheDirectory", cacheDirectory.toString(), "--resolutionTimeout", "100", "--bom", "com.foobar:bom:1.0"));
+    final RepositorySystemSession session = new DefaultRepositorySystemSession();
+    final List<RepositorySystemSession> sessions = Collections.synchronizedList(new ArrayList<>());
+    final CountDownLatch cancelled = new CountDownLatch(1);
+    final RepositorySystem repositorySystem =
+      (RepositorySystem)Proxy.newProxyInstance(TestClasspathExporter.class.getClassLoader(),
+                                               new Class<?>[] { RepositorySystem.class },
+                                               (proxy, method, arguments) -> {
+                                                 if (!"readArtifactDescriptor".equals(method.getName())) {
+                                                   throw new UnsupportedOperationException(method.getName());
+                                                 }
+                                                 sessions.add((RepositorySystemSession)arguments[0]);
+                                                 try {
+                                                   Thread.sleep(60000L);
+                                                 } catch (final InterruptedException interruptedException) {
+                                                   cancelled.countDown();
+                                                 }
+                                                 throw new ArtifactDescriptorException(new ArtifactDescriptorResult((ArtifactDescriptorRequest)arguments[1]));
+                                               });
+    assertEquals(lastKnownGood, exporter.resolveWithinTimeout(repositorySystem, session, Collections.emptyList(), dependencyGroups));
+    assertTrue(cancelled.await(30L, TimeUnit.SECONDS));
+    // The bill of materials was read through a launcher session.
+    assertEquals(1, sessions.size());
+    assertNotSame(session, sessions.get(0));
+  }
+
+  @Test
+  public void testApplicationsArePartitioned() throws Exception {
+    final Graph graph = new Graph();
+    final List<Set<URI>> classpaths = new ClasspathExporter().resolve(graph.repositorySystem, new DefaultRepositorySystemSession(), Collections.emptyList(),
+                                                                      Arrays.asList(dependencies("x:1"), dependencies("w:1")));
+    assertEquals(Arrays.asList(graph.classpath("x:1", "z:1"), graph.classpath("w:1")), classpaths);
+    assertEquals(1, graph.resolutions.get());
+  }
+
+  @Test
+  public void testTransitiveDependenciesAreMediatedAcrossApplications() throws Exception {
+    final Graph graph = new Graph();
+    // x:1 and y:1 need z:1 and z:2 respectively, at the same depth;
+    // the first one declared wins for both applications.
+    List<Set<URI>> classpaths = new ClasspathExporter().resolve(graph.repositorySystem, new DefaultRepositorySystemSession(), Collections.emptyList(),
+                                                                Arrays.asList(dependencies("x:1"), dependencies("y:1")));
+    assertEquals(Arrays.asList(graph.classpath("x:1", "z:1"), graph.classpath("y:1", "z:1")), classpaths);
+    // A direct dependency is nearer than a transitive one.
+    classpaths = new ClasspathExporter().resolve(graph.repositorySystem, new DefaultRepositorySystemSession(), Collections.emptyList(),
+                                                 Arrays.asList(dependencies("x:1"), dependencies("z:2")));
+    assertEquals(Arrays.asList(graph.classpath("x:1", "z:2"), graph.classpath("z:2")), classpaths);
+    assertEquals(2, graph.resolutions.get());
+  }
+
+  @Test
+  public void testDirectDependenciesWinForTheirOwnApplication() throws Exception {
+    final Graph graph = new Graph();
+    final List<Set<URI>> classpaths = new ClasspathExporter().resolve(graph.repositorySystem, new DefaultRepositorySystemSession(), Collections.emptyList(),
+                                                                      Arrays.asList(dependencies("z:1"), dependencies("y:1", "z:2")));
+    assertEquals(Arrays.asList(graph.classpath("z:1"), graph.classpath("y:1", "z:2")), classpaths);
+    // Each application was resolved on its own.
+    assertEquals(2, graph.resolutions.get());
+  }
+
+  @Test(timeout = 60000L)
+  public void testHedgedArtifactsAreInstalledIntoTheLocalRepository() throws Exception {
+    final Path cacheDirectory = Files.createTempDirectory("cache");
+    final File localRepositoryDirectory = Files.createTempDirectory("repository").toFile();
+    final ClasspathExporter exporter = new ClasspathExporter();
+    exporter.configure(parse("--cacheDirectory", cacheDirectory.toString(), "--hedgeDelay", "0"));
+    final DefaultRepositorySystemSession session = new DefaultRepositorySystemSession();
+    session.setLocalRepositoryManager(new SimpleLocalRepositoryManagerFactory().newInstance(session, new LocalRepository(localRepositoryDirectory)));
+    final List<RemoteRepository> remoteRepositories =
+      Arrays.asList(new RemoteRepository.Builder("slow", "default", "http://localhost:1/").build(),
+                    new RemoteRepository.Builder("fast", "default", "http://localhost:2/").build());
+    final CountDownLatch release = new CountDownLatch(1);
+    final RepositorySystem repositorySystem =
+      (RepositorySystem)Proxy.newProxyInstance(TestClasspathExporter.class.getClassLoader(),
+                                               new Class<?>[] { RepositorySystem.class },
+                                               (proxy, method, arguments) -> {
+                                                 switch (method.getName()) {
+                                                 case "newLocalRepositoryManager":
+                                                   return new SimpleLocalRepositoryManagerFactory().newInstance((RepositorySystemSession)arguments[0], (LocalRepository)arguments[1]);
+                                                 case "collectDependencies":
+                                                   return collect((CollectRequest)arguments[1]);
+                                                 case "resolveArtifact":
+                                                   final RepositorySystemSession resolutionSession = (RepositorySystemSession)arguments[0];
+                                                   if (localRepositoryDirectory.equals(resolutionSession.getLocalRepository().getBasedir())) {
+                                                     // The primary request never finishes in time.
+                                                     release.await(30L, TimeUnit.SECONDS);
+                                                   }
+                                                   return download(resolutionSession, (ArtifactRequest)arguments[1]);
+                                                 case "install":
+                                                   return install((RepositorySystemSession)arguments[0], (InstallRequest)arguments[1]);
+                                                 default:
+                                                   throw new UnsupportedOperationException(method.getName());
+                                                 }
+                                               });
+    try {
+      final File installed = new File(localRepositoryDirectory, "com/foobar/frobnicator/1.0/frobnicator-1.0.jar");
+      assertEquals(Collections.singletonList(Collections.singleton(installed.toURI())),
+                   exporter.resolve(repositorySystem, session, remoteRepositories, newDependencyGroups()));
+      assertTrue(installed.isFile());
+      // The staging local repository used by hedge requests is gone.
+      assertFalse(Files.exists(cacheDirectory.resolve("hedge")));
+    } finally {
+      release.countDown();
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testFailingObserverDoesNotPreventAsyncDelivery() {
+    final List<String> deliveries = new ArrayList<>();
+    final CompletableFuture<ArtifactResolvedEvent> asyncDelivery = new CompletableFuture<>();
+    final Event<ArtifactResolvedEvent> event =
+      (Event<ArtifactResolvedEvent>)Proxy.newProxyInstance(TestClasspathExporter.class.getClassLoader(),
+                                                           new Class<?>[] { Event.class },
+                                                           (proxy, method, arguments) -> {
+                                                             deliveries.add(method.getName());
+                                                             switch (method.getName()) {
+                                                             case "fire":
+                                                               throw new IllegalStateException("fire");
+                                                             case "fireAsync":
+                                                               return asyncDelivery;
+                                                             default:
+                                                               throw new UnsupportedOperationException(method.getName());
+                                                             }
+                                                           });
+    new ClasspathExporter().fireArtifactResolved(event, new ArtifactResolvedEvent(new DefaultArtifact("com.foobar:frobnicator:1.0").setFile(new File("frobnicator.jar")), null));
+    assertEquals(Arrays.asList("fire", "fireAsync"), deliveries);
+    // The outcome of asynchronous delivery is observed, so that its
+    // failures can be logged.
+    assertEquals(1, asyncDelivery.getNumberOfDependents());
+    asyncDelivery.completeExceptionally(new IllegalStateException("fireAsync"));
+  }
+
+  private static final List<Dependency> dependencies(final String... coordinates) {
+    final List<Dependency> returnValue = new ArrayList<>();
+    for (final String coordinate : coordinates) {
+      returnValue.add(new Dependency(new DefaultArtifact("com.foobar:" + coordinate), "compile"));
+    }
+    return returnValue;
+  }
+
+  private static final List<List<Dependency>> newDependencyGroups() {
+    return Collections.singletonList(Collections.singletonList(new Dependency(new DefaultArtifact("com.foobar:frobnicator:1.0"), "compile")));
+  }
+
+  private static final List<Set<URI>> store(final Path cacheDirectory, final List<List<Dependency>> dependencyGroups) throws IOException {
+    final Set<URI> classpath = Collections.singleton(Files.createFile(cacheDirectory.resolve("last-known-good.jar")).toUri());
+    new ClasspathSnapshots(cacheDirectory.resolve("classpaths")).store(dependencyGroups.get(0), classpath);
+    return Collections.singletonList(classpath);
+  }
+
+  private static final CollectResult collect(final CollectRequest request) {
+    final DependencyNode root = new DefaultDependencyNode((Dependency)null);
+    for (final Dependency dependency : request.getDependencies()) {
+      final DefaultDependencyNode node = new DefaultDependencyNode(dependency);
+      node.setRepositories(request.getRepositories());
+      root.getChildren().add(node);
+    }
+    final CollectResult returnValue = new CollectResult(request);
+    returnValue.setRoot(root);
+    return returnValue;
+  }
+
+  private static final ArtifactResult download(final RepositorySystemSession session, final ArtifactRequest request) throws IOException {
+    final Artifact artifact = request.getArtifact();
+    final Path file = session.getLocalRepository().getBasedir().toPath().resolve(session.getLocalRepositoryManager().getPathForLocalArtifact(artifact));
+    Files.createDirectories(file.getParent());
+    Files.write(file, artifact.toString().getBytes(StandardCharsets.UTF_8));
+    final ArtifactResult returnValue = new ArtifactResult(request);
+    returnValue.setArtifact(artifact.setFile(file.toFile()));
+    return returnValue;
+  }
+
+  private static final InstallResult install(final RepositorySystemSession session, final InstallRequest request) throws IOException {
+    final InstallResult returnValue = new InstallResult(request);
+    for (final Artifact artifact : request.getArtifacts()) {
+      final Path file = session.getLocalRepository().getBasedir().toPath().resolve(session.getLocalRepositoryManager().getPathForLocalArtifact(artifact));
+      Files.createDirectories(file.getParent());
+      Files.copy(artifact.getFile().toPath(), file, StandardCopyOption.REPLACE_EXISTING);
+      returnValue.addArtifact(artifact);
+    }
+    return returnValue;
+  }
+
+  static final CommandLine parse(final String... commandLineArguments) throws ParseException {
+    return new DefaultParser().parse(ClasspathExporter.getOptions(), commandLineArguments);
+  }
+
+  /**
+   * A fake dependency graph in which {@code x:1} depends on {@code
+   * z:1}, {@code y:1} depends on {@code z:2}, and nothing else has
+   * dependencies, served by a fake {@link RepositorySystem} that
+   * mediates conflicts with a real {@link ConflictResolver}.
+   */
+  private static final class Graph {
+
+    private final Map<String, List<String>> children;
+
+    private final Path repository;
+
+    private final AtomicInteger resolutions;
+
+    private final RepositorySystem repositorySystem;
+
+    private Graph() throws IOException {
+      super();
+      this.children = new HashMap<>();
+      this.children.put("x:1", Collections.singletonList("z:1"));
+      this.children.put("y:1", Collections.singletonList("z:2"));
+      this.repository = Files.createTempDirectory("repository");
+      this.resolutions = new AtomicInteger();
+      this.repositorySystem =
+        (RepositorySystem)Proxy.newProxyInstance(TestClasspathExporter.class.getClassLoader(),
+                                                 new Class<?>[] { RepositorySystem.class },
+                                                 (proxy, method, arguments) -> {
+                                                   if (!"resolveDependencies".equals(method.getName())) {
+                                                     throw new UnsupportedOperationException(method.getName());
+                                                   }
+                                                   return this.resolveDependencies((RepositorySystemSession)arguments[0], (DependencyRequest)arguments[1]);
+                                                 });
+    }
+
+    private final DependencyResult resolveDependencies(final RepositorySystemSession session, final DependencyRequest request) throws Exception {
+      this.resolutions.incrementAndGet();
+      final DependencyNode root = new DefaultDependencyNode((Dependency)null);
+      for (final Dependency dependency : request.getCollectRequest().getDependencies()) {
+        root.getChildren().add(this.newNode(dependency.getArtifact()));
+      }
+      final Map<Object, Object> data = new HashMap<>();
+      new ConflictResolver(new NearestVersionSelector(), new JavaScopeSelector(), new SimpleOptionalitySelector(), new JavaScopeDeriver())
+        .transformGraph(root, new DependencyGraphTransformationContext() {
+            @Override
+            public final RepositorySystemSession getSession() {
+              return session;
+            }
+
+            @Override
+            public final Object get(final Object key) {
+              return data.get(key);
+            }
+
+            @Override
+            public final Object put(final Object key, final Object value) {
+              return data.put(key, value);
+            }
+          });
+      final List<ArtifactResult> artifactResults = new ArrayList<>();
+      this.resolve(root, request.getFilter(), new ArrayList<>(), artifactResults);
+      final DependencyResult returnValue = new DependencyResult(request);
+      returnValue.setRoot(root);
+      returnValue.setArtifactResults(artifactResults);
+      return returnValue;
+    }
+
+    private final DependencyNode newNode(final Artifact artifact) throws Exception {
+      final GenericVersionScheme versionScheme = new GenericVersionScheme();
+      final DefaultDependencyNode returnValue = new DefaultDependencyNode(new Dependency(artifact, "compile"));
+      returnValue.setVersion(versionScheme.parseVersion(artifact.getVersion()));
+      returnValue.setVersionConstraint(versionScheme.parseVersionConstraint(artifact.getVersion()));
+      for (final String child : this.children.getOrDefault(artifact.getArtifactId() + ":" + artifact.getVersion(), Collections.emptyList())) {
+        returnValue.getChildren().add(this.newNode(new DefaultArtifact("com.foobar:" + child)));
+      }
+      return returnValue;
+    }
+
+    private final void resolve(final DependencyNode node,
+                               final DependencyFilter filter,
+                               final List<DependencyNode> parents,
+                               final List<ArtifactResult> artifactResults) throws IOException {
+      final Artifact artifact = node.getArtifact();
+      if (artifact != null) {
+        node.setArtifact(artifact.setFile(this.file(artifact.getArtifactId() + ":" + artifact.getVersion())));
+        if (filter == null || filter.accept(node, parents)) {
+          final ArtifactResult artifactResult = new ArtifactResult(new ArtifactRequest(node));
+          artifactResult.setArtifact(node.getArtifact());
+          artifactResults.add(artifactResult);
+        }
+      }
+      parents.add(0, node);
+      for (final DependencyNode child : node.getChildren()) {
+        this.resolve(child, filter, parents, artifactResults);
+      }
+      parents.remove(0);
+    }
+
+    private final File file(final String coordinates) throws IOException {
+      final Path file = this.repository.resolve(coordinates.replace(':', '-') + ".jar");
+      if (!Files.exists(file)) {
+        Files.createFile(file);
+      }
+      return file.toFile();
+    }
+
+    private final Set<URI> classpath(final String... coordinates) throws IOException {
+      final Set<URI> returnValue = new LinkedHashSet<>();
+      for (final String coordinate : coordinates) {
+        returnValue.add(this.file(coordinate).toURI());
+      }
+      return returnValue;
+    }
+
+  }
+
+}
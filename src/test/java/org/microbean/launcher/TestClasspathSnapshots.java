@@ -0,0 +1,88 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.IOException;
+
+import java.net.URI;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.aether.artifact.DefaultArtifact;
+
+import org.eclipse.aether.graph.Dependency;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * A <a href="http://junit.org/junit4/">JUnit</a> test class that
+ * exercises the {@link ClasspathSnapshots} class.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ClasspathSnapshots
+ */
+public class TestClasspathSnapshots {
+
+  /**
+   * Creates a new {@link TestClasspathSnapshots}.
+   */
+  public TestClasspathSnapshots() {
+    super();
+  }
+
+  @Test
+  public void testStoreAndLoad() throws IOException {
+    final Path directory = Files.createTempDirectory("classpaths");
+    final Path jar = Files.createFile(directory.resolve("frobnicator-1.0.jar"));
+    final List<Dependency> dependencies = Arrays.asList(new Dependency(new DefaultArtifact("com.foobar:frobnicator:1.0"), "compile"));
+    final ClasspathSnapshots snapshots = new ClasspathSnapshots(directory.resolve("snapshots"));
+    assertNull(snapshots.load(dependencies));
+
+    final Set<URI> classpath = new LinkedHashSet<>(Arrays.asList(jar.toUri(), URI.create("http://example.com/caturgiator.jar")));
+    snapshots.store(dependencies, classpath);
+    assertEquals(classpath, snapshots.load(dependencies));
+
+    // A snapshot that refers to a missing file is no snapshot at all.
+    Files.delete(jar);
+    assertNull(snapshots.load(dependencies));
+  }
+
+  @Test
+  public void testKey() {
+    final Dependency frobnicator = new Dependency(new DefaultArtifact("com.foobar:frobnicator:1.0"), "compile");
+    final Dependency caturgiator = new Dependency(new DefaultArtifact("com.foobar:caturgiator:2.0"), "compile");
+    assertEquals(ClasspathSnapshots.key(Arrays.asList(frobnicator, caturgiator)),
+                 ClasspathSnapshots.key(Arrays.asList(frobnicator, caturgiator)));
+    assertNotEquals(ClasspathSnapshots.key(Arrays.asList(frobnicator, caturgiator)),
+                    ClasspathSnapshots.key(Arrays.asList(caturgiator, frobnicator)));
+    assertNotEquals(ClasspathSnapshots.key(Arrays.asList(frobnicator)),
+                    ClasspathSnapshots.key(Arrays.asList(frobnicator.setScope("runtime"))));
+  }
+
+}
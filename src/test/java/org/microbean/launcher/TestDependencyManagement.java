@@ -0,0 +1,69 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.aether.artifact.DefaultArtifact;
+
+import org.eclipse.aether.graph.Dependency;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A <a href="http://junit.org/junit4/">JUnit</a> test class that
+ * exercises the management of launch coordinates by bills of
+ * materials.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ClasspathExporter#manage(List, java.util.Collection)
+ */
+public class TestDependencyManagement {
+
+  /**
+   * Creates a new {@link TestDependencyManagement}.
+   */
+  public TestDependencyManagement() {
+    super();
+  }
+
+  @Test
+  public void testVersionlessCoordinatesAreManaged() {
+    final List<Dependency> dependencies = new ArrayList<>();
+    new ArtifactPathParser("test", "org.example", dependencies).parse("a b:2.0 org.example:c org.example:d:LATEST:jar:tests");
+    final List<Dependency> managedDependencies =
+      Arrays.asList(new Dependency(new DefaultArtifact("org.example:a:1.1"), null),
+                    new Dependency(new DefaultArtifact("org.example:b:1.2"), null),
+                    new Dependency(new DefaultArtifact("org.example:a:9.9"), null),
+                    new Dependency(new DefaultArtifact("org.example:d:jar:tests:1.4"), null));
+    final List<Dependency> managed = ClasspathExporter.manage(Collections.singletonList(dependencies), managedDependencies).get(0);
+    assertEquals(4, managed.size());
+    assertEquals("1.1", managed.get(0).getArtifact().getVersion());
+    assertEquals("2.0", managed.get(1).getArtifact().getVersion());
+    assertEquals("LATEST", managed.get(2).getArtifact().getVersion());
+    assertEquals("1.4", managed.get(3).getArtifact().getVersion());
+    assertEquals("compile", managed.get(0).getScope());
+  }
+
+}
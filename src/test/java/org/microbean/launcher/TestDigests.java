@@ -0,0 +1,88 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.IOException;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * A <a href="http://junit.org/junit4/">JUnit</a> test class that
+ * exercises the {@link Digests} class.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see Digests
+ */
+public class TestDigests {
+
+  private static final String ABC = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+
+  /**
+   * Creates a new {@link TestDigests}.
+   */
+  public TestDigests() {
+    super();
+  }
+
+  @Test
+  public void testDigest() {
+    assertEquals(ABC, Digests.digest("abc".getBytes(StandardCharsets.US_ASCII)));
+  }
+
+  @Test
+  public void testCachedDigest() throws IOException {
+    final Path directory = Files.createTempDirectory("digests");
+    final Path file = Files.write(directory.resolve("abc.txt"), "abc".getBytes(StandardCharsets.US_ASCII));
+    final Path paths = directory.resolve("paths");
+    assertEquals(ABC, Digests.digest(file));
+    assertEquals(ABC, Digests.digest(file, paths));
+    final List<Path> records = Files.list(paths).collect(Collectors.toList());
+    assertEquals(1, records.size());
+
+    // An unchanged file's digest comes from its record, not from its
+    // content.
+    final String record = new String(Files.readAllBytes(records.get(0)), StandardCharsets.US_ASCII);
+    final String bogus = record.substring(0, record.length() - 64) + ABC.replace('a', 'b');
+    Files.write(records.get(0), bogus.getBytes(StandardCharsets.US_ASCII));
+    assertEquals(ABC.replace('a', 'b'), Digests.digest(file, paths));
+
+    // A changed file's digest is computed again.
+    Files.write(file, "abcd".getBytes(StandardCharsets.US_ASCII));
+    final String digest = Digests.digest(file, paths);
+    assertNotEquals(ABC.replace('a', 'b'), digest);
+    assertEquals(Digests.digest(file), digest);
+  }
+
+  @Test
+  public void testToHex() {
+    assertEquals("000f10ff", Digests.toHex(new byte[] { 0x00, 0x0f, 0x10, (byte)0xff }));
+  }
+
+}
@@ -0,0 +1,187 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.maven.settings.Server;
+import org.apache.maven.settings.Settings;
+
+import org.eclipse.aether.repository.Proxy;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+
+import org.eclipse.aether.util.repository.AuthenticationBuilder;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * A <a href="http://junit.org/junit4/">JUnit</a> test class that
+ * exercises the {@link EffectiveSettingsCache} class.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see EffectiveSettingsCache
+ */
+public class TestEffectiveSettingsCache {
+
+  /**
+   * Creates a new {@link TestEffectiveSettingsCache}.
+   */
+  public TestEffectiveSettingsCache() {
+    super();
+  }
+
+  @Test
+  public void testRepositoriesRoundTrip() throws IOException {
+    final RemoteRepository central = new RemoteRepository.Builder("central", "default", "https://repo.maven.apache.org/maven2/")
+      .setSnapshotPolicy(new RepositoryPolicy(false, RepositoryPolicy.UPDATE_POLICY_NEVER, RepositoryPolicy.CHECKSUM_POLICY_FAIL))
+      .build();
+    final RemoteRepository mirror = new RemoteRepository.Builder("mirror", "default", "https://mirror.example.com/maven2/")
+      .setProxy(new Proxy(Proxy.TYPE_HTTP, "proxy.example.com", 3128))
+      .setRepositoryManager(true)
+      .setMirroredRepositories(Collections.singletonList(central))
+      .build();
+    final List<RemoteRepository> repositories = Arrays.asList(mirror, central);
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertTrue(EffectiveSettingsCache.writeRepositories(repositories, out));
+    final List<RemoteRepository> reread = EffectiveSettingsCache.readRepositories(new ByteArrayInputStream(out.toByteArray()));
+    assertEquals(repositories, reread);
+  }
+
+  @Test
+  public void testAuthenticatedRepositoriesAreNotCached() throws IOException {
+    final RemoteRepository secured = new RemoteRepository.Builder("secured", "default", "https://secured.example.com/maven2/")
+      .setAuthentication(new AuthenticationBuilder().addUsername("user").addPassword("secret").build())
+      .build();
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertFalse(EffectiveSettingsCache.writeRepositories(Collections.singletonList(secured), out));
+    assertEquals(0, out.size());
+  }
+
+  @Test
+  public void testSettingsRoundTrip() throws IOException {
+    final Settings settings = new Settings();
+    settings.setLocalRepository("/repository");
+    final Server server = new Server();
+    server.setId("secured");
+    server.setUsername("user");
+    settings.addServer(server);
+    final org.apache.maven.settings.Proxy proxy = new org.apache.maven.settings.Proxy();
+    proxy.setHost("proxy.example.com");
+    settings.addProxy(proxy);
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertTrue(EffectiveSettingsCache.writeSettings(settings, out));
+    final Settings reread = EffectiveSettingsCache.readSettings(new ByteArrayInputStream(out.toByteArray()));
+    assertEquals("/repository", reread.getLocalRepository());
+    assertEquals("user", reread.getServer("secured").getUsername());
+    assertEquals("proxy.example.com", reread.getProxies().get(0).getHost());
+  }
+
+  @Test
+  public void testSettingsWithCredentialsAreNotCached() throws IOException {
+    final Server server = new Server();
+    server.setId("secured");
+    server.setPassword("secret");
+    final Settings serverSettings = new Settings();
+    serverSettings.addServer(server);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertFalse(EffectiveSettingsCache.writeSettings(serverSettings, out));
+
+    final org.apache.maven.settings.Proxy proxy = new org.apache.maven.settings.Proxy();
+    proxy.setPassword("secret");
+    final Settings proxySettings = new Settings();
+    proxySettings.addProxy(proxy);
+    assertFalse(EffectiveSettingsCache.writeSettings(proxySettings, out));
+    assertEquals(0, out.size());
+  }
+
+  @Test
+  public void testForeignClassesAreRefused() throws IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (final ObjectOutputStream oos = new ObjectOutputStream(out)) {
+      oos.writeObject(new File("/etc/passwd"));
+    }
+    try {
+      EffectiveSettingsCache.readSettings(new ByteArrayInputStream(out.toByteArray()));
+      fail();
+    } catch (final IOException expected) {
+
+    }
+  }
+
+  @Test
+  public void testKey() throws IOException {
+    final Path directory = Files.createTempDirectory("settings");
+    final Path settingsFile = directory.resolve("settings.xml");
+    final List<Path> settingsFiles = Collections.singletonList(settingsFile);
+    final Properties systemProperties = new Properties();
+    final Map<String, String> environment = Collections.singletonMap("REPOSITORY", "/one");
+    final Map<String, String> otherEnvironment = Collections.singletonMap("REPOSITORY", "/two");
+
+    write(settingsFile, "<settings><localRepository>/repository</localRepository></settings>");
+    final String key = EffectiveSettingsCache.getKey(settingsFiles, systemProperties, environment);
+    assertNotNull(key);
+    assertEquals(key, EffectiveSettingsCache.getKey(settingsFiles, systemProperties, otherEnvironment));
+
+    // Interpolated environment variables are part of the key.
+    write(settingsFile, "<settings><localRepository>${env.REPOSITORY}</localRepository></settings>");
+    assertNotEquals(EffectiveSettingsCache.getKey(settingsFiles, systemProperties, environment),
+                    EffectiveSettingsCache.getKey(settingsFiles, systemProperties, otherEnvironment));
+
+    // So are the system properties that activate profiles.
+    write(settingsFile, "<settings><profiles><profile><id>ci</id><activation><property><name>!ci</name></property></activation></profile></profiles></settings>");
+    final String inactiveKey = EffectiveSettingsCache.getKey(settingsFiles, systemProperties, environment);
+    systemProperties.setProperty("ci", "true");
+    assertNotEquals(inactiveKey, EffectiveSettingsCache.getKey(settingsFiles, systemProperties, environment));
+
+    // Profiles activated by files cannot be cached at all.
+    write(settingsFile, "<settings><profiles><profile><id>local</id><activation><file><exists>/tmp/local</exists></file></activation></profile></profiles></settings>");
+    assertNull(EffectiveSettingsCache.getKey(settingsFiles, systemProperties, environment));
+  }
+
+  private static final void write(final Path file, final String contents) throws IOException {
+    Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+  }
+
+}
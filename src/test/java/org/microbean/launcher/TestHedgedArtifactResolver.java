@@ -0,0 +1,289 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.lang.reflect.Proxy;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+
+import org.eclipse.aether.repository.RemoteRepository;
+
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
+
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A <a href="http://junit.org/junit4/">JUnit</a> test class that
+ * exercises the {@link HedgedArtifactResolver} class against a fake
+ * {@link RepositorySystem} with injected delays, and against one
+ * that downloads from two embedded HTTP servers, one of which is
+ * slow.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see HedgedArtifactResolver
+ */
+public class TestHedgedArtifactResolver {
+
+  private static final RepositorySystemSession PRIMARY_SESSION = newSession();
+
+  private static final RepositorySystemSession HEDGE_SESSION = newSession();
+
+  private static final List<RemoteRepository> REPOSITORIES =
+    Arrays.asList(new RemoteRepository.Builder("one", "default", "http://localhost:1/").build(),
+                  new RemoteRepository.Builder("two", "default", "http://localhost:2/").build());
+
+  /**
+   * Creates a new {@link TestHedgedArtifactResolver}.
+   */
+  public TestHedgedArtifactResolver() {
+    super();
+  }
+
+  @Test(timeout = 60000L)
+  public void testQueuedPrimariesAreNotHedged() throws Exception {
+    final AtomicInteger hedges = new AtomicInteger();
+    final RepositorySystem repositorySystem = newRepositorySystem((session, request) -> {
+        if (session == HEDGE_SESSION) {
+          hedges.incrementAndGet();
+        }
+        sleep(20L);
+      });
+    final List<ArtifactRequest> requests = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      requests.add(new ArtifactRequest(new DefaultArtifact("com.foobar:frobnicator" + i + ":1.0"), REPOSITORIES, null));
+    }
+    // One thread, twenty requests of 20 milliseconds each: all but
+    // the first few wait in the queue for longer than the hedge
+    // delay, but none of them runs for longer than it.
+    try (final HedgedArtifactResolver resolver = new HedgedArtifactResolver(repositorySystem, PRIMARY_SESSION, HEDGE_SESSION, 200L, 1)) {
+      final List<ArtifactResult> results = resolver.resolveArtifacts(requests);
+      assertEquals(requests.size(), results.size());
+      for (final ArtifactResult result : results) {
+        assertTrue(result.isResolved());
+      }
+    }
+    assertEquals(0, hedges.get());
+  }
+
+  @Test(timeout = 60000L)
+  public void testSlowPrimaryIsHedged() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger hedges = new AtomicInteger();
+    final RepositorySystem repositorySystem = newRepositorySystem((session, request) -> {
+        if (session == HEDGE_SESSION) {
+          hedges.incrementAndGet();
+        } else {
+          try {
+            release.await(30L, TimeUnit.SECONDS);
+          } catch (final InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      });
+    final ArtifactRequest request = new ArtifactRequest(new DefaultArtifact("com.foobar:frobnicator:1.0"), REPOSITORIES, null);
+    try (final HedgedArtifactResolver resolver = new HedgedArtifactResolver(repositorySystem, PRIMARY_SESSION, HEDGE_SESSION, 50L, 2)) {
+      final List<ArtifactResult> results = resolver.resolveArtifacts(Arrays.asList(request));
+      assertEquals(1, results.size());
+      // The hedge request asks the second repository first.
+      assertEquals("two", results.get(0).getRequest().getRepositories().get(0).getId());
+    } finally {
+      release.countDown();
+    }
+    assertEquals(1, hedges.get());
+  }
+
+  @Test(timeout = 20000L)
+  public void testSlowMirrorDoesNotStarveHedges() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final ExecutorService serverExecutor = Executors.newCachedThreadPool();
+    final HttpServer slowServer = newServer(serverExecutor, release);
+    final HttpServer fastServer = newServer(serverExecutor, null);
+    try {
+      final List<RemoteRepository> repositories =
+        Arrays.asList(new RemoteRepository.Builder("slow", "default", "http://localhost:" + slowServer.getAddress().getPort() + "/").build(),
+                      new RemoteRepository.Builder("fast", "default", "http://localhost:" + fastServer.getAddress().getPort() + "/").build());
+      final RepositorySystem repositorySystem = newHttpRepositorySystem(Files.createTempDirectory("hedge"));
+      final List<ArtifactRequest> requests = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        requests.add(new ArtifactRequest(new DefaultArtifact("com.foobar:frobnicator" + i + ":1.0"), repositories, null));
+      }
+      // Two threads, eight artifacts, and a mirror that does not
+      // answer until the test is over: the primary requests occupy
+      // every primary thread, so each artifact can only arrive by
+      // way of its hedge request.
+      try (final HedgedArtifactResolver resolver = new HedgedArtifactResolver(repositorySystem, PRIMARY_SESSION, HEDGE_SESSION, 50L, 2)) {
+        final List<ArtifactResult> results = resolver.resolveArtifacts(requests);
+        assertEquals(requests.size(), results.size());
+        for (int i = 0; i < results.size(); i++) {
+          final ArtifactResult result = results.get(i);
+          assertEquals("fast", result.getRequest().getRepositories().get(0).getId());
+          final Artifact artifact = result.getArtifact();
+          assertEquals("frobnicator" + i, artifact.getArtifactId());
+          assertEquals("/com/foobar/frobnicator" + i + "/1.0/frobnicator" + i + "-1.0.jar",
+                       new String(Files.readAllBytes(artifact.getFile().toPath()), StandardCharsets.UTF_8));
+        }
+      }
+    } finally {
+      release.countDown();
+      slowServer.stop(0);
+      fastServer.stop(0);
+      serverExecutor.shutdownNow();
+    }
+  }
+
+  private static final HttpServer newServer(final ExecutorService executor, final CountDownLatch delay) throws IOException {
+    final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    server.setExecutor(executor);
+    server.createContext("/", exchange -> {
+        if (delay != null) {
+          try {
+            delay.await(30L, TimeUnit.SECONDS);
+          } catch (final InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        // The content of each "artifact" is its own path.
+        final byte[] body = exchange.getRequestURI().getPath().getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (final OutputStream out = exchange.getResponseBody()) {
+          out.write(body);
+        }
+      });
+    server.start();
+    return server;
+  }
+
+  private static final RepositorySystem newHttpRepositorySystem(final Path localDirectory) {
+    return newRepositorySystem((session, request) -> {
+        final Artifact artifact = request.getArtifact();
+        final RemoteRepository repository = request.getRepositories().get(0);
+        final String path =
+          artifact.getGroupId().replace('.', '/') + "/" + artifact.getArtifactId() + "/" + artifact.getVersion() + "/" +
+          artifact.getArtifactId() + "-" + artifact.getVersion() + "." + artifact.getExtension();
+        final Path file = localDirectory.resolve(repository.getId()).resolve(path);
+        try (final InputStream in = new URL(repository.getUrl() + path).openStream()) {
+          Files.createDirectories(file.getParent());
+          Files.copy(in, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return file.toFile();
+      });
+  }
+
+  private static final RepositorySystem newRepositorySystem(final Behavior behavior) {
+    return newRepositorySystem((Download)(session, request) -> {
+        behavior.resolve(session, request);
+        return new File("frobnicator.jar");
+      });
+  }
+
+  private static final RepositorySystem newRepositorySystem(final Download download) {
+    return (RepositorySystem)Proxy.newProxyInstance(TestHedgedArtifactResolver.class.getClassLoader(),
+                                                    new Class<?>[] { RepositorySystem.class },
+                                                    (proxy, method, arguments) -> {
+                                                      if (!"resolveArtifact".equals(method.getName())) {
+                                                        throw new UnsupportedOperationException(method.getName());
+                                                      }
+                                                      final RepositorySystemSession session = (RepositorySystemSession)arguments[0];
+                                                      final ArtifactRequest request = (ArtifactRequest)arguments[1];
+                                                      final ArtifactResult result = new ArtifactResult(request);
+                                                      final File file;
+                                                      try {
+                                                        file = download.download(session, request);
+                                                      } catch (final IOException ioException) {
+                                                        result.addException(ioException);
+                                                        throw new ArtifactResolutionException(Arrays.asList(result));
+                                                      }
+                                                      result.setArtifact(request.getArtifact().setFile(file));
+                                                      return result;
+                                                    });
+  }
+
+  private static final RepositorySystemSession newSession() {
+    return (RepositorySystemSession)Proxy.newProxyInstance(TestHedgedArtifactResolver.class.getClassLoader(),
+                                                           new Class<?>[] { RepositorySystemSession.class },
+                                                           (proxy, method, arguments) -> {
+                                                             if ("hashCode".equals(method.getName())) {
+                                                               return Integer.valueOf(System.identityHashCode(proxy));
+                                                             } else if ("equals".equals(method.getName())) {
+                                                               return Boolean.valueOf(proxy == arguments[0]);
+                                                             }
+                                                             throw new UnsupportedOperationException(method.getName());
+                                                           });
+  }
+
+  private static final void sleep(final long milliseconds) {
+    try {
+      Thread.sleep(milliseconds);
+    } catch (final InterruptedException interruptedException) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @FunctionalInterface
+  private interface Behavior {
+
+    void resolve(final RepositorySystemSession session, final ArtifactRequest request);
+
+  }
+
+  @FunctionalInterface
+  private interface Download {
+
+    File download(final RepositorySystemSession session, final ArtifactRequest request) throws IOException;
+
+  }
+
+}
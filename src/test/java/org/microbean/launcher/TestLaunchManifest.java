@@ -0,0 +1,67 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.util.Properties;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A <a href="http://junit.org/junit4/">JUnit</a> test class that
+ * exercises the {@link LaunchManifest} class.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see LaunchManifest
+ */
+public class TestLaunchManifest {
+
+  /**
+   * Creates a new {@link TestLaunchManifest}.
+   */
+  public TestLaunchManifest() {
+    super();
+  }
+
+  @Test
+  public void testApplications() {
+    final Properties properties = new Properties();
+    properties.setProperty("applications", " web, batch ,");
+    properties.setProperty("web.artifactPath", "com.foobar:web:1.0");
+    properties.setProperty("web.arguments", "  --port 8080 ");
+    properties.setProperty("batch.artifactPath", "batch:2.0");
+    properties.setProperty("batch.defaultGroupId", "com.foobar");
+    final LaunchManifest manifest = new LaunchManifest(properties);
+    assertArrayEquals(new String[] { "web", "batch" }, manifest.getApplicationNames().toArray());
+    assertEquals("com.foobar:web:1.0", manifest.getArtifactPath("web"));
+    assertArrayEquals(new String[] { "--port", "8080" }, manifest.getArguments("web"));
+    assertEquals("com.foobar", manifest.getDefaultGroupId("batch"));
+    assertArrayEquals(new String[0], manifest.getArguments("batch"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMissingArtifactPath() {
+    final Properties properties = new Properties();
+    properties.setProperty("applications", "web");
+    new LaunchManifest(properties);
+  }
+
+}
@@ -0,0 +1,108 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A <a href="http://junit.org/junit4/">JUnit</a> test class that
+ * exercises the {@link ProxyClassCache} class.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ProxyClassCache
+ */
+public class TestProxyClassCache {
+
+  /**
+   * Creates a new {@link TestProxyClassCache}.
+   */
+  public TestProxyClassCache() {
+    super();
+  }
+
+  @Test
+  public void testCollectAndLoad() throws IOException {
+    final ClassLoader classLoader = this.getClass().getClassLoader();
+    final String proxyClassName = Bean$Proxy$_$$_WeldClientProxy.class.getName();
+    assertTrue(ProxyClassCache.isProxyClassName(proxyClassName));
+    assertFalse(ProxyClassCache.isProxyClassName(Bean.class.getName()));
+    // Interceptor and decorator subclasses depend on more than the
+    // bean class, and so are never cached.
+    assertFalse(ProxyClassCache.isProxyClassName(Bean$Proxy$_$$_WeldSubclass.class.getName()));
+
+    final Path directory = Files.createTempDirectory("proxies");
+    final ProxyClassCache cache = new ProxyClassCache(directory, "test");
+    assertNull(cache.load(proxyClassName, classLoader));
+
+    final byte[] bytes;
+    try (final InputStream in = classLoader.getResourceAsStream(proxyClassName.replace('.', '/') + ".class")) {
+      final byte[] buffer = new byte[8192];
+      int length = 0;
+      int bytesRead;
+      while ((bytesRead = in.read(buffer, length, buffer.length - length)) > 0) {
+        length += bytesRead;
+      }
+      bytes = Arrays.copyOf(buffer, length);
+    }
+    final Path dumpDirectory = cache.newDumpDirectory();
+    Files.write(dumpDirectory.resolve("proxy.class"), bytes);
+    assertEquals(1, cache.collect(dumpDirectory, classLoader));
+    assertFalse(Files.exists(dumpDirectory));
+    assertArrayEquals(bytes, cache.load(proxyClassName, classLoader));
+
+    // A different container version must miss.
+    final ProxyClassCache otherCache = new ProxyClassCache(directory, "other");
+    assertNull(otherCache.load(proxyClassName, classLoader));
+
+    final String subclassName = Bean$Proxy$_$$_WeldSubclass.class.getName();
+    final Path subclassDumpDirectory = cache.newDumpDirectory();
+    try (final InputStream in = classLoader.getResourceAsStream(subclassName.replace('.', '/') + ".class")) {
+      Files.copy(in, subclassDumpDirectory.resolve("subclass.class"));
+    }
+    assertEquals(0, cache.collect(subclassDumpDirectory, classLoader));
+    assertNull(cache.load(subclassName, classLoader));
+  }
+
+  private static class Bean {
+
+  }
+
+  private static final class Bean$Proxy$_$$_WeldClientProxy extends Bean {
+
+  }
+
+  private static final class Bean$Proxy$_$$_WeldSubclass extends Bean {
+
+  }
+
+}
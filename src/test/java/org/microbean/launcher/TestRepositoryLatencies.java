@@ -0,0 +1,79 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.IOException;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.aether.repository.RemoteRepository;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A <a href="http://junit.org/junit4/">JUnit</a> test class that
+ * exercises the {@link RepositoryLatencies} class.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see RepositoryLatencies
+ */
+public class TestRepositoryLatencies {
+
+  /**
+   * Creates a new {@link TestRepositoryLatencies}.
+   */
+  public TestRepositoryLatencies() {
+    super();
+  }
+
+  @Test
+  public void testSortAndPersistence() throws IOException {
+    final RemoteRepository slow = new RemoteRepository.Builder("slow", "default", "http://localhost:1/").build();
+    final RemoteRepository fast = new RemoteRepository.Builder("fast", "default", "http://localhost:2/").build();
+    final RemoteRepository unknown = new RemoteRepository.Builder("unknown", "default", "http://localhost:3/").build();
+
+    final RepositoryLatencies latencies = new RepositoryLatencies();
+    latencies.record(slow.getUrl(), 1000L);
+    latencies.record(fast.getUrl(), 10L);
+    latencies.record(fast.getUrl(), 20L);
+    assertEquals(13D, latencies.getLatency(fast.getUrl()), 0.0001D);
+    assertEquals(-1D, latencies.getLatency(unknown.getUrl()), 0D);
+
+    final List<RemoteRepository> sorted = latencies.sort(Arrays.asList(slow, fast, unknown));
+    assertEquals(Arrays.asList(unknown, fast, slow), sorted);
+
+    final Path file = Files.createTempFile("latencies", ".properties");
+    try {
+      latencies.store(file);
+      final RepositoryLatencies reloaded = new RepositoryLatencies();
+      reloaded.load(file);
+      assertEquals(latencies.getLatency(slow.getUrl()), reloaded.getLatency(slow.getUrl()), 0D);
+      assertEquals(latencies.getLatency(fast.getUrl()), reloaded.getLatency(fast.getUrl()), 0D);
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+}
@@ -0,0 +1,188 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Properties;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositoryEvent;
+import org.eclipse.aether.RepositoryListener;
+import org.eclipse.aether.RepositorySystemSession;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+
+import org.eclipse.aether.metadata.DefaultMetadata;
+import org.eclipse.aether.metadata.Metadata;
+
+import org.eclipse.aether.repository.ArtifactRepository;
+import org.eclipse.aether.repository.LocalRepository;
+import org.eclipse.aether.repository.RemoteRepository;
+
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.transfer.TransferResource;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A <a href="http://junit.org/junit4/">JUnit</a> test class that
+ * exercises the {@link ResolutionMetrics} class by driving its
+ * listener callbacks directly.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ResolutionMetrics
+ */
+public class TestResolutionMetrics {
+
+  private static final RepositorySystemSession SESSION = new DefaultRepositorySystemSession();
+
+  private static final RemoteRepository CENTRAL = new RemoteRepository.Builder("central", "default", "http://localhost:1/").build();
+
+  private static final RemoteRepository MIRROR = new RemoteRepository.Builder("mirror", "default", "http://localhost:2/").build();
+
+  private static final LocalRepository LOCAL = new LocalRepository("/repository");
+
+  private static final File FILE = new File("frobnicator-1.0.jar");
+
+  /**
+   * Creates a new {@link TestResolutionMetrics}.
+   */
+  public TestResolutionMetrics() {
+    super();
+  }
+
+  @Test
+  public void testTransfers() {
+    final ResolutionMetrics metrics = new ResolutionMetrics();
+    final String name = "com/foobar/frobnicator/1.0/frobnicator-1.0.jar";
+
+    // Falling back to the next repository is not a retry.
+    final TransferResource fromCentral = new TransferResource(CENTRAL.getId(), CENTRAL.getUrl(), name, FILE, null);
+    metrics.transferInitiated(transferEvent(fromCentral, TransferEvent.EventType.INITIATED, 0L));
+    metrics.transferFailed(transferEvent(fromCentral, TransferEvent.EventType.FAILED, 0L));
+    final TransferResource fromMirror = new TransferResource(MIRROR.getId(), MIRROR.getUrl(), name, FILE, null);
+    metrics.transferInitiated(transferEvent(fromMirror, TransferEvent.EventType.INITIATED, 0L));
+    metrics.transferStarted(transferEvent(fromMirror, TransferEvent.EventType.STARTED, 0L));
+    metrics.transferSucceeded(transferEvent(fromMirror, TransferEvent.EventType.SUCCEEDED, 1024L));
+    assertEquals(0L, metrics.getTransfersRetried());
+
+    // Asking the same repository again is.
+    final TransferResource againFromMirror = new TransferResource(MIRROR.getId(), MIRROR.getUrl(), name, FILE, null);
+    metrics.transferInitiated(transferEvent(againFromMirror, TransferEvent.EventType.INITIATED, 0L));
+    metrics.transferCorrupted(transferEvent(againFromMirror, TransferEvent.EventType.CORRUPTED, 0L));
+    assertEquals(1L, metrics.getTransfersRetried());
+
+    assertEquals(1L, metrics.getTransfersSucceeded());
+    assertEquals(1L, metrics.getTransfersFailed());
+    assertEquals(1L, metrics.getTransfersCorrupted());
+    assertEquals(1024L, metrics.getBytesTransferred());
+    assertEquals(1L, sum(metrics.getLatencyHistograms().get("central")));
+    assertEquals(1L, sum(metrics.getLatencyHistograms().get("mirror")));
+  }
+
+  @Test
+  public void testCacheHitsAndMisses() {
+    final ResolutionMetrics metrics = new ResolutionMetrics();
+    final RepositoryListener listener = metrics.getRepositoryListener();
+    final Artifact downloaded = new DefaultArtifact("com.foobar:frobnicator:1.0");
+    final Artifact cached = new DefaultArtifact("com.foobar:caturgiator:2.0");
+    final Metadata downloadedMetadata = new DefaultMetadata("com.foobar", "frobnicator", "maven-metadata.xml", Metadata.Nature.RELEASE);
+    final Metadata cachedMetadata = new DefaultMetadata("com.foobar", "caturgiator", "maven-metadata.xml", Metadata.Nature.RELEASE);
+
+    listener.artifactDownloaded(artifactEvent(RepositoryEvent.EventType.ARTIFACT_DOWNLOADED, downloaded, CENTRAL));
+    listener.artifactResolved(artifactEvent(RepositoryEvent.EventType.ARTIFACT_RESOLVED, downloaded, CENTRAL));
+    // A locally cached artifact may name the local repository, or the
+    // remote repository it originally came from.
+    listener.artifactResolved(artifactEvent(RepositoryEvent.EventType.ARTIFACT_RESOLVED, cached, LOCAL));
+    listener.artifactResolved(artifactEvent(RepositoryEvent.EventType.ARTIFACT_RESOLVED, cached, CENTRAL));
+
+    listener.metadataDownloaded(metadataEvent(RepositoryEvent.EventType.METADATA_DOWNLOADED, downloadedMetadata));
+    listener.metadataResolved(metadataEvent(RepositoryEvent.EventType.METADATA_RESOLVED, downloadedMetadata));
+    // Metadata always names a remote repository, even when its
+    // locally cached copy is still fresh.
+    listener.metadataResolved(metadataEvent(RepositoryEvent.EventType.METADATA_RESOLVED, cachedMetadata));
+
+    assertEquals(2L, metrics.getCacheMisses());
+    assertEquals(3L, metrics.getCacheHits());
+  }
+
+  @Test
+  public void testStore() throws IOException {
+    final ResolutionMetrics metrics = new ResolutionMetrics();
+    final TransferResource resource = new TransferResource(CENTRAL.getId(), CENTRAL.getUrl(), "frobnicator-1.0.jar", FILE, null);
+    metrics.transferInitiated(transferEvent(resource, TransferEvent.EventType.INITIATED, 0L));
+    metrics.transferStarted(transferEvent(resource, TransferEvent.EventType.STARTED, 0L));
+    metrics.transferSucceeded(transferEvent(resource, TransferEvent.EventType.SUCCEEDED, 2048L));
+    final Artifact artifact = new DefaultArtifact("com.foobar:frobnicator:1.0");
+    metrics.getRepositoryListener().artifactDownloaded(artifactEvent(RepositoryEvent.EventType.ARTIFACT_DOWNLOADED, artifact, CENTRAL));
+    metrics.getRepositoryListener().artifactResolved(artifactEvent(RepositoryEvent.EventType.ARTIFACT_RESOLVED, artifact, CENTRAL));
+
+    final Path file = Files.createTempDirectory("metrics").resolve("metrics.properties");
+    metrics.store(file);
+    final Properties properties = new Properties();
+    try (final InputStream in = Files.newInputStream(file)) {
+      properties.load(in);
+    }
+    assertEquals("2048", properties.getProperty("launcher.transfer.bytes"));
+    assertEquals("1", properties.getProperty("launcher.transfer.succeeded"));
+    assertEquals("0", properties.getProperty("launcher.transfer.failed"));
+    assertEquals("0", properties.getProperty("launcher.transfer.corrupted"));
+    assertEquals("0", properties.getProperty("launcher.transfer.retried"));
+    assertEquals("0", properties.getProperty("launcher.cache.hits"));
+    assertEquals("1", properties.getProperty("launcher.cache.misses"));
+    final long[] bounds = metrics.getLatencyBucketBounds();
+    final long[] histogram = metrics.getLatencyHistograms().get("central");
+    final long[] storedHistogram = new long[bounds.length + 1];
+    for (int i = 0; i < storedHistogram.length; i++) {
+      storedHistogram[i] = Long.parseLong(properties.getProperty("launcher.transfer.latency.central.le." + (i < bounds.length ? String.valueOf(bounds[i]) : "inf")));
+    }
+    assertArrayEquals(histogram, storedHistogram);
+  }
+
+  private static final TransferEvent transferEvent(final TransferResource resource, final TransferEvent.EventType type, final long transferredBytes) {
+    return new TransferEvent.Builder(SESSION, resource).setType(type).setTransferredBytes(transferredBytes).build();
+  }
+
+  private static final RepositoryEvent artifactEvent(final RepositoryEvent.EventType type, final Artifact artifact, final ArtifactRepository repository) {
+    return new RepositoryEvent.Builder(SESSION, type).setArtifact(artifact).setRepository(repository).setFile(FILE).build();
+  }
+
+  private static final RepositoryEvent metadataEvent(final RepositoryEvent.EventType type, final Metadata metadata) {
+    return new RepositoryEvent.Builder(SESSION, type).setMetadata(metadata).setRepository(CENTRAL).setFile(FILE).build();
+  }
+
+  private static final long sum(final long[] counts) {
+    long returnValue = 0L;
+    for (final long count : counts) {
+      returnValue += count;
+    }
+    return returnValue;
+  }
+
+}
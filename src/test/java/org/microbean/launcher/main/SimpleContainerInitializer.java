@@ -0,0 +1,165 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher.main;
+
+import java.lang.annotation.Annotation;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import java.util.function.Supplier;
+
+import javax.enterprise.inject.se.SeContainer;
+import javax.enterprise.inject.se.SeContainerInitializer;
+
+import javax.enterprise.inject.spi.Extension;
+
+/**
+ * An {@link SeContainerInitializer} for tests that records how it
+ * was configured, and whose {@link #initialize()} method returns
+ * whatever a {@link Supplier} supplies.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ */
+final class SimpleContainerInitializer extends SeContainerInitializer {
+
+  final Set<String> beanClasses;
+
+  final Set<String> interceptors;
+
+  boolean discoveryDisabled;
+
+  ClassLoader classLoader;
+
+  private final Supplier<? extends SeContainer> containers;
+
+  /**
+   * Creates a new {@link SimpleContainerInitializer} that cannot
+   * {@linkplain #initialize() initialize} a container.
+   */
+  SimpleContainerInitializer() {
+    this(() -> {
+        throw new UnsupportedOperationException();
+      });
+  }
+
+  /**
+   * Creates a new {@link SimpleContainerInitializer}.
+   *
+   * @param containers the {@link Supplier} of the {@link SeContainer}
+   * to return from {@link #initialize()}; must not be {@code null}
+   */
+  SimpleContainerInitializer(final Supplier<? extends SeContainer> containers) {
+    super();
+    this.beanClasses = new LinkedHashSet<>();
+    this.interceptors = new LinkedHashSet<>();
+    this.containers = containers;
+  }
+
+  @Override
+  public final SeContainerInitializer addBeanClasses(final Class<?>... classes) {
+    for (final Class<?> c : classes) {
+      this.beanClasses.add(c.getName());
+    }
+    return this;
+  }
+
+  @Override
+  public final SeContainerInitializer addPackages(final Class<?>... packageClasses) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public final SeContainerInitializer addPackages(final boolean scanRecursively, final Class<?>... packageClasses) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public final SeContainerInitializer addPackages(final Package... packages) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public final SeContainerInitializer addPackages(final boolean scanRecursively, final Package... packages) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public final SeContainerInitializer addExtensions(final Extension... extensions) {
+    return this;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public final SeContainerInitializer addExtensions(final Class<? extends Extension>... extensions) {
+    return this;
+  }
+
+  @Override
+  public final SeContainerInitializer enableInterceptors(final Class<?>... interceptorClasses) {
+    for (final Class<?> c : interceptorClasses) {
+      this.interceptors.add(c.getName());
+    }
+    return this;
+  }
+
+  @Override
+  public final SeContainerInitializer enableDecorators(final Class<?>... decoratorClasses) {
+    return this;
+  }
+
+  @Override
+  public final SeContainerInitializer selectAlternatives(final Class<?>... alternativeClasses) {
+    return this;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public final SeContainerInitializer selectAlternativeStereotypes(final Class<? extends Annotation>... alternativeStereotypeClasses) {
+    return this;
+  }
+
+  @Override
+  public final SeContainerInitializer addProperty(final String key, final Object value) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public final SeContainerInitializer setProperties(final Map<String, Object> properties) {
+    throw new UnsupportedOperationException();
+  }
+
+  @Override
+  public final SeContainerInitializer disableDiscovery() {
+    this.discoveryDisabled = true;
+    return this;
+  }
+
+  @Override
+  public final SeContainerInitializer setClassLoader(final ClassLoader classLoader) {
+    this.classLoader = classLoader;
+    return this;
+  }
+
+  @Override
+  public final SeContainer initialize() {
+    return this.containers.get();
+  }
+
+}
@@ -0,0 +1,167 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher.main;
+
+import java.net.URI;
+
+import java.nio.file.Path;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.microbean.launcher.LaunchPlan;
+
+/**
+ * A fixed {@link LaunchPlan} for tests.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ */
+final class SimpleLaunchPlan implements LaunchPlan {
+
+  private final Path cacheDirectory;
+
+  private final Set<URI> classpath;
+
+  private final String[] remainingCommandLineArguments;
+
+  private final Set<String> flags;
+
+  private final Map<String, Set<URI>> applicationClasspaths;
+
+  private final Map<String, String[]> applicationArguments;
+
+  /**
+   * Creates a new {@link SimpleLaunchPlan}.
+   *
+   * @param cacheDirectory the cache directory
+   *
+   * @param classpath the classpath
+   *
+   * @param remainingCommandLineArguments the remaining command line
+   * arguments
+   *
+   * @param flags the names of the {@code boolean} properties, such
+   * as {@code watch} or {@code warmClasspath}, that are {@code true}
+   */
+  SimpleLaunchPlan(final Path cacheDirectory, final Set<URI> classpath, final String[] remainingCommandLineArguments, final String... flags) {
+    super();
+    this.cacheDirectory = cacheDirectory;
+    this.classpath = classpath;
+    this.remainingCommandLineArguments = remainingCommandLineArguments;
+    this.flags = new HashSet<>(Arrays.asList(flags));
+    this.applicationClasspaths = new LinkedHashMap<>();
+    this.applicationArguments = new LinkedHashMap<>();
+  }
+
+  /**
+   * Adds an application to this {@link SimpleLaunchPlan}.
+   *
+   * @param applicationName the name of the application
+   *
+   * @param classpath the application's classpath
+   *
+   * @param remainingCommandLineArguments the application's command
+   * line arguments
+   *
+   * @return this {@link SimpleLaunchPlan}
+   */
+  final SimpleLaunchPlan addApplication(final String applicationName, final Set<URI> classpath, final String... remainingCommandLineArguments) {
+    this.applicationClasspaths.put(applicationName, classpath);
+    this.applicationArguments.put(applicationName, remainingCommandLineArguments);
+    return this;
+  }
+
+  @Override
+  public final Set<URI> getClasspath() {
+    return this.classpath;
+  }
+
+  @Override
+  public final String[] getRemainingCommandLineArguments() {
+    return this.remainingCommandLineArguments.clone();
+  }
+
+  @Override
+  public final Set<String> getApplicationNames() {
+    return Collections.unmodifiableSet(this.applicationClasspaths.keySet());
+  }
+
+  @Override
+  public final Set<URI> getClasspath(final String applicationName) {
+    final Set<URI> returnValue = this.applicationClasspaths.get(applicationName);
+    return returnValue == null ? Collections.emptySet() : returnValue;
+  }
+
+  @Override
+  public final String[] getRemainingCommandLineArguments(final String applicationName) {
+    final String[] returnValue = this.applicationArguments.get(applicationName);
+    return returnValue == null ? new String[0] : returnValue.clone();
+  }
+
+  @Override
+  public final boolean isWarmClasspath() {
+    return this.flags.contains("warmClasspath");
+  }
+
+  @Override
+  public final boolean isRecordClassLoadOrder() {
+    return this.flags.contains("recordClassLoadOrder");
+  }
+
+  @Override
+  public final boolean isReplayClassLoadOrder() {
+    return this.flags.contains("replayClassLoadOrder");
+  }
+
+  @Override
+  public final boolean isIndexBeanArchives() {
+    return this.flags.contains("indexBeanArchives");
+  }
+
+  @Override
+  public final boolean isCacheProxyClasses() {
+    return this.flags.contains("cacheProxyClasses");
+  }
+
+  @Override
+  public final boolean isWatch() {
+    return this.flags.contains("watch");
+  }
+
+  @Override
+  public final Path getCacheDirectory() {
+    return this.cacheDirectory;
+  }
+
+  @Override
+  public final List<String> getClassLoadOrder(final Collection<? extends URI> classpath) {
+    return Collections.emptyList();
+  }
+
+  @Override
+  public final void setClassLoadOrder(final Collection<? extends URI> classpath, final List<? extends String> classNames) {
+
+  }
+
+}
@@ -0,0 +1,111 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher.main;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.net.URI;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Collections;
+import java.util.Set;
+
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.Test;
+
+import org.microbean.launcher.LaunchPlan;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * A <a href="http://junit.org/junit4/">JUnit</a> test class that
+ * exercises the {@link Bake} and {@link BakedLaunchPlan} classes.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see Bake
+ *
+ * @see BakedLaunchPlan
+ */
+public class TestBake {
+
+  /**
+   * Creates a new {@link TestBake}.
+   */
+  public TestBake() {
+    super();
+  }
+
+  @Test
+  public void testBakeAndRelocate() throws IOException {
+    final Path root = Files.createTempDirectory("bake");
+    final Path jar = root.resolve("frobnicator-1.0.jar");
+    try (final JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+      out.putNextEntry(new JarEntry("META-INF/beans.xml"));
+      out.closeEntry();
+      final String name = Frobnicator.class.getName().replace('.', '/') + ".class";
+      out.putNextEntry(new JarEntry(name));
+      try (final InputStream in = TestBake.class.getClassLoader().getResourceAsStream(name)) {
+        final byte[] buffer = new byte[4096];
+        int bytesRead;
+        while ((bytesRead = in.read(buffer)) >= 0) {
+          out.write(buffer, 0, bytesRead);
+        }
+      }
+      out.closeEntry();
+    }
+    final LaunchPlan launchPlan = new SimpleLaunchPlan(root.resolve("cache"), Collections.singleton(jar.toUri()), new String[] { "baked" });
+
+    final Path baked = root.resolve("baked");
+    Bake.bake(baked, launchPlan);
+    try {
+      Bake.bake(baked, launchPlan);
+      fail();
+    } catch (final IOException expected) {
+
+    }
+
+    final Path moved = Files.move(baked, root.resolve("moved"));
+    final BakedLaunchPlan bakedLaunchPlan = BakedLaunchPlan.read(moved, null);
+    final Set<URI> classpath = bakedLaunchPlan.getClasspath();
+    assertEquals(Collections.singleton(moved.resolve("lib/0000-frobnicator-1.0.jar").toAbsolutePath().toUri()), classpath);
+    assertTrue(Files.isRegularFile(moved.resolve("lib/0000-frobnicator-1.0.jar")));
+    assertEquals(moved.toAbsolutePath().resolve("cache"), bakedLaunchPlan.getCacheDirectory());
+    assertTrue(bakedLaunchPlan.getClassLoadOrder(classpath).contains(Frobnicator.class.getName()));
+    assertArrayEquals(new String[] { "baked" }, bakedLaunchPlan.getRemainingCommandLineArguments());
+    assertTrue(bakedLaunchPlan.isIndexBeanArchives());
+    assertFalse(bakedLaunchPlan.isRecordClassLoadOrder());
+
+    final BakedLaunchPlan overriddenLaunchPlan = BakedLaunchPlan.read(moved, new String[] { "run" });
+    assertArrayEquals(new String[] { "run" }, overriddenLaunchPlan.getRemainingCommandLineArguments());
+  }
+
+  public static final class Frobnicator {
+
+  }
+
+}
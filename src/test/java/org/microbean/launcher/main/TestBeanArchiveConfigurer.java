@@ -0,0 +1,233 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher.main;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.net.JarURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import java.nio.charset.StandardCharsets;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A <a href="http://junit.org/junit4/">JUnit</a> test class that
+ * exercises the {@link BeanArchiveConfigurer} class by comparing
+ * what it configures with what discovery finds through the same
+ * {@link ClassLoader}.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see BeanArchiveConfigurer
+ */
+public class TestBeanArchiveConfigurer {
+
+  private static final String ALL = "<beans xmlns=\"http://xmlns.jcp.org/xml/ns/javaee\" bean-discovery-mode=\"all\"/>";
+
+  private static final String ANNOTATED = "<beans xmlns=\"http://xmlns.jcp.org/xml/ns/javaee\" bean-discovery-mode=\"annotated\"/>";
+
+  private static final String INTERCEPTING =
+    "<beans xmlns=\"http://xmlns.jcp.org/xml/ns/javaee\" bean-discovery-mode=\"all\">" +
+    "<interceptors><class>" + Gamma.class.getName() + "</class></interceptors>" +
+    "</beans>";
+
+  /**
+   * Creates a new {@link TestBeanArchiveConfigurer}.
+   */
+  public TestBeanArchiveConfigurer() {
+    super();
+  }
+
+  @Test
+  public void testConfigurationMatchesDiscovery() throws IOException {
+    final Path directory = Files.createTempDirectory("beans");
+    final Path all = newJar(directory.resolve("all.jar"), ALL, Alpha.class);
+    final Path annotated = newJar(directory.resolve("annotated.jar"), ANNOTATED, Beta.class, Gamma.class);
+    final Path plain = newJar(directory.resolve("plain.jar"), null, Delta.class);
+    final Path parentArchive = newJar(directory.resolve("parent.jar"), ALL, Epsilon.class);
+    try (final URLClassLoader parent = newClassLoader(null, parentArchive);
+         final URLClassLoader loader = newClassLoader(parent, all, annotated, plain)) {
+      final SimpleContainerInitializer initializer = new SimpleContainerInitializer();
+      // Only the application's own jars are supplied; the parent's
+      // bean archive is found the way discovery finds it.
+      assertTrue(BeanArchiveConfigurer.configure(initializer, loader, uris(all, annotated, plain), directory.resolve("cache")));
+      assertTrue(initializer.discoveryDisabled);
+      assertEquals(discover(loader), initializer.beanClasses);
+      assertEquals(new HashSet<>(Arrays.asList(Alpha.class.getName(), Beta.class.getName(), Epsilon.class.getName())), initializer.beanClasses);
+    }
+
+    // A bean archive that is not visible to the ClassLoader is not
+    // discovered, even if it is on the supplied classpath.
+    try (final URLClassLoader loader = newClassLoader(null, all)) {
+      final SimpleContainerInitializer initializer = new SimpleContainerInitializer();
+      assertTrue(BeanArchiveConfigurer.configure(initializer, loader, uris(all, parentArchive), directory.resolve("cache")));
+      assertEquals(discover(loader), initializer.beanClasses);
+      assertEquals(Collections.singleton(Alpha.class.getName()), initializer.beanClasses);
+    }
+  }
+
+  @Test
+  public void testEnablement() throws IOException {
+    final Path directory = Files.createTempDirectory("beans");
+    final Path intercepting = newJar(directory.resolve("intercepting.jar"), INTERCEPTING, Alpha.class, Gamma.class);
+    final Path all = newJar(directory.resolve("all.jar"), ALL, Beta.class);
+
+    // The only bean archive may enable interceptors for itself.
+    try (final URLClassLoader loader = newClassLoader(null, intercepting)) {
+      final SimpleContainerInitializer initializer = new SimpleContainerInitializer();
+      assertTrue(BeanArchiveConfigurer.configure(initializer, loader, uris(intercepting), directory.resolve("cache")));
+      assertEquals(Collections.singleton(Gamma.class.getName()), initializer.interceptors);
+    }
+
+    // With another bean archive, the enablement would leak into it.
+    try (final URLClassLoader loader = newClassLoader(null, intercepting, all)) {
+      final SimpleContainerInitializer initializer = new SimpleContainerInitializer();
+      assertFalse(BeanArchiveConfigurer.configure(initializer, loader, uris(intercepting, all), directory.resolve("cache")));
+      assertFalse(initializer.discoveryDisabled);
+      assertTrue(initializer.beanClasses.isEmpty());
+    }
+  }
+
+  private static final Set<String> discover(final ClassLoader loader) throws IOException {
+    // Discovery as the container performs it: every bean archive
+    // visible to the ClassLoader, with bean-discovery-mode="all"
+    // contributing all of its classes and "annotated" only those
+    // bearing a bean defining annotation.  The annotations are read
+    // from the test's own copies of the classes, since the isolated
+    // ClassLoader cannot see the CDI API.
+    final Set<String> returnValue = new HashSet<>();
+    final Enumeration<URL> beansXmls = loader.getResources("META-INF/beans.xml");
+    while (beansXmls.hasMoreElements()) {
+      final JarURLConnection connection = (JarURLConnection)beansXmls.nextElement().openConnection();
+      connection.setUseCaches(false);
+      try (final JarFile jarFile = connection.getJarFile()) {
+        final boolean annotated;
+        try (final InputStream in = jarFile.getInputStream(jarFile.getEntry("META-INF/beans.xml"))) {
+          annotated = new String(readAll(in), StandardCharsets.UTF_8).contains("\"annotated\"");
+        }
+        final Enumeration<JarEntry> entries = jarFile.entries();
+        while (entries.hasMoreElements()) {
+          final String name = entries.nextElement().getName();
+          if (name.endsWith(".class")) {
+            final String className = name.substring(0, name.length() - ".class".length()).replace('/', '.');
+            if (!annotated || Class.forName(className, false, TestBeanArchiveConfigurer.class.getClassLoader()).isAnnotationPresent(ApplicationScoped.class)) {
+              returnValue.add(className);
+            }
+          }
+        }
+      } catch (final ClassNotFoundException classNotFoundException) {
+        throw new IOException(classNotFoundException.getMessage(), classNotFoundException);
+      }
+    }
+    return returnValue;
+  }
+
+  private static final URLClassLoader newClassLoader(final ClassLoader parent, final Path... jars) throws IOException {
+    final URL[] urls = new URL[jars.length];
+    for (int i = 0; i < jars.length; i++) {
+      urls[i] = jars[i].toUri().toURL();
+    }
+    return new URLClassLoader(urls, parent);
+  }
+
+  private static final List<URI> uris(final Path... jars) {
+    final List<URI> returnValue = new ArrayList<>(jars.length);
+    for (final Path jar : jars) {
+      returnValue.add(jar.toUri());
+    }
+    return returnValue;
+  }
+
+  private static final Path newJar(final Path jar, final String beansXml, final Class<?>... classes) throws IOException {
+    try (final JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+      if (beansXml != null) {
+        out.putNextEntry(new JarEntry("META-INF/beans.xml"));
+        out.write(beansXml.getBytes(StandardCharsets.UTF_8));
+        out.closeEntry();
+      }
+      for (final Class<?> c : classes) {
+        final String name = c.getName().replace('.', '/') + ".class";
+        out.putNextEntry(new JarEntry(name));
+        try (final InputStream in = TestBeanArchiveConfigurer.class.getClassLoader().getResourceAsStream(name)) {
+          out.write(readAll(in));
+        }
+        out.closeEntry();
+      }
+    }
+    return jar;
+  }
+
+  private static final byte[] readAll(final InputStream in) throws IOException {
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    final byte[] buffer = new byte[4096];
+    int bytesRead;
+    while ((bytesRead = in.read(buffer)) >= 0) {
+      bytes.write(buffer, 0, bytesRead);
+    }
+    return bytes.toByteArray();
+  }
+
+  public static final class Alpha {
+
+  }
+
+  @ApplicationScoped
+  public static class Beta {
+
+  }
+
+  public static final class Gamma {
+
+  }
+
+  @ApplicationScoped
+  public static class Delta {
+
+  }
+
+  public static final class Epsilon {
+
+  }
+
+}
@@ -0,0 +1,169 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher.main;
+
+import java.io.IOException;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A <a href="http://junit.org/junit4/">JUnit</a> test class that
+ * exercises the {@link ClasspathWarmer} class against generated jar
+ * files.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ClasspathWarmer
+ */
+public class TestClasspathWarmer {
+
+  /**
+   * Creates a new {@link TestClasspathWarmer}.
+   */
+  public TestClasspathWarmer() {
+    super();
+  }
+
+  @Test
+  public void testJars() throws IOException {
+    // Only the end of a plain jar is read; all of a bean archive is.
+    assertPartiallyRead(newJar(10, false, null));
+    assertFullyRead(newJar(10, true, null));
+  }
+
+  @Test
+  public void testLargeCentralDirectory() throws IOException {
+    // The central directory spans several buffers, and beans.xml is
+    // its last entry.
+    assertPartiallyRead(newJar(5000, false, null));
+    assertFullyRead(newJar(5000, true, null));
+  }
+
+  @Test
+  public void testZip64() throws IOException {
+    // More than 65535 entries need a zip64 end of central directory
+    // record.
+    final Path jar = newJar(70000, true, null);
+    final byte[] bytes = Files.readAllBytes(jar);
+    final ByteBuffer end = ByteBuffer.wrap(bytes, bytes.length - 22, 22).slice().order(ByteOrder.LITTLE_ENDIAN);
+    assertEquals(0xFFFF, end.getShort(10) & 0xFFFF);
+    assertFullyRead(jar);
+    assertPartiallyRead(newJar(70000, false, null));
+  }
+
+  @Test
+  public void testComments() throws IOException {
+    // A comment that contains an end of central directory signature
+    // must not be mistaken for the real record.
+    final char[] fakeRecord = new char[23];
+    fakeRecord[0] = 'P';
+    fakeRecord[1] = 'K';
+    fakeRecord[2] = 5;
+    fakeRecord[3] = 6;
+    fakeRecord[22] = 'x';
+    assertFullyRead(newJar(10, true, new String(fakeRecord)));
+
+    // The longest possible comment still leaves the real record
+    // within reach.
+    final char[] longestComment = new char[0xFFFF];
+    Arrays.fill(longestComment, 'x');
+    assertPartiallyRead(newJar(10, false, new String(longestComment)));
+    assertFullyRead(newJar(10, true, new String(longestComment)));
+  }
+
+  @Test
+  public void testMalformedJars() throws IOException {
+    final Path directory = Files.createTempDirectory("warmer");
+
+    final Path empty = Files.createFile(directory.resolve("empty.jar"));
+    assertEquals(0L, warm(empty));
+
+    final byte[] bytes = Files.readAllBytes(newJar(10, true, null));
+    final Path truncated = Files.write(directory.resolve("truncated.jar"), Arrays.copyOf(bytes, bytes.length / 2));
+    assertFullyRead(truncated);
+
+    final byte[] randomBytes = new byte[200000];
+    new Random(42L).nextBytes(randomBytes);
+    assertFullyRead(Files.write(directory.resolve("random.jar"), randomBytes));
+
+    // An end of central directory record whose central directory
+    // lies beyond it.
+    final ByteBuffer bogus = ByteBuffer.allocate(1000).order(ByteOrder.LITTLE_ENDIAN);
+    bogus.position(1000 - 22);
+    bogus.putInt(0x06054b50).putShort((short)0).putShort((short)0).putShort((short)1).putShort((short)1).putInt(100).putInt(950).putShort((short)0);
+    assertFullyRead(Files.write(directory.resolve("bogus.jar"), bogus.array()));
+
+    // A central directory whose headers are garbage.
+    bogus.putInt(1000 - 22 + 12, 100).putInt(1000 - 22 + 16, 0);
+    assertFullyRead(Files.write(directory.resolve("garbage.jar"), bogus.array()));
+  }
+
+  private static final void assertFullyRead(final Path jar) throws IOException {
+    final long bytesRead = warm(jar);
+    assertTrue(bytesRead + " < " + Files.size(jar), bytesRead >= Files.size(jar));
+  }
+
+  private static final void assertPartiallyRead(final Path jar) throws IOException {
+    final long bytesRead = warm(jar);
+    assertTrue(bytesRead + " >= " + Files.size(jar), bytesRead > 0L && bytesRead < Files.size(jar));
+  }
+
+  private static final long warm(final Path jar) throws IOException {
+    return ClasspathWarmer.warm(jar, ByteBuffer.allocate(128 * 1024).order(ByteOrder.LITTLE_ENDIAN));
+  }
+
+  private static final Path newJar(final int entries, final boolean beanArchive, final String comment) throws IOException {
+    final Path jar = Files.createTempFile("warmer", ".jar");
+    final Random random = new Random(entries);
+    // Incompressible class files, so that the jar file is much larger
+    // than its central directory.
+    final byte[] classFile = new byte[Math.max(64, 200000 / entries)];
+    try (final ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(jar))) {
+      for (int i = 0; i < entries; i++) {
+        out.putNextEntry(new ZipEntry("com/foobar/frobnicator/Frobnicator" + i + ".class"));
+        random.nextBytes(classFile);
+        out.write(classFile);
+        out.closeEntry();
+      }
+      if (beanArchive) {
+        out.putNextEntry(new ZipEntry("META-INF/beans.xml"));
+        out.closeEntry();
+      }
+      if (comment != null) {
+        out.setComment(comment);
+      }
+    }
+    return jar;
+  }
+
+}
@@ -0,0 +1,184 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher.main;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import java.net.URI;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.Test;
+
+import org.microbean.launcher.ClassLoadOrders;
+import org.microbean.launcher.LaunchPlan;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A <a href="http://junit.org/junit4/">JUnit</a> test class that
+ * exercises the {@link ForkedLaunchPlan} class.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see ForkedLaunchPlan
+ */
+public class TestForkedLaunchPlan {
+
+  /**
+   * Creates a new {@link TestForkedLaunchPlan}.
+   */
+  public TestForkedLaunchPlan() {
+    super();
+  }
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    final Path cacheDirectory = Paths.get("/cache");
+    final Set<URI> classpath = new LinkedHashSet<>(Arrays.asList(URI.create("file:/b.jar"), URI.create("file:/a.jar")));
+    final LaunchPlan launchPlan =
+      new SimpleLaunchPlan(cacheDirectory, classpath, new String[] { "--port", "8080" }, "warmClasspath", "watch", "replayClassLoadOrder")
+      .addApplication("web", Collections.singleton(URI.create("file:/web.jar")), "--verbose")
+      .addApplication("batch", Collections.singleton(URI.create("file:/batch.jar")));
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (final DataOutputStream out = new DataOutputStream(bytes)) {
+      ForkedLaunchPlan.write(launchPlan, cacheDirectory, out);
+    }
+    final ForkedLaunchPlan forkedLaunchPlan = ForkedLaunchPlan.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    assertEquals(cacheDirectory, forkedLaunchPlan.getCacheDirectory());
+    assertEquals(Arrays.asList(classpath.toArray()), Arrays.asList(forkedLaunchPlan.getClasspath().toArray()));
+    assertArrayEquals(new String[] { "--port", "8080" }, forkedLaunchPlan.getRemainingCommandLineArguments());
+    assertTrue(forkedLaunchPlan.isWarmClasspath());
+    assertTrue(forkedLaunchPlan.isWatch());
+    assertTrue(forkedLaunchPlan.isReplayClassLoadOrder());
+    assertFalse(forkedLaunchPlan.isIndexBeanArchives());
+    assertFalse(forkedLaunchPlan.isCacheProxyClasses());
+    assertFalse(forkedLaunchPlan.isRecordClassLoadOrder());
+    assertEquals(Arrays.asList("web", "batch"), Arrays.asList(forkedLaunchPlan.getApplicationNames().toArray()));
+    assertEquals(Collections.singleton(URI.create("file:/web.jar")), forkedLaunchPlan.getClasspath("web"));
+    assertArrayEquals(new String[] { "--verbose" }, forkedLaunchPlan.getRemainingCommandLineArguments("web"));
+    assertArrayEquals(new String[0], forkedLaunchPlan.getRemainingCommandLineArguments("batch"));
+  }
+
+  @Test
+  public void testClassLoadOrder() throws IOException {
+    final Path cacheDirectory = Files.createTempDirectory("cache");
+    final Set<URI> classpath = Collections.singleton(URI.create("file:/a.jar"));
+    final List<String> classNames = Arrays.asList("com.foobar.Frobnicator", "com.foobar.Caturgiator");
+    // A class load order recorded the way ClasspathExporter records
+    // it is the one a forked launch replays.
+    ClassLoadOrders.inCacheDirectory(cacheDirectory).store(classpath, classNames);
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (final DataOutputStream out = new DataOutputStream(bytes)) {
+      ForkedLaunchPlan.write(new SimpleLaunchPlan(cacheDirectory, classpath, new String[0], "replayClassLoadOrder"), cacheDirectory, out);
+    }
+    final ForkedLaunchPlan forkedLaunchPlan = ForkedLaunchPlan.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+    assertEquals(classNames, forkedLaunchPlan.getClassLoadOrder(classpath));
+  }
+
+  @Test
+  public void testJvmArguments() {
+    final Properties systemProperties = new Properties();
+    systemProperties.setProperty("https.proxyHost", "proxy.example.com");
+    systemProperties.setProperty("javax.net.ssl.trustStore", "/truststore");
+    systemProperties.setProperty("maven.repo.local", "/repository");
+    systemProperties.setProperty("user.home", "/home");
+    final List<String> jvmArguments =
+      ForkedLaunchPlan.getJvmArguments(Arrays.asList("-Xmx64m",
+                                                     "-javaagent:/agent.jar",
+                                                     "-agentlib:jdwp=transport=dt_socket,server=y,address=5005",
+                                                     "-Xdebug",
+                                                     "-Xrunjdwp:transport=dt_socket",
+                                                     "-Dcom.sun.management.jmxremote.port=9010",
+                                                     "-Dfoo=bar"),
+                                       systemProperties);
+    assertEquals(Arrays.asList("-Xmx64m", "-Dfoo=bar"), jvmArguments.subList(0, 2));
+    assertEquals(new HashSet<>(Arrays.asList("-Dhttps.proxyHost=proxy.example.com",
+                                             "-Djavax.net.ssl.trustStore=/truststore",
+                                             "-Dmaven.repo.local=/repository")),
+                 new HashSet<>(jvmArguments.subList(2, jvmArguments.size())));
+  }
+
+  @Test(timeout = 60000L)
+  public void testResolve() {
+    final String proxyHost = System.getProperty("https.proxyHost");
+    System.setProperty("https.proxyHost", "proxy.example.com");
+    try {
+      final LaunchPlan launchPlan = ForkedLaunchPlan.resolve(FakeResolverProcess.class.getName(), new String[] { "--port", "8080" });
+      // The child saw its arguments, a programmatically set
+      // networking property, and an empty standard input.
+      assertArrayEquals(new String[] { "--port", "8080", "proxy.example.com", "-1" }, launchPlan.getRemainingCommandLineArguments());
+    } finally {
+      if (proxyHost == null) {
+        System.clearProperty("https.proxyHost");
+      } else {
+        System.setProperty("https.proxyHost", proxyHost);
+      }
+    }
+  }
+
+  @Test(timeout = 60000L, expected = IllegalStateException.class)
+  public void testResolveFailure() {
+    ForkedLaunchPlan.resolve(FakeResolverProcess.class.getName(), new String[] { "fail" });
+  }
+
+  /**
+   * A stand-in for {@link ResolverProcess} that echoes what it was
+   * given back as its launch plan's remaining command line
+   * arguments.
+   */
+  public static final class FakeResolverProcess {
+
+    private FakeResolverProcess() {
+      super();
+    }
+
+    public static final void main(final String[] commandLineArguments) throws IOException {
+      if (Arrays.asList(commandLineArguments).contains("fail")) {
+        System.exit(1);
+      }
+      final String[] remainingCommandLineArguments = Arrays.copyOf(commandLineArguments, commandLineArguments.length + 2);
+      remainingCommandLineArguments[commandLineArguments.length] = System.getProperty("https.proxyHost");
+      remainingCommandLineArguments[commandLineArguments.length + 1] = String.valueOf(System.in.read());
+      final Path cacheDirectory = Paths.get("cache");
+      final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(System.out));
+      ForkedLaunchPlan.write(new SimpleLaunchPlan(cacheDirectory, Collections.emptySet(), remainingCommandLineArguments), cacheDirectory, out);
+      out.flush();
+    }
+
+  }
+
+}
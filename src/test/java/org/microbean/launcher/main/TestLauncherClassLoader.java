@@ -0,0 +1,162 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher.main;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import java.net.URI;
+import java.net.URL;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import java.util.concurrent.TimeUnit;
+
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import org.junit.Test;
+
+import org.microbean.launcher.ClassLoadOrders;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A <a href="http://junit.org/junit4/">JUnit</a> test class that
+ * exercises the {@link LauncherClassLoader} class by recording a
+ * class load order, storing it in a {@link ClassLoadOrders}, and
+ * replaying it into a fresh {@link LauncherClassLoader}.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see LauncherClassLoader
+ */
+public class TestLauncherClassLoader {
+
+  /**
+   * Creates a new {@link TestLauncherClassLoader}.
+   */
+  public TestLauncherClassLoader() {
+    super();
+  }
+
+  @Test(timeout = 60000L)
+  public void testRecordAndReplay() throws Exception {
+    final Path directory = Files.createTempDirectory("classes");
+    final Path jar = newJar(directory.resolve("frobnicator-1.0.jar"), Alpha.class, Beta.class, Gamma.class);
+    final Set<URI> classpath = Collections.singleton(jar.toUri());
+    final URL[] urls = new URL[] { jar.toUri().toURL() };
+
+    // Record.
+    final List<String> recordedClassNames;
+    try (final LauncherClassLoader loader = new LauncherClassLoader(urls, null, true, null)) {
+      Class.forName(Beta.class.getName(), false, loader);
+      Class.forName(Alpha.class.getName(), false, loader);
+      recordedClassNames = loader.stopRecording();
+      // Classes defined after recording stops are not recorded.
+      Class.forName(Gamma.class.getName(), false, loader);
+    }
+    assertEquals(Arrays.asList(Beta.class.getName(), Alpha.class.getName()), recordedClassNames);
+
+    final ClassLoadOrders classLoadOrders = new ClassLoadOrders(directory.resolve("cache"));
+    classLoadOrders.store(classpath, recordedClassNames);
+    final List<String> classNames = new ArrayList<>(classLoadOrders.load(classpath));
+    assertEquals(recordedClassNames, classNames);
+    // A class that has since disappeared from the classpath.
+    classNames.add("com.foobar.Missing");
+
+    // Replay into a fresh loader, which records what it found.
+    try (final LauncherClassLoader loader = new LauncherClassLoader(urls, null, true, null)) {
+      assertTrue(loader.preload(classNames).await(30L, TimeUnit.SECONDS));
+      assertEquals(new HashSet<>(recordedClassNames), new HashSet<>(loader.stopRecording()));
+      // The preloaded classes are the ones the application then
+      // gets, defined by the launcher's loader and not by the test's.
+      final Class<?> alpha = Class.forName(Alpha.class.getName(), false, loader);
+      assertSame(loader, alpha.getClassLoader());
+      assertTrue(alpha != Alpha.class);
+    }
+
+    try (final LauncherClassLoader loader = new LauncherClassLoader(urls, null, false, null)) {
+      assertTrue(loader.preload(null).await(0L, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  public void testParallelCapable() throws Exception {
+    try (final LauncherClassLoader loader = new LauncherClassLoader(new URL[0], null, false, null)) {
+      Method isRegisteredAsParallelCapable = null;
+      try {
+        isRegisteredAsParallelCapable = ClassLoader.class.getMethod("isRegisteredAsParallelCapable");
+      } catch (final NoSuchMethodException noSuchMethodException) {
+        // Java 8, where only the presence of a lock map tells.
+      }
+      if (isRegisteredAsParallelCapable == null) {
+        final Field parallelLockMap = ClassLoader.class.getDeclaredField("parallelLockMap");
+        parallelLockMap.setAccessible(true);
+        assertNotNull(parallelLockMap.get(loader));
+      } else {
+        assertEquals(Boolean.TRUE, isRegisteredAsParallelCapable.invoke(loader));
+      }
+    }
+  }
+
+  private static final Path newJar(final Path jar, final Class<?>... classes) throws IOException {
+    try (final JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+      for (final Class<?> c : classes) {
+        final String name = c.getName().replace('.', '/') + ".class";
+        out.putNextEntry(new JarEntry(name));
+        try (final InputStream in = TestLauncherClassLoader.class.getClassLoader().getResourceAsStream(name)) {
+          final byte[] buffer = new byte[4096];
+          int bytesRead;
+          while ((bytesRead = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, bytesRead);
+          }
+        }
+        out.closeEntry();
+      }
+    }
+    return jar;
+  }
+
+  public static final class Alpha {
+
+  }
+
+  public static final class Beta {
+
+  }
+
+  public static final class Gamma {
+
+  }
+
+}
@@ -0,0 +1,211 @@
+/* -*- mode: Java; c-basic-offset: 2; indent-tabs-mode: nil; coding: utf-8-unix -*-
+ *
+ * Copyright © 2018 microBean.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or
+ * implied.  See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package org.microbean.launcher.main;
+
+import java.io.IOException;
+
+import java.lang.reflect.Proxy;
+
+import java.net.URLClassLoader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import javax.enterprise.inject.se.SeContainer;
+
+import org.junit.Test;
+
+import org.microbean.launcher.LaunchPlan;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A <a href="http://junit.org/junit4/">JUnit</a> test class that
+ * exercises the {@link SnapshotWatcher} class, and the restart loop
+ * in {@link Main} that it drives.
+ *
+ * @author <a href="https://about.me/lairdnelson"
+ * target="_parent">Laird Nelson</a>
+ *
+ * @see SnapshotWatcher
+ */
+public class TestSnapshotWatcher {
+
+  /**
+   * Creates a new {@link TestSnapshotWatcher}.
+   */
+  public TestSnapshotWatcher() {
+    super();
+  }
+
+  @Test
+  public void testIsSnapshot() {
+    assertTrue(SnapshotWatcher.isSnapshot(Paths.get("/repository/com/foobar/frobnicator/1.0-SNAPSHOT/frobnicator-1.0-SNAPSHOT.jar")));
+    assertTrue(SnapshotWatcher.isSnapshot(Paths.get("/repository/com/foobar/frobnicator/1.0-SNAPSHOT/frobnicator-1.0-20180101.120000-1.jar")));
+    assertFalse(SnapshotWatcher.isSnapshot(Paths.get("/repository/com/foobar/frobnicator/1.0/frobnicator-1.0.jar")));
+  }
+
+  @Test(timeout = 60000L)
+  public void testAwait() throws IOException, InterruptedException {
+    final Path directory = Files.createDirectories(Files.createTempDirectory("repository").resolve("frobnicator/1.0-SNAPSHOT"));
+    final Path jar = Files.write(directory.resolve("frobnicator-1.0-SNAPSHOT.jar"), new byte[] { 1 });
+    final Path other = directory.resolve("frobnicator-1.0-SNAPSHOT.pom");
+    try (final SnapshotWatcher watcher = new SnapshotWatcher(Collections.singleton(jar))) {
+      final Thread writer = new Thread(() -> {
+          try {
+            Thread.sleep(200L);
+            Files.write(other, new byte[] { 2 });
+            Files.write(jar, new byte[] { 3 });
+          } catch (final IOException | InterruptedException exception) {
+            throw new IllegalStateException(exception.getMessage(), exception);
+          }
+        });
+      writer.start();
+      final Set<Path> changedFiles = watcher.await(100L);
+      assertEquals(Collections.singleton(jar.toAbsolutePath().normalize()), changedFiles);
+      writer.join();
+    }
+  }
+
+  @Test(timeout = 60000L)
+  public void testRestartLoop() throws Exception {
+    final Path repository = Files.createTempDirectory("repository");
+    final Path snapshot = newJar(Files.createDirectories(repository.resolve("frobnicator/1.0-SNAPSHOT")).resolve("frobnicator-1.0-SNAPSHOT.jar"), "snapshot.txt", 0);
+    final Path release = newJar(Files.createDirectories(repository.resolve("caturgiator/1.0")).resolve("caturgiator-1.0.jar"), "release.txt", 0);
+    final LaunchPlan launchPlan =
+      new SimpleLaunchPlan(repository.resolve("cache"), new LinkedHashSet<>(Arrays.asList(release.toUri(), snapshot.toUri())), new String[0], "watch");
+    final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    final List<SimpleContainerInitializer> initializers = new ArrayList<>();
+    final AtomicInteger closedContainers = new AtomicInteger();
+    final AtomicInteger starts = new AtomicInteger();
+    final Supplier<SeContainer> containers = () -> {
+      if (starts.incrementAndGet() == 2) {
+        // The second start fails; a later change restarts it anyway.
+        rewriteLater(snapshot, 2);
+        throw new IllegalStateException("failed");
+      }
+      return newContainer(closedContainers);
+    };
+    final Consumer<SeContainer> consumer = container -> {
+      final ClassLoader snapshotClassLoader = Thread.currentThread().getContextClassLoader();
+      assertNotNull(snapshotClassLoader.getResource("snapshot.txt"));
+      assertNotNull(snapshotClassLoader.getResource("release.txt"));
+      if (starts.get() == 1) {
+        rewriteLater(snapshot, 1);
+      } else {
+        Thread.currentThread().interrupt();
+      }
+    };
+    try {
+      assertTrue(Main.watch(null,
+                            () -> {
+                              final SimpleContainerInitializer initializer = new SimpleContainerInitializer(containers);
+                              initializers.add(initializer);
+                              return initializer;
+                            },
+                            consumer,
+                            launchPlan,
+                            contextClassLoader));
+    } finally {
+      // The last start ended the loop by interrupting this thread.
+      assertTrue(Thread.interrupted());
+    }
+    assertEquals(3, starts.get());
+    assertEquals(3, initializers.size());
+    assertEquals(2, closedContainers.get());
+    assertSame(contextClassLoader, Thread.currentThread().getContextClassLoader());
+
+    // Each start had its own ClassLoader for the SNAPSHOT artifact,
+    // beneath one retained ClassLoader for the rest; all of them are
+    // closed now.
+    final ClassLoader retainedClassLoader = initializers.get(0).classLoader.getParent();
+    assertSame(contextClassLoader, retainedClassLoader.getParent());
+    final Set<ClassLoader> snapshotClassLoaders = Collections.newSetFromMap(new IdentityHashMap<>());
+    for (final SimpleContainerInitializer initializer : initializers) {
+      assertSame(retainedClassLoader, initializer.classLoader.getParent());
+      snapshotClassLoaders.add(initializer.classLoader);
+      assertNull(((URLClassLoader)initializer.classLoader).findResource("snapshot.txt"));
+    }
+    assertEquals(3, snapshotClassLoaders.size());
+    assertNull(((URLClassLoader)retainedClassLoader).findResource("release.txt"));
+
+    // Without SNAPSHOT artifacts there is nothing to watch.
+    assertFalse(Main.watch(null,
+                           () -> {
+                             throw new AssertionError();
+                           },
+                           null,
+                           new SimpleLaunchPlan(repository.resolve("cache"), Collections.singleton(release.toUri()), new String[0], "watch"),
+                           contextClassLoader));
+  }
+
+  private static final SeContainer newContainer(final AtomicInteger closedContainers) {
+    return (SeContainer)Proxy.newProxyInstance(TestSnapshotWatcher.class.getClassLoader(),
+                                               new Class<?>[] { SeContainer.class },
+                                               (proxy, method, arguments) -> {
+                                                 if (!"close".equals(method.getName())) {
+                                                   throw new UnsupportedOperationException(method.getName());
+                                                 }
+                                                 closedContainers.incrementAndGet();
+                                                 return null;
+                                               });
+  }
+
+  private static final void rewriteLater(final Path jar, final int version) {
+    final Thread writer = new Thread(() -> {
+        try {
+          Thread.sleep(200L);
+          newJar(jar, "snapshot.txt", version);
+        } catch (final IOException | InterruptedException exception) {
+          throw new IllegalStateException(exception.getMessage(), exception);
+        }
+      });
+    writer.start();
+  }
+
+  private static final Path newJar(final Path jar, final String entryName, final int version) throws IOException {
+    try (final JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+      out.putNextEntry(new JarEntry(entryName));
+      out.write(version);
+      out.closeEntry();
+    }
+    return jar;
+  }
+
+}